@@ -13,6 +13,8 @@
 package org.eclipse.nebula.widgets.nattable.blink;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.Serializable;
@@ -109,4 +111,81 @@ public void shouldCleanUpStaleEventsAterTTLExpires() throws Exception {
 
         assertEquals(0, this.cache.getCount());
     }
+
+    @Test
+    public void shouldLookupPrimitiveKeys() throws Exception {
+        assertEquals(UpdateEventsCache.NO_KEY,
+                this.cache.lookupKey(ASK_PRICE, this.bean1.getSecurity_description()));
+
+        this.cache.put(this.testEvent1);
+        long key = this.cache.lookupKey(ASK_PRICE, this.bean1.getSecurity_description());
+        assertNotEquals(UpdateEventsCache.NO_KEY, key);
+        assertTrue(this.cache.isUpdated(key));
+        assertEquals(this.testEvent1, this.cache.getEvent(key));
+
+        // known row id but unknown column property
+        assertEquals(UpdateEventsCache.NO_KEY,
+                this.cache.lookupKey("bid_price", this.bean1.getSecurity_description()));
+        // different rows result in different keys
+        this.cache.put(this.testEvent2);
+        long key2 = this.cache.lookupKey(ASK_PRICE, this.bean2.getSecurity_description());
+        assertNotEquals(key, key2);
+
+        this.cache.remove(key);
+        assertFalse(this.cache.isUpdated(key));
+        assertTrue(this.cache.isUpdated(key2));
+        assertEquals(1, this.cache.getCount());
+        // the row id is released with its last event
+        assertEquals(UpdateEventsCache.NO_KEY,
+                this.cache.lookupKey(ASK_PRICE, this.bean1.getSecurity_description()));
+    }
+
+    @Test
+    public void shouldKeepRetainedKeys() throws Exception {
+        this.cache.put(this.testEvent1);
+        long key = this.cache.lookupKey(ASK_PRICE, this.bean1.getSecurity_description());
+
+        // a blinking cell keeps the key valid after the event was removed
+        this.cache.retain(key);
+        this.cache.remove(key);
+        assertEquals(key, this.cache.lookupKey(ASK_PRICE, this.bean1.getSecurity_description()));
+
+        this.cache.release(key);
+        assertEquals(UpdateEventsCache.NO_KEY,
+                this.cache.lookupKey(ASK_PRICE, this.bean1.getSecurity_description()));
+
+        // the released id is reused for the next row
+        this.cache.put(this.testEvent2);
+        assertEquals(key, this.cache.lookupKey(ASK_PRICE, this.bean2.getSecurity_description()));
+    }
+
+    @Test
+    public void shouldReleaseRowIdsOfExpiredEvents() throws Exception {
+        this.cache.put(this.testEvent1);
+        this.cache.put(this.testEvent2);
+
+        Thread.sleep(UpdateEventsCache.TIME_TO_LIVE + 200);
+
+        assertEquals(0, this.cache.getCount());
+        assertEquals(UpdateEventsCache.NO_KEY,
+                this.cache.lookupKey(ASK_PRICE, this.bean1.getSecurity_description()));
+        assertEquals(UpdateEventsCache.NO_KEY,
+                this.cache.lookupKey(ASK_PRICE, this.bean2.getSecurity_description()));
+    }
+
+    @Test
+    public void shouldLookupStringKeys() throws Exception {
+        this.cache.put(this.testEvent1);
+        String key = this.cache.getKey(this.testEvent1);
+        assertTrue(this.cache.isUpdated(key));
+        assertTrue(this.cache.contains(ASK_PRICE, this.bean1.getSecurity_description()));
+
+        // the mapping is maintained after the first String based access
+        this.cache.put(this.testEvent2);
+        assertEquals(this.testEvent2, this.cache.getEvent(this.cache.getKey(this.testEvent2)));
+
+        this.cache.remove(key);
+        assertFalse(this.cache.isUpdated(key));
+        assertEquals(1, this.cache.getCount());
+    }
 }
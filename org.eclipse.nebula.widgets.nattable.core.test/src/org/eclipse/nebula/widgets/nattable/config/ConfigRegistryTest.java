@@ -13,9 +13,15 @@
 package org.eclipse.nebula.widgets.nattable.config;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
+import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
+import org.eclipse.nebula.widgets.nattable.style.CellStyleAttributes;
+import org.eclipse.nebula.widgets.nattable.style.CellStyleProxy;
 import org.eclipse.nebula.widgets.nattable.style.ConfigAttribute;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.nebula.widgets.nattable.style.HorizontalAlignmentEnum;
+import org.eclipse.nebula.widgets.nattable.style.Style;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -170,4 +176,90 @@ public void registerWithDisplayModeAndMultipleConfigLabels()
                 DisplayMode.NORMAL, "testLabel_1", "testLabel");
         assertEquals("testValueNormalLabel_1", actual);
     }
+
+    @Test
+    public void lookupCacheShouldReturnSameResults() {
+        this.configRegistry.setLookupCacheEnabled(true);
+        this.configRegistry.registerConfigAttribute(this.testAttribute, "normal");
+        this.configRegistry.registerConfigAttribute(this.testAttribute, "selectLabel", DisplayMode.SELECT, "testLabel");
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals("normal", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.SELECT));
+            assertEquals("selectLabel", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.SELECT, "testLabel"));
+            assertEquals("normal", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "testLabel"));
+            assertNull(this.configRegistry.getConfigAttribute(this.testAttribute1, DisplayMode.NORMAL, "testLabel"));
+        }
+    }
+
+    @Test
+    public void lookupCacheShouldBeClearedOnRegistration() {
+        this.configRegistry.setLookupCacheEnabled(true);
+        this.configRegistry.registerConfigAttribute(this.testAttribute, "normal");
+        assertEquals("normal", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "testLabel"));
+
+        this.configRegistry.registerConfigAttribute(this.testAttribute, "label", DisplayMode.NORMAL, "testLabel");
+        assertEquals("label", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "testLabel"));
+
+        this.configRegistry.unregisterConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "testLabel");
+        assertEquals("normal", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "testLabel"));
+    }
+
+    @Test
+    public void lookupCacheShouldNotBeAffectedByLabelModification() {
+        this.configRegistry.setLookupCacheEnabled(true);
+        this.configRegistry.registerConfigAttribute(this.testAttribute, "normal");
+        this.configRegistry.registerConfigAttribute(this.testAttribute, "label", DisplayMode.NORMAL, "testLabel");
+
+        LabelStack labels = new LabelStack("otherLabel");
+        assertEquals("normal", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, labels));
+
+        labels.addLabel("testLabel");
+        assertEquals("label", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, labels));
+        assertEquals("normal", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "otherLabel"));
+    }
+
+    @Test
+    public void lookupCacheShouldEvictForManyLabelSets() {
+        this.configRegistry.setLookupCacheEnabled(true);
+        this.configRegistry.registerConfigAttribute(this.testAttribute, "normal");
+        this.configRegistry.registerConfigAttribute(this.testAttribute, "label", DisplayMode.NORMAL, "testLabel");
+
+        assertEquals("label", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "testLabel"));
+        for (int i = 0; i < 50000; i++) {
+            assertEquals("normal", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "row_" + i));
+        }
+        assertEquals("label", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "testLabel"));
+        assertEquals("normal", this.configRegistry.getConfigAttribute(this.testAttribute, DisplayMode.NORMAL, "row_1"));
+    }
+
+    @Test
+    public void lookupCacheShouldResolveStyleAttributes() {
+        this.configRegistry.setLookupCacheEnabled(true);
+
+        Style normalStyle = new Style();
+        normalStyle.setAttributeValue(CellStyleAttributes.HORIZONTAL_ALIGNMENT, HorizontalAlignmentEnum.LEFT);
+        this.configRegistry.registerConfigAttribute(CellConfigAttributes.CELL_STYLE, normalStyle);
+
+        Style labelStyle = new Style();
+        labelStyle.setAttributeValue(CellStyleAttributes.HORIZONTAL_ALIGNMENT, HorizontalAlignmentEnum.RIGHT);
+        this.configRegistry.registerConfigAttribute(CellConfigAttributes.CELL_STYLE, labelStyle, DisplayMode.NORMAL, "testLabel");
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(HorizontalAlignmentEnum.LEFT,
+                    new CellStyleProxy(this.configRegistry, DisplayMode.NORMAL, new LabelStack("otherLabel"))
+                            .getAttributeValue(CellStyleAttributes.HORIZONTAL_ALIGNMENT));
+            assertEquals(HorizontalAlignmentEnum.RIGHT,
+                    new CellStyleProxy(this.configRegistry, DisplayMode.SELECT, new LabelStack("testLabel"))
+                            .getAttributeValue(CellStyleAttributes.HORIZONTAL_ALIGNMENT));
+            assertNull(new CellStyleProxy(this.configRegistry, DisplayMode.NORMAL, new LabelStack("testLabel"))
+                    .getAttributeValue(CellStyleAttributes.VERTICAL_ALIGNMENT));
+        }
+
+        // modification of a registered style is only visible after clearing
+        normalStyle.setAttributeValue(CellStyleAttributes.HORIZONTAL_ALIGNMENT, HorizontalAlignmentEnum.CENTER);
+        this.configRegistry.clearLookupCache();
+        assertEquals(HorizontalAlignmentEnum.CENTER,
+                new CellStyleProxy(this.configRegistry, DisplayMode.NORMAL, new LabelStack("otherLabel"))
+                        .getAttributeValue(CellStyleAttributes.HORIZONTAL_ALIGNMENT));
+    }
 }
@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+
+import org.eclipse.nebula.widgets.nattable.summaryrow.SummationSummaryProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnarDataProviderTest {
+
+    private String[] labels = new String[] { "A", "B", "C" };
+    private double[] prices = new double[] { 1.5, 2.5, 3.5 };
+    private long[] volumes = new long[] { 10, 20, 30 };
+
+    private ColumnarDataProvider dataProvider;
+
+    @Before
+    public void setup() {
+        this.dataProvider = new ColumnarDataProvider(3)
+                .addColumn(this.labels)
+                .addDoubleColumn(this.prices)
+                .addLongColumn(this.volumes);
+    }
+
+    @Test
+    public void testDimensions() {
+        assertEquals(3, this.dataProvider.getColumnCount());
+        assertEquals(3, this.dataProvider.getRowCount());
+    }
+
+    @Test
+    public void testGetDataValue() {
+        assertEquals("B", this.dataProvider.getDataValue(0, 1));
+        assertEquals(Double.valueOf(2.5), this.dataProvider.getDataValue(1, 1));
+        assertEquals(Long.valueOf(20), this.dataProvider.getDataValue(2, 1));
+    }
+
+    @Test
+    public void testPrimitiveAccess() {
+        assertFalse(this.dataProvider.isNumericColumn(0));
+        assertTrue(this.dataProvider.isNumericColumn(1));
+        assertTrue(this.dataProvider.isNumericColumn(2));
+        assertFalse(this.dataProvider.isFloatingPointColumn(0));
+        assertTrue(this.dataProvider.isFloatingPointColumn(1));
+        assertFalse(this.dataProvider.isFloatingPointColumn(2));
+
+        assertEquals(3.5, this.dataProvider.getDouble(1, 2), 0);
+        assertEquals(3, this.dataProvider.getLong(1, 2));
+        assertEquals(30, this.dataProvider.getDouble(2, 2), 0);
+        assertEquals(30, this.dataProvider.getLong(2, 2));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPrimitiveAccessOnNonNumericColumn() {
+        this.dataProvider.getDouble(0, 0);
+    }
+
+    @Test
+    public void testSetDataValue() {
+        this.dataProvider.setDataValue(0, 0, "X");
+        this.dataProvider.setDataValue(1, 0, 7);
+        this.dataProvider.setDataValue(2, 0, 70d);
+
+        assertEquals("X", this.labels[0]);
+        assertEquals(7d, this.prices[0], 0);
+        assertEquals(70, this.volumes[0]);
+
+        this.dataProvider.setDataValue(1, 1, null);
+        assertTrue(Double.isNaN(this.prices[1]));
+        assertNull(this.dataProvider.getDataValue(1, 1));
+    }
+
+    @Test
+    public void testSetNullToDoubleColumn() {
+        this.dataProvider.setDataValue(1, 1, null);
+
+        assertNull(this.dataProvider.getDataValue(1, 1));
+        assertTrue(this.dataProvider.isNull(1, 1));
+        assertFalse(this.dataProvider.isNull(1, 0));
+        assertEquals(0, this.dataProvider.getLong(1, 1));
+        assertTrue(Double.isNaN(this.dataProvider.getDouble(1, 1)));
+        // consumers need to fall back to the object access
+        assertFalse(this.dataProvider.isNumericColumn(1));
+
+        // null values are skipped in non strict mode like for object columns
+        SummationSummaryProvider summaryProvider = new SummationSummaryProvider(this.dataProvider, false);
+        assertEquals(5, ((Number) summaryProvider.summarize(1)).doubleValue(), 0);
+
+        this.dataProvider.setDataValue(1, 1, 2.0);
+        assertEquals(Double.valueOf(2.0), this.dataProvider.getDataValue(1, 1));
+        assertFalse(this.dataProvider.isNull(1, 1));
+        assertTrue(this.dataProvider.isNumericColumn(1));
+    }
+
+    @Test
+    public void testNaNIsNotNull() {
+        this.dataProvider.setDataValue(1, 1, Double.NaN);
+
+        assertEquals(Double.valueOf(Double.NaN), this.dataProvider.getDataValue(1, 1));
+        assertFalse(this.dataProvider.isNull(1, 1));
+        assertTrue(this.dataProvider.isNumericColumn(1));
+    }
+
+    @Test
+    public void testSetNullToDoubleBufferColumn() {
+        ColumnarDataProvider provider = new ColumnarDataProvider(100)
+                .addDoubleColumn(DoubleBuffer.allocate(100));
+
+        provider.setDataValue(0, 70, null);
+        assertNull(provider.getDataValue(0, 70));
+        assertEquals(Double.valueOf(0), provider.getDataValue(0, 6));
+        assertFalse(provider.isNumericColumn(0));
+
+        provider.setDataValue(0, 70, 7.5);
+        assertEquals(Double.valueOf(7.5), provider.getDataValue(0, 70));
+        assertTrue(provider.isNumericColumn(0));
+    }
+
+    @Test
+    public void testSetNullToLongColumn() {
+        this.dataProvider.setDataValue(2, 1, null);
+
+        assertNull(this.dataProvider.getDataValue(2, 1));
+        assertEquals(0, this.dataProvider.getLong(2, 1));
+        assertTrue(Double.isNaN(this.dataProvider.getDouble(2, 1)));
+        assertEquals(Long.valueOf(10), this.dataProvider.getDataValue(2, 0));
+        // consumers need to fall back to the object access
+        assertFalse(this.dataProvider.isNumericColumn(2));
+
+        // null values are skipped in non strict mode like for object columns
+        SummationSummaryProvider summaryProvider = new SummationSummaryProvider(this.dataProvider, false);
+        assertEquals(40, ((Number) summaryProvider.summarize(2)).doubleValue(), 0);
+
+        this.dataProvider.setDataValue(2, 1, 25L);
+        assertEquals(Long.valueOf(25), this.dataProvider.getDataValue(2, 1));
+        assertTrue(this.dataProvider.isNumericColumn(2));
+    }
+
+    @Test
+    public void testSetNullToLongBufferColumn() {
+        ColumnarDataProvider provider = new ColumnarDataProvider(100)
+                .addLongColumn(LongBuffer.allocate(100));
+
+        provider.setDataValue(0, 70, null);
+        provider.setDataValue(0, 70, null);
+        assertNull(provider.getDataValue(0, 70));
+        assertEquals(Long.valueOf(0), provider.getDataValue(0, 6));
+        assertFalse(provider.isNumericColumn(0));
+
+        provider.setDataValue(0, 70, 7);
+        assertEquals(Long.valueOf(7), provider.getDataValue(0, 70));
+        assertTrue(provider.isNumericColumn(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetNonNumericValue() {
+        this.dataProvider.setDataValue(1, 0, "wrong");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testColumnTooShort() {
+        this.dataProvider.addDoubleColumn(new double[2]);
+    }
+
+    @Test
+    public void testDirectBuffers() {
+        DoubleBuffer doubles = ByteBuffer.allocateDirect(3 * Double.BYTES).asDoubleBuffer();
+        LongBuffer longs = ByteBuffer.allocateDirect(3 * Long.BYTES).asLongBuffer();
+        for (int i = 0; i < 3; i++) {
+            doubles.put(i, i * 1.5);
+            longs.put(i, i * 100);
+        }
+
+        ColumnarDataProvider provider = new ColumnarDataProvider(3)
+                .addDoubleColumn(doubles)
+                .addLongColumn(longs);
+
+        assertEquals(Double.valueOf(3.0), provider.getDataValue(0, 2));
+        assertEquals(200, provider.getLong(1, 2));
+
+        provider.setDataValue(0, 0, 9);
+        provider.setDataValue(1, 0, 900L);
+        assertEquals(9d, doubles.get(0), 0);
+        assertEquals(900, longs.get(0));
+    }
+
+    @Test
+    public void testSummationWithPrimitiveAccess() {
+        SummationSummaryProvider summaryProvider = new SummationSummaryProvider(this.dataProvider);
+
+        assertEquals(7.5, ((Number) summaryProvider.summarize(1)).doubleValue(), 0);
+        assertEquals(60, ((Number) summaryProvider.summarize(2)).doubleValue(), 0);
+    }
+}
@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.eclipse.nebula.widgets.nattable.data.FixedWidthBinaryDataProvider.BinaryField;
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultDoubleDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedFileDataProviderTest {
+
+    private Path file;
+
+    @Before
+    public void setup() throws IOException {
+        this.file = Files.createTempFile("nattable", ".data");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    @Test
+    public void testDelimitedWithHeader() throws IOException {
+        Files.write(this.file, "name;value\r\nA;1\r\nB;2\r\n".getBytes(StandardCharsets.UTF_8));
+
+        DelimitedFileDataProvider dataProvider = new DelimitedFileDataProvider(this.file, ';', true);
+
+        assertArrayEquals(new String[] { "name", "value" }, dataProvider.getColumnNames());
+        assertEquals(2, dataProvider.getColumnCount());
+        assertEquals(2, dataProvider.getRowCount());
+        assertEquals("A", dataProvider.getDataValue(0, 0));
+        assertEquals("2", dataProvider.getDataValue(1, 1));
+        dataProvider.close();
+    }
+
+    @Test
+    public void testDelimitedWithoutHeaderAndTrailingLineBreak() throws IOException {
+        Files.write(this.file, "A,1,x\nB,2".getBytes(StandardCharsets.UTF_8));
+
+        DelimitedFileDataProvider dataProvider = new DelimitedFileDataProvider(this.file, ',', false);
+
+        assertNull(dataProvider.getColumnNames());
+        assertEquals(3, dataProvider.getColumnCount());
+        assertEquals(2, dataProvider.getRowCount());
+        assertEquals("B", dataProvider.getDataValue(0, 1));
+        assertEquals("2", dataProvider.getDataValue(1, 1));
+        // missing values
+        assertNull(dataProvider.getDataValue(2, 1));
+        dataProvider.close();
+    }
+
+    @Test
+    public void testDelimitedQuotedValues() throws IOException {
+        Files.write(this.file, "\"a,b\",\"say \"\"hi\"\"\",ä\n".getBytes(StandardCharsets.UTF_8));
+
+        DelimitedFileDataProvider dataProvider = new DelimitedFileDataProvider(this.file, ',', false);
+
+        assertEquals("a,b", dataProvider.getDataValue(0, 0));
+        assertEquals("say \"hi\"", dataProvider.getDataValue(1, 0));
+        assertEquals("ä", dataProvider.getDataValue(2, 0));
+        dataProvider.close();
+    }
+
+    @Test
+    public void testDelimitedManyRows() throws IOException {
+        StringBuilder content = new StringBuilder("index\tsquare\n");
+        for (int i = 0; i < 1000; i++) {
+            content.append(i).append('\t').append(i * i).append('\n');
+        }
+        Files.write(this.file, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        DelimitedFileDataProvider dataProvider = new DelimitedFileDataProvider(this.file, '\t', true, StandardCharsets.UTF_8, 10);
+        assertEquals(1000, dataProvider.getRowCount());
+
+        // access in random order to check the sparse index
+        for (int i : new int[] { 999, 0, 63, 64, 65, 500, 127, 128 }) {
+            assertEquals(String.valueOf(i), dataProvider.getDataValue(0, i));
+            assertEquals(String.valueOf(i * i), dataProvider.getDataValue(1, i));
+        }
+        dataProvider.close();
+    }
+
+    @Test
+    public void testDelimitedColumnConverters() throws IOException {
+        Files.write(this.file, "A,1.5\nB,\n".getBytes(StandardCharsets.UTF_8));
+
+        DelimitedFileDataProvider dataProvider = new DelimitedFileDataProvider(this.file, ',', false);
+        dataProvider.setColumnConverters((IDisplayConverter) null, new DefaultDoubleDisplayConverter(false));
+
+        assertEquals("A", dataProvider.getDataValue(0, 0));
+        assertEquals(Double.valueOf(1.5), dataProvider.getDataValue(1, 0));
+        assertNull(dataProvider.getDataValue(1, 1));
+        dataProvider.close();
+    }
+
+    @Test
+    public void testRowCache() throws IOException {
+        Files.write(this.file, "A\nB\nC\n".getBytes(StandardCharsets.UTF_8));
+
+        DelimitedFileDataProvider dataProvider = new DelimitedFileDataProvider(this.file, ',', false, StandardCharsets.UTF_8, 2);
+
+        Object[] rowA = dataProvider.getRowObject(0);
+        assertSame(rowA, dataProvider.getRowObject(0));
+        assertEquals(0, dataProvider.indexOfRowObject(rowA));
+
+        dataProvider.getRowObject(1);
+        dataProvider.getRowObject(2);
+
+        // evicted from the cache
+        assertEquals(-1, dataProvider.indexOfRowObject(rowA));
+        assertFalse(rowA == dataProvider.getRowObject(0));
+        assertEquals("A", dataProvider.getRowObject(0)[0]);
+        dataProvider.close();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() throws IOException {
+        Files.write(this.file, "A\n".getBytes(StandardCharsets.UTF_8));
+
+        DelimitedFileDataProvider dataProvider = new DelimitedFileDataProvider(this.file, ',', false);
+        dataProvider.setDataValue(0, 0, "B");
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        DelimitedFileDataProvider dataProvider = new DelimitedFileDataProvider(this.file, ',', true);
+
+        assertEquals(0, dataProvider.getRowCount());
+        assertEquals(0, dataProvider.getColumnCount());
+        dataProvider.close();
+    }
+
+    @Test
+    public void testFixedWidthBinary() throws IOException {
+        writeBinary(ByteOrder.BIG_ENDIAN, 0);
+
+        FixedWidthBinaryDataProvider dataProvider = new FixedWidthBinaryDataProvider(this.file,
+                BinaryField.string(4), BinaryField.INT, BinaryField.DOUBLE);
+
+        checkBinary(dataProvider);
+        assertFalse(dataProvider.isFloatingPointColumn(0));
+        assertFalse(dataProvider.isFloatingPointColumn(1));
+        assertTrue(dataProvider.isFloatingPointColumn(2));
+        dataProvider.close();
+    }
+
+    @Test
+    public void testFixedWidthBinaryLittleEndianWithHeader() throws IOException {
+        writeBinary(ByteOrder.LITTLE_ENDIAN, 8);
+
+        FixedWidthBinaryDataProvider dataProvider = new FixedWidthBinaryDataProvider(this.file,
+                8, ByteOrder.LITTLE_ENDIAN, 100,
+                BinaryField.string(4), BinaryField.INT, BinaryField.DOUBLE);
+
+        checkBinary(dataProvider);
+        dataProvider.close();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testFixedWidthBinaryNonNumericColumn() throws IOException {
+        writeBinary(ByteOrder.BIG_ENDIAN, 0);
+
+        FixedWidthBinaryDataProvider dataProvider = new FixedWidthBinaryDataProvider(this.file,
+                BinaryField.string(4), BinaryField.INT, BinaryField.DOUBLE);
+        dataProvider.getDouble(0, 0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testFixedWidthBinaryIncompleteRecord() throws IOException {
+        writeBinary(ByteOrder.BIG_ENDIAN, 0);
+
+        FixedWidthBinaryDataProvider dataProvider = new FixedWidthBinaryDataProvider(this.file,
+                BinaryField.string(4), BinaryField.INT, BinaryField.DOUBLE);
+        // the incomplete record at the end is not a row
+        dataProvider.getLong(1, 3);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testFixedWidthBinaryInvalidColumn() throws IOException {
+        writeBinary(ByteOrder.BIG_ENDIAN, 0);
+
+        FixedWidthBinaryDataProvider dataProvider = new FixedWidthBinaryDataProvider(this.file,
+                BinaryField.string(4), BinaryField.INT);
+        // the double field is not configured
+        dataProvider.getDouble(2, 0);
+    }
+
+    private void writeBinary(ByteOrder byteOrder, int headerLength) throws IOException {
+        // 3 records with 16 bytes and an incomplete record that is ignored
+        ByteBuffer buffer = ByteBuffer.allocate(headerLength + 3 * 16 + 5).order(byteOrder);
+        buffer.position(headerLength);
+        for (int i = 0; i < 3; i++) {
+            buffer.put(("R" + i).getBytes(StandardCharsets.US_ASCII));
+            buffer.put(new byte[2]);
+            buffer.putInt(i * 10);
+            buffer.putDouble(i + 0.5);
+        }
+        Files.write(this.file, buffer.array());
+    }
+
+    private void checkBinary(FixedWidthBinaryDataProvider dataProvider) {
+        assertEquals(3, dataProvider.getColumnCount());
+        assertEquals(3, dataProvider.getRowCount());
+
+        assertEquals("R1", dataProvider.getDataValue(0, 1));
+        assertEquals(Integer.valueOf(20), dataProvider.getDataValue(1, 2));
+        assertEquals(Double.valueOf(2.5), dataProvider.getDataValue(2, 2));
+
+        assertFalse(dataProvider.isNumericColumn(0));
+        assertTrue(dataProvider.isNumericColumn(1));
+        assertEquals(10, dataProvider.getLong(1, 1));
+        assertEquals(1.5, dataProvider.getDouble(2, 1), 0);
+        assertEquals(1, dataProvider.getLong(2, 1));
+    }
+}
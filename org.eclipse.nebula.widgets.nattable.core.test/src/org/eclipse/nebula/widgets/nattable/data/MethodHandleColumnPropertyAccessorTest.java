@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.dataset.fixture.data.RowDataFixture;
+import org.eclipse.nebula.widgets.nattable.dataset.fixture.data.RowDataListFixture;
+import org.junit.Test;
+
+public class MethodHandleColumnPropertyAccessorTest {
+
+    private MethodHandleColumnPropertyAccessor<TestBean> accessor =
+            new MethodHandleColumnPropertyAccessor<>("name", "count", "active", "amount");
+
+    @Test
+    public void testGetterInvocations() {
+        TestBean bean = new TestBean("One", 1, true, 10d);
+
+        assertEquals("One", this.accessor.getDataValue(bean, 0));
+        assertEquals(Integer.valueOf(1), this.accessor.getDataValue(bean, 1));
+        assertEquals(Boolean.TRUE, this.accessor.getDataValue(bean, 2));
+        assertEquals(Double.valueOf(10d), this.accessor.getDataValue(bean, 3));
+    }
+
+    @Test
+    public void testSetterInvocations() {
+        TestBean bean = new TestBean("One", 1, true, 10d);
+
+        this.accessor.setDataValue(bean, 0, "Two");
+        this.accessor.setDataValue(bean, 1, 2);
+        this.accessor.setDataValue(bean, 2, false);
+        this.accessor.setDataValue(bean, 3, 20d);
+
+        assertEquals("Two", this.accessor.getDataValue(bean, 0));
+        assertEquals(Integer.valueOf(2), this.accessor.getDataValue(bean, 1));
+        assertEquals(Boolean.FALSE, this.accessor.getDataValue(bean, 2));
+        assertEquals(Double.valueOf(20d), this.accessor.getDataValue(bean, 3));
+    }
+
+    @Test
+    public void testSetWrongTypeIsIgnored() {
+        TestBean bean = new TestBean("One", 1, true, 10d);
+
+        this.accessor.setDataValue(bean, 1, "wrong");
+
+        assertEquals(Integer.valueOf(1), this.accessor.getDataValue(bean, 1));
+    }
+
+    @Test
+    public void testSubclassAccess() {
+        TestBean bean = new SubBean("Sub", 3, false, 30d);
+
+        assertEquals("One", this.accessor.getDataValue(new TestBean("One", 1, true, 10d), 0));
+        assertEquals("Sub", this.accessor.getDataValue(bean, 0));
+        assertEquals(Integer.valueOf(6), this.accessor.getDataValue(bean, 1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGetterException() {
+        this.accessor.getDataValue(new TestBean(null, 1, true, 10d) {
+            @Override
+            public String getName() {
+                throw new UnsupportedOperationException();
+            }
+        }, 0);
+    }
+
+    @Test
+    public void testGetterInvokedOncePerAccess() {
+        int[] invocations = new int[1];
+        TestBean bean = new TestBean("One", 1, true, 10d) {
+            @Override
+            public String getName() {
+                invocations[0]++;
+                return super.getName();
+            }
+        };
+
+        assertEquals("One", this.accessor.getDataValue(bean, 0));
+        assertEquals(1, invocations[0]);
+        assertEquals("One", this.accessor.getDataValue(bean, 0));
+        assertEquals(2, invocations[0]);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnknownProperty() {
+        new MethodHandleColumnPropertyAccessor<TestBean>("unknown").getDataValue(new TestBean("One", 1, true, 10d), 0);
+    }
+
+    @Test
+    public void testSameValuesAsReflectiveAccessor() {
+        List<RowDataFixture> data = RowDataListFixture.getList();
+        ReflectiveColumnPropertyAccessor<RowDataFixture> reflective =
+                new ReflectiveColumnPropertyAccessor<>(RowDataListFixture.getPropertyNames());
+        MethodHandleColumnPropertyAccessor<RowDataFixture> methodHandle =
+                new MethodHandleColumnPropertyAccessor<>(RowDataListFixture.getPropertyNames());
+
+        for (RowDataFixture row : data) {
+            for (int column = 0; column < reflective.getColumnCount(); column++) {
+                assertEquals(reflective.getDataValue(row, column), methodHandle.getDataValue(row, column));
+            }
+        }
+    }
+
+    public static class TestBean {
+        private String name;
+        private int count;
+        private boolean active;
+        private double amount;
+
+        public TestBean(String name, int count, boolean active, double amount) {
+            this.name = name;
+            this.count = count;
+            this.active = active;
+            this.amount = amount;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getCount() {
+            return this.count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public boolean isActive() {
+            return this.active;
+        }
+
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+
+        public double getAmount() {
+            return this.amount;
+        }
+
+        public void setAmount(double amount) {
+            this.amount = amount;
+        }
+    }
+
+    public static class SubBean extends TestBean {
+
+        public SubBean(String name, int count, boolean active, double amount) {
+            super(name, count, active, amount);
+        }
+
+        @Override
+        public int getCount() {
+            return super.getCount() * 2;
+        }
+    }
+}
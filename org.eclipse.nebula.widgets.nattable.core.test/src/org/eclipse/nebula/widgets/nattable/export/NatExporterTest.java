@@ -0,0 +1,373 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.data.ColumnarDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultDoubleDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.export.csv.CsvExporter;
+import org.eclipse.nebula.widgets.nattable.export.excel.DefaultExportFormatter;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ColumnOverrideLabelAccumulator;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.swt.widgets.Shell;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NatExporterTest {
+
+    private DataLayer dataLayer;
+    private ConfigRegistry configRegistry;
+
+    @Before
+    public void setup() {
+        this.dataLayer = new DataLayer(new IDataProvider() {
+
+            @Override
+            public Object getDataValue(int columnIndex, int rowIndex) {
+                return columnIndex + "/" + rowIndex;
+            }
+
+            @Override
+            public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int getColumnCount() {
+                return 3;
+            }
+
+            @Override
+            public int getRowCount() {
+                return 1000;
+            }
+        });
+
+        this.configRegistry = new ConfigRegistry();
+        this.configRegistry.registerConfigAttribute(
+                ExportConfigAttributes.EXPORT_FORMATTER,
+                (IExportFormatter) (cell, configRegistry) -> "[" + cell.getDataValue() + "]",
+                DisplayMode.NORMAL);
+    }
+
+    @Test
+    public void shouldExportSameContentWithPipelinedExport() {
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        NatExporter exporter = new NatExporter(null);
+        exporter.disablePreRendering();
+        exporter.exportSingleLayer(createCsvExporter(sequential), this.dataLayer, this.configRegistry);
+
+        ByteArrayOutputStream pipelined = new ByteArrayOutputStream();
+        exporter = new NatExporter(null);
+        exporter.disablePreRendering();
+        exporter.setPipelinedExport(true);
+        exporter.exportSingleLayer(createCsvExporter(pipelined), this.dataLayer, this.configRegistry);
+
+        String lineSeparator = System.getProperty("line.separator");
+        assertTrue(exporter.exportSucceeded);
+        assertTrue(pipelined.toString().startsWith("[0/0];[1/0];[2/0]" + lineSeparator + "[0/1]"));
+        assertEquals(1000, pipelined.toString().split(lineSeparator).length);
+        assertEquals(sequential.toString(), pipelined.toString());
+    }
+
+    @Test
+    public void shouldFormatInExecutorWithPipelinedExport() {
+        final Set<Thread> formattingThreads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        final Set<Thread> writingThreads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        this.configRegistry.registerConfigAttribute(
+                ExportConfigAttributes.EXPORT_FORMATTER,
+                (IExportFormatter) (cell, configRegistry) -> {
+                    formattingThreads.add(Thread.currentThread());
+                    return cell.getDataValue();
+                },
+                DisplayMode.NORMAL);
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        CsvExporter csvExporter = new CsvExporter(createOutputStreamProvider(content)) {
+            @Override
+            public void exportRowBlock(OutputStream outputStream, ExportRowBlock rowBlock) throws IOException {
+                writingThreads.add(Thread.currentThread());
+                super.exportRowBlock(outputStream, rowBlock);
+            }
+        };
+
+        ExecutorService formattingExecutor = Executors.newSingleThreadExecutor();
+        try {
+            NatExporter exporter = new NatExporter(null);
+            exporter.disablePreRendering();
+            exporter.setPipelinedExport(true);
+            exporter.setFormattingExecutor(formattingExecutor);
+            exporter.exportSingleLayer(csvExporter, this.dataLayer, this.configRegistry);
+
+            assertTrue(exporter.exportSucceeded);
+        } finally {
+            formattingExecutor.shutdown();
+        }
+
+        // without a shell the calling thread is the writer thread
+        assertEquals(Collections.singleton(Thread.currentThread()), writingThreads);
+        assertEquals(1, formattingThreads.size());
+        assertNotSame(Thread.currentThread(), formattingThreads.iterator().next());
+    }
+
+    @Test
+    public void shouldExportSnapshotsToOtherExportersWithPipelinedExport() {
+        RecordingExporter recording = new RecordingExporter();
+        NatExporter exporter = new NatExporter(null);
+        exporter.disablePreRendering();
+        exporter.setPipelinedExport(true);
+        exporter.exportSingleLayer(recording, this.dataLayer, this.configRegistry);
+
+        assertTrue(exporter.exportSucceeded);
+        assertTrue(recording.ended);
+        assertEquals(Collections.singleton(Thread.currentThread()), recording.threads);
+        assertTrue(recording.content.toString().startsWith("0:[0/0],[1/0],[2/0]\n1:[0/1]"));
+        assertEquals(1000, recording.content.toString().split("\n").length);
+    }
+
+    @Test
+    public void shouldSnapshotColumnWidthsWithPipelinedExport() {
+        this.dataLayer.setColumnWidthByPosition(1, 0);
+        final Set<Integer> widths = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+        RecordingExporter recording = new RecordingExporter() {
+            @Override
+            public void exportCell(OutputStream outputStream, Object exportDisplayValue, ILayerCell cell,
+                    IConfigRegistry configRegistry) throws IOException {
+                assertTrue(cell instanceof ExportCell);
+                widths.add(((ExportCell) cell).getColumnWidthByPosition(1));
+                super.exportCell(outputStream, exportDisplayValue, cell, configRegistry);
+            }
+        };
+
+        NatExporter exporter = new NatExporter(null);
+        exporter.disablePreRendering();
+        exporter.setPipelinedExport(true);
+        exporter.exportSingleLayer(recording, this.dataLayer, this.configRegistry);
+
+        assertTrue(exporter.exportSucceeded);
+        assertEquals(Collections.singleton(0), widths);
+    }
+
+    @Test
+    public void shouldSkipZeroWidthColumnsInPipelinedRowBlocks() {
+        this.dataLayer.setColumnWidthByPosition(1, 0);
+
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        NatExporter exporter = new NatExporter(null);
+        exporter.disablePreRendering();
+        exporter.exportSingleLayer(createCsvExporter(sequential), this.dataLayer, this.configRegistry);
+
+        ByteArrayOutputStream pipelined = new ByteArrayOutputStream();
+        exporter = new NatExporter(null);
+        exporter.disablePreRendering();
+        exporter.setPipelinedExport(true);
+        exporter.exportSingleLayer(createCsvExporter(pipelined), this.dataLayer, this.configRegistry);
+
+        String lineSeparator = System.getProperty("line.separator");
+        assertTrue(pipelined.toString().startsWith("[0/0];[2/0]" + lineSeparator));
+        assertEquals(sequential.toString(), pipelined.toString());
+    }
+
+    @Test
+    public void shouldCancelRunningPipelinedExport() {
+        final NatExporter exporter = new NatExporter(null);
+        this.configRegistry.registerConfigAttribute(
+                ExportConfigAttributes.EXPORT_FORMATTER,
+                (IExportFormatter) (cell, configRegistry) -> {
+                    if (cell.getRowPosition() == 500) {
+                        exporter.cancelExport();
+                    }
+                    return cell.getDataValue();
+                },
+                DisplayMode.NORMAL);
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        exporter.disablePreRendering();
+        exporter.setPipelinedExport(true);
+        exporter.exportSingleLayer(createCsvExporter(content), this.dataLayer, this.configRegistry);
+
+        assertFalse(exporter.exportSucceeded);
+        assertFalse(content.toString().contains("0/500"));
+
+        // the next export is not affected by the cancelled one
+        this.configRegistry.registerConfigAttribute(
+                ExportConfigAttributes.EXPORT_FORMATTER,
+                new DefaultExportFormatter(),
+                DisplayMode.NORMAL);
+        exporter.exportSingleLayer(createCsvExporter(new ByteArrayOutputStream()), this.dataLayer, this.configRegistry);
+        assertTrue(exporter.exportSucceeded);
+    }
+
+    @Test
+    public void shouldIgnoreCancelWhileNoExportIsRunning() {
+        RecordingExporter recording = new RecordingExporter();
+        NatExporter exporter = new NatExporter(null);
+        exporter.disablePreRendering();
+        exporter.cancelExport();
+        exporter.exportSingleLayer(recording, this.dataLayer, this.configRegistry);
+
+        assertTrue(exporter.exportSucceeded);
+        assertTrue(recording.ended);
+
+        recording = new RecordingExporter();
+        exporter.setPipelinedExport(true);
+        exporter.cancelExport();
+        exporter.exportSingleLayer(recording, this.dataLayer, this.configRegistry);
+
+        assertTrue(exporter.exportSucceeded);
+        assertTrue(recording.ended);
+    }
+
+    @Test
+    public void shouldExportSameContentViaDataLayer() {
+        int rowCount = ExportRowBlock.DEFAULT_BLOCK_SIZE + 100;
+        String[] names = new String[rowCount];
+        double[] prices = new double[rowCount];
+        long[] volumes = new long[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            names[i] = (i % 10 == 0) ? null : "Name " + i;
+            prices[i] = i * 1.25;
+            volumes[i] = i * 1000L;
+        }
+        DataLayer columnarLayer = new DataLayer(new ColumnarDataProvider(rowCount)
+                .addColumn(names)
+                .addDoubleColumn(prices)
+                .addLongColumn(volumes));
+        ColumnOverrideLabelAccumulator accumulator = new ColumnOverrideLabelAccumulator(columnarLayer);
+        accumulator.registerColumnOverrides(1, "PRICE");
+        columnarLayer.setConfigLabelAccumulator(accumulator);
+
+        ConfigRegistry registry = new ConfigRegistry();
+        registry.registerConfigAttribute(
+                ExportConfigAttributes.EXPORT_FORMATTER,
+                new DefaultExportFormatter(),
+                DisplayMode.NORMAL);
+        registry.registerConfigAttribute(
+                CellConfigAttributes.DISPLAY_CONVERTER,
+                new DefaultDoubleDisplayConverter(),
+                DisplayMode.NORMAL,
+                "PRICE");
+
+        ByteArrayOutputStream cellContent = new ByteArrayOutputStream();
+        NatExporter exporter = new NatExporter(null);
+        exporter.disablePreRendering();
+        exporter.exportSingleLayer(createCsvExporter(cellContent), columnarLayer, registry);
+
+        ByteArrayOutputStream blockContent = new ByteArrayOutputStream();
+        exporter = new NatExporter(null);
+        exporter.exportDataLayer(createCsvExporter(blockContent), columnarLayer, registry);
+
+        String lineSeparator = System.getProperty("line.separator");
+        String csv = blockContent.toString();
+        assertTrue(csv.startsWith(";0.0;0" + lineSeparator + "Name 1;1.25;1000" + lineSeparator));
+        assertEquals(rowCount, csv.split(lineSeparator).length);
+        assertEquals(cellContent.toString(), csv);
+
+        ByteArrayOutputStream reorderedContent = new ByteArrayOutputStream();
+        exporter = new NatExporter(null);
+        exporter.exportDataLayer(createCsvExporter(reorderedContent), columnarLayer, new int[] { 2, 0 }, registry);
+        assertTrue(reorderedContent.toString().startsWith("0;" + lineSeparator + "1000;Name 1" + lineSeparator));
+    }
+
+    private static CsvExporter createCsvExporter(final ByteArrayOutputStream outputStream) {
+        CsvExporter csvExporter = new CsvExporter(createOutputStreamProvider(outputStream));
+        csvExporter.setCharset("UTF-8");
+        return csvExporter;
+    }
+
+    private static IOutputStreamProvider createOutputStreamProvider(final ByteArrayOutputStream outputStream) {
+        return new IOutputStreamProvider() {
+
+            @Override
+            public OutputStream getOutputStream(Shell shell) {
+                return outputStream;
+            }
+
+            @Override
+            public Object getResult() {
+                return null;
+            }
+        };
+    }
+
+    private static class RecordingExporter implements ILayerExporter {
+
+        private final StringBuilder content = new StringBuilder();
+        private final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        private boolean ended = false;
+
+        @Override
+        public OutputStream getOutputStream(Shell shell) {
+            return new ByteArrayOutputStream();
+        }
+
+        @Override
+        public void exportBegin(OutputStream outputStream) throws IOException {
+        }
+
+        @Override
+        public void exportEnd(OutputStream outputStream) throws IOException {
+            this.ended = true;
+        }
+
+        @Override
+        public void exportLayerBegin(OutputStream outputStream, String layerName) throws IOException {
+        }
+
+        @Override
+        public void exportLayerEnd(OutputStream outputStream, String layerName) throws IOException {
+        }
+
+        @Override
+        public void exportRowBegin(OutputStream outputStream, int rowPosition) throws IOException {
+            this.content.append(rowPosition).append(':');
+        }
+
+        @Override
+        public void exportRowEnd(OutputStream outputStream, int rowPosition) throws IOException {
+            this.content.setLength(this.content.length() - 1);
+            this.content.append('\n');
+        }
+
+        @Override
+        public void exportCell(OutputStream outputStream, Object exportDisplayValue, ILayerCell cell,
+                IConfigRegistry configRegistry) throws IOException {
+            this.threads.add(Thread.currentThread());
+            this.content.append(exportDisplayValue).append(',');
+        }
+
+        @Override
+        public Object getResult() {
+            return null;
+        }
+    }
+}
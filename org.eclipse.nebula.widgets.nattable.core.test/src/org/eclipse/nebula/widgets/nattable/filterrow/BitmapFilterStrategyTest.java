@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.filterrow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultIntegerDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.filterrow.config.FilterRowConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BitmapFilterStrategyTest {
+
+    private static final int ROW_COUNT = 40000;
+
+    private Object[][] data;
+    private int[] accessCount;
+    private FilterHideShowLayer filterLayer;
+    private BitmapFilterStrategy<Object> filterStrategy;
+    private Map<Integer, Object> filterMap;
+
+    @Before
+    public void setup() {
+        this.data = new Object[2][ROW_COUNT];
+        for (int i = 0; i < ROW_COUNT; i++) {
+            this.data[0][i] = (i % 2 == 0) ? "even" : "odd";
+            this.data[1][i] = i;
+        }
+        this.accessCount = new int[2];
+
+        IDataProvider dataProvider = new IDataProvider() {
+
+            @Override
+            public Object getDataValue(int columnIndex, int rowIndex) {
+                BitmapFilterStrategyTest.this.accessCount[columnIndex]++;
+                return BitmapFilterStrategyTest.this.data[columnIndex][rowIndex];
+            }
+
+            @Override
+            public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+                BitmapFilterStrategyTest.this.data[columnIndex][rowIndex] = newValue;
+            }
+
+            @Override
+            public int getColumnCount() {
+                return 2;
+            }
+
+            @Override
+            public int getRowCount() {
+                return ROW_COUNT;
+            }
+        };
+
+        ConfigRegistry configRegistry = new ConfigRegistry();
+        configRegistry.registerConfigAttribute(
+                FilterRowConfigAttributes.FILTER_DISPLAY_CONVERTER,
+                new DefaultDisplayConverter());
+        configRegistry.registerConfigAttribute(
+                FilterRowConfigAttributes.TEXT_MATCHING_MODE,
+                TextMatchingMode.CONTAINS);
+        configRegistry.registerConfigAttribute(
+                FilterRowConfigAttributes.TEXT_MATCHING_MODE,
+                TextMatchingMode.REGULAR_EXPRESSION,
+                DisplayMode.NORMAL,
+                FilterRowDataLayer.FILTER_ROW_COLUMN_LABEL_PREFIX + 1);
+        configRegistry.registerConfigAttribute(
+                FilterRowConfigAttributes.FILTER_DISPLAY_CONVERTER,
+                new DefaultIntegerDisplayConverter(),
+                DisplayMode.NORMAL,
+                FilterRowDataLayer.FILTER_ROW_COLUMN_LABEL_PREFIX + 1);
+
+        this.filterLayer = new FilterHideShowLayer(new DataLayer(dataProvider));
+        this.filterStrategy = new BitmapFilterStrategy<>(this.filterLayer, dataProvider, configRegistry);
+        this.filterMap = new HashMap<>();
+    }
+
+    @Test
+    public void shouldFilterByTextAndThreshold() {
+        this.filterMap.put(0, "EVEN");
+        this.filterStrategy.applyFilter(this.filterMap);
+        assertEquals(ROW_COUNT / 2, this.filterLayer.getRowCount());
+
+        this.filterMap.put(1, "< 10");
+        this.filterStrategy.applyFilter(this.filterMap);
+        assertEquals(5, this.filterLayer.getRowCount());
+        assertEquals(8, this.filterLayer.getDataValueByPosition(1, 4));
+
+        this.filterMap.remove(0);
+        this.filterStrategy.applyFilter(this.filterMap);
+        assertEquals(10, this.filterLayer.getRowCount());
+
+        this.filterMap.clear();
+        this.filterStrategy.applyFilter(this.filterMap);
+        assertEquals(ROW_COUNT, this.filterLayer.getRowCount());
+        assertFalse(this.filterLayer.hasHiddenRows());
+    }
+
+    @Test
+    public void shouldOnlyEvaluateChangedColumn() {
+        this.filterMap.put(0, "odd");
+        this.filterMap.put(1, ">= 100");
+        this.filterStrategy.applyFilter(this.filterMap);
+        assertEquals(ROW_COUNT, this.accessCount[0]);
+        assertEquals(ROW_COUNT, this.accessCount[1]);
+
+        this.filterMap.put(1, "> 100");
+        this.filterStrategy.applyFilter(this.filterMap);
+        assertEquals(ROW_COUNT, this.accessCount[0]);
+        assertEquals(2 * ROW_COUNT, this.accessCount[1]);
+        assertEquals((ROW_COUNT - 100) / 2, this.filterLayer.getRowCount());
+    }
+
+    @Test
+    public void shouldMatchCollectionValues() {
+        this.filterMap.put(1, Arrays.asList(1, 2, 3));
+        this.filterStrategy.applyFilter(this.filterMap);
+        assertEquals(3, this.filterLayer.getRowCount());
+        assertTrue(this.filterLayer.isRowIndexHidden(0));
+        assertFalse(this.filterLayer.isRowIndexHidden(2));
+    }
+
+    @Test
+    public void shouldEvaluateParallel() {
+        this.filterMap.put(0, "even");
+        this.filterMap.put(1, "<> 2");
+        this.filterStrategy.applyFilter(this.filterMap);
+        int[] sequential = this.filterLayer.getHiddenRowIndexesArray();
+
+        this.filterStrategy.setParallelEvaluation(true);
+        this.filterStrategy.clearCache();
+        this.filterStrategy.applyFilter(this.filterMap);
+        assertEquals(ROW_COUNT / 2 - 1, this.filterLayer.getRowCount());
+        assertTrue(Arrays.equals(sequential, this.filterLayer.getHiddenRowIndexesArray()));
+    }
+}
@@ -14,21 +14,28 @@
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
 import org.eclipse.nebula.widgets.nattable.data.ListDataProvider;
 import org.eclipse.nebula.widgets.nattable.data.ReflectiveColumnPropertyAccessor;
 import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
 import org.junit.Before;
 import org.junit.Test;
 
 public class FilterRowComboBoxDataProviderTest {
 
     private List<MyRowObject> persons = getObjects();
+    private DataLayer dataLayer;
     private FilterRowComboBoxDataProvider<MyRowObject> provider;
     private IColumnAccessor<MyRowObject> bodyDataColumnAccessor =
             new ReflectiveColumnPropertyAccessor<>(new String[] {
@@ -41,10 +48,10 @@ public class FilterRowComboBoxDataProviderTest {
     @Before
     public void setup() {
 
-        DataLayer dataLayer = new DataLayer(
+        this.dataLayer = new DataLayer(
                 new ListDataProvider<>(this.persons, this.bodyDataColumnAccessor));
 
-        this.provider = new FilterRowComboBoxDataProvider<>(dataLayer, this.persons, this.bodyDataColumnAccessor);
+        this.provider = new FilterRowComboBoxDataProvider<>(this.dataLayer, this.persons, this.bodyDataColumnAccessor);
     }
 
     @Test
@@ -80,6 +87,109 @@ public void shouldCollectUniqueNonComparable() {
         assertNull(values.get(0));
     }
 
+    @Test
+    public void shouldUpdateValuesIncrementallyOnDataUpdate() {
+        assertEquals(3, this.provider.getValues(1, 0).size());
+        List<FilterRowComboUpdateEvent> events = new ArrayList<>();
+        this.provider.addCacheUpdateListener(events::add);
+
+        // one of several Flanders changed, nothing added or removed
+        this.persons.get(17).setLastName("Simpson");
+        this.dataLayer.fireLayerEvent(new CellVisualChangeEvent(this.dataLayer, 1, 17));
+        assertTrue(events.isEmpty());
+
+        this.persons.get(5).setLastName("Van Houten");
+        this.dataLayer.fireLayerEvent(new CellVisualChangeEvent(this.dataLayer, 1, 5));
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).getAddedItems().contains("Van Houten"));
+        assertTrue(events.get(0).getRemovedItems().isEmpty());
+
+        List<?> values = this.provider.getValues(1, 0);
+        assertEquals(4, values.size());
+        assertNull(values.get(0));
+        assertEquals("Van Houten", values.get(3));
+    }
+
+    @Test
+    public void shouldUpdateValuesIncrementallyOnRowChanges() {
+        assertEquals(8, this.provider.getValues(0, 0).size());
+        List<FilterRowComboUpdateEvent> events = new ArrayList<>();
+        this.provider.addCacheUpdateListener(events::add);
+
+        // remove both Tod rows
+        this.persons.remove(24);
+        this.persons.remove(23);
+        this.dataLayer.fireLayerEvent(new RowDeleteEvent(this.dataLayer, new Range(23, 25)));
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).getRemovedItems().contains("Tod"));
+        assertEquals(7, this.provider.getValues(0, 0).size());
+
+        this.persons.add(0, new MyRowObject(26, "Abe", "Simpson", false, new Date(), null));
+        this.dataLayer.fireLayerEvent(new RowInsertEvent(this.dataLayer, 0));
+        assertEquals(2, events.size());
+        assertTrue(events.get(1).getAddedItems().contains("Abe"));
+
+        List<?> values = this.provider.getValues(0, 0);
+        assertEquals(8, values.size());
+        assertEquals("Abe", values.get(0));
+
+        // the index is aligned with the list after the insert
+        this.persons.get(1).setFirstName("Herb");
+        this.dataLayer.fireLayerEvent(new CellVisualChangeEvent(this.dataLayer, 0, 1));
+        assertEquals(3, events.size());
+        assertTrue(events.get(2).getAddedItems().contains("Herb"));
+        assertTrue(events.get(2).getRemovedItems().isEmpty());
+    }
+
+    @Test
+    public void shouldUpdateValuesOnMultipleDeletedRanges() {
+        assertEquals(8, this.provider.getValues(0, 0).size());
+        List<FilterRowComboUpdateEvent> events = new ArrayList<>();
+        this.provider.addCacheUpdateListener(events::add);
+
+        // remove both Lisa rows and the Ned of Waverly Hills in one event
+        this.persons.remove(16);
+        this.persons.remove(15);
+        this.persons.remove(5);
+        this.dataLayer.fireLayerEvent(new RowDeleteEvent(this.dataLayer, Arrays.asList(new Range(5, 6), new Range(15, 17))));
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).getRemovedItems().contains("Lisa"));
+        assertEquals(1, events.get(0).getRemovedItems().size());
+        assertEquals(7, this.provider.getValues(0, 0).size());
+
+        // the index is aligned with the list after the delete
+        this.persons.get(15).setFirstName("Herb");
+        this.dataLayer.fireLayerEvent(new CellVisualChangeEvent(this.dataLayer, 0, 15));
+        assertEquals(2, events.size());
+        assertTrue(events.get(1).getAddedItems().contains("Herb"));
+        assertTrue(events.get(1).getRemovedItems().isEmpty());
+    }
+
+    @Test
+    public void shouldUseOverriddenCollectValues() {
+        FilterRowComboBoxDataProvider<MyRowObject> upperCaseProvider =
+                new FilterRowComboBoxDataProvider<MyRowObject>(this.dataLayer, this.persons, this.bodyDataColumnAccessor) {
+                    @Override
+                    protected List<?> collectValues(int columnIndex) {
+                        List<Object> result = new ArrayList<>();
+                        for (Object value : super.collectValues(columnIndex)) {
+                            result.add((value instanceof String) ? ((String) value).toUpperCase() : value);
+                        }
+                        return result;
+                    }
+
+                    @Override
+                    protected boolean isValueIndexEnabled() {
+                        return false;
+                    }
+                };
+        assertEquals("BART", upperCaseProvider.getValues(0, 0).get(0));
+
+        this.persons.add(new MyRowObject(26, "Abe", "Simpson", false, new Date(), null));
+        this.dataLayer.fireLayerEvent(new RowInsertEvent(this.dataLayer, 25));
+        assertEquals("ABE", upperCaseProvider.getValues(0, 0).get(0));
+    }
+
     private List<MyRowObject> getObjects() {
         List<MyRowObject> result = new ArrayList<>();
 
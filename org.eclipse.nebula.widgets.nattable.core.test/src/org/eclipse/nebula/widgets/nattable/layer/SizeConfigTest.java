@@ -16,6 +16,8 @@
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Random;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -166,4 +168,80 @@ public void testAggregateSizeWithScaling() {
 
         assertTrue("aggregate size of last column is same as cached aggregate size", aggregateSize != cachedAggregateSize);
     }
+
+    @Test
+    public void getAggregateSizeAfterIncrementalResize() {
+        Random random = new Random(42);
+        int[] sizes = new int[500];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = DEFAULT_SIZE;
+        }
+
+        // mix resizes with aggregate calculations to check that the
+        // incrementally updated values match a full calculation
+        for (int i = 0; i < 2000; i++) {
+            int position = random.nextInt(sizes.length);
+            int size = random.nextInt(50);
+            this.sizeConfig.setSize(position, size);
+            sizes[position] = size;
+
+            int check = random.nextInt(sizes.length + 1);
+            int expected = 0;
+            for (int j = 0; j < check; j++) {
+                expected += sizes[j];
+            }
+            assertEquals(expected, this.sizeConfig.getAggregateSize(check));
+        }
+    }
+
+    @Test
+    public void getAggregateSizeWithDefaultSizeByPosition() {
+        this.sizeConfig.setDefaultSize(3, 40);
+        this.sizeConfig.setSize(5, 20);
+
+        assertEquals(300, this.sizeConfig.getAggregateSize(3));
+        assertEquals(340, this.sizeConfig.getAggregateSize(4));
+        assertEquals(460, this.sizeConfig.getAggregateSize(6));
+
+        // configured size takes precedence over the default size by position
+        this.sizeConfig.setSize(3, 10);
+        assertEquals(310, this.sizeConfig.getAggregateSize(4));
+
+        // resize beyond the configured positions
+        this.sizeConfig.setSize(1000, 1);
+        assertEquals(100000 - 90 - 80, this.sizeConfig.getAggregateSize(1000));
+        assertEquals(100001 - 90 - 80, this.sizeConfig.getAggregateSize(1001));
+    }
+
+    @Test
+    public void getPositionByPixel() {
+        assertEquals(-1, this.sizeConfig.getPositionByPixel(-1));
+        assertEquals(0, this.sizeConfig.getPositionByPixel(0));
+        assertEquals(2, this.sizeConfig.getPositionByPixel(250));
+
+        this.sizeConfig.setSize(1, 0);
+        this.sizeConfig.setSize(2, 50);
+
+        assertEquals(0, this.sizeConfig.getPositionByPixel(99));
+        // position 1 has no size and is skipped
+        assertEquals(2, this.sizeConfig.getPositionByPixel(100));
+        assertEquals(2, this.sizeConfig.getPositionByPixel(149));
+        assertEquals(3, this.sizeConfig.getPositionByPixel(150));
+        assertEquals(13, this.sizeConfig.getPositionByPixel(1150));
+    }
+
+    @Test
+    public void getPositionByPixelMatchesAggregateSize() {
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            this.sizeConfig.setSize(random.nextInt(200), 1 + random.nextInt(30));
+        }
+
+        for (int position = 0; position < 220; position++) {
+            int start = this.sizeConfig.getAggregateSize(position);
+            int end = this.sizeConfig.getAggregateSize(position + 1);
+            assertEquals(position, this.sizeConfig.getPositionByPixel(start));
+            assertEquals(position, this.sizeConfig.getPositionByPixel(end - 1));
+        }
+    }
 }
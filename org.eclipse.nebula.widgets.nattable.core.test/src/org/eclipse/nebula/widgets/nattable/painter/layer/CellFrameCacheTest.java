@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.painter.layer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.VisualRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
+import org.eclipse.nebula.widgets.nattable.resize.event.ColumnResizeEvent;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
+import org.eclipse.swt.graphics.Rectangle;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CellFrameCacheTest {
+
+    private int painterLookups;
+    private DataLayerFixture layer;
+    private IConfigRegistry configRegistry;
+    private CellFrameCache cache;
+
+    @Before
+    public void setup() {
+        this.layer = new DataLayerFixture(20, 20, 100, 20) {
+            @Override
+            public ICellPainter getCellPainter(int columnPosition, int rowPosition, ILayerCell cell, IConfigRegistry configRegistry) {
+                CellFrameCacheTest.this.painterLookups++;
+                return null;
+            }
+        };
+        this.configRegistry = new ConfigRegistry();
+        this.cache = new CellFrameCache(this.layer);
+        assertTrue(this.cache.prepare(new Rectangle(0, 0, 10, 10), this.configRegistry));
+    }
+
+    @After
+    public void tearDown() {
+        this.cache.dispose();
+    }
+
+    @Test
+    public void shouldCacheCells() {
+        ILayerCell cell = this.cache.getCell(2, 3);
+        assertSame(cell, this.cache.getCell(2, 3));
+        assertEquals(2, cell.getColumnPosition());
+        assertEquals(3, cell.getRowPosition());
+    }
+
+    @Test
+    public void shouldCacheCellPainter() {
+        ILayerCell cell = this.cache.getCell(2, 3);
+        this.cache.getCellPainter(cell, this.configRegistry);
+        this.cache.getCellPainter(cell, this.configRegistry);
+        assertEquals(1, this.painterLookups);
+    }
+
+    @Test
+    public void shouldNotCacheCellPainterForUnknownCell() {
+        ILayerCell cell = this.layer.getCellByPosition(2, 3);
+        this.cache.getCellPainter(cell, this.configRegistry);
+        this.cache.getCellPainter(cell, this.configRegistry);
+        assertEquals(2, this.painterLookups);
+    }
+
+    @Test
+    public void shouldResolveCellsOutsideCachedArea() {
+        assertNotSame(this.cache.getCell(12, 3), this.cache.getCell(12, 3));
+    }
+
+    @Test
+    public void shouldGrowCachedArea() {
+        ILayerCell cell = this.cache.getCell(2, 3);
+        assertTrue(this.cache.prepare(new Rectangle(5, 5, 10, 10), this.configRegistry));
+        assertSame(cell, this.cache.getCell(2, 3));
+        assertSame(this.cache.getCell(12, 12), this.cache.getCell(12, 12));
+    }
+
+    @Test
+    public void shouldNotCacheTooBigArea() {
+        assertFalse(this.cache.prepare(new Rectangle(0, 0, 1000, 1000), this.configRegistry));
+    }
+
+    @Test
+    public void shouldClearOnConfigRegistryChange() {
+        ILayerCell cell = this.cache.getCell(2, 3);
+        assertTrue(this.cache.prepare(new Rectangle(0, 0, 10, 10), new ConfigRegistry()));
+        assertNotSame(cell, this.cache.getCell(2, 3));
+    }
+
+    @Test
+    public void shouldInvalidateChangedCell() {
+        ILayerCell changed = this.cache.getCell(2, 3);
+        ILayerCell unchanged = this.cache.getCell(3, 3);
+
+        this.layer.fireLayerEvent(new CellVisualChangeEvent(this.layer, 2, 3));
+
+        assertNotSame(changed, this.cache.getCell(2, 3));
+        assertSame(unchanged, this.cache.getCell(3, 3));
+    }
+
+    @Test
+    public void shouldInvalidateAllOnRefresh() {
+        ILayerCell cell = this.cache.getCell(3, 3);
+
+        this.layer.fireLayerEvent(new VisualRefreshEvent(this.layer));
+
+        assertNotSame(cell, this.cache.getCell(3, 3));
+    }
+
+    @Test
+    public void shouldInvalidateShiftedRows() {
+        ILayerCell above = this.cache.getCell(3, 4);
+        ILayerCell below = this.cache.getCell(3, 8);
+
+        this.layer.fireLayerEvent(new RowDeleteEvent(this.layer, 5));
+
+        assertSame(above, this.cache.getCell(3, 4));
+        assertNotSame(below, this.cache.getCell(3, 8));
+    }
+
+    @Test
+    public void shouldInvalidateShiftedColumns() {
+        ILayerCell left = this.cache.getCell(3, 4);
+        ILayerCell right = this.cache.getCell(6, 4);
+
+        this.layer.fireLayerEvent(new ColumnResizeEvent(this.layer, 5));
+
+        assertSame(left, this.cache.getCell(3, 4));
+        assertNotSame(right, this.cache.getCell(6, 4));
+    }
+
+    @Test
+    public void shouldNotReceiveEventsAfterDispose() {
+        this.cache.dispose();
+        assertFalse(this.layer.hasLayerListener(CellFrameCache.class));
+    }
+}
@@ -13,12 +13,14 @@
 package org.eclipse.nebula.widgets.nattable.resize;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
 import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.config.DefaultNatTableStyleConfiguration;
 import org.eclipse.nebula.widgets.nattable.dataset.fixture.data.RowDataListFixture;
+import org.eclipse.nebula.widgets.nattable.grid.command.BackgroundAutoResizeColumnCommandHandler;
 import org.eclipse.nebula.widgets.nattable.grid.command.ClientAreaResizeCommand;
 import org.eclipse.nebula.widgets.nattable.grid.layer.DefaultGridLayer;
 import org.eclipse.nebula.widgets.nattable.grid.layer.GridLayer;
@@ -174,4 +176,39 @@ public void shouldAutoResizeCorrectlyIfMultipleColumnsAreSelected()
         assertEquals(10, gridLayer.getColumnWidthByPosition(2));
         assertTrue(gridLayer.getColumnWidthByPosition(5) > 10);
     }
+
+    @Test
+    public void shouldAutoResizeInBackground() throws Exception {
+        GridLayer gridLayer = new DefaultGridLayer(
+                RowDataListFixture.getList(),
+                RowDataListFixture.getPropertyNames(),
+                RowDataListFixture.getPropertyToLabelMap());
+        setClientAreaProvider(gridLayer);
+
+        SelectionLayer selectionLayer = ((DefaultBodyLayerStack) gridLayer
+                .getBodyLayer()).getSelectionLayer();
+        BackgroundAutoResizeColumnCommandHandler handler =
+                new BackgroundAutoResizeColumnCommandHandler(gridLayer, selectionLayer);
+        gridLayer.registerCommandHandler(handler);
+
+        gridLayer.doCommand(new ColumnResizeCommand(gridLayer, 2, 10));
+        assertEquals(10, gridLayer.getColumnWidthByPosition(2));
+
+        InitializeAutoResizeColumnsCommand command = new InitializeAutoResizeColumnsCommand(
+                gridLayer, 2, this.configRegistry, this.gcFactory);
+        gridLayer.doCommand(command);
+
+        BackgroundAutoResizeJob job = handler.getCurrentJob();
+        long timeout = System.currentTimeMillis() + 10000;
+        while (!job.isDone() && System.currentTimeMillis() < timeout) {
+            if (!Display.getDefault().readAndDispatch()) {
+                Thread.sleep(10);
+            }
+        }
+
+        assertTrue(job.isDone());
+        assertFalse(job.isCancelled());
+        assertEquals(job.getTotalWork(), job.getProcessedWork());
+        assertTrue(gridLayer.getColumnWidthByPosition(2) > 10);
+    }
 }
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.search.strategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.coordinate.PositionCoordinate;
+import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.search.CellValueAsStringComparator;
+import org.eclipse.nebula.widgets.nattable.search.ISearchDirection;
+import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.swt.widgets.Display;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SearchIndexTest {
+
+    private static final int ROW_COUNT = 10000;
+
+    private String[][] values;
+    private IRowDataProvider<Integer> dataProvider;
+    private DataLayer dataLayer;
+    private SelectionLayer selectionLayer;
+    private ConfigRegistry configRegistry;
+    private SearchIndex searchIndex;
+
+    @Before
+    public void setUp() {
+        this.values = new String[3][ROW_COUNT];
+        for (int row = 0; row < ROW_COUNT; row++) {
+            this.values[0][row] = "Row " + row;
+            this.values[1][row] = "value " + (row % 100);
+            this.values[2][row] = "Text";
+        }
+        this.values[2][8000] = "The Needle in a haystack";
+
+        this.dataProvider = new IRowDataProvider<Integer>() {
+
+            @Override
+            public Object getDataValue(int columnIndex, int rowIndex) {
+                return SearchIndexTest.this.values[columnIndex][rowIndex];
+            }
+
+            @Override
+            public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+                SearchIndexTest.this.values[columnIndex][rowIndex] = (String) newValue;
+            }
+
+            @Override
+            public int getColumnCount() {
+                return 3;
+            }
+
+            @Override
+            public int getRowCount() {
+                return ROW_COUNT;
+            }
+
+            @Override
+            public Integer getRowObject(int rowIndex) {
+                return rowIndex;
+            }
+
+            @Override
+            public int indexOfRowObject(Integer rowObject) {
+                return rowObject;
+            }
+        };
+        this.dataLayer = new DataLayer(this.dataProvider);
+        this.selectionLayer = new SelectionLayer(this.dataLayer, false);
+
+        this.configRegistry = new ConfigRegistry();
+        this.configRegistry.registerConfigAttribute(
+                CellConfigAttributes.DISPLAY_CONVERTER,
+                new DefaultDisplayConverter(),
+                DisplayMode.NORMAL);
+
+        this.searchIndex = new SearchIndex(this.selectionLayer, this.configRegistry, this.dataProvider);
+        awaitIndex();
+    }
+
+    @After
+    public void tearDown() {
+        this.searchIndex.dispose();
+    }
+
+    private void awaitIndex() {
+        // the cells are read via asyncExec if the test runs in the UI thread
+        Display display = Display.getCurrent();
+        long end = System.currentTimeMillis() + 10000;
+        while (!this.searchIndex.isReady() && System.currentTimeMillis() < end) {
+            if (display == null || !display.readAndDispatch()) {
+                Thread.yield();
+            }
+        }
+        assertTrue(this.searchIndex.isReady());
+    }
+
+    private PositionCoordinate search(String value, boolean wholeWord, boolean caseSensitive, boolean useIndex) {
+        GridSearchStrategy strategy = new GridSearchStrategy(this.configRegistry, true, ISearchDirection.SEARCH_FORWARD, false);
+        strategy.setContextLayer(this.selectionLayer);
+        strategy.setComparator(new CellValueAsStringComparator<>());
+        strategy.setWholeWord(wholeWord);
+        strategy.setCaseSensitive(caseSensitive);
+        if (useIndex) {
+            strategy.setSearchIndex(this.searchIndex);
+        }
+        return strategy.executeSearch(value);
+    }
+
+    private void assertSameResult(String value, boolean wholeWord, boolean caseSensitive) {
+        PositionCoordinate expected = search(value, wholeWord, caseSensitive, false);
+        PositionCoordinate result = search(value, wholeWord, caseSensitive, true);
+        if (expected == null) {
+            assertNull(result);
+        } else {
+            assertEquals(expected.columnPosition, result.columnPosition);
+            assertEquals(expected.rowPosition, result.rowPosition);
+        }
+    }
+
+    @Test
+    public void shouldFindSameCellsWithIndex() {
+        PositionCoordinate result = search("needle", false, false, true);
+        assertEquals(2, result.columnPosition);
+        assertEquals(8000, result.rowPosition);
+
+        assertSameResult("needle", false, false);
+        assertSameResult("needle", false, true);
+        assertSameResult("Needle", true, true);
+        assertSameResult("value 42", false, false);
+        assertSameResult("row 9999", true, false);
+        assertSameResult("missing", false, false);
+        assertSameResult("äöü", false, false);
+    }
+
+    @Test
+    public void shouldUpdateIndexOnCellChange() {
+        this.values[0][5000] = "Another needle";
+        this.dataLayer.fireLayerEvent(new CellVisualChangeEvent(this.dataLayer, 0, 5000));
+
+        assertTrue(this.searchIndex.isReady());
+        PositionCoordinate result = search("needle", false, false, true);
+        assertEquals(0, result.columnPosition);
+        assertEquals(5000, result.rowPosition);
+    }
+
+    @Test
+    public void shouldRebuildIndexOnStructuralChange() {
+        this.values[1][100] = "Moved needle";
+        this.dataLayer.fireLayerEvent(new RowStructuralRefreshEvent(this.dataLayer));
+
+        awaitIndex();
+        PositionCoordinate result = search("needle", false, false, true);
+        assertEquals(1, result.columnPosition);
+        assertEquals(100, result.rowPosition);
+    }
+
+    @Test
+    public void shouldUpdateRowOnPropertyUpdate() {
+        this.values[1][6000] = "Updated needle";
+        this.dataLayer.fireLayerEvent(new PropertyUpdateEvent<Integer>(this.dataLayer, 6000, "value", "value 0", "Updated needle"));
+
+        // the row is indexed directly without a rebuild
+        assertTrue(this.searchIndex.isReady());
+        PositionCoordinate result = search("needle", false, false, true);
+        assertEquals(1, result.columnPosition);
+        assertEquals(6000, result.rowPosition);
+    }
+}
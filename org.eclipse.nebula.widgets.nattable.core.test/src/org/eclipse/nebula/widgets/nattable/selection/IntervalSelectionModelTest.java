@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.selection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
+import org.eclipse.swt.graphics.Rectangle;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IntervalSelectionModelTest {
+
+    private SelectionLayer selectionLayer;
+    private IntervalSelectionModel model;
+
+    @Before
+    public void before() {
+        this.selectionLayer = new SelectionLayer(new DataLayerFixture(100, 100, 100, 40), false);
+        this.model = new IntervalSelectionModel(this.selectionLayer);
+    }
+
+    @Test
+    public void isCellSelected() {
+        assertTrue(this.model.isEmpty());
+        assertFalse(this.model.isCellPositionSelected(0, 0));
+    }
+
+    @Test
+    public void addCellSelection() {
+        this.model.addSelection(0, 0);
+
+        assertFalse(this.model.isEmpty());
+        assertTrue(this.model.isCellPositionSelected(0, 0));
+        assertFalse(this.model.isCellPositionSelected(1, 0));
+        assertFalse(this.model.isCellPositionSelected(0, 1));
+    }
+
+    @Test
+    public void addRangeSelection() {
+        this.model.addSelection(new Rectangle(3, 4, 2, 3));
+
+        for (int column = 0; column < 10; column++) {
+            for (int row = 0; row < 10; row++) {
+                boolean expected = column >= 3 && column < 5 && row >= 4 && row < 7;
+                assertEquals(column + "/" + row, expected, this.model.isCellPositionSelected(column, row));
+            }
+        }
+    }
+
+    @Test
+    public void ignoreCellsOutsideLayer() {
+        this.model.addSelection(new Rectangle(90, 90, 20, 20));
+
+        assertTrue(this.model.isCellPositionSelected(99, 99));
+        assertFalse(this.model.isCellPositionSelected(100, 99));
+        assertFalse(this.model.isCellPositionSelected(99, 100));
+        assertFalse(this.model.isColumnPositionSelected(100));
+        assertFalse(this.model.isRowPositionSelected(100));
+        assertEquals(10, this.model.getSelectedColumnPositions().length);
+        assertEquals(10, this.model.getSelectedRowCount());
+    }
+
+    @Test
+    public void discontiguousRowSelection() {
+        for (int row = 0; row < 100; row += 2) {
+            this.model.addSelection(new Rectangle(0, row, 100, 1));
+        }
+
+        assertEquals(50, this.model.getSelectedRowCount());
+        assertEquals(50, this.model.getSelectedRowPositions().size());
+        assertEquals(50, this.model.getFullySelectedRowPositions(100).length);
+        for (int row = 0; row < 100; row++) {
+            assertEquals(row % 2 == 0, this.model.isRowPositionSelected(row));
+            assertEquals(row % 2 == 0, this.model.isRowPositionFullySelected(row, 100));
+        }
+        assertEquals(100, this.model.getSelectedColumnPositions().length);
+        assertFalse(this.model.isColumnPositionFullySelected(0, 100));
+    }
+
+    @Test
+    public void contiguousRowsAreMerged() {
+        this.model.addSelection(new Rectangle(0, 2, 10, 3));
+        this.model.addSelection(new Rectangle(0, 5, 10, 2));
+
+        Set<Range> rows = this.model.getSelectedRowPositions();
+        assertEquals(1, rows.size());
+        assertTrue(rows.contains(new Range(2, 7)));
+    }
+
+    @Test
+    public void isColumnFullySelected() {
+        this.model.addSelection(new Rectangle(3, 0, 10, 10));
+
+        assertFalse(this.model.isColumnPositionFullySelected(3, 11));
+        assertTrue(this.model.isColumnPositionFullySelected(3, 10));
+        assertFalse(this.model.isColumnPositionFullySelected(2, 10));
+    }
+
+    @Test
+    public void isColumnFullySelectedForContiguousRectangles() {
+        this.model.addSelection(new Rectangle(0, 0, 10, 5));
+        this.model.addSelection(new Rectangle(5, 5, 10, 5));
+
+        assertTrue(this.model.isColumnPositionFullySelected(5, 10));
+        assertFalse(this.model.isColumnPositionFullySelected(4, 10));
+        assertArrayEquals(new int[] { 5, 6, 7, 8, 9 }, this.model.getFullySelectedColumnPositions(10));
+    }
+
+    @Test
+    public void isColumnFullySelectedForNonContiguousRectangles() {
+        this.model.addSelection(new Rectangle(0, 0, 10, 5));
+        this.model.addSelection(new Rectangle(5, 6, 10, 4));
+
+        assertFalse(this.model.isColumnPositionFullySelected(5, 10));
+        assertEquals(0, this.model.getFullySelectedColumnPositions(10).length);
+    }
+
+    @Test
+    public void isRowFullySelectedForOverlappingRectangles() {
+        this.model.addSelection(new Rectangle(0, 0, 6, 10));
+        this.model.addSelection(new Rectangle(4, 5, 6, 10));
+
+        assertTrue(this.model.isRowPositionFullySelected(5, 10));
+        assertFalse(this.model.isRowPositionFullySelected(4, 10));
+        assertArrayEquals(new int[] { 5, 6, 7, 8, 9 }, this.model.getFullySelectedRowPositions(10));
+    }
+
+    @Test
+    public void removeFromSelection() {
+        this.model.addSelection(new Rectangle(0, 0, 10, 10));
+        this.model.clearSelection(new Rectangle(2, 2, 3, 3));
+
+        for (int column = 0; column < 10; column++) {
+            for (int row = 0; row < 10; row++) {
+                boolean expected = !(column >= 2 && column < 5 && row >= 2 && row < 5);
+                assertEquals(column + "/" + row, expected, this.model.isCellPositionSelected(column, row));
+            }
+        }
+        assertEquals(10, this.model.getSelectedRowCount());
+        assertEquals(7, this.model.getFullySelectedRowPositions(10).length);
+    }
+
+    @Test
+    public void clearSelection() {
+        this.model.addSelection(new Rectangle(0, 0, 10, 10));
+        this.model.clearSelection();
+
+        assertTrue(this.model.isEmpty());
+        assertFalse(this.model.isCellPositionSelected(0, 0));
+        assertEquals(0, this.model.getSelectedRowCount());
+        assertEquals(0, this.model.getSelectedColumnPositions().length);
+    }
+
+    @Test
+    public void singleSelection() {
+        this.model.setMultipleSelectionAllowed(false);
+        this.model.addSelection(new Rectangle(0, 0, 10, 10));
+        this.model.addSelection(new Rectangle(5, 5, 10, 10));
+
+        assertEquals(1, this.model.getSelections().size());
+        assertTrue(this.model.isCellPositionSelected(5, 5));
+        assertFalse(this.model.isCellPositionSelected(0, 0));
+        assertFalse(this.model.isCellPositionSelected(6, 6));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void selectionsAreUnmodifiable() {
+        this.model.addSelection(0, 0);
+        this.model.getSelections().clear();
+    }
+
+    @Test
+    public void sameResultsAsSelectionModel() {
+        SelectionModel reference = new SelectionModel(this.selectionLayer);
+        Random random = new Random(4711);
+
+        for (int i = 0; i < 300; i++) {
+            Rectangle rectangle = new Rectangle(
+                    random.nextInt(110),
+                    random.nextInt(110),
+                    1 + random.nextInt(15),
+                    1 + random.nextInt(15));
+            if (random.nextInt(4) == 0) {
+                this.model.clearSelection(rectangle);
+                reference.clearSelection(new Rectangle(rectangle.x, rectangle.y, rectangle.width, rectangle.height));
+            } else {
+                this.model.addSelection(rectangle);
+                reference.addSelection(new Rectangle(rectangle.x, rectangle.y, rectangle.width, rectangle.height));
+            }
+
+            if (i % 20 == 0) {
+                assertSameSelection(reference);
+            }
+        }
+        assertSameSelection(reference);
+    }
+
+    private void assertSameSelection(SelectionModel reference) {
+        assertEquals(reference.isEmpty(), this.model.isEmpty());
+        assertEquals(reference.getSelections(), this.model.getSelections());
+        assertEquals(reference.getSelectedRowCount(), this.model.getSelectedRowCount());
+        assertEquals(reference.getSelectedRowPositions(), this.model.getSelectedRowPositions());
+        assertArrayEquals(reference.getSelectedColumnPositions(), this.model.getSelectedColumnPositions());
+
+        for (int column = 0; column < 100; column++) {
+            assertEquals(reference.isColumnPositionSelected(column), this.model.isColumnPositionSelected(column));
+            for (int row = 0; row < 100; row++) {
+                assertEquals(column + "/" + row,
+                        reference.isCellPositionSelected(column, row),
+                        this.model.isCellPositionSelected(column, row));
+            }
+        }
+        for (int row = 0; row < 100; row++) {
+            assertEquals(reference.isRowPositionSelected(row), this.model.isRowPositionSelected(row));
+        }
+
+        // a row or column is fully selected if it contains a contiguous
+        // selected range of the requested length
+        Set<Integer> fullRows = new HashSet<Integer>();
+        for (int row = 0; row < 100; row++) {
+            boolean expected = longestRun(row, true) >= 20;
+            assertEquals("row " + row, expected, this.model.isRowPositionFullySelected(row, 20));
+            if (expected) {
+                fullRows.add(row);
+            }
+        }
+        int[] fullySelectedRows = this.model.getFullySelectedRowPositions(20);
+        assertEquals(fullRows.size(), fullySelectedRows.length);
+        for (int row : fullySelectedRows) {
+            assertTrue(fullRows.contains(row));
+        }
+
+        for (int column = 0; column < 100; column++) {
+            assertEquals("column " + column,
+                    longestRun(column, false) >= 20,
+                    this.model.isColumnPositionFullySelected(column, 20));
+        }
+    }
+
+    private int longestRun(int position, boolean row) {
+        int longest = 0;
+        int current = 0;
+        for (int i = 0; i < 200; i++) {
+            boolean selected = false;
+            for (Rectangle r : this.model.getSelections()) {
+                if (row ? r.contains(i, position) : r.contains(position, i)) {
+                    selected = true;
+                    break;
+                }
+            }
+            current = selected ? current + 1 : 0;
+            longest = Math.max(longest, current);
+        }
+        return longest;
+    }
+}
@@ -0,0 +1,437 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.sort;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.NullComparator;
+import org.eclipse.nebula.widgets.nattable.data.ColumnarDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.ListDataProvider;
+import org.eclipse.nebula.widgets.nattable.grid.data.DefaultColumnHeaderDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ColumnOverrideLabelAccumulator;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.swt.widgets.Display;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IndexSortModelTest {
+
+    private static final int ROW_COUNT = 50000;
+
+    private String[] names;
+    private long[] groups;
+    private double[] prices;
+    private DataLayer dataLayer;
+    private SortedRowLayer sortedRowLayer;
+    private ColumnOverrideLabelAccumulator accumulator;
+    private ConfigRegistry configRegistry;
+    private IndexSortModel sortModel;
+
+    @Before
+    public void setup() {
+        Random random = new Random(42);
+        this.names = new String[ROW_COUNT];
+        this.groups = new long[ROW_COUNT];
+        this.prices = new double[ROW_COUNT];
+        for (int i = 0; i < ROW_COUNT; i++) {
+            this.names[i] = (i % 100 == 0) ? null : "Name " + random.nextInt(1000);
+            this.groups[i] = random.nextInt(10);
+            this.prices[i] = random.nextDouble() * 100;
+        }
+
+        ColumnarDataProvider dataProvider = new ColumnarDataProvider(ROW_COUNT)
+                .addColumn(this.names)
+                .addLongColumn(this.groups)
+                .addDoubleColumn(this.prices)
+                .addColumn(this.names);
+        this.dataLayer = new DataLayer(dataProvider);
+        this.sortedRowLayer = new SortedRowLayer(this.dataLayer);
+
+        DataLayer columnHeaderDataLayer = new DataLayer(
+                new DefaultColumnHeaderDataProvider(new String[] { "Name", "Group", "Price", "Unsortable" }));
+        this.accumulator = new ColumnOverrideLabelAccumulator(columnHeaderDataLayer);
+        this.accumulator.registerColumnOverrides(3, "UNSORTABLE");
+        columnHeaderDataLayer.setConfigLabelAccumulator(this.accumulator);
+
+        this.configRegistry = new ConfigRegistry();
+        this.configRegistry.registerConfigAttribute(
+                SortConfigAttributes.SORT_COMPARATOR,
+                new NullComparator(),
+                DisplayMode.NORMAL,
+                "UNSORTABLE");
+
+        this.sortModel = new IndexSortModel(this.sortedRowLayer, dataProvider, this.configRegistry, columnHeaderDataLayer);
+    }
+
+    @Test
+    public void shouldSortSingleColumn() {
+        this.sortModel.sort(2, SortDirectionEnum.DESC, false);
+        awaitSort();
+
+        assertTrue(this.sortModel.isColumnIndexSorted(2));
+        assertEquals(SortDirectionEnum.DESC, this.sortModel.getSortDirection(2));
+        for (int row = 1; row < ROW_COUNT; row++) {
+            assertTrue(getPrice(row - 1) >= getPrice(row));
+        }
+
+        this.sortModel.clear();
+        assertFalse(this.sortModel.isColumnIndexSorted(2));
+        assertNull(this.sortedRowLayer.getRowIndexOrderArray());
+        assertEquals(this.prices[5], getPrice(5), 0);
+    }
+
+    @Test
+    public void shouldSortAccumulatedAndStable() {
+        this.sortModel.sort(1, SortDirectionEnum.ASC, false);
+        this.sortModel.sort(0, SortDirectionEnum.ASC, true);
+        awaitSort();
+        assertEquals(0, this.sortModel.getSortOrder(1));
+        assertEquals(1, this.sortModel.getSortOrder(0));
+
+        Comparator<Object> expected = (r1, r2) -> {
+            int i1 = (Integer) r1;
+            int i2 = (Integer) r2;
+            int result = Long.compare(this.groups[i1], this.groups[i2]);
+            if (result == 0) {
+                result = compareNames(this.names[i1], this.names[i2]);
+            }
+            return result;
+        };
+        List<Object> rowIndexes = new ArrayList<>();
+        for (int i = 0; i < ROW_COUNT; i++) {
+            rowIndexes.add(i);
+        }
+        // List.sort is stable, so equal rows keep their original order
+        rowIndexes.sort(expected);
+
+        for (int row = 0; row < ROW_COUNT; row++) {
+            assertEquals(rowIndexes.get(row), this.sortedRowLayer.getRowIndexByPosition(row));
+            assertEquals(row, this.sortedRowLayer.getRowPositionByIndex((Integer) rowIndexes.get(row)));
+        }
+    }
+
+    @Test
+    public void shouldSortSameInParallel() {
+        this.sortModel.sort(0, SortDirectionEnum.DESC, false);
+        awaitSort();
+        int[] parallel = this.sortedRowLayer.getRowIndexOrderArray();
+
+        this.sortModel.setParallelSorting(false);
+        this.sortModel.refresh();
+        awaitSort();
+        int[] sequential = this.sortedRowLayer.getRowIndexOrderArray();
+
+        assertEquals(ROW_COUNT, parallel.length);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            assertEquals(sequential[i], parallel[i]);
+        }
+        // null is the smallest value and therefore at the end
+        assertNull(getName(ROW_COUNT - 1));
+    }
+
+    @Test
+    public void shouldNotSortWithNullComparator() {
+        this.sortModel.sort(3, SortDirectionEnum.ASC, false);
+
+        assertFalse(this.sortModel.isColumnIndexSorted(3));
+        assertTrue(this.sortModel.getComparatorsForColumnIndex(3).isEmpty());
+        assertNull(this.sortedRowLayer.getRowIndexOrderArray());
+    }
+
+    @Test
+    public void shouldSortAgainOnStructuralChange() {
+        this.sortModel.sort(2, SortDirectionEnum.ASC, false);
+        awaitSort();
+        int[] before = this.sortedRowLayer.getRowIndexOrderArray();
+
+        this.dataLayer.fireLayerEvent(new RowInsertEvent(this.dataLayer, 0));
+        awaitSort();
+
+        int[] after = this.sortedRowLayer.getRowIndexOrderArray();
+        assertEquals(before.length, after.length);
+        assertEquals(before[0], after[0]);
+    }
+
+    @Test
+    public void shouldKeepSortedOrderOnDelete() {
+        List<Long> values = createValues(1000);
+        IDataProvider dataProvider = createListDataProvider(values);
+        DataLayer dataLayer = new DataLayer(dataProvider);
+        SortedRowLayer layer = new SortedRowLayer(dataLayer);
+        IndexSortModel model = createSortModel(layer, dataProvider, new ConfigRegistry());
+        model.sort(0, SortDirectionEnum.DESC, false);
+        awaitSort(model);
+
+        int deletedPosition = layer.getRowPositionByIndex(10);
+        List<ILayerEvent> events = new ArrayList<>();
+        layer.addLayerListener(events::add);
+
+        values.remove(10);
+        values.remove(10);
+        dataLayer.fireLayerEvent(new RowDeleteEvent(dataLayer, new Range(10, 12)));
+
+        assertFalse(model.isSorting());
+        assertEquals(values.size(), layer.getRowCount());
+        assertSorted(layer, values, false);
+        assertEquals(1, events.size());
+        assertTrue(events.get(0) instanceof RowDeleteEvent);
+        assertTrue(((RowDeleteEvent) events.get(0)).getRowPositionRanges().stream().anyMatch(r -> r.contains(deletedPosition)));
+    }
+
+    @Test
+    public void shouldInsertRowsAtSortedPosition() {
+        List<Long> values = createValues(1000);
+        AtomicInteger comparisons = new AtomicInteger();
+        ConfigRegistry registry = new ConfigRegistry();
+        registry.registerConfigAttribute(
+                SortConfigAttributes.SORT_COMPARATOR,
+                (Comparator<Long>) (v1, v2) -> {
+                    comparisons.incrementAndGet();
+                    return Long.compare(v1, v2);
+                });
+        IDataProvider dataProvider = createListDataProvider(values);
+        DataLayer dataLayer = new DataLayer(dataProvider);
+        SortedRowLayer layer = new SortedRowLayer(dataLayer);
+        IndexSortModel model = createSortModel(layer, dataProvider, registry);
+        model.setParallelSorting(false);
+        model.sort(0, SortDirectionEnum.ASC, false);
+        awaitSort(model);
+
+        comparisons.set(0);
+        values.add(0, 500L);
+        values.add(1, 5L);
+        values.add(600, 500L);
+        values.add(995L);
+        dataLayer.fireLayerEvent(
+                new RowInsertEvent(dataLayer, new Range(0, 2), new Range(600, 601), new Range(1003, 1004)));
+        awaitSort(model);
+
+        assertEquals(values.size(), layer.getRowCount());
+        assertSorted(layer, values, true);
+        // the inserted rows are moved via binary search instead of sorting
+        // all rows again
+        assertTrue(comparisons.get() < 100);
+
+        // the result is the same as of a full sort
+        int[] inserted = layer.getRowIndexOrderArray();
+        model.refresh();
+        awaitSort(model);
+        assertArrayEquals(inserted, layer.getRowIndexOrderArray());
+    }
+
+    @Test
+    public void shouldOnlyFireRefreshIfOrderChanged() {
+        List<ILayerEvent> events = new ArrayList<>();
+        this.sortedRowLayer.addLayerListener(events::add);
+
+        int[] order = new int[ROW_COUNT];
+        for (int i = 0; i < ROW_COUNT; i++) {
+            order[i] = ROW_COUNT - 1 - i;
+        }
+        this.sortedRowLayer.setRowIndexOrder(order);
+        this.sortedRowLayer.setRowIndexOrder(order.clone());
+        this.sortedRowLayer.setRowIndexOrder(null);
+        this.sortedRowLayer.setRowIndexOrder(null);
+
+        assertEquals(2, events.size());
+        assertTrue(events.get(0) instanceof RowStructuralRefreshEvent);
+        assertTrue(events.get(1) instanceof RowStructuralRefreshEvent);
+    }
+
+    @Test
+    public void shouldSortNullsFirstInPrimitiveColumns() {
+        // report the column as numeric despite the null value to force the
+        // primitive path
+        ColumnarDataProvider dataProvider = new ColumnarDataProvider(3) {
+            @Override
+            public boolean isNumericColumn(int columnIndex) {
+                return true;
+            }
+        }.addDoubleColumn(new double[] { 2, 1, 3 });
+        dataProvider.setDataValue(0, 2, null);
+        assertTrue(dataProvider.isNull(0, 2));
+
+        SortedRowLayer layer = new SortedRowLayer(new DataLayer(dataProvider));
+        IndexSortModel model = new IndexSortModel(
+                layer,
+                dataProvider,
+                this.configRegistry,
+                new DataLayer(new DefaultColumnHeaderDataProvider(new String[] { "Value" })));
+        model.setParallelSorting(false);
+        model.sort(0, SortDirectionEnum.ASC, false);
+        awaitSort(model);
+
+        assertEquals(2, layer.getRowIndexByPosition(0));
+        assertEquals(1, layer.getRowIndexByPosition(1));
+        assertEquals(0, layer.getRowIndexByPosition(2));
+    }
+
+    @Test
+    public void shouldCancelRunningSort() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        this.accumulator.registerColumnOverrides(0, "BLOCKING");
+        this.configRegistry.registerConfigAttribute(
+                SortConfigAttributes.SORT_COMPARATOR,
+                (Comparator<Object>) (o1, o2) -> {
+                    started.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return compareNames((String) o1, (String) o2);
+                },
+                DisplayMode.NORMAL,
+                "BLOCKING");
+        this.sortModel.setParallelSorting(false);
+
+        // a sort that is requested outside the UI thread runs in that thread
+        Thread sortThread = new Thread(() -> this.sortModel.sort(0, SortDirectionEnum.ASC, false));
+        sortThread.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        this.sortModel.cancel();
+        release.countDown();
+        sortThread.join(10000);
+
+        assertFalse(sortThread.isAlive());
+        assertFalse(this.sortModel.isSorting());
+        assertNull(this.sortedRowLayer.getRowIndexOrderArray());
+    }
+
+    @Test
+    public void shouldSortInBackgroundAndApplyInUIThread() {
+        // ensure the test thread is the UI thread
+        Display display = Display.getDefault();
+        if (display.getThread() != Thread.currentThread()) {
+            return;
+        }
+
+        this.sortModel.sort(2, SortDirectionEnum.ASC, false);
+
+        // the result is applied via asyncExec and therefore not yet
+        assertTrue(this.sortModel.isSorting());
+        assertNull(this.sortedRowLayer.getRowIndexOrderArray());
+
+        awaitSort();
+        assertFalse(this.sortModel.isSorting());
+        for (int row = 1; row < ROW_COUNT; row++) {
+            assertTrue(getPrice(row - 1) <= getPrice(row));
+        }
+    }
+
+    private static List<Long> createValues(int count) {
+        Random random = new Random(42);
+        List<Long> values = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            values.add((long) random.nextInt(count / 2));
+        }
+        return values;
+    }
+
+    private static IDataProvider createListDataProvider(List<Long> values) {
+        return new ListDataProvider<>(values, new IColumnAccessor<Long>() {
+
+            @Override
+            public Object getDataValue(Long rowObject, int columnIndex) {
+                return rowObject;
+            }
+
+            @Override
+            public void setDataValue(Long rowObject, int columnIndex, Object newValue) {
+                // not editable
+            }
+
+            @Override
+            public int getColumnCount() {
+                return 1;
+            }
+        });
+    }
+
+    private static IndexSortModel createSortModel(SortedRowLayer layer, IDataProvider dataProvider, ConfigRegistry registry) {
+        return new IndexSortModel(
+                layer,
+                dataProvider,
+                registry,
+                new DataLayer(new DefaultColumnHeaderDataProvider(new String[] { "Value" })));
+    }
+
+    private static void assertSorted(SortedRowLayer layer, List<Long> values, boolean ascending) {
+        for (int row = 1; row < values.size(); row++) {
+            int index1 = layer.getRowIndexByPosition(row - 1);
+            int index2 = layer.getRowIndexByPosition(row);
+            int result = values.get(index1).compareTo(values.get(index2));
+            assertTrue(ascending ? result <= 0 : result >= 0);
+            if (result == 0) {
+                // equal values keep the order of the row indexes
+                assertTrue(index1 < index2);
+            }
+        }
+    }
+
+    private void awaitSort() {
+        awaitSort(this.sortModel);
+    }
+
+    private static void awaitSort(IndexSortModel model) {
+        // the result is applied via asyncExec if the test runs in the UI
+        // thread
+        Display display = Display.getCurrent();
+        long end = System.currentTimeMillis() + 10000;
+        while (model.isSorting() && System.currentTimeMillis() < end) {
+            if (display == null || !display.readAndDispatch()) {
+                Thread.yield();
+            }
+        }
+        assertFalse(model.isSorting());
+    }
+
+    private double getPrice(int rowPosition) {
+        return (Double) this.sortedRowLayer.getDataValueByPosition(2, rowPosition);
+    }
+
+    private String getName(int rowPosition) {
+        return (String) this.sortedRowLayer.getDataValueByPosition(0, rowPosition);
+    }
+
+    private static int compareNames(String name1, String name2) {
+        if (name1 == null || name2 == null) {
+            return (name1 == name2) ? 0 : (name1 == null ? -1 : 1);
+        }
+        return name1.compareTo(name2);
+    }
+}
@@ -0,0 +1,393 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.data.IColumnPropertyResolver;
+import org.eclipse.nebula.widgets.nattable.data.ListDataProvider;
+import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommand;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateBatchEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IncrementalSummaryProviderTest {
+
+    private List<Object[]> data;
+    private int reads;
+    private IColumnAccessor<Object[]> columnAccessor;
+    private ListDataProvider<Object[]> dataProvider;
+
+    @Before
+    public void setup() {
+        this.data = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            this.data.add(new Object[] { i, i * 2d });
+        }
+        this.columnAccessor = new IColumnAccessor<Object[]>() {
+
+            @Override
+            public Object getDataValue(Object[] rowObject, int columnIndex) {
+                IncrementalSummaryProviderTest.this.reads++;
+                return rowObject[columnIndex];
+            }
+
+            @Override
+            public void setDataValue(Object[] rowObject, int columnIndex, Object newValue) {
+                rowObject[columnIndex] = newValue;
+            }
+
+            @Override
+            public int getColumnCount() {
+                return 2;
+            }
+        };
+        this.dataProvider = new ListDataProvider<>(this.data, this.columnAccessor);
+    }
+
+    @Test
+    public void shouldCalculateAggregates() {
+        assertEquals(45d, new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.SUM).summarize(0));
+        assertEquals(10, new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.COUNT).summarize(0));
+        assertEquals(4.5d, new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.MEAN).summarize(0));
+        assertEquals(8.25d, new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.VARIANCE).summarize(0));
+        assertEquals(0d, new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.MIN).summarize(0));
+        assertEquals(18d, new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.MAX).summarize(1));
+    }
+
+    @Test
+    public void shouldReturnNullForEmptyColumn() {
+        this.data.clear();
+        assertNull(new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.MIN).summarize(0));
+        assertNull(new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.MEAN).summarize(0));
+        assertEquals(0d, new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.SUM).summarize(0));
+    }
+
+    @Test
+    public void shouldOnlyReadChangedRows() {
+        IncrementalSummaryProvider provider = new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.SUM);
+        provider.summarize(0);
+        this.reads = 0;
+
+        this.data.get(3)[0] = 13;
+        provider.rowsChanged(0, new Range(3, 4));
+
+        assertEquals(55d, provider.summarize(0));
+        assertEquals(1, this.reads);
+    }
+
+    @Test
+    public void shouldApplyInsertAndDelete() {
+        IncrementalSummaryProvider provider = new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.MAX);
+        assertEquals(9d, provider.summarize(0));
+
+        this.data.add(2, new Object[] { 20, 0d });
+        provider.rowsInserted(0, new Range(2, 3));
+        assertEquals(20d, provider.summarize(0));
+
+        this.data.remove(2);
+        this.data.remove(9);
+        provider.rowsDeleted(0, new Range(10, 11));
+        provider.rowsDeleted(0, new Range(2, 3));
+        assertEquals(8d, provider.summarize(0));
+    }
+
+    @Test
+    public void shouldHandleNonNumbersInStrictMode() {
+        IncrementalSummaryProvider provider = new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.SUM, true);
+        provider.summarize(0);
+
+        this.data.get(5)[0] = "five";
+        provider.rowsChanged(0, new Range(5, 6));
+        assertEquals(ISummaryProvider.DEFAULT_SUMMARY_VALUE, provider.summarize(0));
+
+        this.data.get(5)[0] = 5;
+        provider.rowsChanged(0, new Range(5, 6));
+        assertEquals(45d, provider.summarize(0));
+    }
+
+    @Test
+    public void shouldIgnoreNonNumbersInNonStrictMode() {
+        this.data.get(5)[0] = null;
+        IncrementalSummaryProvider provider = new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.COUNT, false);
+        assertEquals(9, provider.summarize(0));
+    }
+
+    @Test
+    public void shouldConsiderNonFiniteValues() {
+        IncrementalSummaryProvider provider = new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.SUM);
+        provider.summarize(1);
+
+        this.data.get(5)[1] = Double.NaN;
+        provider.rowsChanged(1, new Range(5, 6));
+        assertEquals(Double.NaN, provider.summarize(1));
+
+        this.data.get(5)[1] = 10d;
+        provider.rowsChanged(1, new Range(5, 6));
+        assertEquals(90d, provider.summarize(1));
+    }
+
+    @Test
+    public void shouldRecalculateOnUnnotifiedRowCountChange() {
+        IncrementalSummaryProvider provider = new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.SUM);
+        provider.summarize(0);
+
+        this.data.add(new Object[] { 5, 0d });
+        assertEquals(50d, provider.summarize(0));
+    }
+
+    @Test
+    public void shouldMatchFullCalculation() {
+        Random random = new Random(42);
+        List<IncrementalSummaryProvider> providers = new ArrayList<>();
+        for (SummaryAggregateEnum aggregate : SummaryAggregateEnum.values()) {
+            IncrementalSummaryProvider provider = new IncrementalSummaryProvider(this.dataProvider, aggregate);
+            provider.summarize(0);
+            providers.add(provider);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            int operation = random.nextInt(3);
+            if (operation == 0 || this.data.size() < 2) {
+                int row = random.nextInt(this.data.size() + 1);
+                this.data.add(row, new Object[] { random.nextInt(20), 0d });
+                providers.forEach(p -> p.rowsInserted(0, new Range(row, row + 1)));
+            } else if (operation == 1) {
+                int row = random.nextInt(this.data.size());
+                this.data.remove(row);
+                providers.forEach(p -> p.rowsDeleted(0, new Range(row, row + 1)));
+            } else {
+                int row = random.nextInt(this.data.size());
+                this.data.get(row)[0] = random.nextInt(20);
+                providers.forEach(p -> p.rowsChanged(0, new Range(row, row + 1)));
+            }
+
+            for (IncrementalSummaryProvider provider : providers) {
+                Object expected = new IncrementalSummaryProvider(this.dataProvider, provider.getAggregate()).summarize(0);
+                Object actual = provider.summarize(0);
+                if (expected instanceof Double) {
+                    assertEquals(provider.getAggregate().name(), (Double) expected, (Double) actual, 1e-9);
+                } else {
+                    assertEquals(provider.getAggregate().name(), expected, actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldRemoveExtremeValuesWithoutRebuild() {
+        SummaryAggregateEnum.Accumulator min = SummaryAggregateEnum.MIN.createAccumulator();
+        for (int i = 0; i < 100; i++) {
+            min.add(i);
+        }
+        // removing the current minimum repeatedly does not request a rebuild
+        for (int i = 0; i < 50; i++) {
+            assertTrue(min.remove(i));
+            assertEquals(Double.valueOf(i + 1), min.getResult());
+        }
+
+        // removed values that do not reach the top request a rebuild
+        // eventually to bound the memory
+        SummaryAggregateEnum.Accumulator max = SummaryAggregateEnum.MAX.createAccumulator();
+        for (int i = 0; i < 1000; i++) {
+            max.add(i);
+        }
+        boolean rebuildRequested = false;
+        for (int i = 0; i < 1000 && !rebuildRequested; i++) {
+            rebuildRequested = !max.remove(i);
+        }
+        assertTrue(rebuildRequested);
+    }
+
+    @Test
+    public void shouldApplyEventsToLaterRegisteredProvider() {
+        DataLayer dataLayer = new DataLayer(this.dataProvider);
+        ConfigRegistry configRegistry = new ConfigRegistry();
+        new SummaryRowLayer(dataLayer, configRegistry, false);
+
+        // events without provider registered
+        dataLayer.fireLayerEvent(new RowStructuralRefreshEvent(dataLayer));
+
+        IncrementalSummaryProvider provider = new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.SUM);
+        configRegistry.registerConfigAttribute(
+                SummaryRowConfigAttributes.SUMMARY_PROVIDER,
+                provider,
+                DisplayMode.NORMAL,
+                SummaryRowLayer.DEFAULT_SUMMARY_ROW_CONFIG_LABEL);
+        assertEquals(45d, provider.summarize(0));
+
+        // an in-place change is only visible if the event is applied
+        this.data.get(3)[0] = 13;
+        dataLayer.fireLayerEvent(new CellVisualChangeEvent(dataLayer, 0, 3));
+        assertEquals(55d, provider.summarize(0));
+    }
+
+    @Test
+    public void shouldApplyLayerEvents() {
+        DataLayer dataLayer = new DataLayer(this.dataProvider);
+        IConfigRegistry configRegistry = new ConfigRegistry();
+        SummationSummaryProvider provider = new SummationSummaryProvider(this.dataProvider, true, true);
+        configRegistry.registerConfigAttribute(
+                SummaryRowConfigAttributes.SUMMARY_PROVIDER,
+                provider,
+                DisplayMode.NORMAL,
+                SummaryRowLayer.DEFAULT_SUMMARY_ROW_CONFIG_LABEL);
+        SummaryRowLayer summaryRowLayer = new SummaryRowLayer(dataLayer, configRegistry, false);
+
+        assertEquals(45d, provider.summarize(0));
+        this.reads = 0;
+
+        summaryRowLayer.doCommand(new UpdateDataCommand(summaryRowLayer, 0, 4, 14));
+        assertEquals(55d, provider.summarize(0));
+
+        this.data.add(0, new Object[] { 100, 0d });
+        dataLayer.fireLayerEvent(new RowInsertEvent(dataLayer, 0));
+        assertEquals(155d, provider.summarize(0));
+
+        this.data.remove(1);
+        dataLayer.fireLayerEvent(new RowDeleteEvent(dataLayer, 1));
+        assertEquals(155d, provider.summarize(0));
+
+        // only the changed rows were read, the update command handler reads
+        // the old value once
+        assertEquals(3, this.reads);
+
+        this.data.get(2)[0] = 1002;
+        dataLayer.fireLayerEvent(new RowStructuralRefreshEvent(dataLayer));
+        assertEquals(1155d, provider.summarize(0));
+    }
+
+    @Test
+    public void shouldResolveChangedRowObjectsWithoutIndexOf() {
+        ListDataProvider<Object[]> rowDataProvider = new ListDataProvider<Object[]>(this.data, this.columnAccessor) {
+            @Override
+            public int indexOfRowObject(Object[] rowObject) {
+                throw new AssertionError("indexOfRowObject should not be called");
+            }
+        };
+        IncrementalSummaryProvider provider = new IncrementalSummaryProvider(rowDataProvider, SummaryAggregateEnum.SUM);
+        assertEquals(45d, provider.summarize(0));
+
+        this.data.get(3)[0] = 13;
+        provider.rowObjectChanged(0, this.data.get(3));
+        this.data.get(7)[0] = 17;
+        provider.rowObjectChanged(0, this.data.get(7));
+        assertEquals(65d, provider.summarize(0));
+
+        // replaced row objects are resolved after the change notification
+        this.data.set(5, new Object[] { 25, 0d });
+        provider.rowsChanged(0, new Range(5, 6));
+        this.reads = 0;
+        this.data.get(5)[0] = 35;
+        provider.rowObjectChanged(0, this.data.get(5));
+        assertEquals(95d, provider.summarize(0));
+        assertEquals(1, this.reads);
+
+        // the map is recreated after inserts
+        this.data.add(0, new Object[] { 100, 0d });
+        provider.rowsInserted(0, new Range(0, 1));
+        this.data.get(10)[0] = 19;
+        provider.rowObjectChanged(0, this.data.get(10));
+        assertEquals(205d, provider.summarize(0));
+    }
+
+    @Test
+    public void shouldOnlyUpdateColumnOfChangedProperty() {
+        final List<Integer> changedColumns = new ArrayList<>();
+        IncrementalSummaryProvider provider = new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.SUM) {
+            @Override
+            public synchronized void rowObjectChanged(int columnIndex, Object rowObject) {
+                changedColumns.add(columnIndex);
+                super.rowObjectChanged(columnIndex, rowObject);
+            }
+        };
+        DataLayer dataLayer = new DataLayer(this.dataProvider);
+        ConfigRegistry configRegistry = new ConfigRegistry();
+        configRegistry.registerConfigAttribute(
+                SummaryRowConfigAttributes.SUMMARY_PROVIDER,
+                provider,
+                DisplayMode.NORMAL,
+                SummaryRowLayer.DEFAULT_SUMMARY_ROW_CONFIG_LABEL);
+        SummaryRowLayer summaryRowLayer = new SummaryRowLayer(dataLayer, configRegistry, false);
+        summaryRowLayer.setColumnPropertyResolver(new IColumnPropertyResolver() {
+
+            @Override
+            public String getColumnProperty(int columnIndex) {
+                return columnIndex == 0 ? "count" : "price";
+            }
+
+            @Override
+            public int getColumnIndex(String propertyName) {
+                return "count".equals(propertyName) ? 0 : "price".equals(propertyName) ? 1 : -1;
+            }
+        });
+        assertEquals(45d, provider.summarize(0));
+        assertEquals(90d, provider.summarize(1));
+
+        Object[] rowObject = this.data.get(4);
+        rowObject[1] = 18d;
+        dataLayer.fireLayerEvent(new PropertyUpdateEvent<>(dataLayer, rowObject, "price", 8d, 18d));
+        assertEquals(Arrays.asList(1), changedColumns);
+        assertEquals(100d, provider.summarize(1));
+
+        // unknown properties update all columns
+        changedColumns.clear();
+        dataLayer.fireLayerEvent(new PropertyUpdateEvent<>(dataLayer, rowObject, "unknown", null, null));
+        assertEquals(Arrays.asList(0, 1), changedColumns);
+
+        // a batch informs once per row object and column
+        changedColumns.clear();
+        rowObject[0] = 14;
+        dataLayer.fireLayerEvent(new PropertyUpdateBatchEvent<>(dataLayer, Arrays.asList(
+                new PropertyUpdateEvent<>(dataLayer, rowObject, "count", 4, 10),
+                new PropertyUpdateEvent<>(dataLayer, rowObject, "count", 10, 14))));
+        assertEquals(Arrays.asList(0), changedColumns);
+        assertEquals(55d, provider.summarize(0));
+    }
+
+    @Test
+    public void shouldNotCacheInNonIncrementalMode() {
+        SummationSummaryProvider provider = new SummationSummaryProvider(this.dataProvider, true);
+        assertEquals(45d, provider.summarize(0));
+
+        this.data.get(0)[0] = 10;
+        assertEquals(55d, provider.summarize(0));
+    }
+
+    @Test
+    public void shouldReportIncrementalCapability() {
+        assertFalse(new SummationSummaryProvider(this.dataProvider).isIncremental());
+        assertFalse(new SummationSummaryProvider(this.dataProvider, true, false).isIncremental());
+        assertTrue(new SummationSummaryProvider(this.dataProvider, true, true).isIncremental());
+        assertTrue(new IncrementalSummaryProvider(this.dataProvider, SummaryAggregateEnum.SUM).isIncremental());
+    }
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CalculationServiceTest {
+
+    private CalculationService service;
+    private CountDownLatch blocker;
+    private Future<?> blocking;
+
+    @Before
+    public void setup() throws Exception {
+        this.service = new CalculationService(1);
+        this.blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        // block the only worker so the following submissions stay pending
+        this.blocking = this.service.submit(this, "block", () -> {
+            started.countDown();
+            try {
+                this.blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, false);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void tearDown() {
+        this.blocker.countDown();
+        this.service.shutdown();
+    }
+
+    @Test
+    public void shouldCoalescePendingCalculations() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        Future<?> first = this.service.submit(this, 1, count::incrementAndGet, false);
+        Future<?> second = this.service.submit(this, 1, count::incrementAndGet, false);
+        assertSame(first, second);
+        assertEquals(1, this.service.getPendingCount());
+
+        this.blocker.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    public void shouldNotCoalesceDifferentOwners() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        Future<?> first = this.service.submit(this, 1, count::incrementAndGet, false);
+        Future<?> second = this.service.submit(new Object(), 1, count::incrementAndGet, false);
+
+        this.blocker.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(2, count.get());
+    }
+
+    @Test
+    public void shouldProcessPriorityFirst() throws Exception {
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        this.service.submit(this, 1, () -> order.add(1), false);
+        this.service.submit(this, 2, () -> order.add(2), false);
+        Future<?> last = this.service.submit(this, 3, () -> order.add(3), true);
+        // raising the priority of a pending calculation
+        this.service.submit(this, 2, () -> order.add(2), true);
+
+        this.blocker.countDown();
+        last.get(5, TimeUnit.SECONDS);
+        while (order.size() < 3) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, (int) order.get(0));
+        assertEquals(2, (int) order.get(1));
+        assertEquals(1, (int) order.get(2));
+    }
+
+    @Test
+    public void shouldCancelPendingCalculationsOfOwner() throws Exception {
+        Object otherOwner = new Object();
+        AtomicInteger count = new AtomicInteger();
+        Future<?> cancelled = this.service.submit(this, 1, count::incrementAndGet, false);
+        Future<?> other = this.service.submit(otherOwner, 1, count::incrementAndGet, false);
+
+        this.service.cancel(this);
+        assertTrue(cancelled.isCancelled());
+        assertEquals(1, this.service.getPendingCount());
+
+        this.blocker.countDown();
+        other.get(5, TimeUnit.SECONDS);
+        assertEquals(1, count.get());
+        assertTrue(this.blocking.isDone());
+    }
+
+    @Test
+    public void shouldNotInterruptRunningCalculationOnCancel() throws Exception {
+        // the blocking calculation of the setup is running for this owner
+        this.service.cancel(this);
+        Thread.sleep(50);
+        assertFalse(this.blocking.isDone());
+        assertEquals(0, this.service.getPendingCount());
+
+        this.blocker.countDown();
+        this.blocking.get(5, TimeUnit.SECONDS);
+        assertFalse(this.blocking.isCancelled());
+    }
+
+    @Test
+    public void shouldScheduleAgainAfterStart() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        this.blocker.countDown();
+        this.service.submit(this, 1, count::incrementAndGet, false).get(5, TimeUnit.SECONDS);
+        this.service.submit(this, 1, count::incrementAndGet, false).get(5, TimeUnit.SECONDS);
+        assertEquals(2, count.get());
+    }
+}
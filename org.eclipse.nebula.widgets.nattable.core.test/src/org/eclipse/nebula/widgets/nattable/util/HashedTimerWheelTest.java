@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.nebula.widgets.nattable.util.HashedTimerWheel.TimerQueue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HashedTimerWheelTest {
+
+    private ScheduledExecutorService executor;
+    private HashedTimerWheel wheel;
+    private List<Collection<Integer>> expirations;
+    private CountDownLatch latch;
+    private TimerQueue<Integer> queue;
+
+    @Before
+    public void setup() {
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+        // small wheel so timeouts need multiple rounds
+        this.wheel = new HashedTimerWheel(this.executor, 10, 4);
+        this.expirations = new CopyOnWriteArrayList<>();
+        this.latch = new CountDownLatch(1);
+        this.queue = this.wheel.createQueue(keys -> {
+            this.expirations.add(new ArrayList<>(keys));
+            this.latch.countDown();
+        });
+    }
+
+    @After
+    public void tearDown() {
+        this.wheel.dispose();
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldExpireTimeoutsOfATickTogether() throws Exception {
+        for (int i = 0; i < 10000; i++) {
+            this.queue.schedule(i, 100);
+        }
+        assertEquals(10000, this.queue.size());
+
+        long timeout = System.currentTimeMillis() + 5000;
+        while (getExpiredCount() < 10000 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertEquals(10000, getExpiredCount());
+        assertEquals(0, this.queue.size());
+
+        // the timeouts scheduled within the same tick expire together
+        assertTrue(this.expirations.size() < 10);
+    }
+
+    @Test
+    public void shouldReplaceAndCancelTimeouts() throws Exception {
+        this.queue.schedule(1, 20);
+        this.queue.schedule(2, 20);
+        // rescheduling replaces the previous timeout
+        this.queue.schedule(1, 200);
+        assertTrue(this.queue.cancel(2));
+        assertFalse(this.queue.isScheduled(2));
+
+        assertTrue(this.latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, this.expirations.size());
+        assertEquals(1, this.expirations.get(0).size());
+        assertEquals(Integer.valueOf(1), this.expirations.get(0).iterator().next());
+    }
+
+    @Test
+    public void shouldNotExpireBeforeDelay() throws Exception {
+        long start = System.nanoTime();
+        this.queue.schedule(1, 150);
+
+        assertTrue(this.latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+    }
+
+    private int getExpiredCount() {
+        int expired = 0;
+        for (Collection<Integer> keys : this.expirations) {
+            expired += keys.size();
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.eclipse.nebula.widgets.nattable.util.TextMetricsCache.AsciiWidthTable;
+import org.eclipse.nebula.widgets.nattable.util.TextMetricsCache.ITextMeasurer;
+import org.eclipse.swt.graphics.Point;
+import org.junit.Test;
+
+public class TextMetricsCacheTest {
+
+    /**
+     * Measures every character with 7 pixels, optionally with kerning that
+     * removes one pixel per character pair.
+     */
+    private static class FixedWidthMeasurer implements ITextMeasurer {
+
+        private final boolean kerning;
+        private int measured;
+
+        FixedWidthMeasurer(boolean kerning) {
+            this.kerning = kerning;
+        }
+
+        @Override
+        public Point textExtent(String text) {
+            this.measured++;
+            int width = text.length() * 7;
+            if (this.kerning && text.length() > 1) {
+                width -= text.length() - 1;
+            }
+            return new Point(width, 15);
+        }
+
+        @Override
+        public int getAdvanceWidth(char c) {
+            return 7;
+        }
+    }
+
+    @Test
+    public void testAsciiFastPath() {
+        TextMetricsCache cache = new TextMetricsCache(10);
+        FixedWidthMeasurer measurer = new FixedWidthMeasurer(false);
+
+        assertEquals(new Point(35, 15), cache.getExtent(null, "Hello", measurer));
+        int probes = measurer.measured;
+
+        assertEquals(new Point(70, 15), cache.getExtent(null, "1234567890", measurer));
+        // ASCII texts are calculated via the advance widths and not cached
+        assertEquals(probes, measurer.measured);
+        assertEquals(0, cache.getSize());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void testNonAsciiTextIsCached() {
+        TextMetricsCache cache = new TextMetricsCache(10);
+        FixedWidthMeasurer measurer = new FixedWidthMeasurer(false);
+
+        assertEquals(new Point(21, 15), cache.getExtent(null, "äöü", measurer));
+        int measured = measurer.measured;
+        assertEquals(new Point(21, 15), cache.getExtent(null, "äöü", measurer));
+        assertEquals(new Point(21, 15), cache.getExtent(null, "a\nb", measurer));
+
+        assertEquals(measured + 1, measurer.measured);
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testKerningDisablesFastPath() {
+        TextMetricsCache cache = new TextMetricsCache(10);
+        FixedWidthMeasurer measurer = new FixedWidthMeasurer(true);
+
+        assertEquals(new Point(31, 15), cache.getExtent(null, "Hello", measurer));
+        assertEquals(new Point(31, 15), cache.getExtent(null, "Hello", measurer));
+
+        assertEquals(1, cache.getSize());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testAsciiWidthTable() {
+        TextMetricsCache cache = new TextMetricsCache(10);
+        FixedWidthMeasurer measurer = new FixedWidthMeasurer(false);
+
+        AsciiWidthTable table = cache.getAsciiWidthTable(null, measurer);
+        assertEquals(35, table.getTextWidth("Hello"));
+        assertEquals(0, table.getTextWidth(""));
+        assertEquals(-1, table.getTextWidth("äöü"));
+        assertEquals(-1, table.getTextWidth("a\nb"));
+        assertSame(table, cache.getAsciiWidthTable(null, measurer));
+
+        assertNull(new TextMetricsCache(10).getAsciiWidthTable(null, new FixedWidthMeasurer(true)));
+    }
+
+    @Test
+    public void testBoundedSize() {
+        TextMetricsCache cache = new TextMetricsCache(2);
+        FixedWidthMeasurer measurer = new FixedWidthMeasurer(true);
+
+        cache.getExtent(null, "A", measurer);
+        cache.getExtent(null, "B", measurer);
+        // access A so B is the least recently used entry
+        cache.getExtent(null, "A", measurer);
+        cache.getExtent(null, "C", measurer);
+        assertEquals(2, cache.getSize());
+
+        int measured = measurer.measured;
+        cache.getExtent(null, "A", measurer);
+        assertEquals(measured, measurer.measured);
+        cache.getExtent(null, "B", measurer);
+        assertEquals(measured + 1, measurer.measured);
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        cache.resetStatistics();
+        assertEquals(0, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+}
@@ -25,6 +25,7 @@
 import org.eclipse.nebula.widgets.nattable.test.fixture.layer.LayerListenerFixture;
 import org.eclipse.nebula.widgets.nattable.test.fixture.layer.ViewportLayerFixture;
 import org.eclipse.nebula.widgets.nattable.util.IClientAreaProvider;
+import org.eclipse.nebula.widgets.nattable.viewport.event.ScrollEvent;
 import org.eclipse.swt.graphics.Rectangle;
 import org.junit.After;
 import org.junit.Before;
@@ -438,4 +439,32 @@ public void shouldPickUpTheDefaultClientAreaIfItHasNotBeenSet()
         assertEquals(IClientAreaProvider.DEFAULT,
                 viewportLayer.getClientAreaProvider());
     }
+
+    @Test
+    public void scrollEventShouldCarryScrolledDistance() {
+        this.viewportLayer = new ViewportLayerFixture(new Rectangle(0, 0, 200, 40));
+        this.viewportLayer.addLayerListener(this.layerListener);
+
+        int originY = this.viewportLayer.getOrigin().getY();
+        this.viewportLayer.setOriginY(originY + 20);
+
+        ScrollEvent event = (ScrollEvent) this.layerListener.getReceivedEvent(ScrollEvent.class);
+        assertEquals(this.viewportLayer, event.getViewportLayer());
+        assertEquals(0, event.getDeltaX());
+        assertEquals(this.viewportLayer.getOrigin().getY() - originY, event.getDeltaY());
+        assertTrue(event.getDeltaY() > 0);
+
+        this.layerListener.clearReceivedEvents();
+        int originX = this.viewportLayer.getOrigin().getX();
+        this.viewportLayer.setOriginX(originX + 100);
+
+        event = (ScrollEvent) this.layerListener.getReceivedEvent(ScrollEvent.class);
+        assertEquals(this.viewportLayer.getOrigin().getX() - originX, event.getDeltaX());
+        assertEquals(0, event.getDeltaY());
+
+        // the cloned event needs to keep the distance
+        ScrollEvent clone = event.cloneEvent();
+        assertEquals(event.getDeltaX(), clone.getDeltaX());
+        assertEquals(this.viewportLayer, clone.getViewportLayer());
+    }
 }
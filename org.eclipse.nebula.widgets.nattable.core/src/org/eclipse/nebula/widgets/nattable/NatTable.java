@@ -71,7 +71,9 @@
 import org.eclipse.nebula.widgets.nattable.ui.mode.ModeSupport;
 import org.eclipse.nebula.widgets.nattable.util.GUIHelper;
 import org.eclipse.nebula.widgets.nattable.util.IClientAreaProvider;
+import org.eclipse.nebula.widgets.nattable.viewport.ViewportLayer;
 import org.eclipse.nebula.widgets.nattable.viewport.command.RecalculateScrollBarsCommand;
+import org.eclipse.nebula.widgets.nattable.viewport.event.ScrollEvent;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.BusyIndicator;
 import org.eclipse.swt.dnd.DragSource;
@@ -111,6 +113,12 @@ public class NatTable extends Canvas implements ILayer, PaintListener, IClientAr
      */
     public static final String INITIAL_PAINT_COMPLETE_FLAG = "NatTable.initialPaintComplete"; //$NON-NLS-1$
 
+    /**
+     * Number of pixels at the edges of a blit scrolled area that are repainted
+     * to restore separators of adjacent regions, e.g. the freeze separator.
+     */
+    private static final int BLIT_EDGE_REPAINT_SIZE = 2;
+
     private UiBindingRegistry uiBindingRegistry;
 
     private ModeSupport modeSupport;
@@ -119,6 +127,8 @@ public class NatTable extends Canvas implements ILayer, PaintListener, IClientAr
 
     private final List<IOverlayPainter> overlayPainters = new ArrayList<IOverlayPainter>();
 
+    private boolean blitScrolling = false;
+
     private final List<IPersistable> persistables = new LinkedList<IPersistable>();
 
     private ILayer underlyingLayer;
@@ -512,6 +522,100 @@ public void removeOverlayPainter(IOverlayPainter overlayPainter) {
         this.overlayPainters.remove(overlayPainter);
     }
 
+    /**
+     * @return <code>true</code> if scrolling shifts the already painted pixels
+     *         and only paints the newly exposed area, <code>false</code> if the
+     *         whole table is repainted on scrolling.
+     * @since 2.0
+     */
+    public boolean isBlitScrolling() {
+        return this.blitScrolling;
+    }
+
+    /**
+     * Configure whether scrolling should shift the already painted pixels via
+     * {@link #scroll(int, int, int, int, int, int, boolean)} and only paint the
+     * newly exposed rows or columns, instead of repainting the whole table.
+     * This reduces the painting effort per scroll step significantly for big
+     * client areas.
+     * <p>
+     * On vertical scrolling the area of the full table width at the height of
+     * the scrolled viewport is shifted, so row headers and frozen columns are
+     * scrolled together with the body while column headers and frozen rows
+     * stay untouched. On horizontal scrolling the area of the full table
+     * height at the width of the viewport is shifted. Scrolling falls back to
+     * a full repaint if overlay painters are registered, multiple viewports
+     * are configured or the viewport is scrolled in both directions at once.
+     * </p>
+     * <p>
+     * <b>Note:</b> Painters whose result depends on the position of a cell in
+     * the visible area instead of the cell itself do not work together with
+     * blit scrolling.
+     * </p>
+     *
+     * @param blitScrolling
+     *            <code>true</code> to shift the painted pixels on scrolling,
+     *            <code>false</code> to repaint the whole table.
+     * @since 2.0
+     */
+    public void setBlitScrolling(boolean blitScrolling) {
+        this.blitScrolling = blitScrolling;
+    }
+
+    /**
+     * Shifts the already painted pixels of the area affected by the given
+     * {@link ScrollEvent}. SWT triggers the painting of the exposed area.
+     *
+     * @param event
+     *            The {@link ScrollEvent} to handle.
+     * @return <code>true</code> if the painted pixels were shifted,
+     *         <code>false</code> if a full repaint is necessary.
+     */
+    private boolean blitScroll(ScrollEvent event) {
+        int deltaX = event.getDeltaX();
+        int deltaY = event.getDeltaY();
+        ViewportLayer viewport = event.getViewportLayer();
+        if (viewport == null
+                || (deltaX == 0) == (deltaY == 0)
+                || !this.overlayPainters.isEmpty()
+                || !isVisible()
+                || viewport.getMinColumnPosition() >= 0
+                || viewport.getMaxColumnPosition() >= 0
+                || viewport.getMinRowPosition() >= 0
+                || viewport.getMaxRowPosition() >= 0) {
+            return false;
+        }
+
+        Rectangle clientArea = getClientArea();
+        Rectangle viewportArea = viewport.getClientAreaProvider().getClientArea();
+        if (deltaY != 0) {
+            Rectangle band = clientArea.intersection(
+                    new Rectangle(clientArea.x, viewportArea.y, clientArea.width, viewportArea.height));
+            int distance = Math.abs(deltaY);
+            if (distance >= band.height) {
+                return false;
+            }
+            int sourceY = deltaY > 0 ? band.y + distance : band.y;
+            int destY = deltaY > 0 ? band.y : band.y + distance;
+            scroll(band.x, destY, band.x, sourceY, band.width, band.height - distance, false);
+            redraw(band.x, band.y, band.width, BLIT_EDGE_REPAINT_SIZE, false);
+            redraw(band.x, band.y + band.height - BLIT_EDGE_REPAINT_SIZE, band.width, BLIT_EDGE_REPAINT_SIZE, false);
+        } else {
+            Rectangle band = clientArea.intersection(
+                    new Rectangle(viewportArea.x, clientArea.y, viewportArea.width, clientArea.height));
+            int distance = Math.abs(deltaX);
+            if (distance >= band.width) {
+                return false;
+            }
+            int sourceX = deltaX > 0 ? band.x + distance : band.x;
+            int destX = deltaX > 0 ? band.x : band.x + distance;
+            scroll(destX, band.y, sourceX, band.y, band.width - distance, band.height, false);
+            redraw(band.x, band.y, BLIT_EDGE_REPAINT_SIZE, band.height, false);
+            redraw(band.x + band.width - BLIT_EDGE_REPAINT_SIZE, band.y, BLIT_EDGE_REPAINT_SIZE, band.height, false);
+        }
+        return true;
+    }
+
     @Override
     public void paintControl(final PaintEvent event) {
         paintNatTable(event);
@@ -754,6 +858,12 @@ public void handleLayerEvent(ILayerEvent event) {
             // updates every 100ms to avoid flickering when handling too
             // many refresh operations in a short period
             redraw();
+        } else if (this.blitScrolling
+                && event instanceof ScrollEvent
+                && blitScroll((ScrollEvent) event)) {
+            // the exposed area is painted by SWT, only the scroll bars need to
+            // be updated
+            doCommand(new RecalculateScrollBarsCommand());
         } else if (event instanceof IVisualChangeEvent) {
             this.conflaterChain.addEvent(event);
         }
@@ -12,29 +12,33 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.blink;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.Serializable;
+import java.util.Collection;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.impl.factory.primitive.LongObjectMaps;
 import org.eclipse.nebula.widgets.nattable.blink.command.BlinkTimerEnableCommandHandler;
 import org.eclipse.nebula.widgets.nattable.blink.event.BlinkEvent;
 import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.data.IColumnPropertyResolver;
 import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
 import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
 import org.eclipse.nebula.widgets.nattable.data.IRowIdAccessor;
 import org.eclipse.nebula.widgets.nattable.layer.AbstractLayerTransform;
-import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
 import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateBatchEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.nebula.widgets.nattable.util.HashedTimerWheel;
+import org.eclipse.nebula.widgets.nattable.util.HashedTimerWheel.TimerQueue;
 import org.eclipse.swt.widgets.Display;
 
 /**
@@ -43,8 +47,14 @@
  *
  * Every time its asked for config labels: Checks the UpdateEventsCache for
  * changes to the cell If a cell is updated The cell is tracked as 'blinking'
- * and blinking config labels are returned A TimerTask is started which will
+ * and blinking config labels are returned A timeout is started which will
  * stop the blinking after the blink period is over
+ * <p>
+ * The timeouts of all blinking cells and of the {@link UpdateEventsCache} are
+ * driven by a single {@link HashedTimerWheel}. The cells whose blink period is
+ * over within the same tick are stopped together with a single
+ * {@link BlinkEvent} for the region that contains them.
+ * </p>
  *
  * @param <T>
  *            Type of the Bean in the backing {@linkplain IDataProvider}
@@ -58,6 +68,8 @@
     private final IRowIdAccessor<T> rowIdAccessor;
     private final IColumnPropertyResolver columnPropertyResolver;
     private final ScheduledExecutorService scheduler;
+    private final HashedTimerWheel timerWheel;
+    private final boolean blinkRows;
 
     protected boolean blinkingEnabled = true;
 
@@ -70,10 +82,19 @@
     private int blinkDurationInMilis = 1000;
 
     /** Track the updates which are currently blinking */
-    Map<String, PropertyUpdateEvent<T>> blinkingUpdates = new HashMap<String, PropertyUpdateEvent<T>>();
+    MutableLongObjectMap<PropertyUpdateEvent<T>> blinkingUpdates = LongObjectMaps.mutable.empty();
 
-    /** Track the blinking tasks which are currently running */
-    Map<String, ScheduledFuture<?>> blinkingTasks = new HashMap<String, ScheduledFuture<?>>();
+    /** Track the cells which are currently blinking */
+    MutableLongObjectMap<BlinkingCell> blinkingCells = LongObjectMaps.mutable.empty();
+
+    /** The timeouts that stop the blinking */
+    private final TimerQueue<Long> blinkTimeouts;
+
+    /**
+     * Counter for structural changes, used to detect whether the tracked
+     * indexes of a blinking cell might be outdated.
+     */
+    private int structureVersion;
 
     public BlinkLayer(IUniqueIndexLayer dataLayer,
             IRowDataProvider<T> listDataProvider,
@@ -108,10 +129,13 @@ public BlinkLayer(IUniqueIndexLayer dataLayer,
         this.columnPropertyResolver = columnPropertyResolver;
         this.configRegistry = configRegistry;
         this.scheduler = scheduler;
+        this.timerWheel = new HashedTimerWheel(scheduler);
+        this.blinkRows = triggerBlinkOnRowUpdate;
         this.updateEventsCache = new UpdateEventsCache<T>(rowIdAccessor,
                 triggerBlinkOnRowUpdate ? new RowKeyStrategyImpl()
                         : new CellKeyStrategyImpl(),
-                scheduler);
+                this.timerWheel);
+        this.blinkTimeouts = this.timerWheel.createQueue(this::stopBlinking);
 
         registerCommandHandler(new BlinkTimerEnableCommandHandler(this));
     }
@@ -120,6 +144,7 @@ public BlinkLayer(IUniqueIndexLayer dataLayer,
     public void dispose() {
         super.dispose();
 
+        this.timerWheel.dispose();
         this.scheduler.shutdown();
     }
 
@@ -140,23 +165,29 @@ public LabelStack getConfigLabelsByPosition(int columnPosition,
                 .getColumnProperty(columnIndex);
 
         int rowIndex = getUnderlyingLayer().getRowIndexByPosition(rowPosition);
-        String rowId = this.rowIdAccessor.getRowId(
-                this.rowDataProvider.getRowObject(rowIndex)).toString();
+        Serializable rowId = this.rowIdAccessor.getRowId(
+                this.rowDataProvider.getRowObject(rowIndex));
 
-        String key = this.updateEventsCache.getKey(columnProperty, rowId);
+        // primitive lookup, to avoid creating objects for every painted cell
+        long key = this.updateEventsCache.lookupKey(columnProperty, rowId);
 
         LabelStack underlyingLabelStack = getUnderlyingLayer()
                 .getConfigLabelsByPosition(columnPosition, rowPosition);
 
+        // No update was received for the cell
+        if (key == UpdateEventsCache.NO_KEY) {
+            return underlyingLabelStack;
+        }
+
         // Cell has been updated
         if (this.updateEventsCache.isUpdated(key)) {
             PropertyUpdateEvent<T> event = this.updateEventsCache.getEvent(key);
 
             // Old update in middle of a blink - cancel it
-            ScheduledFuture<?> scheduledFuture = this.blinkingTasks.remove(key);
+            this.blinkTimeouts.cancel(key);
             this.blinkingUpdates.remove(key);
-            if (scheduledFuture != null) {
-                scheduledFuture.cancel(true);
+            if (this.blinkingCells.remove(key) != null) {
+                this.updateEventsCache.release(key);
             }
 
             LabelStack blinkingConfigTypes = resolveConfigTypes(cell,
@@ -164,11 +195,12 @@ public LabelStack getConfigLabelsByPosition(int columnPosition,
 
             // start blinking cell
             if (blinkingConfigTypes != null) {
-                Runnable stopBlinkTask = getStopBlinkTask(key, this);
                 this.blinkingUpdates.put(key, event);
+                this.blinkingCells.put(key, new BlinkingCell(columnIndex, rowIndex, this.structureVersion));
+                // keep the key valid until the blinking stops
+                this.updateEventsCache.retain(key);
                 this.updateEventsCache.remove(key);
-                this.blinkingTasks.put(key, this.scheduler.schedule(stopBlinkTask,
-                        this.blinkDurationInMilis, TimeUnit.MILLISECONDS));
+                this.blinkTimeouts.schedule(key, this.blinkDurationInMilis);
                 return blinkingConfigTypes;
             } else {
                 return underlyingLabelStack;
@@ -227,25 +259,69 @@ public LabelStack resolveConfigTypes(ILayerCell cell, Object oldValue,
     }
 
     /**
-     * Stops the cell from blinking at the end of the blinking period.
+     * Stops the cells from blinking at the end of the blinking period. Called
+     * from the timer thread with all cells whose blinking period ended in the
+     * same tick, which are then repainted with a single {@link BlinkEvent}.
+     *
+     * @param keys
+     *            The keys of the cells that stop blinking.
      */
-    private Runnable getStopBlinkTask(final String key, final ILayer layer) {
-
-        return () -> Display.getDefault().asyncExec(() -> {
+    private void stopBlinking(final Collection<Long> keys) {
+        Display.getDefault().asyncExec(() -> {
+            int minColumn = Integer.MAX_VALUE;
+            int maxColumn = -1;
+            int minRow = Integer.MAX_VALUE;
+            int maxRow = -1;
+            boolean fullRefresh = false;
+
+            for (Long key : keys) {
+                if (this.blinkTimeouts.isScheduled(key)) {
+                    // a new blink was started in the meantime
+                    continue;
+                }
+                this.blinkingUpdates.remove(key.longValue());
+                BlinkingCell cell = this.blinkingCells.remove(key.longValue());
+                if (cell == null) {
+                    continue;
+                }
+                this.updateEventsCache.release(key.longValue());
+
+                int columnPosition = getColumnPositionByIndex(cell.columnIndex);
+                int rowPosition = getRowPositionByIndex(cell.rowIndex);
+                if (cell.structureVersion != this.structureVersion || columnPosition < 0 || rowPosition < 0) {
+                    fullRefresh = true;
+                } else {
+                    minColumn = Math.min(minColumn, columnPosition);
+                    maxColumn = Math.max(maxColumn, columnPosition);
+                    minRow = Math.min(minRow, rowPosition);
+                    maxRow = Math.max(maxRow, rowPosition);
+                }
+            }
 
-            BlinkLayer.this.blinkingUpdates.remove(key);
-            BlinkLayer.this.blinkingTasks.remove(key);
-            fireLayerEvent(new BlinkEvent(layer));
+            if (fullRefresh) {
+                fireLayerEvent(new BlinkEvent(this));
+            } else if (maxRow >= 0) {
+                Range columns = this.blinkRows
+                        ? new Range(0, getColumnCount())
+                        : new Range(minColumn, maxColumn + 1);
+                fireLayerEvent(new BlinkEvent(this, columns, new Range(minRow, maxRow + 1)));
+            }
         });
-
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public void handleLayerEvent(ILayerEvent event) {
+        if (event instanceof IStructuralChangeEvent) {
+            this.structureVersion++;
+        }
         if (this.blinkingEnabled) {
             if (event instanceof PropertyUpdateEvent) {
                 this.updateEventsCache.put((PropertyUpdateEvent<T>) event);
+            } else if (event instanceof PropertyUpdateBatchEvent) {
+                for (PropertyUpdateEvent<T> updateEvent : ((PropertyUpdateBatchEvent<T>) event).getUpdateEvents()) {
+                    this.updateEventsCache.put(updateEvent);
+                }
             }
         }
         super.handleLayerEvent(event);
@@ -269,4 +345,20 @@ public void setBlinkDurationInMilis(int blinkDurationInMilis) {
         this.blinkDurationInMilis = blinkDurationInMilis;
     }
 
+    /**
+     * The indexes of a blinking cell at the time the blinking started.
+     */
+    static final class BlinkingCell {
+
+        final int columnIndex;
+        final int rowIndex;
+        final int structureVersion;
+
+        BlinkingCell(int columnIndex, int rowIndex, int structureVersion) {
+            this.columnIndex = columnIndex;
+            this.rowIndex = rowIndex;
+            this.structureVersion = structureVersion;
+        }
+    }
+
 }
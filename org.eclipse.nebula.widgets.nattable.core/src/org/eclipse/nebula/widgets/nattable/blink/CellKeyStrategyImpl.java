@@ -18,4 +18,18 @@ class CellKeyStrategyImpl implements KeyStrategy {
     public String getKey(String columnProperty, String rowId) {
         return columnProperty + "-" + rowId; //$NON-NLS-1$
     }
+
+    @Override
+    public long getKey(int columnId, int rowId) {
+        if (columnId < 0 || rowId < 0) {
+            return UpdateEventsCache.NO_KEY;
+        }
+        return ((long) columnId << 32) | rowId;
+    }
+
+    @Override
+    public int getRowId(long key) {
+        // the row id is stored in the lower 32 bits
+        return (key < 0) ? -1 : (int) key;
+    }
 }
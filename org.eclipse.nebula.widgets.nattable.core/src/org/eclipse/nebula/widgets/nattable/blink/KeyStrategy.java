@@ -16,4 +16,29 @@ interface KeyStrategy {
 
     public String getKey(String columnProperty, String rowId);
 
+    /**
+     * Create the primitive key out of the interned ids of the column property
+     * and the row id.
+     *
+     * @param columnId
+     *            The interned id of the column property, or a negative value
+     *            if the column property is not known.
+     * @param rowId
+     *            The interned id of the row id, or a negative value if the row
+     *            id is not known.
+     * @return The key, or {@link UpdateEventsCache#NO_KEY} if no key can be
+     *         created for the given ids.
+     */
+    public long getKey(int columnId, int rowId);
+
+    /**
+     * Extract the interned id of the row id out of a primitive key.
+     *
+     * @param key
+     *            The key created via {@link #getKey(int, int)}.
+     * @return The interned id of the row id, or a negative value for
+     *         {@link UpdateEventsCache#NO_KEY}.
+     */
+    public int getRowId(long key);
+
 }
@@ -18,4 +18,14 @@ class RowKeyStrategyImpl implements KeyStrategy {
     public String getKey(String columnProperty, String rowId) {
         return rowId;
     }
+
+    @Override
+    public long getKey(int columnId, int rowId) {
+        return (rowId < 0) ? UpdateEventsCache.NO_KEY : rowId;
+    }
+
+    @Override
+    public int getRowId(long key) {
+        return (key < 0) ? -1 : (int) key;
+    }
 }
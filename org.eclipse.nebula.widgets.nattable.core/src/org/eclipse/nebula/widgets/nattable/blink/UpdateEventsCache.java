@@ -12,137 +12,367 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.blink;
 
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableObjectIntMap;
+import org.eclipse.collections.api.map.primitive.MutableObjectLongMap;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+import org.eclipse.collections.impl.factory.primitive.LongObjectMaps;
+import org.eclipse.collections.impl.factory.primitive.ObjectIntMaps;
+import org.eclipse.collections.impl.factory.primitive.ObjectLongMaps;
 import org.eclipse.nebula.widgets.nattable.data.IRowIdAccessor;
 import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.util.HashedTimerWheel;
+import org.eclipse.nebula.widgets.nattable.util.HashedTimerWheel.TimerQueue;
 
 /**
  * Cache for the update events coming in.
  *
  * This cache is used by the {@link BlinkLayer} to check if updates are
- * available for a cell (hence, does it need to blink).
+ * available for a cell (hence, does it need to blink). Events are removed
+ * from the cache after {@link #TIME_TO_LIVE}, driven by a
+ * {@link HashedTimerWheel} that can be shared with the {@link BlinkLayer}.
+ * <p>
+ * The events are stored by a primitive key, which is created out of ids that
+ * are assigned to the column properties and row ids of the updates. This way
+ * looking up a cell via {@link #lookupKey(String, Serializable)} and
+ * {@link #isUpdated(long)} does not create any objects, which is important as
+ * it is done for every painted cell. The ids of the column properties are
+ * kept for the lifetime of the cache, as their number is bounded by the
+ * columns of the table. The ids of the row ids are reference counted and
+ * released as soon as no event is cached and no blink is running for the row
+ * anymore, so the cache does not grow with the number of rows that were ever
+ * updated. Released ids are reused for other rows.
+ * </p>
  *
  * @param <T>
  *            Type of the Bean in the backing list.
  */
 public class UpdateEventsCache<T> {
 
-    /** Initial startup delay for the expired event removal task */
+    /**
+     * Initial startup delay for the expired event removal task
+     *
+     * @deprecated The expired events are removed by a
+     *             {@link HashedTimerWheel} without initial delay.
+     */
+    @Deprecated
     public static final long INITIAL_DELAY = 100;
 
     /** TTL for an event in the cache. The event is deleted when this expires */
     public static final long TIME_TO_LIVE = 500;
 
+    /**
+     * Key that is returned by {@link #lookupKey(String, Serializable)} if no
+     * update was received for the column property and row id.
+     *
+     * @since 2.0
+     */
+    public static final long NO_KEY = -1L;
+
     private final IRowIdAccessor<T> rowIdAccessor;
     private final KeyStrategy keyStrategy;
-    private final ScheduledExecutorService cleanupScheduler;
+    private final TimerQueue<Long> expirations;
+
+    private final MutableObjectIntMap<String> columnIds = ObjectIntMaps.mutable.empty();
+    private final MutableObjectIntMap<Object> rowIds = ObjectIntMaps.mutable.empty();
+    private final MutableLongObjectMap<PropertyUpdateEvent<T>> updateEvents = LongObjectMaps.mutable.empty();
+
+    /**
+     * The row ids and the number of references per assigned row id, indexed
+     * by the assigned id. A reference is held by every cached event and every
+     * running blink of the row.
+     */
+    private Object[] rowIdValues = new Object[64];
+    private int[] rowIdReferences = new int[64];
+    /**
+     * The released ids that can be assigned to new row ids.
+     */
+    private final MutableIntList freeRowIds = IntLists.mutable.empty();
 
-    private Map<String, TimeStampedEvent> updateEvents;
-    private ScheduledFuture<?> scheduledFutureCleanup;
+    /**
+     * The keys of the cached events by their String key, only created and
+     * maintained once one of the deprecated String based methods is used.
+     */
+    private MutableObjectLongMap<String> stringKeys;
 
     public UpdateEventsCache(IRowIdAccessor<T> rowIdAccessor,
             KeyStrategy keyStrategy, ScheduledExecutorService cleanupScheduler) {
+        this(rowIdAccessor, keyStrategy, new HashedTimerWheel(cleanupScheduler));
+    }
+
+    /**
+     *
+     * @param rowIdAccessor
+     *            The {@link IRowIdAccessor} to get the id of the updated row
+     *            objects.
+     * @param keyStrategy
+     *            The {@link KeyStrategy} to create the keys for the updates.
+     * @param timerWheel
+     *            The {@link HashedTimerWheel} that removes the events after
+     *            {@link #TIME_TO_LIVE}.
+     * @since 2.0
+     */
+    public UpdateEventsCache(IRowIdAccessor<T> rowIdAccessor,
+            KeyStrategy keyStrategy, HashedTimerWheel timerWheel) {
         this.rowIdAccessor = rowIdAccessor;
         this.keyStrategy = keyStrategy;
-        this.cleanupScheduler = cleanupScheduler;
-        this.updateEvents = new HashMap<String, TimeStampedEvent>();
+        this.expirations = timerWheel.createQueue(this::removeExpired);
     }
 
     /**
      * We are not interested in update events which are too old and need not be
-     * blinked. This task cleans them up, by looking at the received time stamp.
-     */
-    private Runnable getStaleUpdatesCleanupTask() {
-        return () -> {
-            Map<String, TimeStampedEvent> recentEvents = new HashMap<String, TimeStampedEvent>();
-            Date recent = new Date(System.currentTimeMillis()
-                    - TIME_TO_LIVE);
-
-            for (Map.Entry<String, TimeStampedEvent> entry : UpdateEventsCache.this.updateEvents
-                    .entrySet()) {
-                if (entry.getValue().timeRecieved.after(recent)) {
-                    recentEvents.put(entry.getKey(), entry.getValue());
-                }
-            }
-            synchronized (UpdateEventsCache.this.updateEvents) {
-                UpdateEventsCache.this.updateEvents = recentEvents;
-                checkUpdateEvents();
+     * blinked. Removes the events whose time to live is expired.
+     *
+     * @param keys
+     *            The keys of the expired events.
+     */
+    private synchronized void removeExpired(Collection<Long> keys) {
+        for (Long key : keys) {
+            // the event might have been updated after expiring
+            if (!this.expirations.isScheduled(key)) {
+                removeEvent(key.longValue());
             }
-        };
+        }
     }
 
-    private void checkUpdateEvents() {
-        if (this.updateEvents.isEmpty()) {
-            if (this.scheduledFutureCleanup != null) {
-                this.scheduledFutureCleanup.cancel(true);
-                this.scheduledFutureCleanup = null;
-            }
-        } else {
-            if (this.scheduledFutureCleanup == null) {
-                this.scheduledFutureCleanup = this.cleanupScheduler.scheduleAtFixedRate(
-                        getStaleUpdatesCleanupTask(), INITIAL_DELAY,
-                        TIME_TO_LIVE, TimeUnit.MILLISECONDS);
+    public synchronized void put(PropertyUpdateEvent<T> event) {
+        int columnId = this.columnIds.getIfAbsentPut(event.getPropertyName(), this.columnIds.size());
+        int rowId = assignRowId(this.rowIdAccessor.getRowId(event.getSourceBean()));
+        long key = this.keyStrategy.getKey(columnId, rowId);
+        PropertyUpdateEvent<T> previous = this.updateEvents.put(key, event);
+        if (previous == null) {
+            this.rowIdReferences[rowId]++;
+        } else if (this.stringKeys != null) {
+            this.stringKeys.remove(getKey(previous));
+        }
+        if (this.stringKeys != null) {
+            this.stringKeys.put(getKey(event), key);
+        }
+        this.expirations.schedule(key, TIME_TO_LIVE);
+    }
+
+    /**
+     * Returns the assigned id of the given row id and assigns a new id if
+     * none is assigned yet. A newly assigned id has no references.
+     */
+    private int assignRowId(Object rowId) {
+        int id = this.rowIds.getIfAbsent(rowId, -1);
+        if (id < 0) {
+            if (this.freeRowIds.notEmpty()) {
+                id = this.freeRowIds.removeAtIndex(this.freeRowIds.size() - 1);
+            } else {
+                id = this.rowIds.size();
+                if (id == this.rowIdValues.length) {
+                    this.rowIdValues = Arrays.copyOf(this.rowIdValues, id * 2);
+                    this.rowIdReferences = Arrays.copyOf(this.rowIdReferences, id * 2);
+                }
             }
+            this.rowIds.put(rowId, id);
+            this.rowIdValues[id] = rowId;
+        }
+        return id;
+    }
+
+    /**
+     * Releases the given assigned id if it has no references anymore.
+     */
+    private void releaseRowId(int rowId) {
+        if (this.rowIdReferences[rowId] == 0 && this.rowIdValues[rowId] != null) {
+            this.rowIds.remove(this.rowIdValues[rowId]);
+            this.rowIdValues[rowId] = null;
+            this.freeRowIds.add(rowId);
         }
     }
 
-    public void put(PropertyUpdateEvent<T> event) {
-        String key = getKey(event);
-        this.updateEvents.put(key, new TimeStampedEvent(event));
-        checkUpdateEvents();
+    /**
+     * Removes the event for the given key and releases its reference to the
+     * row id.
+     *
+     * @return <code>true</code> if an event was removed.
+     */
+    private boolean removeEvent(long key) {
+        PropertyUpdateEvent<T> event = this.updateEvents.remove(key);
+        if (event == null) {
+            return false;
+        }
+        if (this.stringKeys != null) {
+            this.stringKeys.remove(getKey(event));
+        }
+        release(key);
+        return true;
+    }
+
+    /**
+     * Adds a reference to the row id of the given key, so the key stays
+     * valid after its event was removed, e.g. while the cell is blinking.
+     * Needs to be released via {@link #release(long)}.
+     *
+     * @param key
+     *            The key of the cell, as returned by
+     *            {@link #lookupKey(String, Serializable)}.
+     */
+    synchronized void retain(long key) {
+        int rowId = this.keyStrategy.getRowId(key);
+        if (rowId >= 0 && rowId < this.rowIdValues.length && this.rowIdValues[rowId] != null) {
+            this.rowIdReferences[rowId]++;
+        }
     }
 
+    /**
+     * Removes a reference to the row id of the given key. The row id is
+     * released if it has no references anymore, so {@link #lookupKey(String,
+     * Serializable)} returns {@link #NO_KEY} for it afterwards.
+     *
+     * @param key
+     *            The key of the cell, as returned by
+     *            {@link #lookupKey(String, Serializable)}.
+     */
+    synchronized void release(long key) {
+        int rowId = this.keyStrategy.getRowId(key);
+        if (rowId >= 0 && rowId < this.rowIdValues.length && this.rowIdReferences[rowId] > 0) {
+            this.rowIdReferences[rowId]--;
+            releaseRowId(rowId);
+        }
+    }
+
+    /**
+     * Returns the key for the given column property and row id without
+     * creating any objects.
+     *
+     * @param columnProperty
+     *            The column property of the cell.
+     * @param rowId
+     *            The row id of the cell, as returned by the
+     *            {@link IRowIdAccessor}.
+     * @return The key of the cell, or {@link #NO_KEY} if no update was
+     *         received for the column property and row id so far.
+     * @since 2.0
+     */
+    public synchronized long lookupKey(String columnProperty, Serializable rowId) {
+        return this.keyStrategy.getKey(
+                this.columnIds.getIfAbsent(columnProperty, -1),
+                this.rowIds.getIfAbsent(rowId, -1));
+    }
+
+    /**
+     * @param key
+     *            The key of the cell, as returned by
+     *            {@link #lookupKey(String, Serializable)}.
+     * @return <code>true</code> if an update event is available for the key.
+     * @since 2.0
+     */
+    public synchronized boolean isUpdated(long key) {
+        return this.updateEvents.containsKey(key);
+    }
+
+    /**
+     * @param key
+     *            The key of the cell, as returned by
+     *            {@link #lookupKey(String, Serializable)}.
+     * @return The update event for the key or <code>null</code>.
+     * @since 2.0
+     */
+    public synchronized PropertyUpdateEvent<T> getEvent(long key) {
+        return this.updateEvents.get(key);
+    }
+
+    /**
+     * Removes the update event for the key.
+     *
+     * @param key
+     *            The key of the cell, as returned by
+     *            {@link #lookupKey(String, Serializable)}.
+     * @since 2.0
+     */
+    public synchronized void remove(long key) {
+        if (removeEvent(key)) {
+            this.expirations.cancel(key);
+        }
+    }
+
+    /**
+     * @deprecated Use {@link #lookupKey(String, Serializable)} to get the
+     *             primitive key of a cell.
+     */
+    @Deprecated
     protected String getKey(PropertyUpdateEvent<T> event) {
         String rowId = this.rowIdAccessor.getRowId(event.getSourceBean()).toString();
         return getKey(event.getPropertyName(), rowId);
     }
 
+    /**
+     * @deprecated Use {@link #lookupKey(String, Serializable)} to get the
+     *             primitive key of a cell.
+     */
+    @Deprecated
     public String getKey(String columnProperty, String rowId) {
         return this.keyStrategy.getKey(columnProperty, rowId);
     }
 
-    public PropertyUpdateEvent<T> getEvent(String key) {
-        return this.updateEvents.get(key).event;
+    /**
+     * @deprecated Use {@link #getEvent(long)} with the primitive key.
+     */
+    @Deprecated
+    public synchronized PropertyUpdateEvent<T> getEvent(String key) {
+        return this.updateEvents.get(toKey(key));
     }
 
-    public int getCount() {
-        return this.updateEvents.size();
+    /**
+     * Returns the primitive key of the cached event with the given String
+     * key. The mapping is created on the first call and maintained
+     * afterwards, so only users of the deprecated String based methods pay for
+     * it.
+     */
+    private long toKey(String key) {
+        if (this.stringKeys == null) {
+            this.stringKeys = ObjectLongMaps.mutable.empty();
+            this.updateEvents.forEachKeyValue((k, event) -> this.stringKeys.put(getKey(event), k));
+        }
+        return this.stringKeys.getIfAbsent(key, NO_KEY);
     }
 
-    public boolean contains(String columnProperty, String rowId) {
-        return this.updateEvents.containsKey(getKey(columnProperty, rowId));
+    public synchronized int getCount() {
+        return this.updateEvents.size();
     }
 
-    public boolean isUpdated(String key) {
-        return this.updateEvents.containsKey(key);
+    /**
+     * @deprecated Use {@link #lookupKey(String, Serializable)} and
+     *             {@link #isUpdated(long)}.
+     */
+    @Deprecated
+    public boolean contains(String columnProperty, String rowId) {
+        return isUpdated(getKey(columnProperty, rowId));
     }
 
-    public void clear() {
-        this.updateEvents.clear();
-        checkUpdateEvents();
+    /**
+     * @deprecated Use {@link #isUpdated(long)} with the primitive key.
+     */
+    @Deprecated
+    public synchronized boolean isUpdated(String key) {
+        return this.updateEvents.containsKey(toKey(key));
     }
 
-    public void remove(String key) {
-        this.updateEvents.remove(key);
-        checkUpdateEvents();
+    public synchronized void clear() {
+        this.updateEvents.forEachKey(this.expirations::cancel);
+        for (long key : this.updateEvents.keySet().toArray()) {
+            removeEvent(key);
+        }
     }
 
     /**
-     * Class to keep track of the time when an event was received
+     * @deprecated Use {@link #remove(long)} with the primitive key.
      */
-    private class TimeStampedEvent {
-        Date timeRecieved;
-        PropertyUpdateEvent<T> event;
-
-        public TimeStampedEvent(PropertyUpdateEvent<T> event) {
-            this.event = event;
-            this.timeRecieved = new Date();
+    @Deprecated
+    public synchronized void remove(String key) {
+        long primitiveKey = toKey(key);
+        if (primitiveKey != NO_KEY) {
+            remove(primitiveKey);
         }
     }
 
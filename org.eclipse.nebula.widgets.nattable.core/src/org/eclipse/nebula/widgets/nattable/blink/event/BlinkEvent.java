@@ -15,6 +15,7 @@
 import java.util.Arrays;
 import java.util.Collection;
 
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IVisualChangeEvent;
@@ -24,17 +25,57 @@ public class BlinkEvent implements IVisualChangeEvent {
 
     private ILayer layer;
 
+    /**
+     * The column positions of the cells that stopped blinking, or
+     * <code>null</code> if the whole layer is affected.
+     */
+    private Range columnPositions;
+
+    /**
+     * The row positions of the cells that stopped blinking, or
+     * <code>null</code> if the whole layer is affected.
+     */
+    private Range rowPositions;
+
     public BlinkEvent(ILayer layer) {
         this.layer = layer;
     }
 
+    /**
+     * Creates a {@link BlinkEvent} for the region that contains all cells
+     * that stopped blinking.
+     *
+     * @param layer
+     *            The layer to which the given positions match.
+     * @param columnPositions
+     *            The column positions of the region.
+     * @param rowPositions
+     *            The row positions of the region.
+     * @since 2.0
+     */
+    public BlinkEvent(ILayer layer, Range columnPositions, Range rowPositions) {
+        this.layer = layer;
+        this.columnPositions = columnPositions;
+        this.rowPositions = rowPositions;
+    }
+
     @Override
     public ILayerEvent cloneEvent() {
+        if (this.columnPositions != null) {
+            return new BlinkEvent(this.layer, this.columnPositions, this.rowPositions);
+        }
         return new BlinkEvent(this.layer);
     }
 
     @Override
     public Collection<Rectangle> getChangedPositionRectangles() {
+        if (this.columnPositions != null) {
+            return Arrays.asList(new Rectangle(
+                    this.columnPositions.start,
+                    this.rowPositions.start,
+                    this.columnPositions.size(),
+                    this.rowPositions.size()));
+        }
         return Arrays.asList(new Rectangle(0, 0, this.layer.getHeight(), this.layer.getWidth()));
     }
 
@@ -45,7 +86,36 @@ public ILayer getLayer() {
 
     @Override
     public boolean convertToLocal(ILayer localLayer) {
+        if (this.columnPositions != null) {
+            this.columnPositions = convertRange(
+                    localLayer.underlyingToLocalColumnPositions(this.layer, Arrays.asList(this.columnPositions)));
+            this.rowPositions = convertRange(
+                    localLayer.underlyingToLocalRowPositions(this.layer, Arrays.asList(this.rowPositions)));
+            this.layer = localLayer;
+            // the region is not visible in the local layer
+            return this.columnPositions != null && this.rowPositions != null;
+        }
         return true;
     }
 
+    /**
+     * @param ranges
+     *            The converted position ranges.
+     * @return The range that contains all given ranges, or <code>null</code>
+     *         if the ranges are empty.
+     */
+    private static Range convertRange(Collection<Range> ranges) {
+        int start = Integer.MAX_VALUE;
+        int end = -1;
+        if (ranges != null) {
+            for (Range range : ranges) {
+                if (range.size() > 0) {
+                    start = Math.min(start, range.start);
+                    end = Math.max(end, range.end);
+                }
+            }
+        }
+        return (end > start) ? new Range(start, end) : null;
+    }
+
 }
@@ -12,21 +12,62 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.config;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.nebula.widgets.nattable.style.ConfigAttribute;
 import org.eclipse.nebula.widgets.nattable.style.DefaultDisplayModeOrdering;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
 import org.eclipse.nebula.widgets.nattable.style.IDisplayModeOrdering;
+import org.eclipse.nebula.widgets.nattable.style.IStyle;
+import org.eclipse.nebula.widgets.nattable.style.StyleProxy;
 
 public class ConfigRegistry implements IConfigRegistry {
 
+    /**
+     * The maximum number of resolved lookups that are kept in the lookup
+     * cache. If the cache reaches this size, {@link #LOOKUP_CACHE_EVICTION}
+     * entries are evicted, e.g. in case of row or cell specific labels.
+     */
+    private static final int MAX_LOOKUP_CACHE_SIZE = 1 << 14;
+
+    /**
+     * The number of entries that are evicted from the lookup cache if it
+     * reaches {@link #MAX_LOOKUP_CACHE_SIZE}.
+     */
+    private static final int LOOKUP_CACHE_EVICTION = MAX_LOOKUP_CACHE_SIZE >> 3;
+
+    /**
+     * Reusable key per thread that is used to probe the lookup cache without
+     * creating a new key object for every lookup.
+     */
+    private static final ThreadLocal<LookupKey> PROBE_KEY = ThreadLocal.withInitial(LookupKey::new);
+
     // Map<configAttributeType, Map<displayMode, Map<configLabel, value>>>
     Map<ConfigAttribute<?>, Map<String, Map<String, ?>>> configRegistry = new HashMap<ConfigAttribute<?>, Map<String, Map<String, ?>>>();
 
+    /**
+     * The cache of resolved lookups, <code>null</code> if the lookup cache is
+     * disabled.
+     */
+    private volatile Map<LookupKey, CachedValue> lookupCache;
+
+    /**
+     * Version of the registry content, incremented on every modification.
+     * Cached lookups are only valid for the version they were resolved with,
+     * so a lookup that was resolved concurrently to a modification is never
+     * returned afterwards.
+     */
+    private final AtomicLong version = new AtomicLong();
+
     @Override
     public <T> T getConfigAttribute(
             ConfigAttribute<T> configAttribute,
@@ -46,6 +87,33 @@ public <T> T getConfigAttribute(
             String targetDisplayMode,
             List<String> configLabels) {
 
+        Map<LookupKey, CachedValue> cache = this.lookupCache;
+        if (cache != null) {
+            long currentVersion = this.version.get();
+            LookupKey key = PROBE_KEY.get().set(configAttribute, null, targetDisplayMode, configLabels);
+            CachedValue cached = cache.get(key);
+            if (cached != null && cached.version == currentVersion) {
+                key.clear();
+                return (T) cached.value;
+            }
+            // copy the key before resolving, as the resolution might reuse
+            // the probe key of this thread
+            LookupKey storeKey = key.copy();
+            key.clear();
+            T value = resolveConfigAttribute(configAttribute, targetDisplayMode, configLabels);
+            putLookup(cache, storeKey, value, currentVersion);
+            return value;
+        }
+
+        return resolveConfigAttribute(configAttribute, targetDisplayMode, configLabels);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T resolveConfigAttribute(
+            ConfigAttribute<T> configAttribute,
+            String targetDisplayMode,
+            List<String> configLabels) {
+
         T attributeValue = null;
 
         Map<String, Map<String, ?>> displayModeConfigAttributeMap = this.configRegistry.get(configAttribute);
@@ -95,6 +163,160 @@ public <T> T getSpecificConfigAttribute(
         return attributeValue;
     }
 
+    /**
+     * Returns the value of the given style attribute for the given display
+     * mode and config labels. The {@link IStyle} objects registered for the
+     * given style config attribute are inspected in the same order as in
+     * {@link #getConfigAttribute(ConfigAttribute, String, List)}, and the
+     * first style that contains a value for the style attribute wins.
+     * <p>
+     * If the lookup cache is enabled, the resolved value is cached, so
+     * subsequent calls for the same combination of style attribute, display
+     * mode and config labels are answered via a single hash lookup.
+     * </p>
+     *
+     * @param <T>
+     *            The type of the style attribute value.
+     * @param styleConfigAttribute
+     *            The config attribute under which the {@link IStyle} objects
+     *            are registered, e.g. CellConfigAttributes.CELL_STYLE.
+     * @param styleAttribute
+     *            The style attribute whose value is requested.
+     * @param targetDisplayMode
+     *            The display mode of the cell.
+     * @param configLabels
+     *            The config labels of the cell.
+     * @return The value of the style attribute or <code>null</code> if no
+     *         registered style contains a value for it.
+     * @since 2.0
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getStyleAttributeValue(
+            ConfigAttribute<IStyle> styleConfigAttribute,
+            ConfigAttribute<T> styleAttribute,
+            String targetDisplayMode,
+            List<String> configLabels) {
+
+        Map<LookupKey, CachedValue> cache = this.lookupCache;
+        if (cache != null) {
+            long currentVersion = this.version.get();
+            LookupKey key = PROBE_KEY.get().set(styleConfigAttribute, styleAttribute, targetDisplayMode, configLabels);
+            CachedValue cached = cache.get(key);
+            if (cached != null && cached.version == currentVersion) {
+                key.clear();
+                return (T) cached.value;
+            }
+            // copy the key before resolving, as the resolution might reuse
+            // the probe key of this thread
+            LookupKey storeKey = key.copy();
+            key.clear();
+            T value = StyleProxy.resolveAttributeValue(this, styleConfigAttribute, styleAttribute, targetDisplayMode, configLabels);
+            putLookup(cache, storeKey, value, currentVersion);
+            return value;
+        }
+
+        return StyleProxy.resolveAttributeValue(this, styleConfigAttribute, styleAttribute, targetDisplayMode, configLabels);
+    }
+
+    /**
+     * Stores a resolved lookup in the cache, unless the registry was modified
+     * while the value was resolved.
+     *
+     * @param cache
+     *            The lookup cache.
+     * @param key
+     *            The key under which the value is stored.
+     * @param value
+     *            The resolved value.
+     * @param resolvedVersion
+     *            The registry version the value was resolved with.
+     */
+    private void putLookup(Map<LookupKey, CachedValue> cache, LookupKey key, Object value, long resolvedVersion) {
+        if (this.version.get() != resolvedVersion) {
+            return;
+        }
+        if (cache.size() >= MAX_LOOKUP_CACHE_SIZE) {
+            // evict a bounded number of entries instead of dropping all
+            Iterator<LookupKey> it = cache.keySet().iterator();
+            for (int i = 0; i < LOOKUP_CACHE_EVICTION && it.hasNext(); i++) {
+                it.next();
+                it.remove();
+            }
+        }
+        cache.put(key, new CachedValue(value, resolvedVersion));
+    }
+
+    /**
+     * Enable or disable the lookup cache. If enabled, the results of
+     * {@link #getConfigAttribute(ConfigAttribute, String, List)} and
+     * {@link #getStyleAttributeValue(ConfigAttribute, ConfigAttribute, String, List)}
+     * are cached per combination of attribute, display mode and config
+     * labels. Subsequent lookups for the same combination are then answered
+     * via a single hash lookup instead of inspecting every display mode and
+     * config label.
+     * <p>
+     * The cache is cleared whenever a config attribute is registered or
+     * unregistered, or the display mode ordering is changed. It is not able
+     * to detect modifications of registered values, e.g. setting an attribute
+     * value on a registered {@link IStyle}. In that case
+     * {@link #clearLookupCache()} needs to be called, or the modified value
+     * needs to be registered again.
+     * </p>
+     * <p>
+     * The lookup cache is disabled by default. It is intended to be enabled
+     * after the NatTable is configured.
+     * </p>
+     *
+     * @param enabled
+     *            <code>true</code> to enable the lookup cache,
+     *            <code>false</code> to disable it.
+     * @since 2.0
+     */
+    public void setLookupCacheEnabled(boolean enabled) {
+        if (enabled) {
+            if (this.lookupCache == null) {
+                this.lookupCache = new ConcurrentHashMap<LookupKey, CachedValue>();
+            }
+        } else {
+            this.lookupCache = null;
+        }
+    }
+
+    /**
+     *
+     * @return <code>true</code> if the lookup cache is enabled.
+     * @since 2.0
+     */
+    public boolean isLookupCacheEnabled() {
+        return this.lookupCache != null;
+    }
+
+    /**
+     * Returns the modification count of this registry. It is incremented
+     * whenever a config attribute is registered or unregistered, the display
+     * mode ordering is changed or the lookup cache is cleared. Can be used to
+     * validate values that are derived from the registry content.
+     *
+     * @return The modification count of this registry.
+     * @since 2.0
+     */
+    public long getModificationCount() {
+        return this.version.get();
+    }
+
+    /**
+     * Removes all cached lookups if the lookup cache is enabled.
+     *
+     * @since 2.0
+     */
+    public void clearLookupCache() {
+        this.version.incrementAndGet();
+        Map<LookupKey, CachedValue> cache = this.lookupCache;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
     @Override
     public <T> void registerConfigAttribute(
             ConfigAttribute<T> configAttribute,
@@ -133,6 +355,8 @@ public <T> void registerConfigAttribute(
         }
 
         configAttributeMap.put(configLabel, attributeValue);
+
+        clearLookupCache();
     };
 
     @Override
@@ -164,6 +388,8 @@ public <T> void unregisterConfigAttribute(
                 configAttributeMap.remove(configLabel);
             }
         }
+
+        clearLookupCache();
     }
 
     // Display mode ordering //////////////////////////////////////////////////
@@ -177,6 +403,125 @@ public IDisplayModeOrdering getDisplayModeOrdering() {
 
     public void setDisplayModeOrdering(IDisplayModeOrdering displayModeOrdering) {
         this.displayModeOrdering = displayModeOrdering;
+        clearLookupCache();
+    }
+
+    /**
+     * Value of the lookup cache together with the registry version it was
+     * resolved with.
+     */
+    private static final class CachedValue {
+
+        private final Object value;
+        private final long version;
+
+        CachedValue(Object value, long version) {
+            this.value = value;
+            this.version = version;
+        }
     }
 
+    /**
+     * Key of the lookup cache. A single mutable instance per thread is used
+     * for probing the cache, referencing the config labels directly. Before
+     * a key is stored, it is copied via {@link #copy()}, as the passed label
+     * lists are typically mutable.
+     */
+    private static final class LookupKey {
+
+        private ConfigAttribute<?> configAttribute;
+        private ConfigAttribute<?> styleAttribute;
+        private String displayMode;
+        private List<String> configLabels;
+        private int hashCode;
+
+        LookupKey() {
+        }
+
+        private LookupKey(ConfigAttribute<?> configAttribute, ConfigAttribute<?> styleAttribute, String displayMode, List<String> configLabels, int hashCode) {
+            this.configAttribute = configAttribute;
+            this.styleAttribute = styleAttribute;
+            this.displayMode = displayMode;
+            this.configLabels = configLabels;
+            this.hashCode = hashCode;
+        }
+
+        LookupKey set(ConfigAttribute<?> configAttribute, ConfigAttribute<?> styleAttribute, String displayMode, List<String> configLabels) {
+            this.configAttribute = configAttribute;
+            this.styleAttribute = styleAttribute;
+            this.displayMode = displayMode;
+            this.configLabels = configLabels;
+
+            int result = System.identityHashCode(configAttribute);
+            result = 31 * result + System.identityHashCode(styleAttribute);
+            result = 31 * result + Objects.hashCode(displayMode);
+            if (configLabels instanceof RandomAccess) {
+                for (int i = 0; i < configLabels.size(); i++) {
+                    result = 31 * result + Objects.hashCode(configLabels.get(i));
+                }
+            } else {
+                for (String label : configLabels) {
+                    result = 31 * result + Objects.hashCode(label);
+                }
+            }
+            this.hashCode = result;
+            return this;
+        }
+
+        /**
+         * Release the references of a probe key, so the probed label list
+         * is not kept reachable by the thread.
+         */
+        void clear() {
+            this.configAttribute = null;
+            this.styleAttribute = null;
+            this.displayMode = null;
+            this.configLabels = null;
+        }
+
+        LookupKey copy() {
+            return new LookupKey(
+                    this.configAttribute,
+                    this.styleAttribute,
+                    this.displayMode,
+                    new ArrayList<String>(this.configLabels),
+                    this.hashCode);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof LookupKey)) {
+                return false;
+            }
+            LookupKey other = (LookupKey) obj;
+            return this.hashCode == other.hashCode
+                    && this.configAttribute == other.configAttribute
+                    && this.styleAttribute == other.styleAttribute
+                    && Objects.equals(this.displayMode, other.displayMode)
+                    && labelsEqual(this.configLabels, other.configLabels);
+        }
+
+        private static boolean labelsEqual(List<String> labels1, List<String> labels2) {
+            if (labels1.size() != labels2.size()) {
+                return false;
+            }
+            if (labels1 instanceof RandomAccess && labels2 instanceof RandomAccess) {
+                for (int i = 0; i < labels1.size(); i++) {
+                    if (!Objects.equals(labels1.get(i), labels2.get(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return labels1.equals(labels2);
+        }
+    }
 }
@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Base class for read-only {@link IRowDataProvider}s that memory-map a file
+ * instead of loading it into a list of row objects. Only the rows that are
+ * requested, typically the rows in the viewport, are decoded. Decoded rows are
+ * kept in a bounded LRU cache, so the heap usage does not depend on the file
+ * size.
+ * <p>
+ * The row objects are the decoded values of a row as <code>Object[]</code>.
+ * </p>
+ * <p>
+ * Note that the JVM releases the mapping of a file only when the mapped
+ * buffers are garbage collected, so a file might stay locked after
+ * {@link #close()} on some operating systems.
+ * </p>
+ *
+ * @see DelimitedFileDataProvider
+ * @see FixedWidthBinaryDataProvider
+ * @since 2.0
+ */
+public abstract class AbstractMappedFileDataProvider implements IRowDataProvider<Object[]>, Closeable {
+
+    /**
+     * The default number of decoded rows that are cached.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    /**
+     * A file is mapped in segments of 1 GB, as a single mapping is limited to
+     * 2 GB.
+     */
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final long fileSize;
+    private final ByteOrder byteOrder;
+    private ByteBuffer[] segments;
+
+    private final Map<Integer, Object[]> rowCache;
+
+    /**
+     * Maps the given file.
+     *
+     * @param file
+     *            The file to map.
+     * @param byteOrder
+     *            The byte order used to read multi-byte values.
+     * @param cacheSize
+     *            The maximum number of decoded rows to cache.
+     * @throws IOException
+     *             if the file can not be mapped.
+     */
+    protected AbstractMappedFileDataProvider(Path file, ByteOrder byteOrder, final int cacheSize) throws IOException {
+        this.byteOrder = byteOrder;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            this.fileSize = channel.size();
+            int segmentCount = (int) ((this.fileSize + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            this.segments = new ByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long position = (long) i << SEGMENT_SHIFT;
+                this.segments[i] = channel
+                        .map(MapMode.READ_ONLY, position, Math.min(SEGMENT_MASK + 1, this.fileSize - position))
+                        .order(byteOrder);
+            }
+        }
+
+        this.rowCache = new LinkedHashMap<Integer, Object[]>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Object[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Decodes the row with the given index.
+     *
+     * @param rowIndex
+     *            The index of the row to decode.
+     * @return The decoded values of the row.
+     */
+    protected abstract Object[] decodeRow(int rowIndex);
+
+    @Override
+    public Object getDataValue(int columnIndex, int rowIndex) {
+        Object[] row = getRowObject(rowIndex);
+        return columnIndex < row.length ? row[columnIndex] : null;
+    }
+
+    /**
+     * Not supported as the data provider is read-only.
+     *
+     * @throws UnsupportedOperationException
+     *             always
+     */
+    @Override
+    public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+        throw new UnsupportedOperationException("Memory-mapped data is read-only"); //$NON-NLS-1$
+    }
+
+    @Override
+    public Object[] getRowObject(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= getRowCount()) {
+            throw new IndexOutOfBoundsException("Row index: " + rowIndex + ", row count: " + getRowCount()); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        synchronized (this.rowCache) {
+            Object[] row = this.rowCache.get(rowIndex);
+            if (row == null) {
+                row = decodeRow(rowIndex);
+                this.rowCache.put(rowIndex, row);
+            }
+            return row;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the cached rows are searched, as decoding the whole file for a
+     * lookup is not reasonable. Returns -1 for row objects that were evicted
+     * from the cache.
+     * </p>
+     */
+    @Override
+    public int indexOfRowObject(Object[] rowObject) {
+        synchronized (this.rowCache) {
+            for (Map.Entry<Integer, Object[]> entry : this.rowCache.entrySet()) {
+                if (entry.getValue() == rowObject) {
+                    return entry.getKey();
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes all decoded rows from the cache.
+     */
+    public void clearCache() {
+        synchronized (this.rowCache) {
+            this.rowCache.clear();
+        }
+    }
+
+    /**
+     * Releases the references to the mapped file and the cached rows. The
+     * data provider can not be used afterwards.
+     */
+    @Override
+    public void close() {
+        clearCache();
+        this.segments = new ByteBuffer[0];
+    }
+
+    /**
+     * @return The size of the mapped file in bytes.
+     */
+    protected long getFileSize() {
+        return this.fileSize;
+    }
+
+    /**
+     * @param position
+     *            The position in the file.
+     * @return The byte at the given position.
+     */
+    protected final byte getByte(long position) {
+        return this.segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK));
+    }
+
+    /**
+     * Copies bytes from the file into the given array.
+     *
+     * @param position
+     *            The position in the file to start at.
+     * @param dst
+     *            The array to copy the bytes to.
+     * @param offset
+     *            The offset in the array.
+     * @param length
+     *            The number of bytes to copy.
+     */
+    protected final void getBytes(long position, byte[] dst, int offset, int length) {
+        long current = position;
+        int copied = 0;
+        while (copied < length) {
+            // duplicate as the position of the shared buffer must not change
+            ByteBuffer segment = this.segments[(int) (current >>> SEGMENT_SHIFT)].duplicate();
+            int index = (int) (current & SEGMENT_MASK);
+            int count = Math.min(length - copied, segment.limit() - index);
+            segment.position(index);
+            segment.get(dst, offset + copied, count);
+            copied += count;
+            current += count;
+        }
+    }
+
+    /**
+     * @param position
+     *            The position in the file.
+     * @return The short value at the given position.
+     */
+    protected final short getShort(long position) {
+        ByteBuffer segment = this.segments[(int) (position >>> SEGMENT_SHIFT)];
+        int index = (int) (position & SEGMENT_MASK);
+        if (index + Short.BYTES <= segment.limit()) {
+            return segment.getShort(index);
+        }
+        return getSpanning(position, Short.BYTES).getShort(0);
+    }
+
+    /**
+     * @param position
+     *            The position in the file.
+     * @return The int value at the given position.
+     */
+    protected final int getInt(long position) {
+        ByteBuffer segment = this.segments[(int) (position >>> SEGMENT_SHIFT)];
+        int index = (int) (position & SEGMENT_MASK);
+        if (index + Integer.BYTES <= segment.limit()) {
+            return segment.getInt(index);
+        }
+        return getSpanning(position, Integer.BYTES).getInt(0);
+    }
+
+    /**
+     * @param position
+     *            The position in the file.
+     * @return The long value at the given position.
+     */
+    protected final long getLong(long position) {
+        ByteBuffer segment = this.segments[(int) (position >>> SEGMENT_SHIFT)];
+        int index = (int) (position & SEGMENT_MASK);
+        if (index + Long.BYTES <= segment.limit()) {
+            return segment.getLong(index);
+        }
+        return getSpanning(position, Long.BYTES).getLong(0);
+    }
+
+    /**
+     * Copies a value that spans two segments into a separate buffer.
+     */
+    private ByteBuffer getSpanning(long position, int length) {
+        byte[] bytes = new byte[length];
+        getBytes(position, bytes, 0, length);
+        return ByteBuffer.wrap(bytes).order(this.byteOrder);
+    }
+}
@@ -0,0 +1,489 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link IPrimitiveDataProvider} that stores the data column wise. Numeric
+ * columns are backed by primitive arrays or by {@link DoubleBuffer}s and
+ * {@link LongBuffer}s, which can also be direct buffers that are allocated
+ * off-heap. Compared to a {@link ListDataProvider} with a bean per row, this
+ * avoids an object per row and a wrapper object per numeric value, which
+ * matters for large numeric grids.
+ * <p>
+ * The row count is fixed on creation and all columns need to provide at least
+ * that number of values. The arrays and buffers are used directly and not
+ * copied, so changes to them are reflected by this provider.
+ * </p>
+ * <p>
+ * Numeric columns track <code>null</code> values in a bitmap that is created
+ * on demand, so {@link #getDataValue(int, int)} returns <code>null</code> for
+ * them and {@link Double#NaN} stays a regular double value. While a numeric
+ * column contains <code>null</code> values, {@link #isNumericColumn(int)}
+ * returns <code>false</code> for it, so bulk consumers fall back to
+ * {@link #getDataValue(int, int)} and handle the <code>null</code> values like
+ * for any other {@link IDataProvider}. Consumers that keep using the primitive
+ * access can check {@link #isNull(int, int)}.
+ * </p>
+ * <p>
+ * Example:
+ * </p>
+ *
+ * <pre>
+ * ColumnarDataProvider dataProvider = new ColumnarDataProvider(rowCount)
+ *         .addColumn(symbols)
+ *         .addDoubleColumn(prices)
+ *         .addLongColumn(volumes);
+ * </pre>
+ *
+ * @since 2.0
+ */
+public class ColumnarDataProvider implements IPrimitiveDataProvider {
+
+    private final int rowCount;
+    private final List<Column> columns = new ArrayList<>();
+
+    /**
+     * Creates an empty {@link ColumnarDataProvider} with the given row count.
+     * Columns need to be added via the <code>add</code> methods.
+     *
+     * @param rowCount
+     *            The number of rows.
+     */
+    public ColumnarDataProvider(int rowCount) {
+        if (rowCount < 0) {
+            throw new IllegalArgumentException("rowCount can not be negative"); //$NON-NLS-1$
+        }
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Add a column that is backed by the given double array.
+     *
+     * @param values
+     *            The values of the column.
+     * @return This {@link ColumnarDataProvider} for method chaining.
+     */
+    public ColumnarDataProvider addDoubleColumn(double[] values) {
+        checkLength(values.length);
+        this.columns.add(new DoubleArrayColumn(values));
+        return this;
+    }
+
+    /**
+     * Add a column that is backed by the given long array.
+     *
+     * @param values
+     *            The values of the column.
+     * @return This {@link ColumnarDataProvider} for method chaining.
+     */
+    public ColumnarDataProvider addLongColumn(long[] values) {
+        checkLength(values.length);
+        this.columns.add(new LongArrayColumn(values));
+        return this;
+    }
+
+    /**
+     * Add a column that is backed by the given {@link DoubleBuffer}. The
+     * values are accessed with absolute indexes starting at 0.
+     *
+     * @param values
+     *            The values of the column.
+     * @return This {@link ColumnarDataProvider} for method chaining.
+     */
+    public ColumnarDataProvider addDoubleColumn(DoubleBuffer values) {
+        checkLength(values.limit());
+        this.columns.add(new DoubleBufferColumn(values));
+        return this;
+    }
+
+    /**
+     * Add a column that is backed by the given {@link LongBuffer}. The values
+     * are accessed with absolute indexes starting at 0.
+     *
+     * @param values
+     *            The values of the column.
+     * @return This {@link ColumnarDataProvider} for method chaining.
+     */
+    public ColumnarDataProvider addLongColumn(LongBuffer values) {
+        checkLength(values.limit());
+        this.columns.add(new LongBufferColumn(values));
+        return this;
+    }
+
+    /**
+     * Add a column that is backed by the given object array, e.g. for labels.
+     *
+     * @param values
+     *            The values of the column.
+     * @return This {@link ColumnarDataProvider} for method chaining.
+     */
+    public ColumnarDataProvider addColumn(Object[] values) {
+        checkLength(values.length);
+        this.columns.add(new ObjectColumn(values));
+        return this;
+    }
+
+    private void checkLength(int length) {
+        if (length < this.rowCount) {
+            throw new IllegalArgumentException("column contains less than " + this.rowCount + " values"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    @Override
+    public Object getDataValue(int columnIndex, int rowIndex) {
+        return this.columns.get(columnIndex).get(rowIndex);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Setting <code>null</code> to a numeric column marks the value as
+     * <code>null</code>. The backing array or buffer is set to
+     * {@link Double#NaN} for double columns and to 0 for long columns.
+     * </p>
+     *
+     * @throws IllegalArgumentException
+     *             if a numeric column should be set to a non numeric value.
+     */
+    @Override
+    public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+        this.columns.get(columnIndex).set(rowIndex, newValue);
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.columns.size();
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    @Override
+    public boolean isNumericColumn(int columnIndex) {
+        return this.columns.get(columnIndex).isNumeric();
+    }
+
+    @Override
+    public boolean isFloatingPointColumn(int columnIndex) {
+        return this.columns.get(columnIndex).isFloatingPoint();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns {@link Double#NaN} for <code>null</code> values.
+     * </p>
+     */
+    @Override
+    public double getDouble(int columnIndex, int rowIndex) {
+        return this.columns.get(columnIndex).getDouble(rowIndex);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns 0 for <code>null</code> values.
+     * </p>
+     */
+    @Override
+    public long getLong(int columnIndex, int rowIndex) {
+        return this.columns.get(columnIndex).getLong(rowIndex);
+    }
+
+    @Override
+    public boolean isNull(int columnIndex, int rowIndex) {
+        Column column = this.columns.get(columnIndex);
+        if (column instanceof NumericColumn) {
+            return ((NumericColumn) column).isNull(rowIndex);
+        }
+        return column.get(rowIndex) == null;
+    }
+
+    private static Number toNumber(Object value) {
+        if (value instanceof Number) {
+            return (Number) value;
+        }
+        throw new IllegalArgumentException("value needs to be a Number: " + value); //$NON-NLS-1$
+    }
+
+    private abstract static class Column {
+
+        abstract Object get(int row);
+
+        abstract void set(int row, Object value);
+
+        boolean isNumeric() {
+            return true;
+        }
+
+        boolean isFloatingPoint() {
+            return false;
+        }
+
+        abstract double getDouble(int row);
+
+        abstract long getLong(int row);
+    }
+
+    /**
+     * Base class for numeric columns that tracks <code>null</code> values in a
+     * bitmap.
+     */
+    private abstract static class NumericColumn extends Column {
+
+        /**
+         * One bit per row that is set for <code>null</code> values, created on
+         * the first <code>null</code> value.
+         */
+        private long[] nullBits;
+        private int nullCount;
+
+        abstract int length();
+
+        boolean isNull(int row) {
+            return this.nullCount > 0 && (this.nullBits[row >>> 6] & (1L << row)) != 0;
+        }
+
+        void markNull(int row) {
+            if (this.nullBits == null) {
+                this.nullBits = new long[(length() + 63) >>> 6];
+            }
+            if ((this.nullBits[row >>> 6] & (1L << row)) == 0) {
+                this.nullBits[row >>> 6] |= 1L << row;
+                this.nullCount++;
+            }
+        }
+
+        void clearNull(int row) {
+            if (isNull(row)) {
+                this.nullBits[row >>> 6] &= ~(1L << row);
+                this.nullCount--;
+            }
+        }
+
+        @Override
+        boolean isNumeric() {
+            return this.nullCount == 0;
+        }
+    }
+
+    private abstract static class DoubleColumn extends NumericColumn {
+
+        abstract double getValue(int row);
+
+        abstract void setValue(int row, double value);
+
+        @Override
+        boolean isFloatingPoint() {
+            return true;
+        }
+
+        @Override
+        Object get(int row) {
+            return isNull(row) ? null : Double.valueOf(getValue(row));
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (value == null) {
+                markNull(row);
+                setValue(row, Double.NaN);
+            } else {
+                double doubleValue = toNumber(value).doubleValue();
+                clearNull(row);
+                setValue(row, doubleValue);
+            }
+        }
+
+        @Override
+        double getDouble(int row) {
+            return getValue(row);
+        }
+
+        @Override
+        long getLong(int row) {
+            return isNull(row) ? 0 : (long) getValue(row);
+        }
+    }
+
+    private abstract static class LongColumn extends NumericColumn {
+
+        abstract long getValue(int row);
+
+        abstract void setValue(int row, long value);
+
+        @Override
+        Object get(int row) {
+            return isNull(row) ? null : Long.valueOf(getValue(row));
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (value == null) {
+                markNull(row);
+                setValue(row, 0);
+            } else {
+                long longValue = toNumber(value).longValue();
+                clearNull(row);
+                setValue(row, longValue);
+            }
+        }
+
+        @Override
+        double getDouble(int row) {
+            return isNull(row) ? Double.NaN : getValue(row);
+        }
+
+        @Override
+        long getLong(int row) {
+            return isNull(row) ? 0 : getValue(row);
+        }
+    }
+
+    private static final class DoubleArrayColumn extends DoubleColumn {
+
+        private final double[] values;
+
+        DoubleArrayColumn(double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        double getValue(int row) {
+            return this.values[row];
+        }
+
+        @Override
+        void setValue(int row, double value) {
+            this.values[row] = value;
+        }
+
+        @Override
+        int length() {
+            return this.values.length;
+        }
+    }
+
+    private static final class LongArrayColumn extends LongColumn {
+
+        private final long[] values;
+
+        LongArrayColumn(long[] values) {
+            this.values = values;
+        }
+
+        @Override
+        long getValue(int row) {
+            return this.values[row];
+        }
+
+        @Override
+        void setValue(int row, long value) {
+            this.values[row] = value;
+        }
+
+        @Override
+        int length() {
+            return this.values.length;
+        }
+    }
+
+    private static final class DoubleBufferColumn extends DoubleColumn {
+
+        private final DoubleBuffer values;
+
+        DoubleBufferColumn(DoubleBuffer values) {
+            this.values = values;
+        }
+
+        @Override
+        double getValue(int row) {
+            return this.values.get(row);
+        }
+
+        @Override
+        void setValue(int row, double value) {
+            this.values.put(row, value);
+        }
+
+        @Override
+        int length() {
+            return this.values.limit();
+        }
+    }
+
+    private static final class LongBufferColumn extends LongColumn {
+
+        private final LongBuffer values;
+
+        LongBufferColumn(LongBuffer values) {
+            this.values = values;
+        }
+
+        @Override
+        long getValue(int row) {
+            return this.values.get(row);
+        }
+
+        @Override
+        void setValue(int row, long value) {
+            this.values.put(row, value);
+        }
+
+        @Override
+        int length() {
+            return this.values.limit();
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+
+        private final Object[] values;
+
+        ObjectColumn(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        Object get(int row) {
+            return this.values[row];
+        }
+
+        @Override
+        void set(int row, Object value) {
+            this.values[row] = value;
+        }
+
+        @Override
+        boolean isNumeric() {
+            return false;
+        }
+
+        @Override
+        double getDouble(int row) {
+            throw new UnsupportedOperationException("column is not numeric"); //$NON-NLS-1$
+        }
+
+        @Override
+        long getLong(int row) {
+            throw new UnsupportedOperationException("column is not numeric"); //$NON-NLS-1$
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
+
+/**
+ * Read-only {@link IRowDataProvider} for delimited text files like CSV files,
+ * that memory-maps the file instead of loading it.
+ * <p>
+ * On the first access to the rows, e.g. when the row count is requested, the
+ * file is scanned once for line breaks to build a row offset index. Creating
+ * the data provider therefore only reads the first line. The index only
+ * contains the offset of every 64th row, so it needs about 1 MB per 8 million
+ * rows. The values of a row are only decoded when the row is requested. Files
+ * with more than {@link Integer#MAX_VALUE} rows are not supported.
+ * </p>
+ * <p>
+ * The values are returned as Strings, unless an {@link IDisplayConverter} is
+ * registered for a column via {@link #setColumnConverters(IDisplayConverter...)}
+ * that converts the String to the canonical value.
+ * </p>
+ * <p>
+ * Values can be enclosed in double quotes to contain the delimiter. Line
+ * breaks inside quoted values are not supported. The charset needs to encode
+ * the delimiter, the double quote and the line break as single bytes, which is
+ * the case for UTF-8, ISO-8859-1 and US-ASCII.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class DelimitedFileDataProvider extends AbstractMappedFileDataProvider {
+
+    private static final int INDEX_STRIDE = 64;
+
+    private final byte delimiter;
+    private final Charset charset;
+
+    private final String[] columnNames;
+    private final int columnCount;
+    private final long firstRowPosition;
+
+    /**
+     * The row count and the sparse row offset index, built on first access.
+     */
+    private volatile boolean indexed;
+    private int rowCount;
+    private long[] rowIndex;
+
+    private IDisplayConverter[] columnConverters = new IDisplayConverter[0];
+
+    /**
+     * Creates a {@link DelimitedFileDataProvider} for a UTF-8 encoded file.
+     *
+     * @param file
+     *            The file to show.
+     * @param delimiter
+     *            The character that separates the values of a row.
+     * @param hasHeader
+     *            <code>true</code> if the first line contains the column names
+     *            and should not be treated as data row.
+     * @throws IOException
+     *             if the file can not be mapped.
+     */
+    public DelimitedFileDataProvider(Path file, char delimiter, boolean hasHeader) throws IOException {
+        this(file, delimiter, hasHeader, StandardCharsets.UTF_8, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a {@link DelimitedFileDataProvider}.
+     *
+     * @param file
+     *            The file to show.
+     * @param delimiter
+     *            The character that separates the values of a row.
+     * @param hasHeader
+     *            <code>true</code> if the first line contains the column names
+     *            and should not be treated as data row.
+     * @param charset
+     *            The charset of the file.
+     * @param cacheSize
+     *            The maximum number of decoded rows to cache.
+     * @throws IOException
+     *             if the file can not be mapped.
+     */
+    public DelimitedFileDataProvider(Path file, char delimiter, boolean hasHeader, Charset charset, int cacheSize) throws IOException {
+        super(file, ByteOrder.BIG_ENDIAN, cacheSize);
+        if (delimiter > 0x7F) {
+            throw new IllegalArgumentException("Only ASCII delimiters are supported"); //$NON-NLS-1$
+        }
+        this.delimiter = (byte) delimiter;
+        this.charset = charset;
+
+        long end = getFileSize();
+        long position = skipByteOrderMark(end);
+
+        if (hasHeader && position < end) {
+            this.columnNames = decodeLine(position, findLineEnd(position, end));
+            position = nextLine(position, end);
+            this.columnCount = this.columnNames.length;
+        } else {
+            this.columnNames = null;
+            this.columnCount = (position < end) ? decodeLine(position, findLineEnd(position, end)).length : 0;
+        }
+        this.firstRowPosition = position;
+    }
+
+    /**
+     * Builds the sparse row offset index without decoding if it was not built
+     * before.
+     *
+     * @throws IllegalStateException
+     *             if the file contains more than {@link Integer#MAX_VALUE}
+     *             rows.
+     */
+    private void ensureIndexed() {
+        if (this.indexed) {
+            return;
+        }
+        synchronized (this) {
+            if (this.indexed) {
+                return;
+            }
+            long end = getFileSize();
+            long position = this.firstRowPosition;
+            long[] index = new long[16];
+            int rows = 0;
+            while (position < end) {
+                if (rows == Integer.MAX_VALUE) {
+                    throw new IllegalStateException("The file contains more than " + Integer.MAX_VALUE + " rows"); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                if (rows % INDEX_STRIDE == 0) {
+                    int slot = rows / INDEX_STRIDE;
+                    if (slot == index.length) {
+                        index = Arrays.copyOf(index, index.length * 2);
+                    }
+                    index[slot] = position;
+                }
+                rows++;
+                position = nextLine(position, end);
+            }
+
+            this.rowCount = rows;
+            this.rowIndex = index;
+            // publish the index via the volatile flag
+            this.indexed = true;
+        }
+    }
+
+    private long skipByteOrderMark(long end) {
+        if (end >= 3
+                && getByte(0) == (byte) 0xEF
+                && getByte(1) == (byte) 0xBB
+                && getByte(2) == (byte) 0xBF) {
+            return 3;
+        }
+        return 0;
+    }
+
+    /**
+     * @return The position of the line break that ends the line starting at
+     *         the given position, or the end of the file.
+     */
+    private long findLineEnd(long position, long end) {
+        long current = position;
+        while (current < end && getByte(current) != '\n') {
+            current++;
+        }
+        return current;
+    }
+
+    private long nextLine(long position, long end) {
+        return Math.min(findLineEnd(position, end) + 1, end);
+    }
+
+    /**
+     * Registers {@link IDisplayConverter}s that are used to convert the String
+     * values of the columns to their canonical values. The converters are
+     * applied in column order, <code>null</code> values mean that the column
+     * values stay Strings.
+     *
+     * @param converters
+     *            The converters to apply per column.
+     */
+    public void setColumnConverters(IDisplayConverter... converters) {
+        this.columnConverters = (converters != null) ? converters : new IDisplayConverter[0];
+        clearCache();
+    }
+
+    /**
+     * @return The column names read from the header line, or <code>null</code>
+     *         if the file was opened without header.
+     */
+    public String[] getColumnNames() {
+        return this.columnNames;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.columnCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The first call scans the file to build the row offset index.
+     * </p>
+     *
+     * @throws IllegalStateException
+     *             if the file contains more than {@link Integer#MAX_VALUE}
+     *             rows.
+     */
+    @Override
+    public int getRowCount() {
+        ensureIndexed();
+        return this.rowCount;
+    }
+
+    @Override
+    protected Object[] decodeRow(int rowIndex) {
+        ensureIndexed();
+        long end = getFileSize();
+        long position = this.rowIndex[rowIndex / INDEX_STRIDE];
+        for (int i = rowIndex % INDEX_STRIDE; i > 0; i--) {
+            position = nextLine(position, end);
+        }
+
+        String[] values = decodeLine(position, findLineEnd(position, end));
+        Object[] row = new Object[Math.max(this.columnCount, values.length)];
+        for (int column = 0; column < values.length; column++) {
+            IDisplayConverter converter = (column < this.columnConverters.length) ? this.columnConverters[column] : null;
+            row[column] = (converter != null) ? converter.displayToCanonicalValue(values[column]) : values[column];
+        }
+        return row;
+    }
+
+    /**
+     * Decodes the line between the given positions and splits it into the
+     * values.
+     */
+    private String[] decodeLine(long start, long end) {
+        long lineEnd = end;
+        if (lineEnd > start && getByte(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+
+        byte[] bytes = new byte[(int) (lineEnd - start)];
+        getBytes(start, bytes, 0, bytes.length);
+
+        List<String> values = new ArrayList<>();
+        StringBuilder quoted = null;
+        int valueStart = 0;
+        boolean inQuotes = false;
+        for (int i = 0; i <= bytes.length; i++) {
+            byte b = (i < bytes.length) ? bytes[i] : this.delimiter;
+            if (inQuotes) {
+                if (b == '"') {
+                    quoted.append(new String(bytes, valueStart, i - valueStart, this.charset));
+                    if (i + 1 < bytes.length && bytes[i + 1] == '"') {
+                        // escaped quote
+                        quoted.append('"');
+                        i++;
+                        valueStart = i + 1;
+                    } else {
+                        inQuotes = false;
+                        valueStart = i + 1;
+                    }
+                } else if (i == bytes.length) {
+                    // unterminated quote
+                    quoted.append(new String(bytes, valueStart, i - valueStart, this.charset));
+                    values.add(quoted.toString());
+                }
+            } else if (b == '"' && i == valueStart && quoted == null) {
+                inQuotes = true;
+                quoted = new StringBuilder();
+                valueStart = i + 1;
+            } else if (b == this.delimiter) {
+                if (quoted != null) {
+                    // ignore characters between the closing quote and the
+                    // delimiter
+                    values.add(quoted.toString());
+                    quoted = null;
+                } else {
+                    values.add(new String(bytes, valueStart, i - valueStart, this.charset));
+                }
+                valueStart = i + 1;
+            }
+        }
+        return values.toArray(new String[values.size()]);
+    }
+}
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Read-only {@link IRowDataProvider} for binary files with fixed-width
+ * records, that memory-maps the file instead of loading it. The position of a
+ * row is calculated from the record length, so no index is needed. Files with
+ * more than {@link Integer#MAX_VALUE} records are not supported.
+ * <p>
+ * The record layout is specified via {@link BinaryField}s. Numeric columns can
+ * be read without boxing and without decoding the whole row via the
+ * {@link IPrimitiveDataProvider} methods.
+ * </p>
+ * <p>
+ * Example for records with a 12 byte identifier, a double and a long value:
+ * </p>
+ *
+ * <pre>
+ * new FixedWidthBinaryDataProvider(file,
+ *         BinaryField.string(12, StandardCharsets.US_ASCII),
+ *         BinaryField.DOUBLE,
+ *         BinaryField.LONG);
+ * </pre>
+ *
+ * @since 2.0
+ */
+public class FixedWidthBinaryDataProvider extends AbstractMappedFileDataProvider implements IPrimitiveDataProvider {
+
+    private final BinaryField[] fields;
+    private final int[] fieldOffsets;
+    private final int recordLength;
+    private final int headerLength;
+    private final int rowCount;
+
+    /**
+     * Creates a {@link FixedWidthBinaryDataProvider} for a file without header
+     * that stores multi-byte values in big-endian byte order.
+     *
+     * @param file
+     *            The file to show.
+     * @param fields
+     *            The fields of a record in the order they are stored.
+     * @throws IOException
+     *             if the file can not be mapped.
+     */
+    public FixedWidthBinaryDataProvider(Path file, BinaryField... fields) throws IOException {
+        this(file, 0, ByteOrder.BIG_ENDIAN, DEFAULT_CACHE_SIZE, fields);
+    }
+
+    /**
+     * Creates a {@link FixedWidthBinaryDataProvider}.
+     *
+     * @param file
+     *            The file to show.
+     * @param headerLength
+     *            The number of bytes at the beginning of the file that should
+     *            be skipped.
+     * @param byteOrder
+     *            The byte order of multi-byte values.
+     * @param cacheSize
+     *            The maximum number of decoded rows to cache.
+     * @param fields
+     *            The fields of a record in the order they are stored.
+     * @throws IOException
+     *             if the file can not be mapped.
+     * @throws IllegalArgumentException
+     *             if the file contains more than {@link Integer#MAX_VALUE}
+     *             records.
+     */
+    public FixedWidthBinaryDataProvider(Path file, int headerLength, ByteOrder byteOrder, int cacheSize, BinaryField... fields) throws IOException {
+        super(file, byteOrder, cacheSize);
+        if (fields.length == 0) {
+            throw new IllegalArgumentException("At least one field is needed"); //$NON-NLS-1$
+        }
+        this.fields = fields;
+        this.fieldOffsets = new int[fields.length];
+        int offset = 0;
+        for (int i = 0; i < fields.length; i++) {
+            this.fieldOffsets[i] = offset;
+            offset += fields[i].width;
+        }
+        this.recordLength = offset;
+        this.headerLength = headerLength;
+        // an incomplete record at the end of the file is ignored
+        long records = Math.max(0, (getFileSize() - headerLength) / this.recordLength);
+        if (records > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The file contains more than " + Integer.MAX_VALUE + " records"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        this.rowCount = (int) records;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.fields.length;
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    @Override
+    protected Object[] decodeRow(int rowIndex) {
+        Object[] row = new Object[this.fields.length];
+        for (int column = 0; column < this.fields.length; column++) {
+            row[column] = readValue(column, rowIndex);
+        }
+        return row;
+    }
+
+    private void checkBounds(int columnIndex, int rowIndex) {
+        if (columnIndex < 0 || columnIndex >= this.fields.length) {
+            throw new IndexOutOfBoundsException("Column index: " + columnIndex + ", column count: " + this.fields.length); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        if (rowIndex < 0 || rowIndex >= this.rowCount) {
+            throw new IndexOutOfBoundsException("Row index: " + rowIndex + ", row count: " + this.rowCount); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    private long getPosition(int columnIndex, int rowIndex) {
+        return this.headerLength + (long) rowIndex * this.recordLength + this.fieldOffsets[columnIndex];
+    }
+
+    private Object readValue(int columnIndex, int rowIndex) {
+        BinaryField field = this.fields[columnIndex];
+        long position = getPosition(columnIndex, rowIndex);
+        switch (field.type) {
+            case BYTE:
+                return getByte(position);
+            case SHORT:
+                return getShort(position);
+            case INT:
+                return getInt(position);
+            case LONG:
+                return getLong(position);
+            case FLOAT:
+                return Float.intBitsToFloat(getInt(position));
+            case DOUBLE:
+                return Double.longBitsToDouble(getLong(position));
+            default:
+                byte[] bytes = new byte[field.width];
+                getBytes(position, bytes, 0, bytes.length);
+                // strings are padded with zeros or spaces
+                int length = bytes.length;
+                while (length > 0 && (bytes[length - 1] == 0 || bytes[length - 1] == ' ')) {
+                    length--;
+                }
+                return new String(bytes, 0, length, field.charset);
+        }
+    }
+
+    @Override
+    public boolean isNumericColumn(int columnIndex) {
+        return this.fields[columnIndex].type != FieldTypeEnum.STRING;
+    }
+
+    @Override
+    public boolean isFloatingPointColumn(int columnIndex) {
+        FieldTypeEnum type = this.fields[columnIndex].type;
+        return type == FieldTypeEnum.FLOAT || type == FieldTypeEnum.DOUBLE;
+    }
+
+    @Override
+    public double getDouble(int columnIndex, int rowIndex) {
+        checkBounds(columnIndex, rowIndex);
+        long position = getPosition(columnIndex, rowIndex);
+        switch (this.fields[columnIndex].type) {
+            case BYTE:
+                return getByte(position);
+            case SHORT:
+                return getShort(position);
+            case INT:
+                return getInt(position);
+            case LONG:
+                return getLong(position);
+            case FLOAT:
+                return Float.intBitsToFloat(getInt(position));
+            case DOUBLE:
+                return Double.longBitsToDouble(getLong(position));
+            default:
+                throw new UnsupportedOperationException("Column " + columnIndex + " is not numeric"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    @Override
+    public long getLong(int columnIndex, int rowIndex) {
+        checkBounds(columnIndex, rowIndex);
+        long position = getPosition(columnIndex, rowIndex);
+        switch (this.fields[columnIndex].type) {
+            case BYTE:
+                return getByte(position);
+            case SHORT:
+                return getShort(position);
+            case INT:
+                return getInt(position);
+            case LONG:
+                return getLong(position);
+            case FLOAT:
+                return (long) Float.intBitsToFloat(getInt(position));
+            case DOUBLE:
+                return (long) Double.longBitsToDouble(getLong(position));
+            default:
+                throw new UnsupportedOperationException("Column " + columnIndex + " is not numeric"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    private enum FieldTypeEnum {
+        BYTE, SHORT, INT, LONG, FLOAT, DOUBLE, STRING
+    }
+
+    /**
+     * Describes a field of a fixed-width binary record.
+     */
+    public static final class BinaryField {
+
+        /**
+         * A single byte value.
+         */
+        public static final BinaryField BYTE = new BinaryField(FieldTypeEnum.BYTE, Byte.BYTES, null);
+        /**
+         * A two byte short value.
+         */
+        public static final BinaryField SHORT = new BinaryField(FieldTypeEnum.SHORT, Short.BYTES, null);
+        /**
+         * A four byte int value.
+         */
+        public static final BinaryField INT = new BinaryField(FieldTypeEnum.INT, Integer.BYTES, null);
+        /**
+         * An eight byte long value.
+         */
+        public static final BinaryField LONG = new BinaryField(FieldTypeEnum.LONG, Long.BYTES, null);
+        /**
+         * A four byte IEEE 754 float value.
+         */
+        public static final BinaryField FLOAT = new BinaryField(FieldTypeEnum.FLOAT, Float.BYTES, null);
+        /**
+         * An eight byte IEEE 754 double value.
+         */
+        public static final BinaryField DOUBLE = new BinaryField(FieldTypeEnum.DOUBLE, Double.BYTES, null);
+
+        private final FieldTypeEnum type;
+        private final int width;
+        private final Charset charset;
+
+        private BinaryField(FieldTypeEnum type, int width, Charset charset) {
+            this.type = type;
+            this.width = width;
+            this.charset = charset;
+        }
+
+        /**
+         * Creates a fixed-width String field. Trailing zero bytes and spaces
+         * are removed on decoding.
+         *
+         * @param width
+         *            The number of bytes of the field.
+         * @param charset
+         *            The charset of the field.
+         * @return The field description.
+         */
+        public static BinaryField string(int width, Charset charset) {
+            if (width <= 0) {
+                throw new IllegalArgumentException("width needs to be positive"); //$NON-NLS-1$
+            }
+            return new BinaryField(FieldTypeEnum.STRING, width, charset);
+        }
+
+        /**
+         * Creates a fixed-width US-ASCII String field.
+         *
+         * @param width
+         *            The number of bytes of the field.
+         * @return The field description.
+         */
+        public static BinaryField string(int width) {
+            return string(width, StandardCharsets.US_ASCII);
+        }
+    }
+}
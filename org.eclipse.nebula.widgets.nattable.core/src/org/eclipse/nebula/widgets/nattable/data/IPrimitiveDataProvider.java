@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+/**
+ * {@link IDataProvider} that is able to provide the values of numeric columns
+ * without boxing. Consumers that process a lot of values, like summary
+ * providers or exporters, can check for this interface to avoid the creation
+ * of wrapper objects for every value.
+ *
+ * @see ColumnarDataProvider
+ * @since 2.0
+ */
+public interface IPrimitiveDataProvider extends IDataProvider {
+
+    /**
+     * @param columnIndex
+     *            The column index to check.
+     * @return <code>true</code> if the column with the given index only
+     *         contains numeric values that can be requested via
+     *         {@link #getDouble(int, int)} and {@link #getLong(int, int)}.
+     */
+    boolean isNumericColumn(int columnIndex);
+
+    /**
+     * Returns the declared type of a numeric column, so consumers can choose
+     * between {@link #getDouble(int, int)} and {@link #getLong(int, int)}
+     * without inspecting the values.
+     *
+     * @param columnIndex
+     *            The column index to check.
+     * @return <code>true</code> if the column contains floating point values
+     *         that should be requested via {@link #getDouble(int, int)},
+     *         <code>false</code> if it contains integral values that should be
+     *         requested via {@link #getLong(int, int)} or if the column is not
+     *         numeric.
+     */
+    boolean isFloatingPointColumn(int columnIndex);
+
+    /**
+     * Gets the value at the given column and row index as double.
+     *
+     * @param columnIndex
+     *            The column index of the cell whose value is requested.
+     * @param rowIndex
+     *            The row index of the cell whose value is requested.
+     * @return The value of the specified cell as double.
+     * @throws UnsupportedOperationException
+     *             if the column is not numeric.
+     */
+    double getDouble(int columnIndex, int rowIndex);
+
+    /**
+     * Gets the value at the given column and row index as long. Floating point
+     * values are truncated.
+     *
+     * @param columnIndex
+     *            The column index of the cell whose value is requested.
+     * @param rowIndex
+     *            The row index of the cell whose value is requested.
+     * @return The value of the specified cell as long.
+     * @throws UnsupportedOperationException
+     *             if the column is not numeric.
+     */
+    long getLong(int columnIndex, int rowIndex);
+
+    /**
+     * Checks whether the value at the given column and row index is
+     * <code>null</code>. The primitive getters can not express
+     * <code>null</code> values, so consumers that use them need to check this
+     * method to distinguish <code>null</code> from a regular value.
+     * <p>
+     * The default implementation returns <code>false</code> for data providers
+     * that do not support <code>null</code> values in numeric columns.
+     * </p>
+     *
+     * @param columnIndex
+     *            The column index of the cell to check.
+     * @param rowIndex
+     *            The row index of the cell to check.
+     * @return <code>true</code> if the value of the specified cell is
+     *         <code>null</code>.
+     */
+    default boolean isNull(int columnIndex, int rowIndex) {
+        return false;
+    }
+}
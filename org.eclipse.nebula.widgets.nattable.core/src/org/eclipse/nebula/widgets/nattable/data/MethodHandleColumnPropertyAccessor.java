@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link ReflectiveColumnPropertyAccessor} that resolves the getter and setter
+ * methods only once per row object class and column. Getters are bound via
+ * {@link LambdaMetafactory}, so reading a value is a direct method call
+ * instead of a reflective invocation with a lookup of the
+ * {@link PropertyDescriptor} per access. This is useful for operations that
+ * read a lot of values, like sorting, filtering or exporting huge data sets.
+ * <p>
+ * If a getter can not be bound via {@link LambdaMetafactory}, e.g. because
+ * the declaring class or the declared return type of the getter is not
+ * visible to NatTable in an OSGi environment, a {@link MethodHandle} is used.
+ * Setters are invoked via the cached {@link Method} to keep the argument
+ * conversion rules of reflection.
+ * </p>
+ *
+ * @param <R>
+ *            type of the row object/bean
+ * @since 2.0
+ */
+public class MethodHandleColumnPropertyAccessor<R> extends ReflectiveColumnPropertyAccessor<R> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandleColumnPropertyAccessor.class);
+
+    /**
+     * Marker for columns that can not be accessed via a bound getter and are
+     * therefore accessed via the reflective super implementation.
+     */
+    private static final Function<Object, Object> REFLECTIVE = row -> null;
+
+    private final Map<Class<?>, ClassAccessors> accessors = new ConcurrentHashMap<>();
+
+    /**
+     * The accessors that were used last. Typically all row objects are of the
+     * same type, which avoids the map lookup.
+     */
+    private volatile ClassAccessors lastAccessors;
+
+    /**
+     * @param propertyNames
+     *            of the members of the row bean
+     */
+    public MethodHandleColumnPropertyAccessor(String... propertyNames) {
+        super(propertyNames);
+    }
+
+    /**
+     * @param propertyNames
+     *            of the members of the row bean
+     */
+    public MethodHandleColumnPropertyAccessor(List<String> propertyNames) {
+        super(propertyNames);
+    }
+
+    @Override
+    public Object getDataValue(R rowObj, int columnIndex) {
+        ClassAccessors classAccessors = getClassAccessors(rowObj);
+        if (columnIndex >= classAccessors.getters.length) {
+            return super.getDataValue(rowObj, columnIndex);
+        }
+
+        Function<Object, Object> getter = classAccessors.getters[columnIndex];
+        if (getter == null) {
+            getter = createGetter(rowObj, columnIndex);
+            classAccessors.getters[columnIndex] = getter;
+        }
+
+        if (getter == REFLECTIVE) {
+            return super.getDataValue(rowObj, columnIndex);
+        }
+
+        try {
+            return getter.apply(rowObj);
+        } catch (Exception e) {
+            LOG.warn("Error on getting data value", e); //$NON-NLS-1$
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void setDataValue(R rowObj, int columnIndex, Object newValue) {
+        ClassAccessors classAccessors = getClassAccessors(rowObj);
+        if (columnIndex >= classAccessors.setters.length) {
+            super.setDataValue(rowObj, columnIndex, newValue);
+            return;
+        }
+
+        Method setter = classAccessors.setters[columnIndex];
+        if (setter == null) {
+            try {
+                PropertyDescriptor propertyDesc = getPropertyDescriptor(rowObj, getColumnProperty(columnIndex));
+                setter = propertyDesc != null ? propertyDesc.getWriteMethod() : null;
+            } catch (Exception e) {
+                setter = null;
+            }
+            if (setter == null) {
+                // let the super implementation handle the error
+                super.setDataValue(rowObj, columnIndex, newValue);
+                return;
+            }
+            classAccessors.setters[columnIndex] = setter;
+        }
+
+        try {
+            setter.invoke(rowObj, newValue);
+        } catch (IllegalArgumentException ex) {
+            LOG.error("Data type being set does not match the data type of the setter method in the backing bean", ex); //$NON-NLS-1$
+        } catch (Exception e) {
+            LOG.error("Error while setting data value", e); //$NON-NLS-1$
+            throw new IllegalStateException("Error while setting data value"); //$NON-NLS-1$
+        }
+    }
+
+    private ClassAccessors getClassAccessors(Object rowObj) {
+        Class<?> rowClass = rowObj.getClass();
+        ClassAccessors classAccessors = this.lastAccessors;
+        if (classAccessors == null || classAccessors.rowClass != rowClass) {
+            classAccessors = this.accessors.computeIfAbsent(rowClass, c -> new ClassAccessors(c, getColumnCount()));
+            this.lastAccessors = classAccessors;
+        }
+        return classAccessors;
+    }
+
+    /**
+     * Create the getter for the given column of the class of the given row
+     * object. Returns {@link #REFLECTIVE} if the property can not be resolved,
+     * so the error handling of the super class is used.
+     */
+    private Function<Object, Object> createGetter(R rowObj, int columnIndex) {
+        Method readMethod = null;
+        try {
+            PropertyDescriptor propertyDesc = getPropertyDescriptor(rowObj, getColumnProperty(columnIndex));
+            readMethod = propertyDesc != null ? propertyDesc.getReadMethod() : null;
+        } catch (Exception e) {
+            // handled by the fallback
+        }
+
+        if (readMethod != null) {
+            MethodHandle handle = null;
+            try {
+                handle = MethodHandles.lookup().unreflect(readMethod);
+            } catch (IllegalAccessException e) {
+                // handled by the fallback
+            }
+
+            if (handle != null) {
+                // the lambda class is defined in the context of NatTable and
+                // resolves the types of the getter signature on first usage,
+                // which fails in OSGi environments if they are not visible
+                if (isVisible(readMethod.getDeclaringClass())
+                        && isVisible(handle.type().wrap().returnType())) {
+                    Function<Object, Object> getter = createLambdaGetter(handle);
+                    if (getter != null) {
+                        return getter;
+                    }
+                }
+
+                MethodHandle genericHandle = handle.asType(MethodType.methodType(Object.class, Object.class));
+                return row -> {
+                    try {
+                        return genericHandle.invokeExact(row);
+                    } catch (RuntimeException | Error e) {
+                        throw e;
+                    } catch (Throwable t) {
+                        throw new IllegalStateException(t);
+                    }
+                };
+            }
+        }
+
+        return REFLECTIVE;
+    }
+
+    /**
+     * Check if the given type can be resolved by the class loader of NatTable.
+     */
+    private static boolean isVisible(Class<?> type) {
+        Class<?> componentType = type;
+        while (componentType.isArray()) {
+            componentType = componentType.getComponentType();
+        }
+        if (componentType.isPrimitive()) {
+            return true;
+        }
+        try {
+            return Class.forName(componentType.getName(), false,
+                    MethodHandleColumnPropertyAccessor.class.getClassLoader()) == componentType;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createLambdaGetter(MethodHandle handle) {
+        try {
+            MethodType type = handle.type();
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "apply", //$NON-NLS-1$
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(type.wrap().returnType(), type.parameterType(0)));
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * The resolved getters and setters of a row object class, indexed by
+     * column index.
+     */
+    private static final class ClassAccessors {
+
+        private final Class<?> rowClass;
+        private final Function<Object, Object>[] getters;
+        private final Method[] setters;
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        ClassAccessors(Class<?> rowClass, int columnCount) {
+            this.rowClass = rowClass;
+            this.getters = new Function[columnCount];
+            this.setters = new Method[columnCount];
+        }
+    }
+}
@@ -31,6 +31,15 @@ public Object canonicalToDisplayValue(Object canonicalValue) {
         try {
             if (isNotNull(canonicalValue)) {
                 if (this.nf != null) {
+                    // call the primitive format methods directly for the
+                    // common types, which avoids the type dispatching of
+                    // Format#format(Object)
+                    if (canonicalValue instanceof Double || canonicalValue instanceof Float) {
+                        return this.nf.format(((Number) canonicalValue).doubleValue());
+                    } else if (canonicalValue instanceof Integer || canonicalValue instanceof Long
+                            || canonicalValue instanceof Short || canonicalValue instanceof Byte) {
+                        return this.nf.format(((Number) canonicalValue).longValue());
+                    }
                     return this.nf.format(canonicalValue);
                 }
                 return canonicalValue.toString();
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.export;
+
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * Immutable snapshot of an {@link ILayerCell} that is created in the UI thread
+ * for a pipelined export. All values of the cell are resolved on creation, so
+ * the {@link IExportFormatter} and the {@link ILayerExporter} can process the
+ * cell in other threads without accessing the layer stack.
+ * <p>
+ * {@link #getLayer()} returns the layer the snapshot was created for. It must
+ * not be accessed outside the UI thread. The column widths that are needed to
+ * check for hidden columns are available via
+ * {@link #getColumnWidthByPosition(int)}.
+ * </p>
+ *
+ * @see NatExporter#setPipelinedExport(boolean)
+ * @since 2.0
+ */
+public class ExportCell implements ILayerCell {
+
+    private final ILayer layer;
+    private final int columnPosition;
+    private final int rowPosition;
+    private final int originColumnPosition;
+    private final int originRowPosition;
+    private final int columnIndex;
+    private final int rowIndex;
+    private final int columnSpan;
+    private final int rowSpan;
+    private final String displayMode;
+    private final LabelStack configLabels;
+    private final Object dataValue;
+    private final Rectangle bounds;
+    private final int[] columnWidths;
+
+    /**
+     * Creates a snapshot of the given cell. Needs to be called in the UI
+     * thread.
+     *
+     * @param cell
+     *            The cell to create the snapshot for.
+     * @param columnWidths
+     *            The widths of all column positions of the layer of the cell.
+     *            The array is shared by the cells of a row and not copied.
+     */
+    public ExportCell(ILayerCell cell, int[] columnWidths) {
+        this.layer = cell.getLayer();
+        this.columnPosition = cell.getColumnPosition();
+        this.rowPosition = cell.getRowPosition();
+        this.originColumnPosition = cell.getOriginColumnPosition();
+        this.originRowPosition = cell.getOriginRowPosition();
+        this.columnIndex = cell.getColumnIndex();
+        this.rowIndex = cell.getRowIndex();
+        this.columnSpan = cell.getColumnSpan();
+        this.rowSpan = cell.getRowSpan();
+        this.displayMode = cell.getDisplayMode();
+        this.configLabels = new LabelStack(cell.getConfigLabels());
+        this.dataValue = cell.getDataValue();
+        this.bounds = new Rectangle(cell.getBounds().x, cell.getBounds().y, cell.getBounds().width, cell.getBounds().height);
+        this.columnWidths = columnWidths;
+    }
+
+    @Override
+    public int getOriginColumnPosition() {
+        return this.originColumnPosition;
+    }
+
+    @Override
+    public int getOriginRowPosition() {
+        return this.originRowPosition;
+    }
+
+    @Override
+    public ILayer getLayer() {
+        return this.layer;
+    }
+
+    @Override
+    public int getColumnPosition() {
+        return this.columnPosition;
+    }
+
+    @Override
+    public int getRowPosition() {
+        return this.rowPosition;
+    }
+
+    @Override
+    public int getColumnIndex() {
+        return this.columnIndex;
+    }
+
+    @Override
+    public int getRowIndex() {
+        return this.rowIndex;
+    }
+
+    @Override
+    public int getColumnSpan() {
+        return this.columnSpan;
+    }
+
+    @Override
+    public int getRowSpan() {
+        return this.rowSpan;
+    }
+
+    @Override
+    public boolean isSpannedCell() {
+        return this.columnSpan > 1 || this.rowSpan > 1;
+    }
+
+    @Override
+    public String getDisplayMode() {
+        return this.displayMode;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned {@link LabelStack} is a copy that is shared by all callers
+     * and must not be modified.
+     * </p>
+     */
+    @Override
+    public LabelStack getConfigLabels() {
+        return this.configLabels;
+    }
+
+    @Override
+    public Object getDataValue() {
+        return this.dataValue;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns a copy of the bounds, so the snapshot can not be modified.
+     * </p>
+     */
+    @Override
+    public Rectangle getBounds() {
+        return new Rectangle(this.bounds.x, this.bounds.y, this.bounds.width, this.bounds.height);
+    }
+
+    /**
+     *
+     * @param columnPosition
+     *            The column position in the layer of this cell.
+     * @return The width of the given column position at the time the snapshot
+     *         was created, or 0 if the position is not valid.
+     */
+    public int getColumnWidthByPosition(int columnPosition) {
+        if (columnPosition < 0 || columnPosition >= this.columnWidths.length) {
+            return 0;
+        }
+        return this.columnWidths[columnPosition];
+    }
+}
@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.export;
+
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.IPrimitiveDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
+
+/**
+ * A block of consecutive rows that is exported via an
+ * {@link IBulkLayerExporter}. The values of a block are read column by column
+ * from the {@link IDataProvider} into arrays that are reused for every block.
+ * Numeric columns of an {@link IPrimitiveDataProvider} are read into primitive
+ * arrays without boxing the values. The values are only boxed when they are
+ * requested as data or display value of a single cell.
+ * <p>
+ * The {@link IDisplayConverter} is resolved once per column and not per cell,
+ * so converters that need the cell context to convert a value are not
+ * supported. If no converter is given for a column, the
+ * {@link DefaultDisplayConverter} is used like in the
+ * {@link org.eclipse.nebula.widgets.nattable.export.excel.DefaultExportFormatter
+ * DefaultExportFormatter}.
+ * </p>
+ * <p>
+ * Blocks that are created for the rows of a layer via
+ * {@link #ExportRowBlock(int, int, int[], Object[][], Object[][])} are immutable.
+ * They contain the data values and the export display values that were
+ * resolved via the layer stack and the {@link IExportFormatter}, so they can
+ * be written in another thread than the one that accesses the layers.
+ * </p>
+ *
+ * @see IBulkLayerExporter
+ * @since 2.0
+ */
+public class ExportRowBlock {
+
+    /**
+     * The default number of rows in a block.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private static final IDisplayConverter DEFAULT_CONVERTER = new DefaultDisplayConverter();
+
+    private final IDataProvider dataProvider;
+    private final int[] columnIndexes;
+    private final IDisplayConverter[] displayConverters;
+
+    // the formatted values of a block that was created for the rows of a
+    // layer, null for blocks that are loaded from an IDataProvider
+    private final Object[][] exportValues;
+
+    // per column only one of the value arrays is used, depending on the type
+    private final double[][] doubleValues;
+    private final long[][] longValues;
+    private final Object[][] objectValues;
+    // null flags of the numeric columns
+    private final boolean[][] nullValues;
+
+    private int firstRowIndex;
+    private int rowCount;
+
+    /**
+     * Creates a new {@link ExportRowBlock}.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} to read the values from.
+     * @param columnIndexes
+     *            The indexes of the columns to export in the order they
+     *            should be exported.
+     * @param displayConverters
+     *            The {@link IDisplayConverter} per exported column. The array
+     *            needs to have the same length as the column indexes and can
+     *            contain <code>null</code> values.
+     * @param blockSize
+     *            The maximum number of rows in this block.
+     */
+    public ExportRowBlock(IDataProvider dataProvider, int[] columnIndexes, IDisplayConverter[] displayConverters, int blockSize) {
+        if (columnIndexes.length != displayConverters.length) {
+            throw new IllegalArgumentException("The number of column indexes and display converters differ"); //$NON-NLS-1$
+        }
+
+        this.dataProvider = dataProvider;
+        this.columnIndexes = columnIndexes.clone();
+        this.displayConverters = new IDisplayConverter[columnIndexes.length];
+        this.doubleValues = new double[columnIndexes.length][];
+        this.longValues = new long[columnIndexes.length][];
+        this.objectValues = new Object[columnIndexes.length][];
+        this.nullValues = new boolean[columnIndexes.length][];
+        this.exportValues = null;
+
+        IPrimitiveDataProvider primitiveDataProvider = (dataProvider instanceof IPrimitiveDataProvider)
+                ? (IPrimitiveDataProvider) dataProvider
+                : null;
+        for (int column = 0; column < columnIndexes.length; column++) {
+            this.displayConverters[column] = (displayConverters[column] != null)
+                    ? displayConverters[column]
+                    : DEFAULT_CONVERTER;
+
+            int columnIndex = columnIndexes[column];
+            if (primitiveDataProvider != null && primitiveDataProvider.isNumericColumn(columnIndex)) {
+                if (primitiveDataProvider.isFloatingPointColumn(columnIndex)) {
+                    this.doubleValues[column] = new double[blockSize];
+                } else {
+                    this.longValues[column] = new long[blockSize];
+                }
+                this.nullValues[column] = new boolean[blockSize];
+            } else {
+                this.objectValues[column] = new Object[blockSize];
+            }
+        }
+    }
+
+    /**
+     * Creates an immutable {@link ExportRowBlock} for rows of a layer, whose
+     * values were already resolved via the layer stack. The value arrays are
+     * indexed by column first and are not copied, so they must not be
+     * modified afterwards.
+     *
+     * @param firstRowPosition
+     *            The position of the first row in this block.
+     * @param rowCount
+     *            The number of rows in this block.
+     * @param columnIndexes
+     *            The indexes of the exported columns.
+     * @param dataValues
+     *            The data values of the cells per column.
+     * @param exportValues
+     *            The values returned by the {@link IExportFormatter} for the
+     *            cells per column.
+     */
+    public ExportRowBlock(int firstRowPosition, int rowCount, int[] columnIndexes, Object[][] dataValues, Object[][] exportValues) {
+        if (columnIndexes.length != dataValues.length || columnIndexes.length != exportValues.length) {
+            throw new IllegalArgumentException("The number of column indexes and values differ"); //$NON-NLS-1$
+        }
+
+        this.dataProvider = null;
+        this.columnIndexes = columnIndexes.clone();
+        this.displayConverters = null;
+        this.doubleValues = new double[columnIndexes.length][];
+        this.longValues = new long[columnIndexes.length][];
+        this.objectValues = dataValues;
+        this.nullValues = new boolean[columnIndexes.length][];
+        this.exportValues = exportValues;
+        this.firstRowIndex = firstRowPosition;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Reads the values of the given rows from the {@link IDataProvider} into
+     * this block, replacing the values of the previously loaded rows.
+     *
+     * @param firstRowIndex
+     *            The index of the first row to load.
+     * @param rowCount
+     *            The number of rows to load, not more than the block size.
+     * @throws IllegalStateException
+     *             if this block was created for the rows of a layer.
+     */
+    public void load(int firstRowIndex, int rowCount) {
+        if (this.dataProvider == null) {
+            throw new IllegalStateException("The values of a layer row block can not be reloaded"); //$NON-NLS-1$
+        }
+        this.firstRowIndex = firstRowIndex;
+        this.rowCount = rowCount;
+
+        for (int column = 0; column < this.columnIndexes.length; column++) {
+            int columnIndex = this.columnIndexes[column];
+            if (this.doubleValues[column] != null) {
+                double[] values = this.doubleValues[column];
+                boolean[] nulls = this.nullValues[column];
+                IPrimitiveDataProvider provider = (IPrimitiveDataProvider) this.dataProvider;
+                for (int row = 0; row < rowCount; row++) {
+                    values[row] = provider.getDouble(columnIndex, firstRowIndex + row);
+                    nulls[row] = provider.isNull(columnIndex, firstRowIndex + row);
+                }
+            } else if (this.longValues[column] != null) {
+                long[] values = this.longValues[column];
+                boolean[] nulls = this.nullValues[column];
+                IPrimitiveDataProvider provider = (IPrimitiveDataProvider) this.dataProvider;
+                for (int row = 0; row < rowCount; row++) {
+                    values[row] = provider.getLong(columnIndex, firstRowIndex + row);
+                    nulls[row] = provider.isNull(columnIndex, firstRowIndex + row);
+                }
+            } else {
+                Object[] values = this.objectValues[column];
+                for (int row = 0; row < rowCount; row++) {
+                    values[row] = this.dataProvider.getDataValue(columnIndex, firstRowIndex + row);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The row index of the first row in this block, or the row
+     *         position for a block that was created for the rows of a layer.
+     */
+    public int getFirstRowIndex() {
+        return this.firstRowIndex;
+    }
+
+    /**
+     * @return The number of rows currently loaded in this block.
+     */
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * @return The number of exported columns.
+     */
+    public int getColumnCount() {
+        return this.columnIndexes.length;
+    }
+
+    /**
+     * @param column
+     *            The exported column, starting at 0.
+     * @return The column index in the {@link IDataProvider} of the given
+     *         exported column.
+     */
+    public int getColumnIndex(int column) {
+        return this.columnIndexes[column];
+    }
+
+    /**
+     * @param column
+     *            The exported column, starting at 0.
+     * @return The {@link IDisplayConverter} that is used to format the values
+     *         of the given column, or <code>null</code> if the values were
+     *         formatted by the {@link IExportFormatter} of a layer.
+     */
+    public IDisplayConverter getDisplayConverter(int column) {
+        return (this.displayConverters != null) ? this.displayConverters[column] : null;
+    }
+
+    /**
+     * Returns the data value of a cell in this block. Note that values of
+     * numeric columns are boxed by this method.
+     *
+     * @param column
+     *            The exported column, starting at 0.
+     * @param row
+     *            The row in this block, starting at 0.
+     * @return The data value of the cell.
+     */
+    public Object getDataValue(int column, int row) {
+        if (this.nullValues[column] != null && this.nullValues[column][row]) {
+            return null;
+        } else if (this.doubleValues[column] != null) {
+            return this.doubleValues[column][row];
+        } else if (this.longValues[column] != null) {
+            return this.longValues[column][row];
+        }
+        return this.objectValues[column][row];
+    }
+
+    /**
+     * Returns the display value of a cell in this block, which is the data
+     * value converted by the {@link IDisplayConverter} of the column. Values of
+     * numeric columns are boxed for the conversion, except for the
+     * {@link DefaultDisplayConverter} which is replaced by a direct conversion
+     * to String. For a block that was created for the rows of a layer, the
+     * value returned by the {@link IExportFormatter} is returned.
+     *
+     * @param column
+     *            The exported column, starting at 0.
+     * @param row
+     *            The row in this block, starting at 0.
+     * @return The display value of the cell.
+     */
+    public Object getDisplayValue(int column, int row) {
+        if (this.exportValues != null) {
+            return this.exportValues[column][row];
+        }
+        IDisplayConverter converter = this.displayConverters[column];
+        if (this.nullValues[column] != null && this.nullValues[column][row]) {
+            return converter.canonicalToDisplayValue(null);
+        } else if (this.doubleValues[column] != null) {
+            double value = this.doubleValues[column][row];
+            if (converter.getClass() == DefaultDisplayConverter.class) {
+                return Double.toString(value);
+            }
+            return converter.canonicalToDisplayValue(value);
+        } else if (this.longValues[column] != null) {
+            long value = this.longValues[column][row];
+            if (converter.getClass() == DefaultDisplayConverter.class) {
+                return Long.toString(value);
+            }
+            return converter.canonicalToDisplayValue(value);
+        }
+        return converter.canonicalToDisplayValue(this.objectValues[column][row]);
+    }
+}
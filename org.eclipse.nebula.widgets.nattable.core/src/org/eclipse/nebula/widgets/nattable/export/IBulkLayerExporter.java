@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+
+/**
+ * Extension of the {@link ILayerExporter} that is able to export blocks of
+ * rows that are read directly from the data model, without creating an
+ * ILayerCell and resolving the export formatter per exported cell. Used by
+ * {@link NatExporter#exportDataLayer(IBulkLayerExporter, DataLayer, IConfigRegistry)}
+ * to export large tables, in which case
+ * {@link #exportRowBlock(OutputStream, ExportRowBlock)} is called instead of
+ * exportRowBegin, exportCell and exportRowEnd.
+ * <p>
+ * If the pipelined export is enabled via
+ * {@link NatExporter#setPipelinedExport(boolean)}, the rows of a layer are
+ * also exported in blocks. In that case all export methods are called by the
+ * writer thread, and {@link #exportRowBlock(OutputStream, ExportRowBlock)} is
+ * called with immutable blocks whose values were collected in the UI thread.
+ * </p>
+ *
+ * @see ExportRowBlock
+ * @since 2.0
+ */
+public interface IBulkLayerExporter extends ILayerExporter {
+
+    /**
+     * Exports all rows of the given {@link ExportRowBlock}. The row block may
+     * be reused for the following rows after this method returns, so an
+     * implementation must not keep a reference to it.
+     *
+     * @param outputStream
+     *            The OutputStream to write the export to.
+     * @param rowBlock
+     *            The {@link ExportRowBlock} that contains the values of the
+     *            rows to export.
+     * @throws IOException
+     *             If an error occurred during writing the export.
+     */
+    void exportRowBlock(OutputStream outputStream, ExportRowBlock rowBlock) throws IOException;
+
+}
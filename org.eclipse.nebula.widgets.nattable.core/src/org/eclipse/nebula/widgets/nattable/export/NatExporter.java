@@ -16,13 +16,27 @@
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import org.eclipse.nebula.widgets.nattable.Messages;
 import org.eclipse.nebula.widgets.nattable.NatTable;
+import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
 import org.eclipse.nebula.widgets.nattable.formula.command.DisableFormulaEvaluationCommand;
 import org.eclipse.nebula.widgets.nattable.formula.command.EnableFormulaEvaluationCommand;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
 import org.eclipse.nebula.widgets.nattable.print.command.PrintEntireGridCommand;
@@ -34,8 +48,11 @@
 import org.eclipse.nebula.widgets.nattable.ui.ExceptionDialog;
 import org.eclipse.nebula.widgets.nattable.util.IClientAreaProvider;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.program.Program;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.ProgressBar;
 import org.eclipse.swt.widgets.Shell;
 import org.slf4j.Logger;
@@ -53,6 +70,18 @@ public class NatExporter {
 
     private static final Logger LOG = LoggerFactory.getLogger(NatExporter.class);
 
+    /**
+     * The number of rows that are collected in the UI thread with a single
+     * task if the pipelined export is enabled.
+     */
+    private static final int EXPORT_CHUNK_SIZE = 256;
+
+    /**
+     * The maximum number of chunks that are collected or formatted while the
+     * writer thread writes the oldest one, so the memory stays bounded.
+     */
+    private static final int MAX_PENDING_CHUNKS = 4;
+
     /**
      * The {@link Shell} that should be used to open sub-dialogs and perform
      * export operations in a background thread.
@@ -93,6 +122,20 @@ public class NatExporter {
      * @since 1.6
      */
     private boolean runAsynchronously = true;
+    /**
+     * Flag to configure whether layers should be exported via a pipeline that
+     * only accesses the layer stack in the UI thread.
+     */
+    private boolean pipelinedExport = false;
+    /**
+     * The {@link Executor} that calls the {@link IExportFormatter}s if the
+     * pipelined export is enabled.
+     */
+    private Executor formattingExecutor = ForkJoinPool.commonPool();
+    /**
+     * Flag that indicates that the running export was cancelled.
+     */
+    private volatile boolean exportCancelled = false;
 
     /**
      * Create a new {@link NatExporter}.
@@ -172,6 +215,15 @@ public void exportSingleLayer(
             final ILayer layer,
             final IConfigRegistry configRegistry) {
 
+        if (this.pipelinedExport) {
+            exportPipelined(
+                    exporter,
+                    Collections.singletonList(new LayerExport("", layer, configRegistry, true)), //$NON-NLS-1$
+                    false,
+                    null);
+            return;
+        }
+
         exportSingle(exporter, (exp, outputStream) -> {
             try {
                 exp.exportBegin(outputStream);
@@ -231,6 +283,118 @@ public void exportSingleTable(
         exportSingle(exporter, (exp, outputStream) -> exportLayer(exp, outputStream, layer, configRegistry));
     }
 
+    /**
+     * Exports all rows and columns of the given {@link DataLayer} using the
+     * given {@link IBulkLayerExporter}.
+     *
+     * @param exporter
+     *            The {@link IBulkLayerExporter} to use for exporting.
+     * @param dataLayer
+     *            The {@link DataLayer} whose data should be exported.
+     * @param configRegistry
+     *            The {@link IConfigRegistry} of the NatTable instance to
+     *            export, that contains the display converters.
+     *
+     * @see #exportDataLayer(IBulkLayerExporter, DataLayer, int[],
+     *      IConfigRegistry)
+     * @since 2.0
+     */
+    public void exportDataLayer(
+            final IBulkLayerExporter exporter,
+            final DataLayer dataLayer,
+            final IConfigRegistry configRegistry) {
+
+        int[] columnIndexes = new int[dataLayer.getColumnCount()];
+        for (int i = 0; i < columnIndexes.length; i++) {
+            columnIndexes[i] = i;
+        }
+        exportDataLayer(exporter, dataLayer, columnIndexes, configRegistry);
+    }
+
+    /**
+     * Exports the given columns of all rows of the given {@link DataLayer}
+     * using the given {@link IBulkLayerExporter}. The values are read directly
+     * from the {@link IDataProvider} in blocks of rows and passed to the
+     * exporter via {@link ExportRowBlock}s, without creating an ILayerCell per
+     * exported cell. This is much faster than exporting via the layer stack
+     * for large tables, but the layer transformations like sorting, filtering
+     * or hiding on top of the {@link DataLayer} are not applied, and
+     * registered {@link IExportFormatter}s are not used.
+     * <p>
+     * The {@link IDisplayConverter} that is used to format the values is
+     * resolved once per column with the labels of the first row.
+     * </p>
+     *
+     * @param exporter
+     *            The {@link IBulkLayerExporter} to use for exporting.
+     * @param dataLayer
+     *            The {@link DataLayer} whose data should be exported.
+     * @param columnIndexes
+     *            The indexes of the columns to export in the order they
+     *            should be exported.
+     * @param configRegistry
+     *            The {@link IConfigRegistry} of the NatTable instance to
+     *            export, that contains the display converters.
+     *
+     * @since 2.0
+     */
+    public void exportDataLayer(
+            final IBulkLayerExporter exporter,
+            final DataLayer dataLayer,
+            final int[] columnIndexes,
+            final IConfigRegistry configRegistry) {
+
+        exportSingle(exporter, (exp, outputStream) -> {
+            try {
+                exp.exportBegin(outputStream);
+                exp.exportLayerBegin(outputStream, ""); //$NON-NLS-1$
+
+                exportRowBlocks(exp, outputStream, dataLayer, columnIndexes, configRegistry);
+
+                exp.exportLayerEnd(outputStream, ""); //$NON-NLS-1$
+                exp.exportEnd(outputStream);
+            } catch (IOException e) {
+                // exception is handled in the caller
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Exports the rows of the given {@link DataLayer} in blocks of
+     * {@link ExportRowBlock#DEFAULT_BLOCK_SIZE} rows.
+     */
+    private void exportRowBlocks(
+            IBulkLayerExporter exporter,
+            OutputStream outputStream,
+            DataLayer dataLayer,
+            int[] columnIndexes,
+            IConfigRegistry configRegistry) throws IOException {
+
+        IDataProvider dataProvider = dataLayer.getDataProvider();
+        int rowCount = dataProvider.getRowCount();
+
+        IDisplayConverter[] displayConverters = new IDisplayConverter[columnIndexes.length];
+        if (rowCount > 0) {
+            for (int i = 0; i < columnIndexes.length; i++) {
+                displayConverters[i] = configRegistry.getConfigAttribute(
+                        CellConfigAttributes.DISPLAY_CONVERTER,
+                        DisplayMode.NORMAL,
+                        dataLayer.getConfigLabelsByPosition(columnIndexes[i], 0));
+            }
+        }
+
+        int blockSize = ExportRowBlock.DEFAULT_BLOCK_SIZE;
+        ExportRowBlock rowBlock = new ExportRowBlock(dataProvider, columnIndexes, displayConverters, blockSize);
+        for (int firstRow = 0; firstRow < rowCount; firstRow += blockSize) {
+            if (this.exportCancelled) {
+                throw new IOException("Export cancelled"); //$NON-NLS-1$
+            }
+            rowBlock.load(firstRow, Math.min(blockSize, rowCount - firstRow));
+            exporter.exportRowBlock(outputStream, rowBlock);
+        }
+    }
+
     /**
      * Functional interface used to specify how the export should be performed
      * for different exporter interface implementations. Can be removed once the
@@ -254,6 +418,7 @@ public void exportSingleTable(
     private <T extends IExporter> void exportSingle(final T exporter, final BiConsumer<T, OutputStream> executable) {
 
         Runnable exportRunnable = () -> {
+            NatExporter.this.exportCancelled = false;
             final OutputStream outputStream = getOutputStream(exporter);
             if (outputStream != null) {
                 try {
@@ -262,7 +427,9 @@ private <T extends IExporter> void exportSingle(final T exporter, final BiConsum
                     NatExporter.this.exportSucceeded = true;
                 } catch (Exception e1) {
                     NatExporter.this.exportSucceeded = false;
-                    handleExportException(e1);
+                    if (!NatExporter.this.exportCancelled) {
+                        handleExportException(e1);
+                    }
                 } finally {
                     try {
                         outputStream.close();
@@ -329,7 +496,18 @@ public void exportMultipleNatTables(
             final boolean exportOnSameSheet,
             final String sheetName) {
 
+        if (this.pipelinedExport) {
+            List<LayerExport> layers = new ArrayList<LayerExport>();
+            for (Map.Entry<String, NatTable> entry : natTablesMap.entrySet()) {
+                NatTable natTable = entry.getValue();
+                layers.add(new LayerExport(entry.getKey(), natTable, natTable.getConfigRegistry(), !exportOnSameSheet));
+            }
+            exportPipelined(exporter, layers, exportOnSameSheet, sheetName);
+            return;
+        }
+
         Runnable exportRunnable = () -> {
+            NatExporter.this.exportCancelled = false;
             final OutputStream outputStream = getOutputStream(exporter);
             if (outputStream != null) {
                 try {
@@ -353,7 +531,9 @@ public void exportMultipleNatTables(
                     NatExporter.this.exportSucceeded = true;
                 } catch (Exception e1) {
                     NatExporter.this.exportSucceeded = false;
-                    handleExportException(e1);
+                    if (!NatExporter.this.exportCancelled) {
+                        handleExportException(e1);
+                    }
                 } finally {
                     try {
                         outputStream.close();
@@ -472,6 +652,9 @@ public void exportTable(Shell shell, ProgressBar progressBar, OutputStream outpu
                 int layerHeight = layer.getHeight();
 
                 for (int rowPosition = 0; rowPosition < layer.getRowCount(); rowPosition++) {
+                    if (NatExporter.this.exportCancelled) {
+                        throw new IOException("Export cancelled"); //$NON-NLS-1$
+                    }
                     if (layer.getRowHeightByPosition(rowPosition) > 0
                             && layer.getStartYOfRowPosition(rowPosition) < layerHeight) {
                         exporter.exportRowBegin(outputStream, rowPosition);
@@ -513,6 +696,492 @@ public Object getResult() {
         }, outputStream, layer, configRegistry);
     }
 
+    /**
+     * Performs a pipelined export of the given layers.
+     *
+     * @see #setPipelinedExport(boolean)
+     */
+    private void exportPipelined(
+            final ILayerExporter exporter,
+            final List<LayerExport> layers,
+            final boolean exportOnSameSheet,
+            final String sheetName) {
+
+        Runnable startRunnable = () -> {
+            NatExporter.this.exportCancelled = false;
+            final OutputStream outputStream = getOutputStream(exporter);
+            if (outputStream != null) {
+                ExportPipeline pipeline = new ExportPipeline(exporter, outputStream, layers, exportOnSameSheet, sheetName);
+                if (this.shell != null && this.runAsynchronously) {
+                    Thread writer = new Thread(pipeline, "NatTable export writer"); //$NON-NLS-1$
+                    writer.setDaemon(true);
+                    writer.start();
+                } else {
+                    pipeline.run();
+                }
+            }
+        };
+
+        if (this.shell != null) {
+            // the output stream and the progress dialog are created in the UI
+            // thread
+            if (this.runAsynchronously) {
+                this.shell.getDisplay().asyncExec(startRunnable);
+            } else {
+                this.shell.getDisplay().syncExec(startRunnable);
+            }
+        } else {
+            startRunnable.run();
+        }
+    }
+
+    /**
+     * Adds a button below the given {@link ProgressBar} that cancels the
+     * export.
+     */
+    private void addCancelButton(ProgressBar progressBar) {
+        Shell progressShell = progressBar.getShell();
+        Rectangle progressBounds = progressBar.getBounds();
+        Button cancelButton = new Button(progressShell, SWT.PUSH);
+        cancelButton.setText(Messages.getString("NatExporter.cancel")); //$NON-NLS-1$
+        cancelButton.setBounds(
+                progressBounds.x + progressBounds.width - 100,
+                progressBounds.y + progressBounds.height + 5,
+                100,
+                25);
+        cancelButton.addListener(SWT.Selection, event -> cancelExport());
+        progressShell.pack();
+    }
+
+    /**
+     * A layer that is exported by a pipelined export, together with the state
+     * that is needed to restore the layer afterwards.
+     */
+    private static final class LayerExport {
+
+        private final String name;
+        private final ILayer layer;
+        private final IConfigRegistry configRegistry;
+        private final boolean initExportLayer;
+
+        // set in the UI thread when the layer is prepared
+        private IClientAreaProvider originalClientAreaProvider;
+        private int rowCount;
+
+        LayerExport(String name, ILayer layer, IConfigRegistry configRegistry, boolean initExportLayer) {
+            this.name = name;
+            this.layer = layer;
+            this.configRegistry = configRegistry;
+            this.initExportLayer = initExportLayer;
+        }
+    }
+
+    /**
+     * The pipeline of an export. {@link #run()} is executed by the writer
+     * thread, which calls the {@link ILayerExporter}. The layer stack is only
+     * accessed by tasks that are executed in the UI thread, and the
+     * {@link IExportFormatter}s are called by the formatting {@link Executor}.
+     */
+    private final class ExportPipeline implements Runnable {
+
+        private final ILayerExporter exporter;
+        private final OutputStream outputStream;
+        private final List<LayerExport> layers;
+        private final boolean exportOnSameSheet;
+        private final String sheetName;
+        private final Display display;
+
+        /**
+         * Set if the export stopped, so pending snapshot tasks do not access
+         * the layer anymore.
+         */
+        private volatile boolean aborted = false;
+
+        // only accessed in the UI thread
+        private ProgressBar progressBar;
+
+        ExportPipeline(
+                ILayerExporter exporter,
+                OutputStream outputStream,
+                List<LayerExport> layers,
+                boolean exportOnSameSheet,
+                String sheetName) {
+            this.exporter = exporter;
+            this.outputStream = outputStream;
+            this.layers = layers;
+            this.exportOnSameSheet = exportOnSameSheet;
+            this.sheetName = sheetName;
+            this.display = (NatExporter.this.shell != null) ? NatExporter.this.shell.getDisplay() : null;
+        }
+
+        @Override
+        public void run() {
+            Exception error = null;
+            try {
+                runInUIThread(this::openProgressDialog);
+
+                this.exporter.exportBegin(this.outputStream);
+                if (this.exportOnSameSheet) {
+                    this.exporter.exportLayerBegin(this.outputStream, this.sheetName);
+                }
+
+                for (LayerExport layerExport : this.layers) {
+                    exportLayer(layerExport);
+                }
+
+                if (this.exportOnSameSheet) {
+                    this.exporter.exportLayerEnd(this.outputStream, this.sheetName);
+                }
+                this.exporter.exportEnd(this.outputStream);
+            } catch (Exception e) {
+                error = e;
+            } finally {
+                this.aborted = true;
+                try {
+                    this.outputStream.close();
+                } catch (IOException e) {
+                    LOG.error("Failed to close the output stream", e); //$NON-NLS-1$
+                }
+            }
+
+            final Exception exportError = error;
+            Runnable finishRunnable = () -> finish(exportError);
+            if (this.display == null || Display.getCurrent() == this.display) {
+                finishRunnable.run();
+            } else {
+                try {
+                    this.display.asyncExec(finishRunnable);
+                } catch (SWTException e) {
+                    LOG.debug("Display disposed before the export finished", e); //$NON-NLS-1$
+                }
+            }
+        }
+
+        /**
+         * Exports the rows of the given layer in chunks. While the writer
+         * waits for the oldest chunk, the following chunks are already
+         * collected in the UI thread and formatted.
+         */
+        private void exportLayer(LayerExport layerExport) throws IOException {
+            runInUIThread(() -> {
+                layerExport.originalClientAreaProvider = prepareLayer(layerExport.layer, layerExport.configRegistry);
+                layerExport.rowCount = layerExport.layer.getRowCount();
+                if (this.progressBar != null) {
+                    this.progressBar.setMaximum(Math.max(0, layerExport.rowCount - 1));
+                    this.progressBar.setSelection(0);
+                }
+            });
+
+            try {
+                if (layerExport.initExportLayer) {
+                    this.exporter.exportLayerBegin(this.outputStream, layerExport.name);
+                }
+
+                Deque<CompletableFuture<ExportChunk>> pendingChunks = new ArrayDeque<CompletableFuture<ExportChunk>>();
+                for (int fromRow = 0; fromRow < layerExport.rowCount; fromRow += EXPORT_CHUNK_SIZE) {
+                    checkCancelled();
+                    int toRow = Math.min(layerExport.rowCount, fromRow + EXPORT_CHUNK_SIZE);
+                    pendingChunks.add(collectChunk(layerExport, fromRow, toRow)
+                            .thenApplyAsync(ExportChunk::format, NatExporter.this.formattingExecutor));
+                    if (pendingChunks.size() >= MAX_PENDING_CHUNKS) {
+                        writeChunk(pendingChunks.poll());
+                    }
+                }
+                while (!pendingChunks.isEmpty()) {
+                    writeChunk(pendingChunks.poll());
+                }
+
+                if (layerExport.initExportLayer) {
+                    this.exporter.exportLayerEnd(this.outputStream, layerExport.name);
+                }
+            } catch (IOException | RuntimeException e) {
+                // the pending snapshot tasks are executed before the restore
+                // task and must not access the layer anymore
+                this.aborted = true;
+                throw e;
+            } finally {
+                runInUIThread(() -> restoreLayer(layerExport.layer, layerExport.originalClientAreaProvider));
+            }
+        }
+
+        /**
+         * Collects the snapshots of the given rows in the UI thread.
+         */
+        private CompletableFuture<ExportChunk> collectChunk(LayerExport layerExport, int fromRow, int toRow) {
+            CompletableFuture<ExportChunk> result = new CompletableFuture<ExportChunk>();
+            Runnable collectRunnable = () -> {
+                if (this.aborted || NatExporter.this.exportCancelled) {
+                    result.cancel(false);
+                    return;
+                }
+                try {
+                    result.complete(new ExportChunk(layerExport.layer, layerExport.configRegistry, fromRow, toRow));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            };
+
+            if (this.display == null || Display.getCurrent() == this.display) {
+                collectRunnable.run();
+            } else {
+                try {
+                    this.display.asyncExec(collectRunnable);
+                } catch (SWTException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Waits for the given chunk to be formatted and writes it.
+         */
+        private void writeChunk(CompletableFuture<ExportChunk> pendingChunk) throws IOException {
+            ExportChunk chunk;
+            try {
+                chunk = pendingChunk.get();
+            } catch (CancellationException e) {
+                throw new IOException("Export cancelled", e); //$NON-NLS-1$
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Export interrupted", e); //$NON-NLS-1$
+            } catch (ExecutionException e) {
+                throw new IOException("Error on collecting the export values", e.getCause()); //$NON-NLS-1$
+            }
+
+            checkCancelled();
+            chunk.write(this.exporter, this.outputStream);
+
+            final int writtenRow = chunk.toRow - 1;
+            if (this.display != null) {
+                // progress event that is processed by the UI thread
+                runInUIThreadLater(() -> {
+                    if (this.progressBar != null && !this.progressBar.isDisposed()) {
+                        this.progressBar.setSelection(writtenRow);
+                    }
+                });
+            }
+        }
+
+        private void checkCancelled() throws IOException {
+            if (NatExporter.this.exportCancelled) {
+                throw new IOException("Export cancelled"); //$NON-NLS-1$
+            }
+        }
+
+        private void openProgressDialog() {
+            if (NatExporter.this.shell != null) {
+                this.progressBar = NatExporter.this.openProgressDialog(0);
+                addCancelButton(this.progressBar);
+            }
+        }
+
+        /**
+         * Closes the progress dialog and reports the result. Executed in the
+         * UI thread.
+         */
+        private void finish(Exception error) {
+            if (this.progressBar != null && !this.progressBar.isDisposed()) {
+                Shell childShell = this.progressBar.getShell();
+                this.progressBar.dispose();
+                childShell.dispose();
+            }
+
+            NatExporter.this.exportSucceeded = (error == null);
+            if (error != null && !NatExporter.this.exportCancelled) {
+                handleExportException(error);
+            }
+
+            openExport(this.exporter);
+        }
+
+        /**
+         * Executes the given task in the UI thread and waits for it.
+         */
+        private void runInUIThread(Runnable task) throws IOException {
+            if (this.display == null || Display.getCurrent() == this.display) {
+                task.run();
+                return;
+            }
+
+            CompletableFuture<Void> result = new CompletableFuture<Void>();
+            try {
+                this.display.asyncExec(() -> {
+                    try {
+                        task.run();
+                        result.complete(null);
+                    } catch (Throwable t) {
+                        result.completeExceptionally(t);
+                    }
+                });
+                result.get();
+            } catch (SWTException e) {
+                throw new IOException("Display disposed during the export", e); //$NON-NLS-1$
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Export interrupted", e); //$NON-NLS-1$
+            } catch (ExecutionException e) {
+                throw new IOException("Error on accessing the exported layer", e.getCause()); //$NON-NLS-1$
+            }
+        }
+
+        /**
+         * Executes the given task in the UI thread without waiting for it.
+         */
+        private void runInUIThreadLater(Runnable task) {
+            try {
+                this.display.asyncExec(task);
+            } catch (SWTException e) {
+                LOG.debug("Display disposed during the export", e); //$NON-NLS-1$
+            }
+        }
+    }
+
+    /**
+     * The cells of a chunk of rows of a pipelined export. Created in the UI
+     * thread, formatted by the formatting {@link Executor} and written by the
+     * writer thread.
+     */
+    private static final class ExportChunk {
+
+        private final IConfigRegistry configRegistry;
+        private final int toRow;
+        private final int[] rowPositions;
+        private final int[] columnIndexes;
+        private final int[] columnWidths;
+        private final ExportCell[][] cells;
+        private final IExportFormatter[][] formatters;
+        private final Object[][] exportValues;
+
+        /**
+         * Creates the snapshots of the visible cells in the given rows. Needs
+         * to be called in the UI thread.
+         */
+        ExportChunk(ILayer layer, IConfigRegistry configRegistry, int fromRow, int toRow) {
+            this.configRegistry = configRegistry;
+            this.toRow = toRow;
+
+            // the layer could have changed since the row count was determined
+            int lastRow = Math.min(toRow, layer.getRowCount());
+            int layerHeight = layer.getHeight();
+            int[] positions = new int[Math.max(0, lastRow - fromRow)];
+            int rowCount = 0;
+            for (int rowPosition = fromRow; rowPosition < lastRow; rowPosition++) {
+                if (layer.getRowHeightByPosition(rowPosition) > 0
+                        && layer.getStartYOfRowPosition(rowPosition) < layerHeight) {
+                    positions[rowCount++] = rowPosition;
+                }
+            }
+            this.rowPositions = new int[rowCount];
+            System.arraycopy(positions, 0, this.rowPositions, 0, rowCount);
+
+            int columnCount = layer.getColumnCount();
+            this.columnIndexes = new int[columnCount];
+            this.columnWidths = new int[columnCount];
+            for (int columnPosition = 0; columnPosition < columnCount; columnPosition++) {
+                this.columnIndexes[columnPosition] = layer.getColumnIndexByPosition(columnPosition);
+                this.columnWidths[columnPosition] = layer.getColumnWidthByPosition(columnPosition);
+            }
+
+            this.cells = new ExportCell[rowCount][columnCount];
+            this.formatters = new IExportFormatter[rowCount][columnCount];
+            this.exportValues = new Object[rowCount][columnCount];
+            for (int row = 0; row < rowCount; row++) {
+                for (int columnPosition = 0; columnPosition < columnCount; columnPosition++) {
+                    ILayerCell cell = layer.getCellByPosition(columnPosition, this.rowPositions[row]);
+                    if (cell != null) {
+                        this.cells[row][columnPosition] = new ExportCell(cell, this.columnWidths);
+                        this.formatters[row][columnPosition] = configRegistry.getConfigAttribute(
+                                ExportConfigAttributes.EXPORT_FORMATTER,
+                                cell.getDisplayMode(),
+                                cell.getConfigLabels());
+                    }
+                }
+            }
+        }
+
+        /**
+         * Calls the {@link IExportFormatter}s for the snapshots of this chunk.
+         *
+         * @return This chunk.
+         */
+        ExportChunk format() {
+            for (int row = 0; row < this.cells.length; row++) {
+                for (int column = 0; column < this.cells[row].length; column++) {
+                    ExportCell cell = this.cells[row][column];
+                    if (cell != null) {
+                        this.exportValues[row][column] = this.formatters[row][column].formatForExport(cell, this.configRegistry);
+                    }
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Writes the formatted rows of this chunk.
+         */
+        void write(ILayerExporter exporter, OutputStream outputStream) throws IOException {
+            if (exporter instanceof IBulkLayerExporter) {
+                ((IBulkLayerExporter) exporter).exportRowBlock(outputStream, createRowBlock());
+                return;
+            }
+
+            for (int row = 0; row < this.rowPositions.length; row++) {
+                int rowPosition = this.rowPositions[row];
+                exporter.exportRowBegin(outputStream, rowPosition);
+
+                for (int column = 0; column < this.cells[row].length; column++) {
+                    ExportCell cell = this.cells[row][column];
+                    if (cell != null) {
+                        exporter.exportCell(outputStream, this.exportValues[row][column], cell, this.configRegistry);
+                    }
+                }
+
+                exporter.exportRowEnd(outputStream, rowPosition);
+            }
+        }
+
+        /**
+         * Creates an {@link ExportRowBlock} with the formatted values of this
+         * chunk. Column positions with a width of 0 are not visible to the
+         * user and therefore skipped, like the exporters do for single cells.
+         */
+        private ExportRowBlock createRowBlock() {
+            int visibleColumnCount = 0;
+            for (int width : this.columnWidths) {
+                if (width > 0) {
+                    visibleColumnCount++;
+                }
+            }
+
+            int rowCount = this.rowPositions.length;
+            int[] visibleColumnIndexes = new int[visibleColumnCount];
+            Object[][] dataValues = new Object[visibleColumnCount][rowCount];
+            Object[][] values = new Object[visibleColumnCount][rowCount];
+            int column = 0;
+            for (int columnPosition = 0; columnPosition < this.columnIndexes.length; columnPosition++) {
+                if (this.columnWidths[columnPosition] == 0) {
+                    continue;
+                }
+                visibleColumnIndexes[column] = this.columnIndexes[columnPosition];
+                for (int row = 0; row < rowCount; row++) {
+                    ExportCell cell = this.cells[row][columnPosition];
+                    if (cell != null) {
+                        dataValues[column][row] = cell.getDataValue();
+                        values[column][row] = this.exportValues[row][columnPosition];
+                    }
+                }
+                column++;
+            }
+            return new ExportRowBlock(
+                    (rowCount > 0) ? this.rowPositions[0] : 0,
+                    rowCount,
+                    visibleColumnIndexes,
+                    dataValues,
+                    values);
+        }
+    }
+
     /**
      * Exports the given {@link ILayer} to the given {@link OutputStream} using
      * the provided {@link ITableExporter}.
@@ -536,6 +1205,37 @@ protected void exportLayer(
             final ILayer layer,
             final IConfigRegistry configRegistry) {
 
+        IClientAreaProvider originalClientAreaProvider = prepareLayer(layer, configRegistry);
+
+        ProgressBar progressBar = null;
+
+        if (this.shell != null) {
+            progressBar = openProgressDialog(layer.getRowCount() - 1);
+        }
+
+        try {
+            exporter.exportTable(this.shell, progressBar, outputStream, layer, configRegistry);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            // These must be fired at the end of the thread execution
+            restoreLayer(layer, originalClientAreaProvider);
+
+            if (progressBar != null) {
+                Shell childShell = progressBar.getShell();
+                progressBar.dispose();
+                childShell.dispose();
+            }
+        }
+    }
+
+    /**
+     * Prepares the given layer for the export, so all cells can be accessed.
+     *
+     * @return The original {@link IClientAreaProvider} of the layer that needs
+     *         to be restored after the export.
+     */
+    private IClientAreaProvider prepareLayer(ILayer layer, IConfigRegistry configRegistry) {
         if (this.preRender) {
             AutoResizeHelper.autoResize(layer, configRegistry);
         }
@@ -556,41 +1256,37 @@ protected void exportLayer(
         // instead of the calculated value
         layer.doCommand(new DisableFormulaEvaluationCommand());
 
-        ProgressBar progressBar = null;
-
-        if (this.shell != null) {
-            Shell childShell = new Shell(this.shell.getDisplay(), SWT.DIALOG_TRIM | SWT.APPLICATION_MODAL);
-            childShell.setText(Messages.getString("NatExporter.exporting")); //$NON-NLS-1$
-
-            int endRow = layer.getRowCount() - 1;
-
-            progressBar = new ProgressBar(childShell, SWT.SMOOTH);
-            progressBar.setMinimum(0);
-            progressBar.setMaximum(endRow);
-            progressBar.setBounds(0, 0, 400, 25);
-            progressBar.setFocus();
-
-            childShell.pack();
-            childShell.open();
-        }
+        return originalClientAreaProvider;
+    }
 
-        try {
-            exporter.exportTable(this.shell, progressBar, outputStream, layer, configRegistry);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        } finally {
-            // These must be fired at the end of the thread execution
-            layer.setClientAreaProvider(originalClientAreaProvider);
-            layer.doCommand(new TurnViewportOnCommand());
+    /**
+     * Restores the state of the given layer after the export.
+     */
+    private void restoreLayer(ILayer layer, IClientAreaProvider originalClientAreaProvider) {
+        layer.setClientAreaProvider(originalClientAreaProvider);
+        layer.doCommand(new TurnViewportOnCommand());
 
-            layer.doCommand(new EnableFormulaEvaluationCommand());
+        layer.doCommand(new EnableFormulaEvaluationCommand());
+    }
 
-            if (progressBar != null) {
-                Shell childShell = progressBar.getShell();
-                progressBar.dispose();
-                childShell.dispose();
-            }
-        }
+    /**
+     * Opens the modal progress dialog of the export.
+     *
+     * @return The {@link ProgressBar} of the opened dialog.
+     */
+    private ProgressBar openProgressDialog(int maximum) {
+        Shell childShell = new Shell(this.shell.getDisplay(), SWT.DIALOG_TRIM | SWT.APPLICATION_MODAL);
+        childShell.setText(Messages.getString("NatExporter.exporting")); //$NON-NLS-1$
+
+        ProgressBar progressBar = new ProgressBar(childShell, SWT.SMOOTH);
+        progressBar.setMinimum(0);
+        progressBar.setMaximum(maximum);
+        progressBar.setBounds(0, 0, 400, 25);
+        progressBar.setFocus();
+
+        childShell.pack();
+        childShell.open();
+        return progressBar;
     }
 
     /**
@@ -684,6 +1380,77 @@ protected void handleExportException(Exception e) {
                 e);
     }
 
+    /**
+     * Configure whether layers should be exported via a pipeline that keeps
+     * the UI responsive. Affects the export methods that use an
+     * {@link ILayerExporter}. If enabled, an export is processed in three
+     * stages:
+     * <ol>
+     * <li>The layer stack is only accessed in the UI thread. For every chunk
+     * of rows a separate task is scheduled via
+     * {@link Display#asyncExec(Runnable)} that creates immutable
+     * {@link ExportCell} snapshots, so display events are processed between
+     * the chunks.</li>
+     * <li>The {@link IExportFormatter}s are called for the snapshots by the
+     * formatting {@link Executor}.</li>
+     * <li>A single writer thread passes the formatted chunks in order to the
+     * {@link ILayerExporter}. An {@link IBulkLayerExporter} gets one
+     * {@link ExportRowBlock} per chunk.</li>
+     * </ol>
+     * The progress bar is updated after every written chunk and the export can
+     * be cancelled via the cancel button of the progress dialog.
+     * <p>
+     * The configured {@link IExportFormatter}s and the {@link ILayerExporter}
+     * need to be able to process the cells outside the UI thread, i.e. they
+     * must not access the layer of the cell or SWT resources. If no
+     * {@link Shell} is set or the export is executed synchronously, the
+     * calling thread is used as writer thread. Default is <code>false</code>.
+     * </p>
+     *
+     * @param pipelinedExport
+     *            <code>true</code> if layers should be exported via the
+     *            pipeline, <code>false</code> if the whole export should be
+     *            processed in the UI thread.
+     * @see #setFormattingExecutor(Executor)
+     * @since 2.0
+     */
+    public void setPipelinedExport(boolean pipelinedExport) {
+        this.pipelinedExport = pipelinedExport;
+    }
+
+    /**
+     * Set the {@link Executor} that calls the {@link IExportFormatter}s if the
+     * pipelined export is enabled. By default the common
+     * {@link ForkJoinPool} is used.
+     *
+     * @param formattingExecutor
+     *            The {@link Executor} that should be used to format the
+     *            exported cells. Can not be <code>null</code>.
+     * @see #setPipelinedExport(boolean)
+     * @since 2.0
+     */
+    public void setFormattingExecutor(Executor formattingExecutor) {
+        if (formattingExecutor == null) {
+            throw new IllegalArgumentException("formattingExecutor can not be null"); //$NON-NLS-1$
+        }
+        this.formattingExecutor = formattingExecutor;
+    }
+
+    /**
+     * Cancels the running export. The cancellation is checked before every
+     * exported row of a layer, every chunk of a pipelined export and every row
+     * block of a {@link DataLayer} export. Has no effect if no export is
+     * running.
+     *
+     * @see #setPipelinedExport(boolean)
+     * @see #exportDataLayer(IBulkLayerExporter, DataLayer, int[],
+     *      IConfigRegistry)
+     * @since 2.0
+     */
+    public void cancelExport() {
+        this.exportCancelled = true;
+    }
+
     /**
      * Enable in-memory pre-rendering. This is necessary in case content
      * painters are used that are configured for content based auto-resizing.
@@ -12,28 +12,38 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.export.csv;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
 
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.export.FileOutputStreamProvider;
 import org.eclipse.nebula.widgets.nattable.export.FilePathOutputStreamProvider;
-import org.eclipse.nebula.widgets.nattable.export.ILayerExporter;
+import org.eclipse.nebula.widgets.nattable.export.ExportRowBlock;
+import org.eclipse.nebula.widgets.nattable.export.IBulkLayerExporter;
 import org.eclipse.nebula.widgets.nattable.export.IOutputStreamProvider;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
 import org.eclipse.swt.widgets.Shell;
 
 /**
  * Simple CSV-Exporter ignoring cell spans.
+ * <p>
+ * The rows are written via a buffered writer that encodes the text with the
+ * configured charset. As an {@link IBulkLayerExporter} it also supports
+ * exporting blocks of rows that are read directly from the data model.
+ * </p>
  *
  * @since 1.5
  */
-public class CsvExporter implements ILayerExporter {
+public class CsvExporter implements IBulkLayerExporter {
 
     private static final String CSV_FILE_EXTENSION = "*.csv"; //$NON-NLS-1$
     private static final String CSV_FILE_FILTER = "CSV (*.csv)"; //$NON-NLS-1$
     private static final String DEFAULT_EXPORT_FILE_NAME = "csv_export.csv"; //$NON-NLS-1$
+    private static final int WRITER_BUFFER_SIZE = 65536;
     private final IOutputStreamProvider outputStreamProvider;
     private String charset = "windows-1252"; //$NON-NLS-1$
     private String delimiter = ";"; //$NON-NLS-1$
@@ -42,6 +52,9 @@ public class CsvExporter implements ILayerExporter {
     private final StringBuilder currentRow = new StringBuilder(2048);
     private boolean rowCellInserted;
     private Charset usedCharset;
+    private String lineSeparator;
+    private Writer writer;
+    private OutputStream writerStream;
 
     /**
      * Creates a CsvExporter using the given stream provider which defines the
@@ -97,11 +110,18 @@ public Object getResult() {
     @Override
     public void exportBegin(final OutputStream outputStream) throws IOException {
         this.usedCharset = Charset.forName(this.charset);
+        this.lineSeparator = System.getProperty("line.separator"); //$NON-NLS-1$
+        this.writer = null;
+        this.writerStream = null;
     }
 
     @Override
     public void exportEnd(final OutputStream outputStream) throws IOException {
-        // do noting
+        if (this.writer != null) {
+            this.writer.flush();
+            this.writer = null;
+            this.writerStream = null;
+        }
     }
 
     @Override
@@ -111,7 +131,9 @@ public void exportLayerBegin(final OutputStream outputStream, final String layer
 
     @Override
     public void exportLayerEnd(final OutputStream outputStream, final String layerName) throws IOException {
-        // do nothing
+        if (this.writer != null) {
+            this.writer.flush();
+        }
     }
 
     @Override
@@ -122,8 +144,59 @@ public void exportRowBegin(final OutputStream outputStream, final int rowPositio
 
     @Override
     public void exportRowEnd(final OutputStream outputStream, final int rowPosition) throws IOException {
-        this.currentRow.append(System.getProperty("line.separator")); //$NON-NLS-1$
-        outputStream.write(this.currentRow.toString().getBytes(this.usedCharset));
+        Writer out = getWriter(outputStream);
+        this.currentRow.append(this.lineSeparator);
+        out.append(this.currentRow);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The display values are written directly to the buffered writer without
+     * building a row string first.
+     * </p>
+     *
+     * @since 2.0
+     */
+    @Override
+    public void exportRowBlock(final OutputStream outputStream, final ExportRowBlock rowBlock) throws IOException {
+        Writer out = getWriter(outputStream);
+        int columnCount = rowBlock.getColumnCount();
+        for (int row = 0; row < rowBlock.getRowCount(); row++) {
+            for (int column = 0; column < columnCount; column++) {
+                if (column > 0) {
+                    out.write(this.delimiter);
+                }
+
+                Object displayValue = rowBlock.getDisplayValue(column, row);
+                if (displayValue != null) {
+                    out.write(displayValue.toString());
+                }
+            }
+            out.write(this.lineSeparator);
+        }
+    }
+
+    /**
+     * Returns the buffered writer that encodes the export with the configured
+     * charset to the given {@link OutputStream}. The writer is flushed at the
+     * end of every exported layer.
+     */
+    private Writer getWriter(final OutputStream outputStream) throws IOException {
+        if (this.writer == null || this.writerStream != outputStream) {
+            if (this.writer != null) {
+                this.writer.flush();
+            }
+            if (this.usedCharset == null) {
+                this.usedCharset = Charset.forName(this.charset);
+            }
+            if (this.lineSeparator == null) {
+                this.lineSeparator = System.getProperty("line.separator"); //$NON-NLS-1$
+            }
+            this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, this.usedCharset), WRITER_BUFFER_SIZE);
+            this.writerStream = outputStream;
+        }
+        return this.writer;
     }
 
     @Override
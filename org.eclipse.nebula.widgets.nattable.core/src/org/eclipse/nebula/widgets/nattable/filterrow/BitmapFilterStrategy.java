@@ -0,0 +1,557 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.filterrow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.nebula.widgets.nattable.config.DefaultComparator;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.edit.EditConstants;
+import org.eclipse.nebula.widgets.nattable.filterrow.ParseResult.MatchType;
+import org.eclipse.nebula.widgets.nattable.filterrow.config.FilterRowConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ResizeStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.resize.event.RowResizeEvent;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.nebula.widgets.nattable.util.CalculationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link IFilterStrategy} that filters the rows of a body data provider
+ * without GlazedLists. The matching rows of every filtered column are cached
+ * as a {@link BitSet} of row indexes, so changing the filter of one column
+ * only evaluates that column again. The visible rows are the intersection of
+ * the column bitmaps and are applied to a {@link FilterHideShowLayer}.
+ * <p>
+ * The filter row configuration is interpreted like in the GlazedLists filter
+ * strategies: the text of a column is split by the
+ * {@link FilterRowConfigAttributes#TEXT_DELIMITER}, the single values are
+ * matched case insensitive according to the
+ * {@link FilterRowConfigAttributes#TEXT_MATCHING_MODE} and combined with OR,
+ * while the columns are combined with AND. In
+ * {@link TextMatchingMode#REGULAR_EXPRESSION} mode, values that start with a
+ * comparison operator are compared using the
+ * {@link FilterRowConfigAttributes#FILTER_COMPARATOR}. Collections as filter
+ * values, e.g. set by the filter row combo box, match the rows whose display
+ * value is contained.
+ * </p>
+ * <p>
+ * Changes of the filter row configuration are not tracked, call
+ * {@link #clearCache()} and apply the filter again in that case.
+ * </p>
+ *
+ * @param <T>
+ *            The type of the row objects.
+ * @since 2.0
+ */
+public class BitmapFilterStrategy<T> implements IFilterStrategy<T>, ILayerListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BitmapFilterStrategy.class);
+
+    /**
+     * The number of rows that are evaluated in one task if parallel evaluation
+     * is enabled. Needs to be a multiple of 64 so the tasks never write to the
+     * same word of a bitmap.
+     */
+    private static final int CHUNK_SIZE = 64 * 256;
+
+    protected final FilterHideShowLayer filterLayer;
+    protected final IDataProvider dataProvider;
+    protected final IConfigRegistry configRegistry;
+
+    private final Map<Integer, ColumnFilter> columnFilters = new HashMap<>();
+    private final Map<Integer, Object> lastFilterIndexToObjectMap = new HashMap<>();
+
+    private boolean parallelEvaluation = false;
+    private boolean applying = false;
+
+    /**
+     *
+     * @param filterLayer
+     *            The {@link FilterHideShowLayer} that should hide the rows
+     *            that do not match the filter.
+     * @param dataProvider
+     *            The body data provider that is used to access the values of
+     *            a row by row index.
+     * @param configRegistry
+     *            The {@link IConfigRegistry} needed to retrieve the filter row
+     *            configuration.
+     */
+    public BitmapFilterStrategy(FilterHideShowLayer filterLayer, IDataProvider dataProvider, IConfigRegistry configRegistry) {
+        this.filterLayer = filterLayer;
+        this.dataProvider = dataProvider;
+        this.configRegistry = configRegistry;
+
+        this.filterLayer.addLayerListener(this);
+    }
+
+    @Override
+    public void applyFilter(Map<Integer, Object> filterIndexToObjectMap) {
+        this.lastFilterIndexToObjectMap.clear();
+        this.lastFilterIndexToObjectMap.putAll(filterIndexToObjectMap);
+
+        try {
+            int rowCount = this.dataProvider.getRowCount();
+            Map<Integer, ColumnFilter> filters = new HashMap<>();
+            List<ColumnFilter> toEvaluate = new ArrayList<>();
+            for (Entry<Integer, Object> mapEntry : filterIndexToObjectMap.entrySet()) {
+                ColumnFilter filter = createColumnFilter(mapEntry.getKey(), mapEntry.getValue());
+                if (filter == null) {
+                    continue;
+                }
+
+                ColumnFilter existing = this.columnFilters.get(mapEntry.getKey());
+                if (existing != null
+                        && existing.matches != null
+                        && existing.rowCount == rowCount
+                        && existing.criteria.equals(filter.criteria)) {
+                    filter = existing;
+                } else {
+                    toEvaluate.add(filter);
+                }
+                filters.put(mapEntry.getKey(), filter);
+            }
+
+            // If there was no change to the filters but applyFilter() was
+            // called, probably the re-evaluation of the filter was requested.
+            if (toEvaluate.isEmpty() && filters.keySet().equals(this.columnFilters.keySet())) {
+                toEvaluate.addAll(filters.values());
+            }
+
+            evaluate(toEvaluate, rowCount);
+
+            this.columnFilters.clear();
+            this.columnFilters.putAll(filters);
+
+            updateHiddenRows(rowCount);
+        } catch (Exception e) {
+            LOG.error("Error on applying a filter", e); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Computes the hidden rows as the complement of the intersection of all
+     * column bitmaps and applies them to the {@link FilterHideShowLayer}.
+     */
+    private void updateHiddenRows(int rowCount) {
+        BitSet hidden = new BitSet(rowCount);
+        if (!this.columnFilters.isEmpty()) {
+            BitSet visible = new BitSet(rowCount);
+            visible.set(0, rowCount);
+            for (ColumnFilter filter : this.columnFilters.values()) {
+                visible.and(filter.matches);
+            }
+            hidden.set(0, rowCount);
+            hidden.andNot(visible);
+        }
+
+        this.applying = true;
+        try {
+            this.filterLayer.setHiddenRowIndexes(hidden);
+        } finally {
+            this.applying = false;
+        }
+    }
+
+    /**
+     * Evaluates the given filters for all rows. If parallel evaluation is
+     * enabled, the rows are split in chunks that are evaluated via the
+     * {@link CalculationService}, while the first chunk is evaluated in the
+     * calling thread.
+     */
+    private void evaluate(List<ColumnFilter> filters, int rowCount) throws InterruptedException, ExecutionException {
+        if (filters.isEmpty()) {
+            return;
+        }
+
+        long[][] words = new long[filters.size()][(rowCount + 63) >>> 6];
+        if (!this.parallelEvaluation || rowCount <= CHUNK_SIZE) {
+            evaluate(filters, words, 0, rowCount);
+        } else {
+            List<Future<?>> futures = new ArrayList<>();
+            try {
+                for (int from = CHUNK_SIZE; from < rowCount; from += CHUNK_SIZE) {
+                    int start = from;
+                    int end = Math.min(rowCount, from + CHUNK_SIZE);
+                    futures.add(CalculationService.getDefault().submit(
+                            this, start, () -> evaluate(filters, words, start, end), true));
+                }
+                evaluate(filters, words, 0, CHUNK_SIZE);
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                CalculationService.getDefault().cancel(this);
+            }
+        }
+
+        for (int i = 0; i < filters.size(); i++) {
+            ColumnFilter filter = filters.get(i);
+            filter.matches = BitSet.valueOf(words[i]);
+            filter.rowCount = rowCount;
+        }
+    }
+
+    private void evaluate(List<ColumnFilter> filters, long[][] words, int fromRow, int toRow) {
+        for (int i = 0; i < filters.size(); i++) {
+            ColumnFilter filter = filters.get(i);
+            long[] filterWords = words[i];
+            for (int row = fromRow; row < toRow; row++) {
+                if (filter.matches(row)) {
+                    filterWords[row >>> 6] |= 1L << row;
+                }
+            }
+        }
+    }
+
+    /**
+     * Create the {@link ColumnFilter} for the given filter value.
+     *
+     * @param columnIndex
+     *            The index of the column to filter.
+     * @param filterObject
+     *            The filter value set in the filter row.
+     * @return The {@link ColumnFilter} or <code>null</code> if the filter
+     *         value matches all rows.
+     */
+    private ColumnFilter createColumnFilter(int columnIndex, Object filterObject) {
+        if (EditConstants.SELECT_ALL_ITEMS_VALUE.equals(filterObject)) {
+            return null;
+        }
+
+        IDisplayConverter contentConverter = getFilterContentDisplayConverter(columnIndex);
+        IDisplayConverter filterConverter = getFilterDisplayConverter(columnIndex);
+
+        if (filterObject instanceof Collection) {
+            Set<String> values = new HashSet<>();
+            for (Object value : (Collection<?>) filterObject) {
+                values.add(toString(filterConverter, value));
+            }
+            return new ColumnFilter(columnIndex, values, contentConverter, values, null, null);
+        }
+
+        String filterText = toString(filterConverter, filterObject);
+        String textDelimiter = this.configRegistry.getConfigAttribute(
+                FilterRowConfigAttributes.TEXT_DELIMITER,
+                DisplayMode.NORMAL,
+                FilterRowDataLayer.FILTER_ROW_COLUMN_LABEL_PREFIX + columnIndex);
+        TextMatchingMode textMatchingMode = this.configRegistry.getConfigAttribute(
+                FilterRowConfigAttributes.TEXT_MATCHING_MODE,
+                DisplayMode.NORMAL,
+                FilterRowDataLayer.FILTER_ROW_COLUMN_LABEL_PREFIX + columnIndex);
+        if (textMatchingMode == null) {
+            textMatchingMode = TextMatchingMode.CONTAINS;
+        }
+        @SuppressWarnings("unchecked")
+        Comparator<Object> comparator = (Comparator<Object>) this.configRegistry.getConfigAttribute(
+                FilterRowConfigAttributes.FILTER_COMPARATOR,
+                DisplayMode.NORMAL,
+                FilterRowDataLayer.FILTER_ROW_COLUMN_LABEL_PREFIX + columnIndex);
+        if (comparator == null) {
+            comparator = DefaultComparator.getInstance();
+        }
+
+        List<TextMatcher> textMatchers = new ArrayList<>();
+        List<ThresholdMatcher> thresholdMatchers = new ArrayList<>();
+        for (ParseResult parseResult : parse(filterText, textDelimiter, textMatchingMode)) {
+            try {
+                if (parseResult.getMatchOperation() == MatchType.NONE) {
+                    textMatchers.add(new TextMatcher(textMatchingMode, parseResult.getValueToMatch()));
+                } else {
+                    thresholdMatchers.add(new ThresholdMatcher(
+                            contentConverter.displayToCanonicalValue(parseResult.getValueToMatch()),
+                            comparator,
+                            parseResult.getMatchOperation()));
+                }
+            } catch (PatternSyntaxException e) {
+                LOG.warn("Error on applying a filter: {}", e.getLocalizedMessage()); //$NON-NLS-1$
+            }
+        }
+
+        return new ColumnFilter(
+                columnIndex,
+                Arrays.asList(filterText, textDelimiter, textMatchingMode),
+                contentConverter,
+                null,
+                textMatchers,
+                thresholdMatchers);
+    }
+
+    /**
+     * Splits the filter text by the text delimiter and parses the comparison
+     * operators in {@link TextMatchingMode#REGULAR_EXPRESSION} mode, like the
+     * GlazedLists filter strategies do.
+     */
+    private static List<ParseResult> parse(String filterText, String textDelimiter, TextMatchingMode textMatchingMode) {
+        List<String> tokens = new ArrayList<>();
+        if (textDelimiter != null) {
+            StringTokenizer tok = new StringTokenizer(filterText, textDelimiter);
+            while (tok.hasMoreTokens()) {
+                tokens.add(tok.nextToken());
+            }
+        } else {
+            tokens.add(filterText);
+        }
+
+        List<ParseResult> parseResults = new ArrayList<>();
+        for (String token : tokens) {
+            ParseResult parseResult = new ParseResult();
+            if (textMatchingMode == TextMatchingMode.REGULAR_EXPRESSION) {
+                try (Scanner scanner = new Scanner(token.trim())) {
+                    String opToken = scanner.findWithinHorizon(Pattern.compile("<>|([>|<]?=?)"), 2); //$NON-NLS-1$
+                    if (opToken != null && !opToken.isEmpty()) {
+                        parseResult.setMatchType(MatchType.parse(opToken));
+                        while (scanner.hasNext()) {
+                            parseResult.setValueToMatch(scanner.next());
+                        }
+                    } else {
+                        parseResult.setValueToMatch(token);
+                    }
+                }
+            } else {
+                parseResult.setValueToMatch(token);
+            }
+            parseResults.add(parseResult);
+        }
+        return parseResults;
+    }
+
+    private IDisplayConverter getFilterDisplayConverter(int columnIndex) {
+        return this.configRegistry.getConfigAttribute(
+                FilterRowConfigAttributes.FILTER_DISPLAY_CONVERTER,
+                DisplayMode.NORMAL,
+                FilterRowDataLayer.FILTER_ROW_COLUMN_LABEL_PREFIX + columnIndex);
+    }
+
+    private IDisplayConverter getFilterContentDisplayConverter(int columnIndex) {
+        IDisplayConverter displayConverter = this.configRegistry.getConfigAttribute(
+                FilterRowConfigAttributes.FILTER_CONTENT_DISPLAY_CONVERTER,
+                DisplayMode.NORMAL,
+                FilterRowDataLayer.FILTER_ROW_COLUMN_LABEL_PREFIX + columnIndex);
+
+        if (displayConverter == null) {
+            displayConverter = getFilterDisplayConverter(columnIndex);
+        }
+
+        return displayConverter;
+    }
+
+    private static String toString(IDisplayConverter converter, Object value) {
+        Object displayValue = (converter != null) ? converter.canonicalToDisplayValue(value) : value;
+        return (displayValue != null) ? displayValue.toString() : ""; //$NON-NLS-1$
+    }
+
+    @Override
+    public void handleLayerEvent(ILayerEvent event) {
+        if (this.applying || this.lastFilterIndexToObjectMap.isEmpty()) {
+            return;
+        }
+
+        if (event instanceof IStructuralChangeEvent) {
+            if (event instanceof RowResizeEvent || event instanceof ResizeStructuralRefreshEvent) {
+                return;
+            }
+            if (((IStructuralChangeEvent) event).isVerticalStructureChanged()) {
+                // the bitmaps are keyed by row index, so every change of the
+                // rows requires to evaluate all filters again
+                clearCache();
+                applyFilter(new HashMap<>(this.lastFilterIndexToObjectMap));
+            }
+        } else if (event instanceof CellVisualChangeEvent) {
+            CellVisualChangeEvent cellEvent = (CellVisualChangeEvent) event;
+            int columnIndex = this.filterLayer.getColumnIndexByPosition(cellEvent.getColumnPosition());
+            int rowIndex = this.filterLayer.getRowIndexByPosition(cellEvent.getRowPosition());
+            ColumnFilter filter = this.columnFilters.get(columnIndex);
+            if (filter != null && filter.matches != null && rowIndex >= 0 && rowIndex < filter.rowCount) {
+                // only the changed row needs to be evaluated again
+                boolean matches = filter.matches(rowIndex);
+                if (matches != filter.matches.get(rowIndex)) {
+                    filter.matches.set(rowIndex, matches);
+                    updateHiddenRows(filter.rowCount);
+                }
+            }
+        }
+    }
+
+    /**
+     * Clears the cached column bitmaps, so all filters are evaluated again on
+     * the next call to {@link #applyFilter(Map)}.
+     */
+    public void clearCache() {
+        this.columnFilters.clear();
+    }
+
+    /**
+     * Configure whether the filters should be evaluated in background threads.
+     * The rows are split in chunks that are evaluated in parallel, while the
+     * calling thread waits for the result. Therefore the body data provider
+     * and the filter display converters need to be thread-safe. Default is
+     * <code>false</code>.
+     *
+     * @param parallelEvaluation
+     *            <code>true</code> if the filters should be evaluated in
+     *            background threads, <code>false</code> if they should be
+     *            evaluated in the calling thread.
+     */
+    public void setParallelEvaluation(boolean parallelEvaluation) {
+        this.parallelEvaluation = parallelEvaluation;
+    }
+
+    /**
+     * @return <code>true</code> if the filters are evaluated in background
+     *         threads.
+     */
+    public boolean isParallelEvaluation() {
+        return this.parallelEvaluation;
+    }
+
+    /**
+     * The filter of a single column together with its cached result.
+     */
+    private class ColumnFilter {
+
+        private final int columnIndex;
+        private final Object criteria;
+        private final IDisplayConverter contentConverter;
+        private final Set<String> values;
+        private final List<TextMatcher> textMatchers;
+        private final List<ThresholdMatcher> thresholdMatchers;
+
+        private BitSet matches;
+        private int rowCount;
+
+        ColumnFilter(int columnIndex, Object criteria, IDisplayConverter contentConverter,
+                Set<String> values, List<TextMatcher> textMatchers, List<ThresholdMatcher> thresholdMatchers) {
+            this.columnIndex = columnIndex;
+            this.criteria = criteria;
+            this.contentConverter = contentConverter;
+            this.values = values;
+            this.textMatchers = textMatchers;
+            this.thresholdMatchers = thresholdMatchers;
+        }
+
+        boolean matches(int rowIndex) {
+            Object value = BitmapFilterStrategy.this.dataProvider.getDataValue(this.columnIndex, rowIndex);
+            if (this.values != null) {
+                return this.values.contains(BitmapFilterStrategy.toString(this.contentConverter, value));
+            }
+
+            for (ThresholdMatcher matcher : this.thresholdMatchers) {
+                if (!matcher.matches(value)) {
+                    return false;
+                }
+            }
+
+            if (this.textMatchers.isEmpty()) {
+                return true;
+            }
+            String displayValue = BitmapFilterStrategy.toString(this.contentConverter, value);
+            for (TextMatcher matcher : this.textMatchers) {
+                if (matcher.matches(displayValue)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Case insensitive match of a display value against a filter text.
+     */
+    private static class TextMatcher {
+
+        private final TextMatchingMode mode;
+        private final String filterText;
+        private final Pattern pattern;
+
+        TextMatcher(TextMatchingMode mode, String filterText) {
+            this.mode = mode;
+            this.filterText = (filterText != null) ? filterText.toLowerCase() : ""; //$NON-NLS-1$
+            this.pattern = (mode == TextMatchingMode.REGULAR_EXPRESSION && !this.filterText.isEmpty())
+                    ? Pattern.compile(filterText, Pattern.CASE_INSENSITIVE)
+                    : null;
+        }
+
+        boolean matches(String displayValue) {
+            if (this.filterText.isEmpty()) {
+                return true;
+            }
+            switch (this.mode) {
+                case EXACT:
+                    return displayValue.equalsIgnoreCase(this.filterText);
+                case STARTS_WITH:
+                    return displayValue.toLowerCase().startsWith(this.filterText);
+                case REGULAR_EXPRESSION:
+                    return this.pattern.matcher(displayValue).matches();
+                default:
+                    return displayValue.toLowerCase().contains(this.filterText);
+            }
+        }
+    }
+
+    /**
+     * Comparison of a column value against a threshold.
+     */
+    private static class ThresholdMatcher {
+
+        private final Object threshold;
+        private final Comparator<Object> comparator;
+        private final MatchType matchType;
+
+        ThresholdMatcher(Object threshold, Comparator<Object> comparator, MatchType matchType) {
+            this.threshold = threshold;
+            this.comparator = comparator;
+            this.matchType = matchType;
+        }
+
+        boolean matches(Object value) {
+            int result = this.comparator.compare(value, this.threshold);
+            switch (this.matchType) {
+                case GREATER_THAN:
+                    return result > 0;
+                case GREATER_THAN_OR_EQUAL:
+                    return result >= 0;
+                case LESS_THAN:
+                    return result < 0;
+                case LESS_THAN_OR_EQUAL:
+                    return result <= 0;
+                case NOT_EQUAL:
+                    return result != 0;
+                default:
+                    return result == 0;
+            }
+        }
+    }
+}
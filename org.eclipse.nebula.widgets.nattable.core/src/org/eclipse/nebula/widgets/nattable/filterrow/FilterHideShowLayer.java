@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.filterrow;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+import org.eclipse.nebula.widgets.nattable.hideshow.AbstractRowHideShowLayer;
+import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+
+/**
+ * Layer that hides the rows that are filtered out by a
+ * {@link BitmapFilterStrategy}. The hidden rows are stored as a {@link BitSet}
+ * of row indexes, so a filter result can be applied in a single step instead
+ * of hiding and showing rows one by one. The row indexes of the underlying
+ * layer need to be the indexes of the body data provider, which is the case if
+ * this layer is placed directly on top of the body DataLayer.
+ *
+ * @since 2.0
+ */
+public class FilterHideShowLayer extends AbstractRowHideShowLayer {
+
+    private volatile BitSet hiddenRowIndexes = new BitSet();
+
+    /**
+     *
+     * @param underlyingLayer
+     *            The underlying layer, typically the body DataLayer.
+     */
+    public FilterHideShowLayer(IUniqueIndexLayer underlyingLayer) {
+        super(underlyingLayer);
+    }
+
+    /**
+     * Replace the hidden row indexes and fire a {@link RowStructuralRefreshEvent}
+     * so the layers above update their states.
+     *
+     * @param hiddenRowIndexes
+     *            The indexes of the rows that should be hidden. The given
+     *            {@link BitSet} is copied.
+     */
+    public void setHiddenRowIndexes(BitSet hiddenRowIndexes) {
+        this.hiddenRowIndexes = (BitSet) hiddenRowIndexes.clone();
+        invalidateCache();
+        fireLayerEvent(new RowStructuralRefreshEvent(this));
+    }
+
+    /**
+     * @return A copy of the {@link BitSet} that contains the hidden row
+     *         indexes.
+     */
+    public BitSet getHiddenRowIndexSet() {
+        return (BitSet) this.hiddenRowIndexes.clone();
+    }
+
+    @Override
+    public boolean isRowIndexHidden(int rowIndex) {
+        return rowIndex >= 0 && this.hiddenRowIndexes.get(rowIndex);
+    }
+
+    @Override
+    public Collection<Integer> getHiddenRowIndexes() {
+        return this.hiddenRowIndexes.stream().boxed().collect(Collectors.toList());
+    }
+
+    @Override
+    public int[] getHiddenRowIndexesArray() {
+        return this.hiddenRowIndexes.stream().toArray();
+    }
+
+    @Override
+    public boolean hasHiddenRows() {
+        return !this.hiddenRowIndexes.isEmpty();
+    }
+}
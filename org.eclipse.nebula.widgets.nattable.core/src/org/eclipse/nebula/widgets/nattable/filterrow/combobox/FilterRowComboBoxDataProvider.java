@@ -26,13 +26,24 @@
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
+import org.eclipse.collections.api.map.primitive.MutableObjectIntMap;
+import org.eclipse.collections.impl.factory.primitive.ObjectIntMaps;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.ListDataProvider;
 import org.eclipse.nebula.widgets.nattable.edit.editor.IComboBoxDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
 import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ResizeStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralChangeEventHelper;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff.DiffTypeEnum;
+import org.eclipse.nebula.widgets.nattable.resize.event.RowResizeEvent;
 
 /**
  * IComboBoxDataProvider that provides items for a combobox in the filter row.
@@ -46,7 +57,18 @@
  * <p>
  * As the values are cached in here, this IComboBoxDataProvider registers itself
  * as ILayerListener to the body DataLayer. If values are updated or rows get
- * added/deleted, it will update the cache accordingly.
+ * added/deleted, it will update the cache accordingly. If the body layer is a
+ * DataLayer with a ListDataProvider on the base collection, the number of
+ * occurrences of every value is tracked per cached column, so updates and row
+ * inserts/deletes only need to inspect the changed rows. For this the value of
+ * every row is kept per cached column, which costs one reference per cell.
+ * Therefore the occurrences are only tracked for at most
+ * {@link #MAX_INDEXED_VALUES} cells, columns exceeding that limit are
+ * collected again on every row insert/delete. Inserting or deleting rows in
+ * the middle of the base collection copies the row values of a column once
+ * per event. Subclasses that override {@link #collectValues(int)} need to
+ * disable the tracking via {@link #isValueIndexEnabled()}, as the values to
+ * show can then not be derived from the row values.
  *
  * @param <T>
  *            The type of the objects shown within the NatTable. Needed to
@@ -109,6 +131,27 @@
      */
     private final ReadWriteLock valueCacheLock = new ReentrantReadWriteLock();
 
+    /**
+     * The layer this IComboBoxDataProvider is registered to. Needed to check
+     * whether the row positions of its events match the base collection.
+     */
+    private final ILayer bodyLayer;
+
+    /**
+     * The occurrence counts of the values per cached column, used to update
+     * the value cache incrementally. Only filled if the row positions of the
+     * body layer match the base collection.
+     */
+    private final Map<Integer, ValueIndex> valueIndexes = new HashMap<Integer, ValueIndex>();
+
+    /**
+     * The maximum number of cells, that is rows times cached columns, whose
+     * values are kept to update the value cache incrementally.
+     *
+     * @since 2.0
+     */
+    public static final int MAX_INDEXED_VALUES = 10_000_000;
+
     /**
      * @param bodyLayer
      *            A layer in the body region. Usually the DataLayer or a layer
@@ -153,6 +196,7 @@ public FilterRowComboBoxDataProvider(
             Collection<T> baseCollection,
             IColumnAccessor<T> columnAccessor,
             boolean lazy) {
+        this.bodyLayer = bodyLayer;
         this.baseCollection = baseCollection;
         this.columnAccessor = columnAccessor;
         this.lazyLoading = lazy;
@@ -185,7 +229,7 @@ public List<?> getValues(int columnIndex, int rowIndex) {
             if (result == null) {
                 this.valueCacheLock.writeLock().lock();
                 try {
-                    result = collectValues(columnIndex);
+                    result = collectCachedValues(columnIndex);
                     this.valueCache.put(columnIndex, result);
                 } finally {
                     this.valueCacheLock.writeLock().unlock();
@@ -206,10 +250,85 @@ public List<?> getValues(int columnIndex, int rowIndex) {
      */
     protected void buildValueCache() {
         for (int i = 0; i < this.columnAccessor.getColumnCount(); i++) {
-            this.valueCache.put(i, collectValues(i));
+            this.valueCache.put(i, collectCachedValues(i));
         }
     }
 
+    /**
+     * Collects the unique values for the given column index that should be put
+     * to the value cache. If the row positions of the body layer match the
+     * base collection, the occurrence counts of the values are collected and
+     * the unique values are taken from them, so the cache can be updated
+     * incrementally afterwards. Otherwise the values are collected via
+     * {@link #collectValues(int)}.
+     *
+     * @param columnIndex
+     *            The column index for which the values should be collected
+     * @return List of all unique values that are contained in the body
+     *         IDataProvider for the given column.
+     */
+    private List<?> collectCachedValues(int columnIndex) {
+        this.valueIndexes.remove(columnIndex);
+
+        List<T> baseList = getIndexableList();
+        if (baseList != null
+                && (long) baseList.size() * (this.valueIndexes.size() + 1) <= MAX_INDEXED_VALUES) {
+            ValueIndex index = new ValueIndex(baseList.size());
+            for (T rowObject : baseList) {
+                Object value = this.columnAccessor.getDataValue(rowObject, columnIndex);
+                index.rowValues.add(value);
+                index.add(value);
+            }
+            this.valueIndexes.put(columnIndex, index);
+
+            List<Object> result = new ArrayList<Object>(index.counts.size());
+            index.counts.forEachKey(result::add);
+            sortValues(result);
+            return result;
+        }
+        return collectValues(columnIndex);
+    }
+
+    /**
+     * Returns whether the occurrences of the values are tracked per cached
+     * column, so the value cache can be updated incrementally on data changes
+     * and row inserts/deletes. In that case the cached values are derived
+     * from the distinct values of a column, and {@link #collectValues(int)} is
+     * only used if the values are not cached or the body layer does not match
+     * the base collection.
+     * <p>
+     * Subclasses that override {@link #collectValues(int)} to provide values
+     * that are not simply the distinct values of a column need to override
+     * this method and return <code>false</code>.
+     * </p>
+     *
+     * @return <code>true</code> if the value cache can be updated
+     *         incrementally, <code>false</code> if the values should always be
+     *         collected via {@link #collectValues(int)}.
+     * @since 2.0
+     */
+    protected boolean isValueIndexEnabled() {
+        return true;
+    }
+
+    /**
+     * @return The base collection as {@link List} if the row positions of the
+     *         events fired by the body layer are the indexes in the base
+     *         collection, <code>null</code> if the value cache can not be
+     *         updated incrementally.
+     */
+    @SuppressWarnings("unchecked")
+    private List<T> getIndexableList() {
+        if (this.bodyLayer instanceof DataLayer && isValueIndexEnabled()) {
+            IDataProvider dataProvider = ((DataLayer) this.bodyLayer).getDataProvider();
+            if (dataProvider instanceof ListDataProvider
+                    && ((ListDataProvider<?>) dataProvider).getList() == this.baseCollection) {
+                return (List<T>) this.baseCollection;
+            }
+        }
+        return null;
+    }
+
     /**
      * This method returns the column indexes of the columns for which values
      * was cached. Usually it will return all column indexes that are available
@@ -244,6 +363,19 @@ protected List<?> collectValues(int columnIndex) {
                 .distinct()
                 .collect(Collectors.toList());
 
+        sortValues(result);
+        return result;
+    }
+
+    /**
+     * Sorts the given values in natural order if they are {@link Comparable},
+     * and ensures that <code>null</code> is at the first position.
+     *
+     * @param result
+     *            The values to sort.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static void sortValues(List result) {
         Object firstNonNull = result.stream()
                 .filter(Objects::nonNull)
                 .findFirst()
@@ -258,8 +390,6 @@ protected List<?> collectValues(int columnIndex) {
                 result.add(0, null);
             }
         }
-
-        return result;
     }
 
     @Override
@@ -272,11 +402,24 @@ public void handleLayerEvent(ILayerEvent event) {
                 this.valueCacheLock.writeLock().lock();
                 try {
                     int column = ((CellVisualChangeEvent) event).getColumnPosition();
+                    int row = ((CellVisualChangeEvent) event).getRowPosition();
+
+                    ValueIndex index = this.valueIndexes.get(column);
+                    List<T> baseList = getIndexableList();
+                    if (index != null && baseList != null
+                            && index.rowValues.size() == baseList.size()
+                            && row >= 0 && row < baseList.size()) {
+                        Set<Object> addedValues = new HashSet<Object>();
+                        Set<Object> removedValues = new HashSet<Object>();
+                        index.update(row, this.columnAccessor.getDataValue(baseList.get(row), column), addedValues, removedValues);
+                        applyChanges(column, addedValues, removedValues);
+                        return;
+                    }
 
                     List<?> cacheBefore = this.valueCache.get(column);
 
                     if (!this.lazyLoading || cacheBefore != null) {
-                        this.valueCache.put(column, collectValues(column));
+                        this.valueCache.put(column, collectCachedValues(column));
                     }
 
                     if (isUpdateEventsEnabled()) {
@@ -287,15 +430,22 @@ public void handleLayerEvent(ILayerEvent event) {
                     this.valueCacheLock.writeLock().unlock();
                 }
             } else if (event instanceof IStructuralChangeEvent
-                    && ((IStructuralChangeEvent) event).isVerticalStructureChanged()) {
+                    && ((IStructuralChangeEvent) event).isVerticalStructureChanged()
+                    && !(event instanceof RowResizeEvent)
+                    && !(event instanceof ResizeStructuralRefreshEvent)) {
                 // a new row was added or a row was deleted
                 this.valueCacheLock.writeLock().lock();
                 try {
+                    if (handleRowChanges(((IStructuralChangeEvent) event).getRowDiffs())) {
+                        return;
+                    }
+
                     // remember the cache before updating
                     Map<Integer, List<?>> cacheBefore = new HashMap<Integer, List<?>>(this.valueCache);
 
                     // perform a refresh of the whole cache
                     this.valueCache.clear();
+                    this.valueIndexes.clear();
                     if (!this.lazyLoading) {
                         buildValueCache();
                     }
@@ -313,6 +463,150 @@ public void handleLayerEvent(ILayerEvent event) {
         }
     }
 
+    /**
+     * Updates the value indexes of all cached columns for the given row diffs
+     * and fires the {@link FilterRowComboUpdateEvent}s for the changed
+     * columns. Only the inserted and deleted rows are inspected.
+     *
+     * @param rowDiffs
+     *            The row diffs of the structural change event.
+     * @return <code>true</code> if the value cache was updated,
+     *         <code>false</code> if the whole cache needs to be refreshed.
+     */
+    private boolean handleRowChanges(Collection<StructuralDiff> rowDiffs) {
+        List<T> baseList = getIndexableList();
+        if (baseList == null
+                || rowDiffs == null
+                || rowDiffs.isEmpty()
+                || StructuralChangeEventHelper.isReorder(rowDiffs)
+                || !this.valueIndexes.keySet().containsAll(this.valueCache.keySet())) {
+            return false;
+        }
+
+        List<Range> deleted = new ArrayList<Range>();
+        List<Range> inserted = new ArrayList<Range>();
+        for (StructuralDiff rowDiff : rowDiffs) {
+            if (rowDiff.getDiffType() == DiffTypeEnum.DELETE) {
+                deleted.add(rowDiff.getBeforePositionRange());
+            } else if (rowDiff.getDiffType() == DiffTypeEnum.ADD) {
+                inserted.add(rowDiff.getAfterPositionRange());
+            } else {
+                return false;
+            }
+        }
+        // deleted ranges are in the positions before the change, inserted
+        // ranges are in the positions after the change
+        deleted.removeIf(range -> range.size() <= 0);
+        inserted.removeIf(range -> range.size() <= 0);
+        deleted.sort((r1, r2) -> r1.start - r2.start);
+        inserted.sort((r1, r2) -> r1.start - r2.start);
+
+        for (Map.Entry<Integer, ValueIndex> entry : this.valueIndexes.entrySet()) {
+            int column = entry.getKey();
+            ValueIndex index = entry.getValue();
+            Set<Object> addedValues = new HashSet<Object>();
+            Set<Object> removedValues = new HashSet<Object>();
+            if (!updateRowValues(index, column, baseList, deleted, inserted, addedValues, removedValues)) {
+                return false;
+            }
+            applyChanges(column, addedValues, removedValues);
+        }
+        return true;
+    }
+
+    /**
+     * Updates the row values and occurrence counts of the given
+     * {@link ValueIndex} for the given deleted and inserted ranges. Rows that
+     * are only appended are added directly, otherwise the row values are
+     * copied once to their new positions.
+     *
+     * @return <code>true</code> if the row values match the base list after
+     *         the update, <code>false</code> if the index is invalid.
+     */
+    private boolean updateRowValues(
+            ValueIndex index, int column, List<T> baseList,
+            List<Range> deleted, List<Range> inserted,
+            Set<Object> addedValues, Set<Object> removedValues) {
+
+        List<Object> oldValues = index.rowValues;
+        if (deleted.isEmpty() && !inserted.isEmpty() && inserted.get(0).start == oldValues.size()) {
+            for (int row = oldValues.size(); row < baseList.size(); row++) {
+                Object value = this.columnAccessor.getDataValue(baseList.get(row), column);
+                oldValues.add(value);
+                index.add(value, addedValues, removedValues);
+            }
+            return true;
+        }
+
+        List<Object> newValues = new ArrayList<Object>(baseList.size());
+        int oldRow = 0;
+        int deleteIdx = 0;
+        int insertIdx = 0;
+        for (int row = 0; row < baseList.size(); row++) {
+            if (insertIdx < inserted.size() && row >= inserted.get(insertIdx).start) {
+                Object value = this.columnAccessor.getDataValue(baseList.get(row), column);
+                newValues.add(value);
+                index.add(value, addedValues, removedValues);
+                if (row + 1 >= inserted.get(insertIdx).end) {
+                    insertIdx++;
+                }
+                continue;
+            }
+            // skip the deleted rows in front of the next remaining row
+            while (deleteIdx < deleted.size() && oldRow >= deleted.get(deleteIdx).start) {
+                int end = deleted.get(deleteIdx).end;
+                if (end > oldValues.size()) {
+                    return false;
+                }
+                for (; oldRow < end; oldRow++) {
+                    index.remove(oldValues.get(oldRow), addedValues, removedValues);
+                }
+                deleteIdx++;
+            }
+            if (oldRow >= oldValues.size()) {
+                return false;
+            }
+            newValues.add(oldValues.get(oldRow++));
+        }
+        // deleted rows at the end
+        for (; deleteIdx < deleted.size(); deleteIdx++) {
+            Range range = deleted.get(deleteIdx);
+            if (range.start != oldRow || range.end > oldValues.size()) {
+                return false;
+            }
+            for (; oldRow < range.end; oldRow++) {
+                index.remove(oldValues.get(oldRow), addedValues, removedValues);
+            }
+        }
+        if (oldRow != oldValues.size()) {
+            return false;
+        }
+        index.rowValues = newValues;
+        return true;
+    }
+
+    /**
+     * Applies the added and removed values to the value cache of the given
+     * column and fires a {@link FilterRowComboUpdateEvent} if something has
+     * changed.
+     */
+    private void applyChanges(int columnIndex, Set<Object> addedValues, Set<Object> removedValues) {
+        if (addedValues.isEmpty() && removedValues.isEmpty()) {
+            return;
+        }
+
+        List<?> cacheBefore = this.valueCache.get(columnIndex);
+        List<Object> values = (cacheBefore != null) ? new ArrayList<Object>(cacheBefore) : new ArrayList<Object>();
+        values.removeAll(removedValues);
+        values.addAll(addedValues);
+        sortValues(values);
+        this.valueCache.put(columnIndex, values);
+
+        if (isUpdateEventsEnabled()) {
+            fireCacheUpdateEvent(new FilterRowComboUpdateEvent(columnIndex, addedValues, removedValues));
+        }
+    }
+
     /**
      * Creates a FilterRowComboUpdateEvent for the given column index.
      * Calculates the diffs of the value cache for that column based on the
@@ -515,4 +809,51 @@ public ReadWriteLock getValueCacheLock() {
         return this.valueCacheLock;
     }
 
+    /**
+     * The values of all rows of a column together with the number of
+     * occurrences of every distinct value.
+     */
+    private static class ValueIndex {
+
+        private List<Object> rowValues;
+        private final MutableObjectIntMap<Object> counts = ObjectIntMaps.mutable.empty();
+
+        ValueIndex(int rowCount) {
+            this.rowValues = new ArrayList<Object>(rowCount);
+        }
+
+        /**
+         * Increments the count of the given value.
+         *
+         * @return <code>true</code> if the value was not contained before.
+         */
+        boolean add(Object value) {
+            return this.counts.addToValue(value, 1) == 1;
+        }
+
+        void add(Object value, Set<Object> addedValues, Set<Object> removedValues) {
+            if (add(value) && !removedValues.remove(value)) {
+                addedValues.add(value);
+            }
+        }
+
+        void remove(Object value, Set<Object> addedValues, Set<Object> removedValues) {
+            if (this.counts.addToValue(value, -1) <= 0) {
+                this.counts.remove(value);
+                if (!addedValues.remove(value)) {
+                    removedValues.add(value);
+                }
+            }
+        }
+
+        void update(int row, Object newValue, Set<Object> addedValues, Set<Object> removedValues) {
+            Object oldValue = this.rowValues.get(row);
+            if (!Objects.equals(oldValue, newValue)) {
+                this.rowValues.set(row, newValue);
+                remove(oldValue, addedValues, removedValues);
+                add(newValue, addedValues, removedValues);
+            }
+        }
+    }
+
 }
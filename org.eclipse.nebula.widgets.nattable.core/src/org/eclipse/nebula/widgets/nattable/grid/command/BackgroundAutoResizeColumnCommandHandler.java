@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.grid.command;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.nebula.widgets.nattable.grid.layer.GridLayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
+import org.eclipse.nebula.widgets.nattable.layer.LayerUtil;
+import org.eclipse.nebula.widgets.nattable.print.command.TurnViewportOffCommand;
+import org.eclipse.nebula.widgets.nattable.print.command.TurnViewportOnCommand;
+import org.eclipse.nebula.widgets.nattable.resize.BackgroundAutoResizeJob;
+import org.eclipse.nebula.widgets.nattable.resize.BackgroundAutoResizeJob.IProgressListener;
+import org.eclipse.nebula.widgets.nattable.resize.MaxCellBoundsHelper;
+import org.eclipse.nebula.widgets.nattable.resize.command.AutoResizeColumnsCommand;
+import org.eclipse.nebula.widgets.nattable.resize.command.MultiColumnResizeCommand;
+import org.eclipse.swt.graphics.GC;
+
+/**
+ * Command handler for the {@link AutoResizeColumnsCommand} that measures the
+ * body cells in chunks via a {@link BackgroundAutoResizeJob} instead of
+ * measuring all cells at once in the UI thread. Can be registered instead
+ * of the {@link AutoResizeColumnCommandHandler} for tables with a lot of rows.
+ * <p>
+ * The header rows, which are expected at the top of the command layer, are
+ * measured directly. The body rows are measured via the measure layer, which
+ * needs to be a layer below the viewport, e.g. the SelectionLayer. The widths
+ * are applied in a single resize once all rows are measured. A job that is
+ * still running when a new auto resize is triggered is cancelled. Columns
+ * that are not part of the measure layer, e.g. the row header columns, are
+ * resized directly like in the {@link AutoResizeColumnCommandHandler}.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class BackgroundAutoResizeColumnCommandHandler extends AutoResizeColumnCommandHandler {
+
+    /**
+     * The layer below the viewport that is used to measure the body cells.
+     */
+    protected final IUniqueIndexLayer measureLayer;
+    /**
+     * The layer whose rows are shown at the top of the command layer, or
+     * <code>null</code>.
+     */
+    protected final ILayer columnHeaderLayer;
+
+    private final List<IProgressListener> progressListeners = new CopyOnWriteArrayList<>();
+    private int sampleSize = 0;
+    private volatile BackgroundAutoResizeJob currentJob;
+
+    /**
+     *
+     * @param commandLayer
+     *            The layer on which the command should be fired. Usually this
+     *            will be the GridLayer.
+     * @param positionLayer
+     *            The layer to use for calculation of the column positions.
+     *            Needs to be a layer at a lower position in the layer
+     *            composition. Typically the body layer stack.
+     * @param columnHeaderLayer
+     *            The layer whose rows are shown at the top of the command
+     *            layer and should be measured together with the body, or
+     *            <code>null</code>.
+     * @param measureLayer
+     *            The layer below the viewport that is used to measure the body
+     *            cells, e.g. the SelectionLayer.
+     */
+    public BackgroundAutoResizeColumnCommandHandler(
+            ILayer commandLayer, ILayer positionLayer, ILayer columnHeaderLayer, IUniqueIndexLayer measureLayer) {
+        super(commandLayer, positionLayer);
+        this.columnHeaderLayer = columnHeaderLayer;
+        this.measureLayer = measureLayer;
+    }
+
+    /**
+     *
+     * @param gridLayer
+     *            The {@link GridLayer} to which this command handler should be
+     *            registered
+     * @param measureLayer
+     *            The layer below the viewport of the body layer stack that is
+     *            used to measure the body cells, e.g. the SelectionLayer.
+     */
+    public BackgroundAutoResizeColumnCommandHandler(GridLayer gridLayer, IUniqueIndexLayer measureLayer) {
+        this(gridLayer, gridLayer.getBodyLayer(), gridLayer.getColumnHeaderLayer(), measureLayer);
+    }
+
+    @Override
+    public boolean doCommand(ILayer targetLayer, AutoResizeColumnsCommand command) {
+        // Need to resize selected columns even if they are outside the viewport
+        targetLayer.doCommand(new TurnViewportOffCommand());
+
+        try {
+            int[] columnPositions = command.getColumnPositionsArray();
+            int[] gridColumnPositions =
+                    command.doPositionTransformation() ? convertFromPositionToCommandLayer(columnPositions) : columnPositions;
+
+            GC gc = command.getGCFactory().createGC();
+            if (gc == null) {
+                return true;
+            }
+
+            int headerRowCount = (this.columnHeaderLayer != null) ? this.columnHeaderLayer.getRowCount() : 0;
+            int bodyCount = 0;
+            int[] bodyPositions = new int[gridColumnPositions.length];
+            int[] headerWidths = new int[gridColumnPositions.length];
+            int otherCount = 0;
+            int[] otherPositions = new int[gridColumnPositions.length];
+            int[] otherWidths = new int[gridColumnPositions.length];
+            try {
+                for (int gridColumnPosition : gridColumnPositions) {
+                    int measurePosition = LayerUtil.convertColumnPosition(this.commandLayer, gridColumnPosition, this.measureLayer);
+                    if (measurePosition >= 0) {
+                        bodyPositions[bodyCount] = measurePosition;
+                        headerWidths[bodyCount] = MaxCellBoundsHelper.getPreferredColumnWidth(
+                                this.commandLayer, gridColumnPosition, 0, headerRowCount, 1, command.getConfigRegistry(), gc);
+                        bodyCount++;
+                    } else {
+                        otherPositions[otherCount] = gridColumnPosition;
+                        otherWidths[otherCount] = MaxCellBoundsHelper.getPreferredColumnWidth(
+                                this.commandLayer, gridColumnPosition, 0, this.commandLayer.getRowCount(), 1, command.getConfigRegistry(), gc);
+                        otherCount++;
+                    }
+                }
+            } finally {
+                gc.dispose();
+            }
+
+            if (otherCount > 0) {
+                this.commandLayer.doCommand(new MultiColumnResizeCommand(
+                        this.commandLayer, trim(otherPositions, otherCount), trim(otherWidths, otherCount), true));
+            }
+
+            if (bodyCount > 0) {
+                BackgroundAutoResizeJob job = BackgroundAutoResizeJob.createColumnJob(
+                        command.getConfigRegistry(),
+                        this.measureLayer,
+                        trim(bodyPositions, bodyCount),
+                        trim(headerWidths, bodyCount),
+                        this.sampleSize);
+                for (IProgressListener listener : this.progressListeners) {
+                    job.addProgressListener(listener);
+                }
+                // the sizes of a running job are outdated by the new one
+                cancel();
+                this.currentJob = job;
+                job.start();
+            }
+        } finally {
+            targetLayer.doCommand(new TurnViewportOnCommand());
+        }
+
+        return true;
+    }
+
+    private static int[] trim(int[] values, int length) {
+        if (values.length == length) {
+            return values;
+        }
+        int[] result = new int[length];
+        System.arraycopy(values, 0, result, 0, length);
+        return result;
+    }
+
+    /**
+     * Set the maximum number of body rows that are measured per column. If the
+     * measure layer has more rows, rows at equal distance are measured, which
+     * is faster but might result in widths that are too small for some cells.
+     *
+     * @param sampleSize
+     *            The maximum number of rows to measure per column, 0 to
+     *            measure all rows, which is the default.
+     */
+    public void setSampleSize(int sampleSize) {
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * @return The maximum number of body rows that are measured per column, 0
+     *         if all rows are measured.
+     */
+    public int getSampleSize() {
+        return this.sampleSize;
+    }
+
+    /**
+     * @return The job of the last auto resize, or <code>null</code> if no auto
+     *         resize was performed yet.
+     */
+    public BackgroundAutoResizeJob getCurrentJob() {
+        return this.currentJob;
+    }
+
+    /**
+     * Cancels the job of the last auto resize if it is still running.
+     */
+    public void cancel() {
+        BackgroundAutoResizeJob job = this.currentJob;
+        if (job != null) {
+            job.cancel();
+        }
+    }
+
+    /**
+     * @param listener
+     *            The listener that should be added to every
+     *            {@link BackgroundAutoResizeJob} started by this handler.
+     */
+    public void addProgressListener(IProgressListener listener) {
+        this.progressListeners.add(listener);
+    }
+
+    /**
+     * @param listener
+     *            The listener that should not be added to further
+     *            {@link BackgroundAutoResizeJob}s.
+     */
+    public void removeProgressListener(IProgressListener listener) {
+        this.progressListeners.remove(listener);
+    }
+}
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.grid.command;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.nebula.widgets.nattable.grid.layer.GridLayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
+import org.eclipse.nebula.widgets.nattable.layer.LayerUtil;
+import org.eclipse.nebula.widgets.nattable.print.command.TurnViewportOffCommand;
+import org.eclipse.nebula.widgets.nattable.print.command.TurnViewportOnCommand;
+import org.eclipse.nebula.widgets.nattable.resize.BackgroundAutoResizeJob;
+import org.eclipse.nebula.widgets.nattable.resize.BackgroundAutoResizeJob.IProgressListener;
+import org.eclipse.nebula.widgets.nattable.resize.MaxCellBoundsHelper;
+import org.eclipse.nebula.widgets.nattable.resize.command.AutoResizeRowsCommand;
+import org.eclipse.nebula.widgets.nattable.resize.command.MultiRowResizeCommand;
+import org.eclipse.swt.graphics.GC;
+
+/**
+ * Command handler for the {@link AutoResizeRowsCommand} that measures the
+ * body cells in chunks via a {@link BackgroundAutoResizeJob} instead of
+ * measuring all cells at once in the UI thread. Can be registered instead
+ * of the {@link AutoResizeRowCommandHandler} for tables with a lot of rows.
+ * <p>
+ * The header columns, which are expected at the left of the command layer,
+ * are measured directly. The body columns are measured via the measure layer,
+ * which needs to be a layer below the viewport, e.g. the SelectionLayer. The
+ * heights are applied in a single resize once all rows are measured. A job
+ * that is still running when a new auto resize is triggered is cancelled. Rows
+ * that are not part of the measure layer, e.g. the column header rows, are
+ * resized directly like in the {@link AutoResizeRowCommandHandler}.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class BackgroundAutoResizeRowCommandHandler extends AutoResizeRowCommandHandler {
+
+    /**
+     * The layer below the viewport that is used to measure the body cells.
+     */
+    protected final IUniqueIndexLayer measureLayer;
+    /**
+     * The layer whose columns are shown at the left of the command layer, or
+     * <code>null</code>.
+     */
+    protected final ILayer rowHeaderLayer;
+
+    private final List<IProgressListener> progressListeners = new CopyOnWriteArrayList<>();
+    private volatile BackgroundAutoResizeJob currentJob;
+
+    /**
+     *
+     * @param commandLayer
+     *            The layer on which the command should be fired. Usually this
+     *            will be the GridLayer.
+     * @param positionLayer
+     *            The layer to use for calculation of the row positions.
+     *            Needs to be a layer at a lower position in the layer
+     *            composition. Typically the body layer stack.
+     * @param rowHeaderLayer
+     *            The layer whose columns are shown at the left of the command
+     *            layer and should be measured together with the body, or
+     *            <code>null</code>.
+     * @param measureLayer
+     *            The layer below the viewport that is used to measure the body
+     *            cells, e.g. the SelectionLayer.
+     */
+    public BackgroundAutoResizeRowCommandHandler(
+            ILayer commandLayer, ILayer positionLayer, ILayer rowHeaderLayer, IUniqueIndexLayer measureLayer) {
+        super(commandLayer, positionLayer);
+        this.rowHeaderLayer = rowHeaderLayer;
+        this.measureLayer = measureLayer;
+    }
+
+    /**
+     *
+     * @param gridLayer
+     *            The {@link GridLayer} to which this command handler should be
+     *            registered
+     * @param measureLayer
+     *            The layer below the viewport of the body layer stack that is
+     *            used to measure the body cells, e.g. the SelectionLayer.
+     */
+    public BackgroundAutoResizeRowCommandHandler(GridLayer gridLayer, IUniqueIndexLayer measureLayer) {
+        this(gridLayer, gridLayer.getBodyLayer(), gridLayer.getRowHeaderLayer(), measureLayer);
+    }
+
+    @Override
+    public boolean doCommand(ILayer targetLayer, AutoResizeRowsCommand command) {
+        // Need to resize selected rows even if they are outside the viewport
+        targetLayer.doCommand(new TurnViewportOffCommand());
+
+        try {
+            int[] rowPositions = command.getRowPositionsArray();
+            int[] gridRowPositions =
+                    command.doPositionTransformation() ? convertFromPositionToCommandLayer(rowPositions) : rowPositions;
+
+            GC gc = command.getGCFactory().createGC();
+            if (gc == null) {
+                return true;
+            }
+
+            int headerColumnCount = (this.rowHeaderLayer != null) ? this.rowHeaderLayer.getColumnCount() : 0;
+            int bodyCount = 0;
+            int[] bodyPositions = new int[gridRowPositions.length];
+            int[] headerHeights = new int[gridRowPositions.length];
+            int otherCount = 0;
+            int[] otherPositions = new int[gridRowPositions.length];
+            int[] otherHeights = new int[gridRowPositions.length];
+            try {
+                for (int gridRowPosition : gridRowPositions) {
+                    int measurePosition = LayerUtil.convertRowPosition(this.commandLayer, gridRowPosition, this.measureLayer);
+                    if (measurePosition >= 0) {
+                        bodyPositions[bodyCount] = measurePosition;
+                        headerHeights[bodyCount] = MaxCellBoundsHelper.getPreferredRowHeight(
+                                this.commandLayer, gridRowPosition, 0, headerColumnCount, command.getConfigRegistry(), gc);
+                        bodyCount++;
+                    } else {
+                        otherPositions[otherCount] = gridRowPosition;
+                        otherHeights[otherCount] = MaxCellBoundsHelper.getPreferredRowHeight(
+                                this.commandLayer, gridRowPosition, 0, this.commandLayer.getColumnCount(), command.getConfigRegistry(), gc);
+                        otherCount++;
+                    }
+                }
+            } finally {
+                gc.dispose();
+            }
+
+            if (otherCount > 0) {
+                this.commandLayer.doCommand(new MultiRowResizeCommand(
+                        this.commandLayer, trim(otherPositions, otherCount), trim(otherHeights, otherCount), true));
+            }
+
+            if (bodyCount > 0) {
+                BackgroundAutoResizeJob job = BackgroundAutoResizeJob.createRowJob(
+                        command.getConfigRegistry(),
+                        this.measureLayer,
+                        trim(bodyPositions, bodyCount),
+                        trim(headerHeights, bodyCount));
+                for (IProgressListener listener : this.progressListeners) {
+                    job.addProgressListener(listener);
+                }
+                // the sizes of a running job are outdated by the new one
+                cancel();
+                this.currentJob = job;
+                job.start();
+            }
+        } finally {
+            targetLayer.doCommand(new TurnViewportOnCommand());
+        }
+
+        return true;
+    }
+
+    private static int[] trim(int[] values, int length) {
+        if (values.length == length) {
+            return values;
+        }
+        int[] result = new int[length];
+        System.arraycopy(values, 0, result, 0, length);
+        return result;
+    }
+
+    /**
+     * @return The job of the last auto resize, or <code>null</code> if no auto
+     *         resize was performed yet.
+     */
+    public BackgroundAutoResizeJob getCurrentJob() {
+        return this.currentJob;
+    }
+
+    /**
+     * Cancels the job of the last auto resize if it is still running.
+     */
+    public void cancel() {
+        BackgroundAutoResizeJob job = this.currentJob;
+        if (job != null) {
+            job.cancel();
+        }
+    }
+
+    /**
+     * @param listener
+     *            The listener that should be added to every
+     *            {@link BackgroundAutoResizeJob} started by this handler.
+     */
+    public void addProgressListener(IProgressListener listener) {
+        this.progressListeners.add(listener);
+    }
+
+    /**
+     * @param listener
+     *            The listener that should not be added to further
+     *            {@link BackgroundAutoResizeJob}s.
+     */
+    public void removeProgressListener(IProgressListener listener) {
+        this.progressListeners.remove(listener);
+    }
+}
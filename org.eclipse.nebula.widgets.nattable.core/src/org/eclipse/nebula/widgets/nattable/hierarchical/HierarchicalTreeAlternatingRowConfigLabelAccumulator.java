@@ -12,12 +12,9 @@
  *****************************************************************************/
 package org.eclipse.nebula.widgets.nattable.hierarchical;
 
-import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.nebula.widgets.nattable.command.DisposeResourcesCommand;
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommandHandler;
@@ -31,6 +28,7 @@
 import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.VisualRefreshEvent;
 import org.eclipse.nebula.widgets.nattable.resize.event.RowResizeEvent;
+import org.eclipse.nebula.widgets.nattable.util.CalculationService;
 import org.eclipse.swt.widgets.Display;
 
 /**
@@ -48,9 +46,26 @@
         extends AlternatingRowConfigLabelAccumulator
         implements ILayerListener, ILayerCommandHandler<DisposeResourcesCommand> {
 
-    private ExecutorService executor =
-            Executors.newSingleThreadExecutor(r -> new Thread(r, "HierarchicalTreeAlternatingRowConfigLabelAccumulator")); //$NON-NLS-1$
-    private Future<Void> future = null;
+    private static final String CALCULATION_KEY = "rowLabels"; //$NON-NLS-1$
+
+    private CalculationService calculationService = CalculationService.getDefault();
+    private Future<?> future = null;
+
+    /**
+     * Incremented whenever the cache is cleared, so a running calculation for
+     * an outdated state stops without the need to interrupt the thread.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+    /**
+     * Lock that ensures that only one calculation writes to the cache at a
+     * time.
+     */
+    private final Object calculationLock = new Object();
+    /**
+     * The generation the content of the cache belongs to. Only accessed while
+     * holding the {@link #calculationLock}.
+     */
+    private int cacheGeneration;
 
     private ConcurrentHashMap<Integer, String> rowLabelCache = new ConcurrentHashMap<>();
 
@@ -102,30 +117,43 @@ public void accumulateConfigLabels(LabelStack configLabels, int columnPosition,
      * Triggers a new background thread for calculation of the row label cache.
      */
     public void calculateLabels() {
-        this.future = this.executor.submit(() -> {
-            String lastKnownLabel = EVEN_ROW_CONFIG_TYPE;
-            HierarchicalTreeAlternatingRowConfigLabelAccumulator.this.rowLabelCache.put(0, lastKnownLabel);
+        int calculationGeneration = this.generation.get();
+        this.future = this.calculationService.submit(this, CALCULATION_KEY, () -> {
+            synchronized (this.calculationLock) {
+                if (calculationGeneration != this.generation.get()) {
+                    return;
+                }
+                if (this.cacheGeneration != calculationGeneration) {
+                    // remove values a previous calculation might have added
+                    // after the cache was cleared
+                    this.rowLabelCache.clear();
+                    this.cacheGeneration = calculationGeneration;
+                }
 
-            int row = 0;
-            while (row < HierarchicalTreeAlternatingRowConfigLabelAccumulator.this.layer.getRowCount()) {
+                String lastKnownLabel = EVEN_ROW_CONFIG_TYPE;
+                this.rowLabelCache.put(0, lastKnownLabel);
 
-                if (Thread.currentThread().isInterrupted()) {
-                    return null;
-                }
+                int row = 0;
+                while (row < this.layer.getRowCount()) {
 
-                // determine the next row after the last known based
-                // on spanning
-                ILayerCell lastKnownCell = HierarchicalTreeAlternatingRowConfigLabelAccumulator.this.layer.getCellByPosition(0, row);
-                if (lastKnownCell != null) {
-                    row = lastKnownCell.getOriginRowPosition() + lastKnownCell.getRowSpan();
+                    if (calculationGeneration != this.generation.get()) {
+                        return;
+                    }
 
-                    lastKnownLabel = ODD_ROW_CONFIG_TYPE.equals(lastKnownLabel) ? EVEN_ROW_CONFIG_TYPE : ODD_ROW_CONFIG_TYPE;
+                    // determine the next row after the last known based
+                    // on spanning
+                    ILayerCell lastKnownCell = this.layer.getCellByPosition(0, row);
+                    if (lastKnownCell != null) {
+                        row = lastKnownCell.getOriginRowPosition() + lastKnownCell.getRowSpan();
 
-                    HierarchicalTreeAlternatingRowConfigLabelAccumulator.this.rowLabelCache.put(row, lastKnownLabel);
-                } else {
-                    // if for some case there is no lastKnownCell we break
-                    // otherwise we end up in a endless loop
-                    break;
+                        lastKnownLabel = ODD_ROW_CONFIG_TYPE.equals(lastKnownLabel) ? EVEN_ROW_CONFIG_TYPE : ODD_ROW_CONFIG_TYPE;
+
+                        this.rowLabelCache.put(row, lastKnownLabel);
+                    } else {
+                        // if for some case there is no lastKnownCell we break
+                        // otherwise we end up in a endless loop
+                        break;
+                    }
                 }
             }
 
@@ -133,30 +161,18 @@ public void calculateLabels() {
             // the correct alternate colors are rendered
             Display.getDefault().asyncExec(() -> HierarchicalTreeAlternatingRowConfigLabelAccumulator.this.layer.fireLayerEvent(
                     new VisualRefreshEvent(HierarchicalTreeAlternatingRowConfigLabelAccumulator.this.layer)));
-
-            return null;
-        });
+        }, false);
     }
 
     /**
      * Clears the local cache of calculated row position to label mappings.
      */
     public void clearCache() {
-        if (this.future != null && !this.future.isCancelled() && !this.future.isDone()) {
-            // cancel a already running process
-            this.future.cancel(true);
-            // ensure to wait until the current running future is terminated
-            // before starting a new calculation so there are no concurrent
-            // write operations when starting the new calculation
-            try {
-                this.future.get();
-            } catch (InterruptedException e) {
-                // Restore interrupted state...
-                Thread.currentThread().interrupt();
-            } catch (ExecutionException | CancellationException e) {
-                // nothing to do here
-            }
-        }
+        // a running calculation stops as soon as it sees the new generation,
+        // the new calculation waits for it via the calculation lock and
+        // clears values it might have added concurrently
+        this.generation.incrementAndGet();
+        this.calculationService.cancel(this);
         this.rowLabelCache.clear();
         // trigger calculation
         calculateLabels();
@@ -174,11 +190,10 @@ public void handleLayerEvent(ILayerEvent event) {
 
     @Override
     public boolean doCommand(ILayer targetLayer, DisposeResourcesCommand command) {
-        if (!this.executor.isShutdown()) {
-            // simply shutdown the executor, no need to await termination on
-            // dispose
-            this.executor.shutdownNow();
-        }
+        // simply cancel the calculation, no need to await termination on
+        // dispose
+        this.generation.incrementAndGet();
+        this.calculationService.cancel(this);
         // the DisposeResourcesCommand should not be consumed
         return false;
     }
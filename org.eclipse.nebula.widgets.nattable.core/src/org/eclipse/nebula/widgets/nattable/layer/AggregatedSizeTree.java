@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer;
+
+/**
+ * Binary indexed tree (Fenwick tree) over the sizes of positions, used by
+ * {@link SizeConfig} to calculate aggregated sizes. All positions have the
+ * same base size, the tree only stores the differences to the base size of
+ * positions with a different size. Positions beyond the capacity of the tree
+ * have the base size.
+ * <p>
+ * Updating the size of a position, calculating the aggregated size up to a
+ * position and searching the position at a pixel are done in O(log n).
+ * </p>
+ */
+final class AggregatedSizeTree {
+
+    private final int baseSize;
+
+    /**
+     * The Fenwick tree of the size differences, 1-based.
+     */
+    private int[] tree;
+
+    /**
+     * Creates a tree in which all positions have the given base size.
+     *
+     * @param baseSize
+     *            The size of all positions without a different size.
+     * @param capacity
+     *            The initial number of positions that can store a different
+     *            size.
+     */
+    AggregatedSizeTree(int baseSize, int capacity) {
+        this.baseSize = baseSize;
+        this.tree = new int[capacity + 1];
+    }
+
+    /**
+     * Sets the size differences of positions without updating the tree. Needs
+     * to be followed by {@link #build()} before the tree is used.
+     *
+     * @param position
+     *            The position whose size should be set, needs to be lower
+     *            than the capacity.
+     * @param size
+     *            The size of the position.
+     */
+    void init(int position, int size) {
+        this.tree[position + 1] = size - this.baseSize;
+    }
+
+    /**
+     * Builds the tree in O(n) from the values set via
+     * {@link #init(int, int)}.
+     */
+    void build() {
+        build(this.tree);
+    }
+
+    private static void build(int[] tree) {
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    /**
+     * @return The number of positions that can store a different size.
+     */
+    int getCapacity() {
+        return this.tree.length - 1;
+    }
+
+    /**
+     * Updates the size of the given position. Grows the tree if the position
+     * is beyond the capacity.
+     *
+     * @param position
+     *            The position whose size should be set.
+     * @param size
+     *            The new size of the position.
+     */
+    void setSize(int position, int size) {
+        if (position >= getCapacity()) {
+            grow(position + 1);
+        }
+        int diff = (size - this.baseSize) - (prefixSum(position + 1) - prefixSum(position));
+        for (int i = position + 1; i < this.tree.length; i += i & -i) {
+            this.tree[i] += diff;
+        }
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, getCapacity() * 2);
+        // convert back to the point values and rebuild with the new capacity
+        int[] values = new int[capacity + 1];
+        for (int i = this.tree.length - 1; i > 0; i--) {
+            int parent = i + (i & -i);
+            if (parent < this.tree.length) {
+                this.tree[parent] -= this.tree[i];
+            }
+        }
+        System.arraycopy(this.tree, 1, values, 1, this.tree.length - 1);
+        build(values);
+        this.tree = values;
+    }
+
+    private int prefixSum(int count) {
+        int sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += this.tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @param position
+     *            The position up to which the sizes should be aggregated.
+     * @return The sum of the sizes of all positions before the given position.
+     */
+    int getAggregateSize(int position) {
+        return position * this.baseSize + prefixSum(Math.min(position, getCapacity()));
+    }
+
+    /**
+     * Searches the position that contains the given pixel, which is the
+     * position p for which
+     * <code>getAggregateSize(p) &lt;= pixel &lt; getAggregateSize(p + 1)</code>.
+     * Positions with size 0 are skipped.
+     *
+     * @param pixel
+     *            The pixel to search, needs to be positive.
+     * @return The position that contains the given pixel.
+     */
+    int getPositionByPixel(int pixel) {
+        int position = 0;
+        int remaining = pixel;
+        int capacity = getCapacity();
+        for (int step = Integer.highestOneBit(Math.max(capacity, 1)); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= capacity) {
+                int size = this.tree[next] + step * this.baseSize;
+                if (size <= remaining) {
+                    position = next;
+                    remaining -= size;
+                }
+            }
+        }
+        if (position == capacity && this.baseSize > 0) {
+            // beyond the capacity all positions have the base size
+            position += remaining / this.baseSize;
+        }
+        return position;
+    }
+}
@@ -119,13 +119,23 @@ public class SizeConfig implements IPersistable {
     protected final MutableIntIntMap realSizeMap = IntIntMaps.mutable.empty();
     /**
      * Map that contains the cached aggregated sizes.
+     *
+     * @deprecated Aggregated sizes are calculated via a binary indexed tree
+     *             that is updated on resize, this map is not used anymore.
      */
+    @Deprecated
     protected final MutableIntIntMap aggregatedSizeCacheMap = IntIntMaps.mutable.empty();
     /**
      * Flag that indicates if the aggregated size cache is valid or if it needs
      * to get recalculated.
      */
     protected boolean isAggregatedSizeCacheValid = true;
+    /**
+     * Binary indexed tree over the position sizes that is used to calculate
+     * aggregated sizes and to search positions by pixel in O(log n). Rebuilt
+     * lazily if {@link #isAggregatedSizeCacheValid} is <code>false</code>.
+     */
+    private AggregatedSizeTree aggregatedSizeTree;
     /**
      * The {@link IDpiConverter} that is used for scaling DPI conversion.
      */
@@ -269,7 +279,6 @@ public void loadState(String prefix, Properties properties) {
         this.percentageSizeMap.clear();
         this.percentageSizingMap.clear();
         this.resizablesMap.clear();
-        this.aggregatedSizeCacheMap.clear();
         this.minSizeMap.clear();
 
         this.resizableByDefault = true;
@@ -414,18 +423,44 @@ public int getAggregateSize(int position) {
             // value needs to be considered
             return position * upScale(this.defaultSize);
         } else {
-            // See if the cache is valid, if not clear it.
-            if (!this.isAggregatedSizeCacheValid) {
-                this.aggregatedSizeCacheMap.clear();
-                this.isAggregatedSizeCacheValid = true;
-            }
+            return getAggregatedSizeTree().getAggregateSize(position);
+        }
+    }
 
-            if (!this.aggregatedSizeCacheMap.containsKey(position)) {
-                int aggregatedSize = calculateAggregatedSize(position);
-                this.aggregatedSizeCacheMap.put(position, aggregatedSize);
-            }
-            return this.aggregatedSizeCacheMap.get(position);
+    /**
+     * Returns the position that contains the given pixel, which is the
+     * position whose aggregate size is lower or equal to the given pixel and
+     * whose end is after the pixel. Positions with size 0 are skipped. The
+     * number of positions is not known by the {@link SizeConfig}, so the caller
+     * needs to ensure that the pixel is within the aggregate size of all
+     * positions.
+     *
+     * @param pixel
+     *            The pixel for which the position is requested.
+     * @return The position that contains the given pixel, or -1 if the pixel is
+     *         negative.
+     * @since 2.0
+     */
+    public int getPositionByPixel(int pixel) {
+        if (pixel < 0) {
+            return -1;
+        } else if (isAllPositionsSameSize() && !isPercentageSizing()) {
+            int size = upScale(this.defaultSize);
+            return (size > 0) ? pixel / size : 0;
+        }
+        return getAggregatedSizeTree().getPositionByPixel(pixel);
+    }
+
+    /**
+     * @return The {@link AggregatedSizeTree} for the current configuration,
+     *         rebuilt if the configuration was changed.
+     */
+    private AggregatedSizeTree getAggregatedSizeTree() {
+        if (!this.isAggregatedSizeCacheValid || this.aggregatedSizeTree == null) {
+            this.aggregatedSizeTree = buildAggregatedSizeTree();
+            this.isAggregatedSizeCacheValid = true;
         }
+        return this.aggregatedSizeTree;
     }
 
     public int getSize(int position) {
@@ -644,7 +679,12 @@ public void setSize(int position, int size) {
             }
 
             calculatePercentages(this.availableSpace, this.realSizeMap.size());
-            this.isAggregatedSizeCacheValid = false;
+            if (!isPercentageSizing() && this.isAggregatedSizeCacheValid && this.aggregatedSizeTree != null) {
+                // only the size of a single position changed
+                this.aggregatedSizeTree.setSize(position, upScale(size));
+            } else {
+                this.isAggregatedSizeCacheValid = false;
+            }
         }
     }
 
@@ -1279,39 +1319,35 @@ protected int[] correctPercentageValues(double sum, int positionCount) {
         return new int[0];
     }
 
-    private int calculateAggregatedSize(int position) {
-        int resizeAggregate = 0;
-        int resizedColumns = 0;
-
+    private AggregatedSizeTree buildAggregatedSizeTree() {
         boolean pSizing = isPercentageSizing();
         MutableIntIntMap mapToUse = pSizing ? this.realSizeMap : this.sizeMap;
 
-        for (int resizedPosition : mapToUse.keySet().toSortedArray()) {
-            if (resizedPosition < position) {
-                resizedColumns++;
-                int size = mapToUse.get(resizedPosition);
-                resizeAggregate += pSizing ? size : upScale(size);
-            } else {
-                break;
-            }
+        int capacity = 0;
+        MutableIntIterator it = mapToUse.keySet().intIterator();
+        while (it.hasNext()) {
+            capacity = Math.max(capacity, it.next() + 1);
         }
+        it = this.defaultSizeMap.keySet().intIterator();
+        while (it.hasNext()) {
+            capacity = Math.max(capacity, it.next() + 1);
+        }
+
+        AggregatedSizeTree tree = new AggregatedSizeTree(upScale(this.defaultSize), capacity);
 
         // also take into account the default size configuration per position
-        for (int defaultPosition : this.defaultSizeMap.keySet().toSortedArray()) {
-            if (defaultPosition < position) {
-                if (!mapToUse.containsKey(defaultPosition)) {
-                    resizedColumns++;
-                    int size = this.defaultSizeMap.get(defaultPosition);
-                    resizeAggregate += upScale(size);
-                }
-            } else {
-                break;
+        this.defaultSizeMap.forEachKeyValue((position, size) -> {
+            if (position >= 0 && !mapToUse.containsKey(position)) {
+                tree.init(position, upScale(size));
             }
-        }
-
-        int result = (position - resizedColumns) * upScale(this.defaultSize);
-        result += resizeAggregate;
-        return result;
+        });
+        mapToUse.forEachKeyValue((position, size) -> {
+            if (position >= 0) {
+                tree.init(position, pSizing ? size : upScale(size));
+            }
+        });
+        tree.build();
+        return tree;
     }
 
     private int correctExtend(int extend, MutableIntList fixedPercentagePositions) {
@@ -1420,8 +1456,8 @@ public void reset() {
         this.percentageSizeMap.clear();
         this.percentageSizingMap.clear();
         this.realSizeMap.clear();
-        this.aggregatedSizeCacheMap.clear();
         this.minSizeMap.clear();
+        this.isAggregatedSizeCacheValid = false;
     }
 
     /**
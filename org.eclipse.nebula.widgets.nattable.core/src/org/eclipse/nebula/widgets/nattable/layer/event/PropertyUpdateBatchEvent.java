@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * Event that carries multiple {@link PropertyUpdateEvent}s that are delivered
+ * together, e.g. because the bean updates are coalesced and dispatched once
+ * per frame instead of firing a single event per update.
+ *
+ * @param <T>
+ *            Type of the bean in the backing list.
+ *
+ * @since 2.0
+ */
+public class PropertyUpdateBatchEvent<T> implements IVisualChangeEvent {
+
+    private final List<PropertyUpdateEvent<T>> updateEvents;
+
+    private ILayer layer;
+
+    /**
+     *
+     * @param layer
+     *            The layer that fires the event.
+     * @param updateEvents
+     *            The property updates that are delivered with this event.
+     */
+    public PropertyUpdateBatchEvent(ILayer layer, List<PropertyUpdateEvent<T>> updateEvents) {
+        this.layer = layer;
+        this.updateEvents = updateEvents;
+    }
+
+    // Interface methods
+
+    @Override
+    public ILayerEvent cloneEvent() {
+        List<PropertyUpdateEvent<T>> clones = new ArrayList<PropertyUpdateEvent<T>>(this.updateEvents.size());
+        for (PropertyUpdateEvent<T> event : this.updateEvents) {
+            @SuppressWarnings("unchecked")
+            PropertyUpdateEvent<T> clone = (PropertyUpdateEvent<T>) event.cloneEvent();
+            clones.add(clone);
+        }
+        return new PropertyUpdateBatchEvent<T>(this.layer, clones);
+    }
+
+    @Override
+    public boolean convertToLocal(ILayer localLayer) {
+        this.layer = localLayer;
+        for (PropertyUpdateEvent<T> event : this.updateEvents) {
+            event.convertToLocal(localLayer);
+        }
+        return true;
+    }
+
+    @Override
+    public Collection<Rectangle> getChangedPositionRectangles() {
+        return Arrays.asList(new Rectangle(0, 0, this.layer.getWidth(), this.layer.getHeight()));
+    }
+
+    @Override
+    public ILayer getLayer() {
+        return this.layer;
+    }
+
+    // Accessors
+
+    /**
+     * @return The property updates that are delivered with this event.
+     */
+    public List<PropertyUpdateEvent<T>> getUpdateEvents() {
+        return Collections.unmodifiableList(this.updateEvents);
+    }
+}
@@ -45,8 +45,27 @@ public class ColumnGroupBodyLayerStack extends AbstractIndexLayerTransform {
     private ViewportLayer viewportLayer;
 
     public ColumnGroupBodyLayerStack(IUniqueIndexLayer underlyingLayer, ColumnGroupModel... columnGroupModel) {
+        this(underlyingLayer, true, columnGroupModel);
+    }
+
+    /**
+     * Creates the layer stack on top of the given underlying layer.
+     *
+     * @param underlyingLayer
+     *            The underlying layer on whose top the stack is created.
+     * @param useDefaultConfiguration
+     *            <code>true</code> to use the default configuration of the
+     *            layers in the stack, <code>false</code> if you want to
+     *            specify your own configuration. As the default configuration
+     *            creates fonts and colors, <code>false</code> allows to create
+     *            the stack without a display.
+     * @param columnGroupModel
+     *            The {@link ColumnGroupModel}s that are used in the stack.
+     * @since 2.0
+     */
+    public ColumnGroupBodyLayerStack(IUniqueIndexLayer underlyingLayer, boolean useDefaultConfiguration, ColumnGroupModel... columnGroupModel) {
         this.columnReorderLayer =
-                new ColumnReorderLayer(underlyingLayer);
+                new ColumnReorderLayer(underlyingLayer, useDefaultConfiguration);
         this.columnGroupReorderLayer =
                 new ColumnGroupReorderLayer(this.columnReorderLayer, columnGroupModel[columnGroupModel.length - 1]);
         this.columnHideShowLayer =
@@ -54,7 +73,7 @@ public ColumnGroupBodyLayerStack(IUniqueIndexLayer underlyingLayer, ColumnGroupM
         this.columnGroupExpandCollapseLayer =
                 new ColumnGroupExpandCollapseLayer(this.columnHideShowLayer, columnGroupModel);
         this.selectionLayer =
-                new SelectionLayer(this.columnGroupExpandCollapseLayer);
+                new SelectionLayer(this.columnGroupExpandCollapseLayer, useDefaultConfiguration);
         this.viewportLayer =
                 new ViewportLayer(this.selectionLayer);
         setUnderlyingLayer(this.viewportLayer);
@@ -29,9 +29,26 @@ public class DefaultBodyLayerStack extends AbstractIndexLayerTransform {
     private final ViewportLayer viewportLayer;
 
     public DefaultBodyLayerStack(IUniqueIndexLayer underlyingLayer) {
-        this.columnReorderLayer = new ColumnReorderLayer(underlyingLayer);
+        this(underlyingLayer, true);
+    }
+
+    /**
+     * Creates the layer stack on top of the given underlying layer.
+     *
+     * @param underlyingLayer
+     *            The underlying layer on whose top the stack is created.
+     * @param useDefaultConfiguration
+     *            <code>true</code> to use the default configuration of the
+     *            layers in the stack, <code>false</code> if you want to
+     *            specify your own configuration. As the default configuration
+     *            creates fonts and colors, <code>false</code> allows to create
+     *            the stack without a display.
+     * @since 2.0
+     */
+    public DefaultBodyLayerStack(IUniqueIndexLayer underlyingLayer, boolean useDefaultConfiguration) {
+        this.columnReorderLayer = new ColumnReorderLayer(underlyingLayer, useDefaultConfiguration);
         this.columnHideShowLayer = new ColumnHideShowLayer(this.columnReorderLayer);
-        this.selectionLayer = new SelectionLayer(this.columnHideShowLayer);
+        this.selectionLayer = new SelectionLayer(this.columnHideShowLayer, useDefaultConfiguration);
         this.viewportLayer = new ViewportLayer(this.selectionLayer);
         setUnderlyingLayer(this.viewportLayer);
 
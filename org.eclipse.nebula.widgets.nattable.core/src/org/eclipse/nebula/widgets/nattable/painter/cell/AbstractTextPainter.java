@@ -14,9 +14,6 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.painter.cell;
 
-import java.util.Map;
-import java.util.WeakHashMap;
-
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
 import org.eclipse.nebula.widgets.nattable.layer.cell.CellDisplayConversionUtils;
@@ -25,9 +22,9 @@
 import org.eclipse.nebula.widgets.nattable.style.IStyle;
 import org.eclipse.nebula.widgets.nattable.style.TextDecorationEnum;
 import org.eclipse.nebula.widgets.nattable.util.GUIHelper;
+import org.eclipse.nebula.widgets.nattable.util.TextMetricsCache;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
-import org.eclipse.swt.graphics.FontData;
 import org.eclipse.swt.graphics.GC;
 
 /**
@@ -75,9 +72,6 @@ public abstract class AbstractTextPainter extends BackgroundPainter {
     private Color originalForeground;
     private Font originalFont;
 
-    private static Map<String, Integer> temporaryMap = new WeakHashMap<String, Integer>();
-    private static Map<org.eclipse.swt.graphics.Font, FontData[]> fontDataCache = new WeakHashMap<org.eclipse.swt.graphics.Font, FontData[]>();
-
     public AbstractTextPainter() {
         this(false, true);
     }
@@ -281,9 +275,10 @@ protected int getNumberOfNewLines(String text) {
 
     /**
      * Calculates the length of a given text by using the GC. To minimize the
-     * count of calculations, the calculation result will be stored within a
-     * Map, so the next time the length of the same text is asked for, the
-     * result is only returned by cache and is not calculated again.
+     * count of calculations, the calculation result will be stored within the
+     * shared {@link TextMetricsCache} per font, so the next time the length of
+     * the same text is asked for, the result is only returned by cache and is
+     * not calculated again.
      *
      * @param gc
      *            the current GC
@@ -292,31 +287,23 @@ protected int getNumberOfNewLines(String text) {
      * @return the length of the text
      */
     protected int getLengthFromCache(GC gc, String text) {
-        String originalString = text;
-        StringBuilder buffer = new StringBuilder();
-        buffer.append(text);
-        if (gc.getFont() != null) {
-            FontData[] datas = fontDataCache.get(gc.getFont());
-            if (datas == null) {
-                datas = gc.getFont().getFontData();
-                fontDataCache.put(gc.getFont(), datas);
-            }
-            if (datas != null && datas.length > 0) {
-                buffer.append(datas[0].getName());
-                buffer.append(","); //$NON-NLS-1$
-                buffer.append(datas[0].getHeight());
-                buffer.append(","); //$NON-NLS-1$
-                buffer.append(datas[0].getStyle());
-            }
-        }
-        text = buffer.toString();
-        Integer width = temporaryMap.get(text);
-        if (width == null) {
-            width = Integer.valueOf(gc.textExtent(originalString).x);
-            temporaryMap.put(text, width);
-        }
+        return TextMetricsCache.getDefault().getTextWidth(gc, text);
+    }
 
-        return width.intValue();
+    /**
+     * Calculates the height of a given text by using the GC. The calculation
+     * result will be stored within the shared {@link TextMetricsCache} per
+     * font.
+     *
+     * @param gc
+     *            the current GC
+     * @param text
+     *            the text to get the height for
+     * @return the height of the text
+     * @since 2.0
+     */
+    protected int getHeightFromCache(GC gc, String text) {
+        return TextMetricsCache.getDefault().getTextHeight(gc, text);
     }
 
     /**
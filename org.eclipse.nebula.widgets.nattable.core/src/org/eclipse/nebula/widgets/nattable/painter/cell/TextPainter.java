@@ -151,7 +151,7 @@ public int getPreferredHeight(ILayerCell cell, GC gc, IConfigRegistry configRegi
         setupGCFromConfig(gc, CellStyleUtil.getCellStyle(cell, configRegistry));
         String text = convertDataType(cell, configRegistry);
         if (!this.calculateWrappedHeight) {
-            return gc.textExtent(text).y + (this.spacing * 2) + 1 + (getNumberOfNewLines(text) - 1) * this.lineSpacing;
+            return getHeightFromCache(gc, text) + (this.spacing * 2) + 1 + (getNumberOfNewLines(text) - 1) * this.lineSpacing;
         } else {
             Rectangle adjustedBounds = cell.getLayer().getLayerPainter().adjustCellBounds(
                     cell.getColumnPosition(),
@@ -221,7 +221,7 @@ public void paintCell(ILayerCell cell, GC gc, Rectangle rectangle, IConfigRegist
                 int y = rectangle.y
                         + CellStyleUtil.getVerticalAlignmentPadding(cellStyle, rectangle, contentHeight)
                         + this.spacing;
-                int length = gc.textExtent(text).x;
+                int length = getLengthFromCache(gc, text);
                 paintDecoration(cellStyle, gc, x, y, length, fontHeight);
             } else {
                 // draw every line by itself because of the alignment, otherwise
@@ -243,7 +243,7 @@ public void paintCell(ILayerCell cell, GC gc, Rectangle rectangle, IConfigRegist
                             + this.spacing;
                     // y = start y of text
                     int y = yStartPos + this.spacing;
-                    int length = gc.textExtent(line).x;
+                    int length = getLengthFromCache(gc, line);
                     paintDecoration(cellStyle, gc, x, y, length, fontHeight);
 
                     // after every line calculate the y start pos new
@@ -142,7 +142,7 @@ public VerticalTextImagePainter(boolean wrapText, boolean paintBg, int spacing,
     public int getPreferredWidth(ILayerCell cell, GC gc, IConfigRegistry configRegistry) {
         setupGCFromConfig(gc, CellStyleUtil.getCellStyle(cell, configRegistry));
         String value = convertDataType(cell, configRegistry);
-        return gc.textExtent(value).y + (this.spacing * 2) + (getNumberOfNewLines(value) - 1) * this.lineSpacing;
+        return getHeightFromCache(gc, value) + (this.spacing * 2) + (getNumberOfNewLines(value) - 1) * this.lineSpacing;
     }
 
     @Override
@@ -18,6 +18,7 @@
 import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
 import org.eclipse.nebula.widgets.nattable.style.CellStyleUtil;
 import org.eclipse.nebula.widgets.nattable.style.ConfigAttribute;
+import org.eclipse.nebula.widgets.nattable.style.IStyle;
 import org.eclipse.nebula.widgets.nattable.util.GUIHelper;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.GC;
@@ -28,7 +29,10 @@
 import org.eclipse.swt.widgets.Display;
 
 /**
- * Draws a rectangular bar in cell proportional to the value of the cell.
+ * Draws a rectangular bar in cell proportional to the value of the cell. The
+ * value is expected to be a {@link Number} between 0 and 1, values outside
+ * that range are clamped. Values that are not a {@link Number}, e.g.
+ * <code>null</code> for an empty cell, are rendered as an empty bar.
  */
 public class PercentageBarDecorator extends CellPainterWrapper {
 
@@ -47,8 +51,9 @@ public PercentageBarDecorator(ICellPainter interiorPainter) {
     public void paintCell(ILayerCell cell, GC gc, Rectangle rectangle, IConfigRegistry configRegistry) {
         Pattern originalBackgroundPattern = gc.getBackgroundPattern();
 
-        double factor = Math.min(1.0, ((Number) cell.getDataValue()).doubleValue());
-        factor = Math.max(0.0, factor);
+        Object dataValue = cell.getDataValue();
+        double factor = (dataValue instanceof Number) ? ((Number) dataValue).doubleValue() : 0.0;
+        factor = Math.max(0.0, Math.min(1.0, factor));
 
         Rectangle bar = new Rectangle(
                 rectangle.x,
@@ -56,12 +61,9 @@ public void paintCell(ILayerCell cell, GC gc, Rectangle rectangle, IConfigRegist
                 (int) (rectangle.width * factor),
                 rectangle.height);
 
-        Color color1 = CellStyleUtil
-                .getCellStyle(cell, configRegistry)
-                .getAttributeValue(PERCENTAGE_BAR_COMPLETE_REGION_START_COLOR);
-        Color color2 = CellStyleUtil
-                .getCellStyle(cell, configRegistry)
-                .getAttributeValue(PERCENTAGE_BAR_COMPLETE_REGION_END_COLOR);
+        IStyle cellStyle = CellStyleUtil.getCellStyle(cell, configRegistry);
+        Color color1 = cellStyle.getAttributeValue(PERCENTAGE_BAR_COMPLETE_REGION_START_COLOR);
+        Color color2 = cellStyle.getAttributeValue(PERCENTAGE_BAR_COMPLETE_REGION_END_COLOR);
         if (color1 == null) {
             color1 = DEFAULT_COMPLETE_REGION_START_COLOR;
         }
@@ -83,9 +85,7 @@ public void paintCell(ILayerCell cell, GC gc, Rectangle rectangle, IConfigRegist
         gc.setBackgroundPattern(originalBackgroundPattern);
         pattern.dispose();
 
-        Color incompleteRegionColor = CellStyleUtil
-                .getCellStyle(cell, configRegistry)
-                .getAttributeValue(PERCENTAGE_BAR_INCOMPLETE_REGION_COLOR);
+        Color incompleteRegionColor = cellStyle.getAttributeValue(PERCENTAGE_BAR_INCOMPLETE_REGION_COLOR);
         if (incompleteRegionColor != null) {
             Region incompleteRegion = new Region();
 
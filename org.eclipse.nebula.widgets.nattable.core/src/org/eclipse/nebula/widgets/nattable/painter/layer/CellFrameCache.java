@@ -0,0 +1,375 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.painter.layer;
+
+import java.util.Collection;
+
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff;
+import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
+import org.eclipse.nebula.widgets.nattable.selection.event.ISelectionEvent;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * Cache for the cells that are painted by a {@link CellLayerPainter} for one
+ * layer. Stores the resolved {@link ILayerCell} and its {@link ICellPainter}
+ * per position for the area that was painted last. As an {@link ILayerCell}
+ * caches its data value, config labels and bounds, a repaint of an unchanged
+ * cell does not need to ask the layer stack and the config registry again.
+ * <p>
+ * The cache is registered as {@link ILayerListener} on the layer and
+ * invalidates the positions that are reported as changed by
+ * {@link IVisualChangeEvent}s. For {@link IStructuralChangeEvent}s all
+ * positions starting at the first changed position are invalidated, as the
+ * positions after a structural change are shifted. {@link ISelectionEvent}s
+ * and events that do not report changed positions invalidate the whole cache,
+ * as they do not contain the information about the previously selected
+ * cells.
+ * </p>
+ *
+ * @since 2.0
+ */
+final class CellFrameCache implements ILayerListener {
+
+    /**
+     * The maximum number of cells that are cached. Painting a bigger area
+     * is not cached.
+     */
+    static final int MAX_CELL_COUNT = 1 << 16;
+
+    private final ILayer layer;
+    private IConfigRegistry configRegistry;
+
+    private int originColumn;
+    private int originRow;
+    private int columnCount;
+    private int rowCount;
+
+    private ILayerCell[] cells = new ILayerCell[0];
+    private ICellPainter[] cellPainters = new ICellPainter[0];
+    private boolean[] cellPainterResolved = new boolean[0];
+
+    /**
+     * Creates a cache for the given layer and registers it as listener.
+     *
+     * @param layer
+     *            The layer whose cells should be cached.
+     */
+    CellFrameCache(ILayer layer) {
+        this.layer = layer;
+        this.layer.addLayerListener(this);
+    }
+
+    /**
+     * Removes the cache as listener from the layer and clears all cached
+     * cells.
+     */
+    void dispose() {
+        this.layer.removeLayerListener(this);
+        clear();
+    }
+
+    /**
+     * @return The layer whose cells are cached.
+     */
+    ILayer getLayer() {
+        return this.layer;
+    }
+
+    /**
+     * Ensures that the cache covers the given position rectangle. If the
+     * cached area needs to grow beyond {@link #MAX_CELL_COUNT}, the cached
+     * cells are dropped and the cache is reset to the given rectangle.
+     *
+     * @param positionRectangle
+     *            The position rectangle that should be painted.
+     * @param configRegistry
+     *            The {@link IConfigRegistry} that is used for painting. If it
+     *            is not the same as on the previous paint operation, the
+     *            cache is cleared.
+     * @return <code>true</code> if the given rectangle is covered by the
+     *         cache, <code>false</code> if it is too big to be cached.
+     */
+    synchronized boolean prepare(Rectangle positionRectangle, IConfigRegistry configRegistry) {
+        if (this.configRegistry != configRegistry) {
+            this.configRegistry = configRegistry;
+            clear();
+        }
+
+        if (contains(positionRectangle)) {
+            return true;
+        }
+
+        Rectangle target = positionRectangle;
+        if (this.cells.length > 0) {
+            Rectangle union = new Rectangle(this.originColumn, this.originRow, this.columnCount, this.rowCount)
+                    .union(positionRectangle);
+            if ((long) union.width * union.height <= MAX_CELL_COUNT) {
+                target = union;
+            }
+        }
+
+        if ((long) target.width * target.height > MAX_CELL_COUNT) {
+            return false;
+        }
+
+        resize(target);
+        return true;
+    }
+
+    private boolean contains(Rectangle positionRectangle) {
+        return this.cells.length > 0
+                && positionRectangle.x >= this.originColumn
+                && positionRectangle.y >= this.originRow
+                && positionRectangle.x + positionRectangle.width <= this.originColumn + this.columnCount
+                && positionRectangle.y + positionRectangle.height <= this.originRow + this.rowCount;
+    }
+
+    private void resize(Rectangle target) {
+        int size = target.width * target.height;
+        ILayerCell[] newCells = new ILayerCell[size];
+        ICellPainter[] newCellPainters = new ICellPainter[size];
+        boolean[] newCellPainterResolved = new boolean[size];
+
+        for (int row = 0; row < this.rowCount; row++) {
+            for (int column = 0; column < this.columnCount; column++) {
+                int newColumn = this.originColumn + column - target.x;
+                int newRow = this.originRow + row - target.y;
+                if (newColumn >= 0 && newColumn < target.width && newRow >= 0 && newRow < target.height) {
+                    int oldIndex = row * this.columnCount + column;
+                    int newIndex = newRow * target.width + newColumn;
+                    newCells[newIndex] = this.cells[oldIndex];
+                    newCellPainters[newIndex] = this.cellPainters[oldIndex];
+                    newCellPainterResolved[newIndex] = this.cellPainterResolved[oldIndex];
+                }
+            }
+        }
+
+        this.originColumn = target.x;
+        this.originRow = target.y;
+        this.columnCount = target.width;
+        this.rowCount = target.height;
+        this.cells = newCells;
+        this.cellPainters = newCellPainters;
+        this.cellPainterResolved = newCellPainterResolved;
+    }
+
+    private int indexOf(int columnPosition, int rowPosition) {
+        int column = columnPosition - this.originColumn;
+        int row = rowPosition - this.originRow;
+        if (column < 0 || column >= this.columnCount || row < 0 || row >= this.rowCount) {
+            return -1;
+        }
+        return row * this.columnCount + column;
+    }
+
+    /**
+     * Returns the cached cell at the given position or resolves it via
+     * {@link ILayer#getCellByPosition(int, int)} if it is not cached yet.
+     *
+     * @param columnPosition
+     *            The column position of the cell.
+     * @param rowPosition
+     *            The row position of the cell.
+     * @return The cell at the given position.
+     */
+    synchronized ILayerCell getCell(int columnPosition, int rowPosition) {
+        int index = indexOf(columnPosition, rowPosition);
+        if (index < 0) {
+            return this.layer.getCellByPosition(columnPosition, rowPosition);
+        }
+
+        ILayerCell cell = this.cells[index];
+        if (cell == null) {
+            cell = this.layer.getCellByPosition(columnPosition, rowPosition);
+            this.cells[index] = cell;
+        }
+        return cell;
+    }
+
+    /**
+     * Returns the cached {@link ICellPainter} for the given cell or resolves
+     * it via {@link ILayer#getCellPainter(int, int, ILayerCell, IConfigRegistry)}
+     * if it is not cached yet. The painter is only cached if the given cell
+     * is the cached cell at its position.
+     *
+     * @param cell
+     *            The cell for which the painter is requested.
+     * @param configRegistry
+     *            The {@link IConfigRegistry} to resolve the painter.
+     * @return The painter for the given cell.
+     */
+    synchronized ICellPainter getCellPainter(ILayerCell cell, IConfigRegistry configRegistry) {
+        int columnPosition = cell.getColumnPosition();
+        int rowPosition = cell.getRowPosition();
+        int index = indexOf(columnPosition, rowPosition);
+        if (index >= 0 && this.cells[index] == cell && this.cellPainterResolved[index]) {
+            return this.cellPainters[index];
+        }
+
+        ICellPainter cellPainter = cell.getLayer().getCellPainter(columnPosition, rowPosition, cell, configRegistry);
+        if (index >= 0 && this.cells[index] == cell) {
+            this.cellPainters[index] = cellPainter;
+            this.cellPainterResolved[index] = true;
+        }
+        return cellPainter;
+    }
+
+    /**
+     * Removes all cached cells.
+     */
+    synchronized void clear() {
+        this.originColumn = 0;
+        this.originRow = 0;
+        this.columnCount = 0;
+        this.rowCount = 0;
+        this.cells = new ILayerCell[0];
+        this.cellPainters = new ICellPainter[0];
+        this.cellPainterResolved = new boolean[0];
+    }
+
+    /**
+     * Removes the cached cells in the given position rectangle. If a removed
+     * cell is a spanned cell, all positions of the spanned cell are removed.
+     *
+     * @param positionRectangle
+     *            The position rectangle to invalidate.
+     */
+    void invalidate(Rectangle positionRectangle) {
+        invalidate(
+                positionRectangle.x,
+                positionRectangle.y,
+                (long) positionRectangle.x + positionRectangle.width,
+                (long) positionRectangle.y + positionRectangle.height);
+    }
+
+    /**
+     * Removes the cached cells in the given position area. If a removed cell
+     * is a spanned cell, all positions of the spanned cell are removed.
+     *
+     * @param startColumn
+     *            The inclusive start column position.
+     * @param startRow
+     *            The inclusive start row position.
+     * @param endColumn
+     *            The exclusive end column position.
+     * @param endRow
+     *            The exclusive end row position.
+     */
+    private synchronized void invalidate(long startColumn, long startRow, long endColumn, long endRow) {
+        // restrict the area to the cached positions
+        int fromColumn = (int) Math.max(startColumn, this.originColumn);
+        int fromRow = (int) Math.max(startRow, this.originRow);
+        int toColumn = (int) Math.min(endColumn, this.originColumn + this.columnCount);
+        int toRow = (int) Math.min(endRow, this.originRow + this.rowCount);
+        if (fromColumn >= toColumn || fromRow >= toRow) {
+            return;
+        }
+
+        // extend the area to the spanned cells that are partly contained
+        int spanFromColumn = fromColumn;
+        int spanFromRow = fromRow;
+        int spanToColumn = toColumn;
+        int spanToRow = toRow;
+        for (int row = fromRow; row < toRow; row++) {
+            for (int column = fromColumn; column < toColumn; column++) {
+                ILayerCell cell = this.cells[indexOf(column, row)];
+                if (cell != null && cell.isSpannedCell()) {
+                    spanFromColumn = Math.min(spanFromColumn, cell.getOriginColumnPosition());
+                    spanFromRow = Math.min(spanFromRow, cell.getOriginRowPosition());
+                    spanToColumn = Math.max(spanToColumn, cell.getOriginColumnPosition() + cell.getColumnSpan());
+                    spanToRow = Math.max(spanToRow, cell.getOriginRowPosition() + cell.getRowSpan());
+                }
+            }
+        }
+
+        fromColumn = Math.max(spanFromColumn, this.originColumn);
+        fromRow = Math.max(spanFromRow, this.originRow);
+        toColumn = Math.min(spanToColumn, this.originColumn + this.columnCount);
+        toRow = Math.min(spanToRow, this.originRow + this.rowCount);
+        for (int row = fromRow; row < toRow; row++) {
+            for (int column = fromColumn; column < toColumn; column++) {
+                int index = indexOf(column, row);
+                this.cells[index] = null;
+                this.cellPainters[index] = null;
+                this.cellPainterResolved[index] = false;
+            }
+        }
+    }
+
+    @Override
+    public void handleLayerEvent(ILayerEvent event) {
+        if (event instanceof ISelectionEvent) {
+            clear();
+        } else if (event instanceof IStructuralChangeEvent) {
+            handleStructuralChange((IStructuralChangeEvent) event);
+        } else if (event instanceof IVisualChangeEvent) {
+            Collection<Rectangle> rectangles = ((IVisualChangeEvent) event).getChangedPositionRectangles();
+            if (rectangles == null || rectangles.isEmpty()) {
+                clear();
+            } else {
+                for (Rectangle rectangle : rectangles) {
+                    invalidate(rectangle);
+                }
+            }
+        }
+    }
+
+    private void handleStructuralChange(IStructuralChangeEvent event) {
+        Collection<Rectangle> rectangles = event.getChangedPositionRectangles();
+        if (rectangles == null || rectangles.isEmpty()) {
+            clear();
+            return;
+        }
+
+        int firstColumn = Integer.MAX_VALUE;
+        int firstRow = Integer.MAX_VALUE;
+        for (Rectangle rectangle : rectangles) {
+            firstColumn = Math.min(firstColumn, rectangle.x);
+            firstRow = Math.min(firstRow, rectangle.y);
+        }
+
+        // all positions after the first changed position might be shifted
+        if (event.isHorizontalStructureChanged()) {
+            firstColumn = Math.min(firstColumn, getFirstChangedPosition(event.getColumnDiffs()));
+            invalidate(firstColumn, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        }
+        if (event.isVerticalStructureChanged()) {
+            firstRow = Math.min(firstRow, getFirstChangedPosition(event.getRowDiffs()));
+            invalidate(Integer.MIN_VALUE, firstRow, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        }
+        if (!event.isHorizontalStructureChanged() && !event.isVerticalStructureChanged()) {
+            for (Rectangle rectangle : rectangles) {
+                invalidate(rectangle);
+            }
+        }
+    }
+
+    private static int getFirstChangedPosition(Collection<StructuralDiff> diffs) {
+        if (diffs == null) {
+            return Integer.MIN_VALUE;
+        }
+        int first = Integer.MAX_VALUE;
+        for (StructuralDiff diff : diffs) {
+            first = Math.min(first, diff.getBeforePositionRange().start);
+            first = Math.min(first, diff.getAfterPositionRange().start);
+        }
+        return first;
+    }
+}
@@ -33,6 +33,10 @@ public class CellLayerPainter implements ILayerPainter {
     private final boolean clipLeft;
     private final boolean clipTop;
 
+    private boolean frameCacheEnabled = false;
+    private final Map<ILayer, CellFrameCache> frameCaches = new HashMap<ILayer, CellFrameCache>();
+    private CellFrameCache frameCache;
+
     /**
      * Create a default CellLayerPainter with default clipping behaviour.
      */
@@ -71,29 +75,104 @@ public void paintLayer(ILayer natLayer, GC gc, int xOffset, int yOffset,
 
         calculateDimensionInfo(positionRectangle);
 
-        Collection<ILayerCell> spannedCells = new HashSet<ILayerCell>();
+        this.frameCache = getFrameCache(natLayer, positionRectangle, configRegistry);
+        try {
+            Collection<ILayerCell> spannedCells = new HashSet<ILayerCell>();
 
-        for (int columnPosition = positionRectangle.x; columnPosition < positionRectangle.x
-                + positionRectangle.width; columnPosition++) {
-            for (int rowPosition = positionRectangle.y; rowPosition < positionRectangle.y
-                    + positionRectangle.height; rowPosition++) {
-                if (columnPosition == -1 || rowPosition == -1) {
-                    continue;
-                }
-                ILayerCell cell = natLayer.getCellByPosition(columnPosition, rowPosition);
-                if (cell != null) {
-                    if (cell.isSpannedCell()) {
-                        spannedCells.add(cell);
-                    } else {
-                        paintCell(cell, gc, configRegistry);
+            for (int columnPosition = positionRectangle.x; columnPosition < positionRectangle.x
+                    + positionRectangle.width; columnPosition++) {
+                for (int rowPosition = positionRectangle.y; rowPosition < positionRectangle.y
+                        + positionRectangle.height; rowPosition++) {
+                    if (columnPosition == -1 || rowPosition == -1) {
+                        continue;
+                    }
+                    ILayerCell cell = (this.frameCache != null)
+                            ? this.frameCache.getCell(columnPosition, rowPosition)
+                            : natLayer.getCellByPosition(columnPosition, rowPosition);
+                    if (cell != null) {
+                        if (cell.isSpannedCell()) {
+                            spannedCells.add(cell);
+                        } else {
+                            paintCell(cell, gc, configRegistry);
+                        }
                     }
                 }
             }
+
+            for (ILayerCell cell : spannedCells) {
+                paintCell(cell, gc, configRegistry);
+            }
+        } finally {
+            this.frameCache = null;
         }
+    }
 
-        for (ILayerCell cell : spannedCells) {
-            paintCell(cell, gc, configRegistry);
+    /**
+     *
+     * @return <code>true</code> if the resolved cells and cell painters are
+     *         cached between paint operations.
+     * @since 2.0
+     */
+    public boolean isFrameCacheEnabled() {
+        return this.frameCacheEnabled;
+    }
+
+    /**
+     * Enable or disable caching of the resolved cells and cell painters
+     * between paint operations. If enabled, the {@link ILayerCell}, which
+     * caches the data value, the config labels and the bounds, and the
+     * {@link ICellPainter} of every painted position are kept for the next
+     * paint operation. This way repainting the same area, e.g. on hover or
+     * data updates of single cells, only needs to resolve the changed cells
+     * instead of all cells in the area.
+     * <p>
+     * The cached cells are invalidated via the visual and structural change
+     * events fired by the painted layer. Changes that are not propagated via
+     * events, e.g. modifications in the data model or the
+     * {@link IConfigRegistry} without firing a corresponding event, are not
+     * reflected until {@link #clearFrameCache()} is called. Therefore the
+     * frame cache is disabled by default.
+     * </p>
+     *
+     * @param enabled
+     *            <code>true</code> to enable the frame cache,
+     *            <code>false</code> to disable it.
+     * @since 2.0
+     */
+    public synchronized void setFrameCacheEnabled(boolean enabled) {
+        this.frameCacheEnabled = enabled;
+        if (!enabled) {
+            for (CellFrameCache cache : this.frameCaches.values()) {
+                cache.dispose();
+            }
+            this.frameCaches.clear();
+        }
+    }
+
+    /**
+     * Removes all cells and cell painters from the frame cache, so they are
+     * resolved again on the next paint operation. Needs to be called if the
+     * frame cache is enabled and the data or the configuration is changed
+     * without firing a corresponding layer event.
+     *
+     * @since 2.0
+     */
+    public synchronized void clearFrameCache() {
+        for (CellFrameCache cache : this.frameCaches.values()) {
+            cache.clear();
+        }
+    }
+
+    private synchronized CellFrameCache getFrameCache(ILayer layer, Rectangle positionRectangle, IConfigRegistry configRegistry) {
+        if (!this.frameCacheEnabled) {
+            return null;
+        }
+        CellFrameCache cache = this.frameCaches.get(layer);
+        if (cache == null) {
+            cache = new CellFrameCache(layer);
+            this.frameCaches.put(layer, cache);
         }
+        return cache.prepare(positionRectangle, configRegistry) ? cache : null;
     }
 
     /**
@@ -198,7 +277,9 @@ protected void paintCell(ILayerCell cell, GC gc, IConfigRegistry configRegistry)
         ILayer layer = cell.getLayer();
         int columnPosition = cell.getColumnPosition();
         int rowPosition = cell.getRowPosition();
-        ICellPainter cellPainter = layer.getCellPainter(columnPosition, rowPosition, cell, configRegistry);
+        ICellPainter cellPainter = (this.frameCache != null)
+                ? this.frameCache.getCellPainter(cell, configRegistry)
+                : layer.getCellPainter(columnPosition, rowPosition, cell, configRegistry);
         Rectangle adjustedCellBounds = layer
                 .getLayerPainter()
                 .adjustCellBounds(columnPosition, rowPosition, cell.getBounds());
@@ -56,7 +56,9 @@ public GridLineCellLayerPainter(final Color gridColor) {
      * the default clipping behaviour.
      */
     public GridLineCellLayerPainter() {
-        this.gridColor = GUIHelper.COLOR_GRAY;
+        // the default color is resolved lazily to be able to create layers
+        // without a display
+        this.gridColor = null;
     }
 
     /**
@@ -97,14 +99,15 @@ public GridLineCellLayerPainter(final Color gridColor, boolean clipLeft, boolean
      *            default value is <code>false</code>.
      */
     public GridLineCellLayerPainter(boolean clipLeft, boolean clipTop) {
-        this(GUIHelper.COLOR_GRAY, clipLeft, clipTop);
+        this(null, clipLeft, clipTop);
     }
 
     /**
-     * @return The local configured color that is used to render the grid lines.
+     * @return The local configured color that is used to render the grid
+     *         lines, or gray if no color was configured.
      */
     public Color getGridColor() {
-        return this.gridColor;
+        return (this.gridColor != null) ? this.gridColor : GUIHelper.COLOR_GRAY;
     }
 
     @Override
@@ -165,7 +168,7 @@ protected void drawGridLines(ILayer natLayer, GC gc, Rectangle rectangle, IConfi
                 CellConfigAttributes.GRID_LINE_COLOR,
                 DisplayMode.NORMAL,
                 labels);
-        gc.setForeground(gColor != null ? gColor : this.gridColor);
+        gc.setForeground(gColor != null ? gColor : getGridColor());
 
         int adjustment = (this.gridLineWidth == 1) ? 1 : Math.round(this.gridLineWidth.floatValue() / 2);
 
@@ -0,0 +1,623 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.resize;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
+import org.eclipse.nebula.widgets.nattable.layer.cell.CellDisplayConversionUtils;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
+import org.eclipse.nebula.widgets.nattable.painter.cell.TextPainter;
+import org.eclipse.nebula.widgets.nattable.painter.cell.decorator.PaddingDecorator;
+import org.eclipse.nebula.widgets.nattable.resize.command.MultiColumnResizeCommand;
+import org.eclipse.nebula.widgets.nattable.resize.command.MultiRowResizeCommand;
+import org.eclipse.nebula.widgets.nattable.style.CellStyleAttributes;
+import org.eclipse.nebula.widgets.nattable.style.CellStyleUtil;
+import org.eclipse.nebula.widgets.nattable.util.CalculationService;
+import org.eclipse.nebula.widgets.nattable.util.TextMetricsCache;
+import org.eclipse.nebula.widgets.nattable.util.TextMetricsCache.AsciiWidthTable;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Calculates the preferred column widths or row heights for an auto resize in
+ * chunks, so the UI stays responsive for large tables. When all chunks are
+ * processed, the sizes are applied in the UI thread via a single
+ * {@link MultiColumnResizeCommand} or {@link MultiRowResizeCommand}, which
+ * results in a single resize event.
+ * <p>
+ * The layers, the configuration and the cell painters are only accessed in
+ * the UI thread. The chunks are processed one after the other via
+ * {@link Display#asyncExec(Runnable)}, so the UI thread handles other events
+ * between the chunks. For column widths the UI thread only collects the
+ * display texts and fonts of the cells. Texts of cells that are painted by a
+ * {@link TextPainter}, optionally wrapped by {@link PaddingDecorator}s, are
+ * measured in background threads via the {@link CalculationService}, using the
+ * immutable {@link AsciiWidthTable}s of the fonts. Cells with other painters,
+ * texts with other than printable ASCII characters and fonts without width
+ * table are measured in the UI thread. Row heights are measured in the UI
+ * thread, as the height of a text cell mainly depends on the font and not on
+ * the text.
+ * </p>
+ * <p>
+ * The cells are measured via the layer on which the resize is applied, which
+ * needs to be a layer below the viewport, e.g. the SelectionLayer, so all rows
+ * and columns are accessible without turning off the viewport. If the
+ * positions change structurally while the job is running, the sizes are
+ * applied to the positions of the measured column or row indexes.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class BackgroundAutoResizeJob {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BackgroundAutoResizeJob.class);
+
+    /**
+     * The number of rows that are measured in one chunk for column widths.
+     */
+    static final int COLUMN_CHUNK_SIZE = 4096;
+
+    /**
+     * The number of rows that are measured in one chunk for row heights.
+     */
+    static final int ROW_CHUNK_SIZE = 256;
+
+    /**
+     * Listener that is informed about the progress of a
+     * {@link BackgroundAutoResizeJob}.
+     */
+    public interface IProgressListener {
+
+        /**
+         * Called in the UI thread when chunks of the job are processed, and
+         * once more when the job is finished or cancelled.
+         *
+         * @param job
+         *            The job whose progress changed.
+         */
+        void progressChanged(BackgroundAutoResizeJob job);
+    }
+
+    private final Display display;
+    private final IConfigRegistry configRegistry;
+    private final IUniqueIndexLayer layer;
+    private final boolean columns;
+    private final int[] positions;
+    private final int[] indexes;
+    private final AtomicIntegerArray sizes;
+
+    /**
+     * The steps that are executed one after the other in the UI thread, one
+     * per chunk.
+     */
+    private final List<Runnable> chunks = new ArrayList<>();
+    private int nextChunk;
+
+    /**
+     * The width that a text cell needs in addition to its text, per painter,
+     * font and column. Only accessed in the UI thread.
+     */
+    private final Map<TextCellKey, Integer> textCellPadding = new HashMap<>();
+
+    private final AtomicInteger processedChunks = new AtomicInteger();
+    private final AtomicBoolean progressPending = new AtomicBoolean();
+    private final List<IProgressListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean cancelled;
+    private volatile boolean finished;
+
+    private BackgroundAutoResizeJob(
+            Display display, IConfigRegistry configRegistry, IUniqueIndexLayer layer,
+            boolean columns, int[] positions, int[] initialSizes) {
+
+        this.display = display;
+        this.configRegistry = configRegistry;
+        this.layer = layer;
+        this.columns = columns;
+        this.positions = positions;
+        this.indexes = new int[positions.length];
+        this.sizes = new AtomicIntegerArray(positions.length);
+        for (int i = 0; i < positions.length; i++) {
+            this.indexes[i] = columns
+                    ? layer.getColumnIndexByPosition(positions[i])
+                    : layer.getRowIndexByPosition(positions[i]);
+            this.sizes.set(i, (initialSizes != null) ? initialSizes[i] : -1);
+        }
+    }
+
+    /**
+     * Creates a job that calculates the preferred widths of the given columns.
+     * Needs to be called in the UI thread.
+     *
+     * @param configRegistry
+     *            The {@link IConfigRegistry} to get the required configuration
+     *            values.
+     * @param layer
+     *            The layer to which the column positions match and on which
+     *            the resize is applied.
+     * @param columnPositions
+     *            The column positions that should be auto resized.
+     * @param initialWidths
+     *            The widths that should be applied at minimum, e.g. the
+     *            preferred widths of the column header cells, or
+     *            <code>null</code>.
+     * @param sampleSize
+     *            The maximum number of rows that should be measured per
+     *            column, or 0 to measure all rows. If the layer has more rows,
+     *            rows at equal distance are measured.
+     * @return The job that needs to be started via {@link #start()}.
+     */
+    public static BackgroundAutoResizeJob createColumnJob(
+            IConfigRegistry configRegistry, IUniqueIndexLayer layer,
+            int[] columnPositions, int[] initialWidths, int sampleSize) {
+
+        BackgroundAutoResizeJob job = new BackgroundAutoResizeJob(
+                Display.getCurrent(), configRegistry, layer, true, columnPositions, initialWidths);
+
+        int rowCount = layer.getRowCount();
+        int rowStep = (sampleSize > 0 && rowCount > sampleSize) ? rowCount / sampleSize : 1;
+        int chunkRows = COLUMN_CHUNK_SIZE * rowStep;
+        for (int i = 0; i < columnPositions.length; i++) {
+            int slot = i;
+            for (int from = 0; from < rowCount; from += chunkRows) {
+                int fromRow = from;
+                int toRow = Math.min(rowCount, from + chunkRows);
+                int chunk = job.chunks.size();
+                job.chunks.add(() -> job.collectColumn(chunk, slot, fromRow, toRow, rowStep));
+            }
+        }
+        return job;
+    }
+
+    /**
+     * Creates a job that calculates the preferred heights of the given rows.
+     * Needs to be called in the UI thread.
+     *
+     * @param configRegistry
+     *            The {@link IConfigRegistry} to get the required configuration
+     *            values.
+     * @param layer
+     *            The layer to which the row positions match and on which the
+     *            resize is applied.
+     * @param rowPositions
+     *            The row positions that should be auto resized.
+     * @param initialHeights
+     *            The heights that should be applied at minimum, e.g. the
+     *            preferred heights of the row header cells, or
+     *            <code>null</code>.
+     * @return The job that needs to be started via {@link #start()}.
+     */
+    public static BackgroundAutoResizeJob createRowJob(
+            IConfigRegistry configRegistry, IUniqueIndexLayer layer,
+            int[] rowPositions, int[] initialHeights) {
+
+        BackgroundAutoResizeJob job = new BackgroundAutoResizeJob(
+                Display.getCurrent(), configRegistry, layer, false, rowPositions, initialHeights);
+
+        for (int from = 0; from < rowPositions.length; from += ROW_CHUNK_SIZE) {
+            int fromSlot = from;
+            int toSlot = Math.min(rowPositions.length, from + ROW_CHUNK_SIZE);
+            job.chunks.add(() -> job.measureRows(fromSlot, toSlot));
+        }
+        return job;
+    }
+
+    /**
+     * Starts processing the chunks of this job. Needs to be called in the UI
+     * thread.
+     */
+    public void start() {
+        if (this.chunks.isEmpty()) {
+            asyncExec(this::finish);
+        } else {
+            asyncExec(this::processNextChunk);
+        }
+    }
+
+    /**
+     * Processes the next chunk in the UI thread and schedules the following
+     * one, so the UI thread can handle other events in between.
+     */
+    private void processNextChunk() {
+        if (this.cancelled) {
+            return;
+        }
+        Runnable chunk = this.chunks.get(this.nextChunk++);
+        try {
+            chunk.run();
+        } catch (RuntimeException e) {
+            LOG.warn("Error on auto resizing, the sizes of a chunk are skipped", e); //$NON-NLS-1$
+            chunkProcessed();
+        }
+        if (this.nextChunk < this.chunks.size()) {
+            asyncExec(this::processNextChunk);
+        }
+    }
+
+    /**
+     * Called when a chunk is processed completely. Can be called from any
+     * thread.
+     */
+    private void chunkProcessed() {
+        if (this.processedChunks.incrementAndGet() == this.chunks.size()) {
+            asyncExec(this::finish);
+        } else if (this.progressPending.compareAndSet(false, true)) {
+            asyncExec(() -> {
+                this.progressPending.set(false);
+                fireProgressChanged();
+            });
+        }
+    }
+
+    /**
+     * Collects the texts of the cells in the given column and row range in the
+     * UI thread and measures them in a background thread. Cells whose width
+     * can not be calculated from the text are measured directly.
+     */
+    private void collectColumn(int chunk, int slot, int fromRow, int toRow, int rowStep) {
+        int columnPosition = this.positions[slot];
+        int capacity = (toRow - fromRow + rowStep - 1) / rowStep;
+        TextCells textCells = new TextCells(capacity);
+        int maxWidth = -1;
+
+        Image image = new Image(this.display, 1, 1);
+        GC gc = new GC(image);
+        try {
+            for (int rowPosition = fromRow; rowPosition < toRow; rowPosition += rowStep) {
+                ILayerCell cell = this.layer.getCellByPosition(columnPosition, rowPosition);
+                if (cell == null
+                        || (cell.getOriginColumnPosition() + cell.getColumnSpan() - 1) != columnPosition) {
+                    continue;
+                }
+                ICellPainter painter = this.layer.getCellPainter(
+                        cell.getColumnPosition(), cell.getRowPosition(), cell, this.configRegistry);
+                if (painter == null) {
+                    continue;
+                }
+
+                if (cell.getColumnSpan() == 1 && isTextPainter(painter)) {
+                    String text = CellDisplayConversionUtils.convertDataType(cell, this.configRegistry);
+                    if (text == null) {
+                        text = ""; //$NON-NLS-1$
+                    }
+                    Font font = CellStyleUtil.getCellStyle(cell, this.configRegistry).getAttributeValue(CellStyleAttributes.FONT);
+                    TextCellKey key = new TextCellKey(painter, font, slot);
+                    Integer padding = this.textCellPadding.get(key);
+                    if (padding == null) {
+                        // measure the first cell to get the width that is
+                        // needed in addition to the text
+                        int width = MaxCellBoundsHelper.getPreferredCellWidth(
+                                this.layer, cell, painter, columnPosition, rowPosition, this.configRegistry, gc);
+                        gc.setFont(font);
+                        padding = width - TextMetricsCache.getDefault().getTextWidth(gc, text);
+                        this.textCellPadding.put(key, padding);
+                        maxWidth = Math.max(maxWidth, width);
+                    } else {
+                        gc.setFont(font);
+                        textCells.add(text, font, TextMetricsCache.getDefault().getAsciiWidthTable(gc), padding);
+                    }
+                } else {
+                    maxWidth = Math.max(maxWidth,
+                            MaxCellBoundsHelper.getPreferredCellWidth(
+                                    this.layer, cell, painter, columnPosition, rowPosition, this.configRegistry, gc));
+                }
+            }
+        } finally {
+            gc.dispose();
+            image.dispose();
+        }
+
+        this.sizes.accumulateAndGet(slot, maxWidth, Math::max);
+
+        if (textCells.size == 0) {
+            chunkProcessed();
+        } else {
+            CalculationService.getDefault().submit(this, chunk, () -> measureTextCells(slot, textCells), false);
+        }
+    }
+
+    /**
+     * Measures the collected texts in a background thread. Texts that can not
+     * be measured via the width tables are measured in the UI thread
+     * afterwards.
+     */
+    private void measureTextCells(int slot, TextCells textCells) {
+        if (this.cancelled) {
+            return;
+        }
+        try {
+            int maxWidth = -1;
+            int remaining = 0;
+            for (int i = 0; i < textCells.size; i++) {
+                AsciiWidthTable table = textCells.widthTables[i];
+                int textWidth = (table != null) ? table.getTextWidth(textCells.texts[i]) : -1;
+                if (textWidth >= 0) {
+                    maxWidth = Math.max(maxWidth, textWidth + textCells.paddings[i]);
+                } else {
+                    textCells.moveTo(i, remaining++);
+                }
+            }
+            this.sizes.accumulateAndGet(slot, maxWidth, Math::max);
+
+            if (remaining > 0) {
+                textCells.size = remaining;
+                asyncExec(() -> measureTextCellsInUI(slot, textCells));
+                return;
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Error on auto resizing, the sizes of a chunk are skipped", e); //$NON-NLS-1$
+        }
+        chunkProcessed();
+    }
+
+    private void measureTextCellsInUI(int slot, TextCells textCells) {
+        if (this.cancelled) {
+            return;
+        }
+        Image image = new Image(this.display, 1, 1);
+        GC gc = new GC(image);
+        try {
+            int maxWidth = -1;
+            for (int i = 0; i < textCells.size; i++) {
+                gc.setFont(textCells.fonts[i]);
+                int textWidth = TextMetricsCache.getDefault().getTextWidth(gc, textCells.texts[i]);
+                maxWidth = Math.max(maxWidth, textWidth + textCells.paddings[i]);
+            }
+            this.sizes.accumulateAndGet(slot, maxWidth, Math::max);
+        } catch (RuntimeException e) {
+            LOG.warn("Error on auto resizing, the sizes of a chunk are skipped", e); //$NON-NLS-1$
+        } finally {
+            gc.dispose();
+            image.dispose();
+        }
+        chunkProcessed();
+    }
+
+    /**
+     * Measures the heights of the rows in the given range in the UI thread.
+     */
+    private void measureRows(int fromSlot, int toSlot) {
+        Image image = new Image(this.display, 1, 1);
+        GC gc = new GC(image);
+        try {
+            int columnCount = this.layer.getColumnCount();
+            for (int slot = fromSlot; slot < toSlot; slot++) {
+                int height = MaxCellBoundsHelper.getPreferredRowHeight(
+                        this.layer, this.positions[slot], 0, columnCount, this.configRegistry, gc);
+                this.sizes.accumulateAndGet(slot, height, Math::max);
+            }
+        } finally {
+            gc.dispose();
+            image.dispose();
+        }
+        chunkProcessed();
+    }
+
+    /**
+     * @return <code>true</code> if the width of cells painted by the given
+     *         painter is the width of the text plus a constant padding.
+     */
+    private static boolean isTextPainter(ICellPainter painter) {
+        ICellPainter current = painter;
+        while (current != null && current.getClass() == PaddingDecorator.class) {
+            current = ((PaddingDecorator) current).getWrappedPainter();
+        }
+        return current != null && current.getClass() == TextPainter.class;
+    }
+
+    private void asyncExec(Runnable runnable) {
+        try {
+            if (!this.display.isDisposed()) {
+                this.display.asyncExec(runnable);
+                return;
+            }
+        } catch (SWTException e) {
+            // the display was disposed in the meantime
+            LOG.debug("Background auto resize cancelled", e); //$NON-NLS-1$
+        }
+        this.cancelled = true;
+        CalculationService.getDefault().cancel(this);
+    }
+
+    /**
+     * Applies the calculated sizes. Called in the UI thread.
+     */
+    private void finish() {
+        if (this.cancelled) {
+            return;
+        }
+
+        int[] currentPositions = new int[this.positions.length];
+        int[] calculatedSizes = new int[this.positions.length];
+        int count = 0;
+        for (int i = 0; i < this.positions.length; i++) {
+            int position = this.columns
+                    ? this.layer.getColumnPositionByIndex(this.indexes[i])
+                    : this.layer.getRowPositionByIndex(this.indexes[i]);
+            if (position >= 0) {
+                currentPositions[count] = position;
+                calculatedSizes[count] = this.sizes.get(i);
+                count++;
+            }
+        }
+
+        if (count < currentPositions.length) {
+            int[] trimmedPositions = new int[count];
+            int[] trimmedSizes = new int[count];
+            System.arraycopy(currentPositions, 0, trimmedPositions, 0, count);
+            System.arraycopy(calculatedSizes, 0, trimmedSizes, 0, count);
+            currentPositions = trimmedPositions;
+            calculatedSizes = trimmedSizes;
+        }
+
+        try {
+            if (count > 0) {
+                if (this.columns) {
+                    this.layer.doCommand(new MultiColumnResizeCommand(this.layer, currentPositions, calculatedSizes, true));
+                } else {
+                    this.layer.doCommand(new MultiRowResizeCommand(this.layer, currentPositions, calculatedSizes, true));
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Error on applying the auto resized sizes", e); //$NON-NLS-1$
+        }
+
+        this.finished = true;
+        fireProgressChanged();
+    }
+
+    /**
+     * Cancels the job. Chunks that are currently processed are finished, but
+     * the calculated sizes are not applied.
+     */
+    public void cancel() {
+        if (!this.cancelled && !this.finished) {
+            this.cancelled = true;
+            CalculationService.getDefault().cancel(this);
+            asyncExec(this::fireProgressChanged);
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the job was cancelled.
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * @return <code>true</code> if the job is finished and the sizes are
+     *         applied, or the job was cancelled.
+     */
+    public boolean isDone() {
+        return this.finished || this.cancelled;
+    }
+
+    /**
+     * @return The number of processed chunks.
+     */
+    public int getProcessedWork() {
+        return this.processedChunks.get();
+    }
+
+    /**
+     * @return The number of chunks of this job.
+     */
+    public int getTotalWork() {
+        return this.chunks.size();
+    }
+
+    /**
+     * @param listener
+     *            The listener that should be informed about the progress.
+     */
+    public void addProgressListener(IProgressListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * @param listener
+     *            The listener that should not be informed about the progress
+     *            anymore.
+     */
+    public void removeProgressListener(IProgressListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    private void fireProgressChanged() {
+        for (IProgressListener listener : this.listeners) {
+            listener.progressChanged(this);
+        }
+    }
+
+    /**
+     * Identifies text cells with the same painter and font in a column, which
+     * need the same width in addition to their text.
+     */
+    private static final class TextCellKey {
+
+        private final ICellPainter painter;
+        private final Font font;
+        private final int slot;
+
+        TextCellKey(ICellPainter painter, Font font, int slot) {
+            this.painter = painter;
+            this.font = font;
+            this.slot = slot;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * System.identityHashCode(this.painter) + System.identityHashCode(this.font)) * 31 + this.slot;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TextCellKey)) {
+                return false;
+            }
+            TextCellKey other = (TextCellKey) obj;
+            return this.painter == other.painter && this.font == other.font && this.slot == other.slot;
+        }
+    }
+
+    /**
+     * The texts of a chunk that are collected in the UI thread and measured in
+     * a background thread. Only accessed by one thread at a time.
+     */
+    private static final class TextCells {
+
+        private final String[] texts;
+        private final Font[] fonts;
+        private final AsciiWidthTable[] widthTables;
+        private final int[] paddings;
+        private int size;
+
+        TextCells(int capacity) {
+            this.texts = new String[capacity];
+            this.fonts = new Font[capacity];
+            this.widthTables = new AsciiWidthTable[capacity];
+            this.paddings = new int[capacity];
+        }
+
+        void add(String text, Font font, AsciiWidthTable widthTable, int padding) {
+            this.texts[this.size] = text;
+            this.fonts[this.size] = font;
+            this.widthTables[this.size] = widthTable;
+            this.paddings[this.size] = padding;
+            this.size++;
+        }
+
+        void moveTo(int from, int to) {
+            this.texts[to] = this.texts[from];
+            this.fonts[to] = this.fonts[from];
+            this.widthTables[to] = this.widthTables[from];
+            this.paddings[to] = this.paddings[from];
+        }
+    }
+}
@@ -87,35 +87,52 @@ public static int[] getPreferredColumnWidths(
      *         no cells for the specified column position.
      */
     private static int getPreferredColumnWidth(ILayer layer, int columnPosition, IConfigRegistry configRegistry, GC gc) {
+        return getPreferredColumnWidth(layer, columnPosition, 0, layer.getRowCount(), 1, configRegistry, gc);
+    }
+
+    /**
+     * Calculates the minimum width (in pixels) required to display the
+     * contents of the cells in a column within the given row range. Used to
+     * split the calculation for large tables into chunks, or to only calculate
+     * a sample of the rows by specifying a row step greater than 1.
+     *
+     * @param layer
+     *            The layer to which the column position matches.
+     * @param columnPosition
+     *            The column position whose preferred width should be
+     *            calculated.
+     * @param fromRowPosition
+     *            The first row position to inspect, inclusive.
+     * @param toRowPosition
+     *            The last row position to inspect, exclusive.
+     * @param rowStep
+     *            The distance between the inspected rows, 1 to inspect every
+     *            row in the range.
+     * @param configRegistry
+     *            The {@link IConfigRegistry} to get the required configuration
+     *            values.
+     * @param gc
+     *            The {@link GC} needed for UI related calculations.
+     * @return The preferred column width of the given column or -1 if there are
+     *         no cells for the specified column position in the given range.
+     * @since 2.0
+     */
+    public static int getPreferredColumnWidth(
+            ILayer layer, int columnPosition, int fromRowPosition, int toRowPosition, int rowStep,
+            IConfigRegistry configRegistry, GC gc) {
 
         int maxWidth = -1;
         ICellPainter painter;
         ILayerCell cell;
 
-        for (int rowPosition = 0; rowPosition < layer.getRowCount(); rowPosition++) {
+        for (int rowPosition = fromRowPosition; rowPosition < toRowPosition; rowPosition += rowStep) {
             cell = layer.getCellByPosition(columnPosition, rowPosition);
             if (cell != null) {
                 boolean atEndOfCellSpan = (cell.getOriginColumnPosition() + cell.getColumnSpan() - 1) == columnPosition;
                 if (atEndOfCellSpan) {
                     painter = layer.getCellPainter(cell.getColumnPosition(), cell.getRowPosition(), cell, configRegistry);
                     if (painter != null) {
-                        int preferredWidth = painter.getPreferredWidth(cell, gc, configRegistry);
-
-                        // Adjust width
-                        Rectangle bounds = cell.getBounds();
-                        bounds.width = preferredWidth;
-                        Rectangle adjustedCellBounds = cell
-                                .getLayer()
-                                .getLayerPainter()
-                                .adjustCellBounds(columnPosition, rowPosition, bounds);
-                        preferredWidth += preferredWidth - adjustedCellBounds.width;
-
-                        if (cell.getColumnSpan() > 1) {
-                            int columnStartX = layer.getStartXOfColumnPosition(columnPosition);
-                            int cellStartX = layer.getStartXOfColumnPosition(cell.getOriginColumnPosition());
-                            preferredWidth = Math.max(0, preferredWidth - (columnStartX - cellStartX));
-                        }
-
+                        int preferredWidth = getPreferredCellWidth(layer, cell, painter, columnPosition, rowPosition, configRegistry, gc);
                         maxWidth = (preferredWidth > maxWidth) ? preferredWidth : maxWidth;
                     }
                 }
@@ -125,6 +142,34 @@ private static int getPreferredColumnWidth(ILayer layer, int columnPosition, ICo
         return maxWidth;
     }
 
+    /**
+     * Calculates the width that is needed in the given column to display the
+     * content of the given cell, taking the layer painter and the column
+     * spanning into account.
+     */
+    static int getPreferredCellWidth(
+            ILayer layer, ILayerCell cell, ICellPainter painter, int columnPosition, int rowPosition,
+            IConfigRegistry configRegistry, GC gc) {
+
+        int preferredWidth = painter.getPreferredWidth(cell, gc, configRegistry);
+
+        // Adjust width
+        Rectangle bounds = cell.getBounds();
+        bounds.width = preferredWidth;
+        Rectangle adjustedCellBounds = cell
+                .getLayer()
+                .getLayerPainter()
+                .adjustCellBounds(columnPosition, rowPosition, bounds);
+        preferredWidth += preferredWidth - adjustedCellBounds.width;
+
+        if (cell.getColumnSpan() > 1) {
+            int columnStartX = layer.getStartXOfColumnPosition(columnPosition);
+            int cellStartX = layer.getStartXOfColumnPosition(cell.getOriginColumnPosition());
+            preferredWidth = Math.max(0, preferredWidth - (columnStartX - cellStartX));
+        }
+        return preferredWidth;
+    }
+
     /**
      * Calculates the preferred row heights of the given rows based on the given
      * {@link IConfigRegistry}. The preferred row height is the height needed at
@@ -180,12 +225,39 @@ public static int[] getPreferredRowHeights(
      *         cells for the specified row position.
      */
     private static int getPreferredRowHeight(ILayer layer, int rowPosition, IConfigRegistry configRegistry, GC gc) {
+        return getPreferredRowHeight(layer, rowPosition, 0, layer.getColumnCount(), configRegistry, gc);
+    }
+
+    /**
+     * Calculates the minimum height (in pixels) required to display the
+     * contents of the cells in a row within the given column range.
+     *
+     * @param layer
+     *            The layer to which the row position matches.
+     * @param rowPosition
+     *            The row position whose preferred height should be calculated.
+     * @param fromColumnPosition
+     *            The first column position to inspect, inclusive.
+     * @param toColumnPosition
+     *            The last column position to inspect, exclusive.
+     * @param configRegistry
+     *            The {@link IConfigRegistry} to get the required configuration
+     *            values.
+     * @param gc
+     *            The {@link GC} needed for UI related calculations.
+     * @return The preferred row height of the given row or -1 if there are no
+     *         cells for the specified row position in the given range.
+     * @since 2.0
+     */
+    public static int getPreferredRowHeight(
+            ILayer layer, int rowPosition, int fromColumnPosition, int toColumnPosition,
+            IConfigRegistry configRegistry, GC gc) {
 
         int maxHeight = -1;
         ICellPainter painter;
         ILayerCell cell;
 
-        for (int columnPosition = 0; columnPosition < layer.getColumnCount(); columnPosition++) {
+        for (int columnPosition = fromColumnPosition; columnPosition < toColumnPosition; columnPosition++) {
             cell = layer.getCellByPosition(columnPosition, rowPosition);
             if (cell != null) {
                 boolean atEndOfCellSpan = (cell.getOriginRowPosition() + cell.getRowSpan() - 1) == rowPosition;
@@ -20,16 +20,35 @@
 import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
 import org.eclipse.nebula.widgets.nattable.search.event.SearchEvent;
 import org.eclipse.nebula.widgets.nattable.search.strategy.AbstractSearchStrategy;
+import org.eclipse.nebula.widgets.nattable.search.strategy.SearchIndex;
 import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
 import org.eclipse.nebula.widgets.nattable.selection.command.SelectCellCommand;
 
 public class SearchGridCellsCommandHandler implements ILayerCommandHandler<SearchCommand> {
 
     private final SelectionLayer selectionLayer;
+    private final SearchIndex searchIndex;
     private PositionCoordinate searchResultCellCoordinate;
 
     public SearchGridCellsCommandHandler(SelectionLayer selectionLayer) {
+        this(selectionLayer, null);
+    }
+
+    /**
+     * Creates a command handler that sets the given {@link SearchIndex} to the
+     * search strategies, so they can use the index instead of converting
+     * every visited cell.
+     *
+     * @param selectionLayer
+     *            The {@link SelectionLayer} that is searched.
+     * @param searchIndex
+     *            The {@link SearchIndex} for the {@link SelectionLayer}, can
+     *            be <code>null</code>.
+     * @since 2.0
+     */
+    public SearchGridCellsCommandHandler(SelectionLayer selectionLayer, SearchIndex searchIndex) {
         this.selectionLayer = selectionLayer;
+        this.searchIndex = searchIndex;
     }
 
     @Override
@@ -67,6 +86,9 @@ public boolean doCommand(ILayer targetLayer, SearchCommand searchCommand) throws
                 searchStrategy.setIncludeCollapsed(searchCommand.isIncludeCollapsed());
                 searchStrategy.setSearchDirection(searchCommand.getSearchDirection());
                 searchStrategy.setComparator(searchCommand.getComparator());
+                if (this.searchIndex != null) {
+                    searchStrategy.setSearchIndex(this.searchIndex);
+                }
                 performActionOnResult = !searchStrategy.processResultInternally();
             }
 
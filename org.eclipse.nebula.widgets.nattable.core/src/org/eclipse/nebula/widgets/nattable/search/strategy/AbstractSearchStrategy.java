@@ -27,6 +27,10 @@ public abstract class AbstractSearchStrategy implements ISearchStrategy {
     protected boolean includeCollapsed;
     protected boolean columnFirst;
     protected Comparator<?> comparator;
+    /**
+     * @since 2.0
+     */
+    protected SearchIndex searchIndex;
 
     public void setContextLayer(ILayer contextLayer) {
         this.contextLayer = contextLayer;
@@ -108,6 +112,27 @@ public void setComparator(Comparator<?> comparator) {
         this.comparator = comparator;
     }
 
+    /**
+     * @return The {@link SearchIndex} that is consulted on searching, or
+     *         <code>null</code> if every visited cell is converted and
+     *         compared.
+     * @since 2.0
+     */
+    public SearchIndex getSearchIndex() {
+        return this.searchIndex;
+    }
+
+    /**
+     * @param searchIndex
+     *            The {@link SearchIndex} that should be consulted on
+     *            searching, or <code>null</code> if every visited cell should
+     *            be converted and compared.
+     * @since 2.0
+     */
+    public void setSearchIndex(SearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
     /**
      *
      * @return <code>false</code> if the result should be processed by the
@@ -137,10 +137,51 @@ static PositionCoordinate findCell(
             final boolean wholeWord,
             final boolean regex,
             final boolean includeCollapsed) throws PatternSyntaxException {
+        return findCell(
+                layer,
+                configRegistry,
+                cellsToSearch,
+                valueToMatch,
+                comparator,
+                caseSensitive,
+                wholeWord,
+                regex,
+                includeCollapsed,
+                null);
+    }
+
+    /**
+     * Finds the first matching cell in a list of cells, using the given
+     * {@link SearchIndex} if it is ready.
+     */
+    static PositionCoordinate findCell(
+            final ILayer layer,
+            final IConfigRegistry configRegistry,
+            final PositionCoordinate[] cellsToSearch,
+            final Object valueToMatch,
+            final Comparator<String> comparator,
+            final boolean caseSensitive,
+            final boolean wholeWord,
+            final boolean regex,
+            final boolean includeCollapsed,
+            final SearchIndex searchIndex) throws PatternSyntaxException {
         String stringValue = caseSensitive ? valueToMatch.toString() : valueToMatch.toString().toLowerCase();
         Pattern pattern = regex ? Pattern.compile(stringValue) : null;
+        SearchIndex.IndexQuery query = (searchIndex != null)
+                ? searchIndex.createQuery(layer, pattern, stringValue, comparator, caseSensitive, wholeWord, regex)
+                : null;
         for (int cellIndex = 0; cellIndex < cellsToSearch.length; cellIndex++) {
             final PositionCoordinate cellCoordinate = cellsToSearch[cellIndex];
+            if (query != null) {
+                int match = query.match(
+                        layer.getColumnIndexByPosition(cellCoordinate.columnPosition),
+                        cellCoordinate.rowPosition);
+                if (match == SearchIndex.MATCH) {
+                    return cellCoordinate;
+                } else if (match == SearchIndex.NO_MATCH) {
+                    continue;
+                }
+            }
             if (compare(
                     layer,
                     configRegistry,
@@ -185,26 +226,75 @@ static PositionCoordinate findCell(
             final boolean regex,
             final boolean columnFirst,
             final boolean includeCollapsed) throws PatternSyntaxException {
+        return findCell(
+                layer,
+                configRegistry,
+                cellRectangles,
+                valueToMatch,
+                comparator,
+                caseSensitive,
+                wholeWord,
+                regex,
+                columnFirst,
+                includeCollapsed,
+                null);
+    }
+
+    /**
+     * Finds the first matching cell in a list of grid cell rectangles, using
+     * the given {@link SearchIndex} if it is ready.
+     */
+    static PositionCoordinate findCell(
+            final ILayer layer,
+            final IConfigRegistry configRegistry,
+            final List<GridRectangle> cellRectangles,
+            final Object valueToMatch,
+            final Comparator<String> comparator,
+            final boolean caseSensitive,
+            final boolean wholeWord,
+            final boolean regex,
+            final boolean columnFirst,
+            final boolean includeCollapsed,
+            final SearchIndex searchIndex) throws PatternSyntaxException {
         String stringValue = caseSensitive ? valueToMatch.toString() : valueToMatch.toString().toLowerCase();
         Pattern pattern = regex ? Pattern.compile(stringValue) : null;
+        SearchIndex.IndexQuery query = (searchIndex != null)
+                ? searchIndex.createQuery(layer, pattern, stringValue, comparator, caseSensitive, wholeWord, regex)
+                : null;
         for (GridRectangle cellRectangle : cellRectangles) {
             int direction = cellRectangle.firstDim.size() > 0 || cellRectangle.secondDim.size() > 0 ? 1 : -1;
             for (int i = cellRectangle.firstDim.start; Math.abs(cellRectangle.firstDim.end - i) > 0; i += direction) {
-                PositionCoordinate result = findCell(
-                        layer,
-                        configRegistry,
-                        i,
-                        cellRectangle.secondDim.start,
-                        cellRectangle.secondDim.end,
-                        direction,
-                        pattern,
-                        stringValue,
-                        comparator,
-                        caseSensitive,
-                        wholeWord,
-                        regex,
-                        columnFirst,
-                        includeCollapsed);
+                PositionCoordinate result = (query != null)
+                        ? findIndexedCell(
+                                layer,
+                                configRegistry,
+                                query,
+                                i,
+                                cellRectangle.secondDim.start,
+                                cellRectangle.secondDim.end,
+                                direction,
+                                pattern,
+                                stringValue,
+                                comparator,
+                                caseSensitive,
+                                wholeWord,
+                                regex,
+                                columnFirst)
+                        : findCell(
+                                layer,
+                                configRegistry,
+                                i,
+                                cellRectangle.secondDim.start,
+                                cellRectangle.secondDim.end,
+                                direction,
+                                pattern,
+                                stringValue,
+                                comparator,
+                                caseSensitive,
+                                wholeWord,
+                                regex,
+                                columnFirst,
+                                includeCollapsed);
                 if (result != null) {
                     return result;
                 }
@@ -302,6 +392,55 @@ private static PositionCoordinate findCell(
         return null;
     }
 
+    /**
+     * Finds the first matching cell in a table slice via the given index
+     * query. As the index is only used for layers without spanned cells, the
+     * search anchor does not need to be checked.
+     */
+    private static PositionCoordinate findIndexedCell(
+            ILayer layer,
+            IConfigRegistry configRegistry,
+            SearchIndex.IndexQuery query,
+            int firstDimIndex,
+            int secondDimStart,
+            int secondDimEnd,
+            int direction,
+            Pattern pattern,
+            String stringValue,
+            Comparator<String> comparator,
+            boolean caseSensitive,
+            boolean wholeWord,
+            boolean regex,
+            final boolean columnFirst) {
+
+        // the column index only needs to be resolved once for a column slice
+        int sliceColumnIndex = columnFirst ? layer.getColumnIndexByPosition(firstDimIndex) : -1;
+        for (int i = secondDimStart; direction * (secondDimEnd - i) > 0; i += direction) {
+            int columnPosition = columnFirst ? firstDimIndex : i;
+            int rowPosition = columnFirst ? i : firstDimIndex;
+            int columnIndex = columnFirst ? sliceColumnIndex : layer.getColumnIndexByPosition(columnPosition);
+
+            int match = query.match(columnIndex, rowPosition);
+            if (match == SearchIndex.NOT_INDEXED) {
+                match = compare(
+                        layer,
+                        configRegistry,
+                        pattern,
+                        stringValue,
+                        comparator,
+                        caseSensitive,
+                        wholeWord,
+                        regex,
+                        columnPosition,
+                        rowPosition) ? SearchIndex.MATCH : SearchIndex.NO_MATCH;
+            }
+            if (match == SearchIndex.MATCH) {
+                return new PositionCoordinate(layer, columnPosition, rowPosition);
+            }
+        }
+        return null;
+    }
+
     /**
      * Get an anchor for the search of the given cell.
      *
@@ -325,6 +464,25 @@ private static boolean compare(
             int columnPosition,
             int rowPosition) {
 
+        String dataValueString = getSearchValue(layer, configRegistry, columnPosition, rowPosition);
+        return dataValueString != null
+                && matches(dataValueString, pattern, stringValue, comparator, caseSensitive, wholeWord, regex);
+    }
+
+    /**
+     * Converts the data value of the cell at the given position to the string
+     * that is used for searching.
+     *
+     * @return The display value of the cell as string, or <code>null</code> if
+     *         the cell should not be searched or its display value is not
+     *         {@link Comparable}.
+     */
+    static String getSearchValue(
+            ILayer layer,
+            IConfigRegistry configRegistry,
+            int columnPosition,
+            int rowPosition) {
+
         // Convert cell's data
         LabelStack labels = layer.getConfigLabelsByPosition(columnPosition, rowPosition);
         if (!labels.hasLabel(ISearchStrategy.SKIP_SEARCH_RESULT_LABEL)) {
@@ -340,25 +498,52 @@ private static boolean compare(
                 }
             }
 
-            // Compare with valueToMatch
             if (dataValue instanceof Comparable<?>) {
-                String dataValueString = caseSensitive ? dataValue.toString() : dataValue.toString().toLowerCase();
-                if (regex) {
-                    if (pattern.matcher(dataValueString).matches()) {
-                        return true;
-                    }
-                } else if (comparator.compare(stringValue, dataValueString) == 0) {
-                    return true;
-                } else if (!wholeWord && dataValueString.contains(stringValue)) {
+                return dataValue.toString();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compares the given search value of a cell with the value to match.
+     *
+     * @param dataValue
+     *            The search value of the cell as returned by
+     *            {@link #getSearchValue(ILayer, IConfigRegistry, int, int)}.
+     * @param pattern
+     *            The compiled regular expression if regex is
+     *            <code>true</code>.
+     * @param stringValue
+     *            The value to match, lower case if the search is not case
+     *            sensitive.
+     * @return <code>true</code> if the cell matches.
+     */
+    static boolean matches(
+            String dataValue,
+            Pattern pattern,
+            String stringValue,
+            Comparator<String> comparator,
+            boolean caseSensitive,
+            boolean wholeWord,
+            boolean regex) {
+
+        // Compare with valueToMatch
+        String dataValueString = caseSensitive ? dataValue : dataValue.toLowerCase();
+        if (regex) {
+            if (pattern.matcher(dataValueString).matches()) {
+                return true;
+            }
+        } else if (comparator.compare(stringValue, dataValueString) == 0) {
+            return true;
+        } else if (!wholeWord && dataValueString.contains(stringValue)) {
+            return true;
+        } else if (wholeWord) {
+            // we also need to check single words in a multi word value
+            String[] split = dataValueString.split("\\b"); //$NON-NLS-1$
+            for (String word : split) {
+                if (comparator.compare(stringValue, word) == 0) {
                     return true;
-                } else if (wholeWord) {
-                    // we also need to check single words in a multi word value
-                    String[] split = dataValueString.split("\\b"); //$NON-NLS-1$
-                    for (String word : split) {
-                        if (comparator.compare(stringValue, word) == 0) {
-                            return true;
-                        }
-                    }
                 }
             }
         }
@@ -52,7 +52,8 @@ public PositionCoordinate executeSearch(Object valueToMatch) throws PatternSynta
                 isCaseSensitive(),
                 isWholeWord(),
                 isRegex(),
-                isIncludeCollapsed());
+                isIncludeCollapsed(),
+                getSearchIndex());
     }
 
     public void setStartingRowPosition(int startingRowPosition) {
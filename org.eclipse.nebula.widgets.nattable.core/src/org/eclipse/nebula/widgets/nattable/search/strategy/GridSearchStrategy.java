@@ -146,7 +146,8 @@ public PositionCoordinate executeSearch(Object valueToMatch) throws PatternSynta
                 isWholeWord(),
                 isRegex(),
                 isColumnFirst(),
-                isIncludeCollapsed());
+                isIncludeCollapsed(),
+                getSearchIndex());
     }
 
     /**
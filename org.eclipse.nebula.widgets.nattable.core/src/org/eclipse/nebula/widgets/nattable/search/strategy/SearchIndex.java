@@ -0,0 +1,640 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.search.strategy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
+import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
+import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateBatchEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ResizeStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.resize.event.ColumnResizeEvent;
+import org.eclipse.nebula.widgets.nattable.resize.event.RowResizeEvent;
+import org.eclipse.nebula.widgets.nattable.search.CellValueAsStringComparator;
+import org.eclipse.nebula.widgets.nattable.search.command.SearchGridCellsCommandHandler;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.nebula.widgets.nattable.util.CalculationService;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Optional index that is consulted by the search strategies to avoid
+ * converting the data value of every visited cell on every search. The index
+ * contains the search value, which is the display value as string, of every
+ * cell in the layer that is searched, and a signature of the characters and
+ * character pairs of the lower case value. Cells whose signature does not
+ * contain the signature of the value to match are skipped without comparing
+ * the values, which makes searching for values that only occur in few cells
+ * fast.
+ * <p>
+ * The index is built in chunks of rows. The cells of a chunk are read in the
+ * UI thread, which is triggered via {@link Display#asyncExec(Runnable)} so
+ * other events are handled between the chunks. Data values that are converted
+ * by the {@link DefaultDisplayConverter} are converted to their search value
+ * in background threads via the {@link CalculationService}, as this only
+ * needs a <code>toString()</code> call on the data value. All other display
+ * converters are not necessarily thread-safe and are therefore called in the
+ * UI thread. If the index is created outside the UI thread, the cells are
+ * read in the calling thread.
+ * </p>
+ * <p>
+ * The index is kept up to date by listening to the events of the layer. Row
+ * structure changes like sorting or filtering cause a rebuild, updates of
+ * single cells or rows are applied directly. To apply
+ * {@link PropertyUpdateEvent}s directly, the index needs the
+ * {@link IRowDataProvider} to find the row of the updated object, otherwise
+ * they cause a rebuild too. While the index is not ready, the search
+ * strategies perform a search without index. The index is not used for layers
+ * with spanned cells and for searches with a comparator other than the
+ * {@link CellValueAsStringComparator}.
+ * </p>
+ * <p>
+ * As the index keeps the search values of all cells in memory, it should only
+ * be used for large tables that are searched frequently. To use it, register
+ * a {@link SearchGridCellsCommandHandler} created with the index on the
+ * SelectionLayer:
+ * </p>
+ *
+ * <pre>
+ * SearchIndex searchIndex = new SearchIndex(selectionLayer, configRegistry, bodyDataProvider);
+ * selectionLayer.registerCommandHandler(
+ *         new SearchGridCellsCommandHandler(selectionLayer, searchIndex));
+ * </pre>
+ *
+ * @since 2.0
+ */
+public class SearchIndex implements ILayerListener {
+
+    /**
+     * Result of {@link IndexQuery#match(int, int)} if the cell matches.
+     */
+    static final int MATCH = 1;
+    /**
+     * Result of {@link IndexQuery#match(int, int)} if the cell does not match.
+     */
+    static final int NO_MATCH = 0;
+    /**
+     * Result of {@link IndexQuery#match(int, int)} if the cell is not indexed
+     * and needs to be compared without index.
+     */
+    static final int NOT_INDEXED = -1;
+
+    /**
+     * The number of rows that are read together in the UI thread.
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    /**
+     * The maximum number of changed cells that are indexed directly on a
+     * visual change. For larger changes the index is rebuilt.
+     */
+    private static final int MAX_DIRECT_UPDATES = 1000;
+
+    private final ILayer layer;
+    private final IConfigRegistry configRegistry;
+    private final IRowDataProvider<Object> rowDataProvider;
+    /**
+     * The {@link Display} of the UI thread in which the cells are read, or
+     * <code>null</code> if the index was created outside the UI thread.
+     */
+    private final Display display;
+
+    /**
+     * The index data that is used for searching, <code>null</code> while the
+     * index is built.
+     */
+    private volatile IndexData data;
+    /**
+     * Incremented on every rebuild, so chunks of outdated builds are
+     * discarded.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+    private volatile boolean disposed = false;
+
+    /**
+     * Creates a {@link SearchIndex} for the given layer and starts building
+     * it. {@link PropertyUpdateEvent}s cause a rebuild of the index, as the
+     * updated row can not be determined.
+     *
+     * @param layer
+     *            The layer that is searched, typically the SelectionLayer.
+     * @param configRegistry
+     *            The {@link IConfigRegistry} that is used to retrieve the
+     *            display converters.
+     */
+    public SearchIndex(ILayer layer, IConfigRegistry configRegistry) {
+        this(layer, configRegistry, null);
+    }
+
+    /**
+     * Creates a {@link SearchIndex} for the given layer and starts building
+     * it. {@link PropertyUpdateEvent}s only cause the updated rows to be
+     * indexed again.
+     *
+     * @param layer
+     *            The layer that is searched, typically the SelectionLayer.
+     * @param configRegistry
+     *            The {@link IConfigRegistry} that is used to retrieve the
+     *            display converters.
+     * @param rowDataProvider
+     *            The {@link IRowDataProvider} of the body that is used to find
+     *            the row of an updated object. Only used if the given layer is
+     *            an {@link IUniqueIndexLayer}. Can be <code>null</code>.
+     */
+    @SuppressWarnings("unchecked")
+    public SearchIndex(ILayer layer, IConfigRegistry configRegistry, IRowDataProvider<?> rowDataProvider) {
+        this.layer = layer;
+        this.configRegistry = configRegistry;
+        this.rowDataProvider = (IRowDataProvider<Object>) rowDataProvider;
+        this.display = Display.getCurrent();
+        this.layer.addLayerListener(this);
+        rebuild();
+    }
+
+    /**
+     * @return The layer that is indexed.
+     */
+    public ILayer getLayer() {
+        return this.layer;
+    }
+
+    /**
+     * @return <code>true</code> if the index is built and can be used for
+     *         searching, <code>false</code> if it is currently built.
+     */
+    public boolean isReady() {
+        IndexData current = this.data;
+        return current != null && !current.spanned;
+    }
+
+    /**
+     * Discards the current index and starts building a new one. Needs to be
+     * called in the UI thread.
+     */
+    public void rebuild() {
+        int currentGeneration = this.generation.incrementAndGet();
+        this.data = null;
+        CalculationService.getDefault().cancel(this);
+        if (this.disposed) {
+            return;
+        }
+
+        int rowCount = this.layer.getRowCount();
+        int columnCount = this.layer.getColumnCount();
+        int[] columnIndexes = new int[columnCount];
+        int maxColumnIndex = -1;
+        for (int column = 0; column < columnCount; column++) {
+            columnIndexes[column] = this.layer.getColumnIndexByPosition(column);
+            maxColumnIndex = Math.max(maxColumnIndex, columnIndexes[column]);
+        }
+
+        IndexData building = new IndexData(rowCount, maxColumnIndex + 1);
+        for (int columnIndex : columnIndexes) {
+            if (columnIndex >= 0) {
+                building.columns[columnIndex] = new ColumnData(rowCount);
+            }
+        }
+
+        int chunkCount = (rowCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (chunkCount == 0) {
+            this.data = building;
+            return;
+        }
+
+        IndexBuild build = new IndexBuild(building, columnIndexes, currentGeneration, chunkCount);
+        if (this.display != null) {
+            asyncExec(() -> readChunk(build, 0));
+        } else {
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                readChunk(build, chunk);
+            }
+        }
+    }
+
+    /**
+     * Reads the cells of the given chunk of rows. Called in the UI thread.
+     * Values that need to be converted via the {@link DefaultDisplayConverter}
+     * are converted in a background thread.
+     */
+    private void readChunk(IndexBuild build, int chunk) {
+        if (this.generation.get() != build.generation) {
+            return;
+        }
+
+        int fromRow = chunk * CHUNK_SIZE;
+        int toRow = Math.min(build.data.rowCount, fromRow + CHUNK_SIZE);
+        RawValues rawValues = new RawValues(build.columnIndexes.length, toRow - fromRow);
+        for (int column = 0; column < build.columnIndexes.length; column++) {
+            ColumnData columnData = build.data.getColumn(build.columnIndexes[column]);
+            if (columnData != null) {
+                for (int row = fromRow; row < toRow; row++) {
+                    readCell(build.data, columnData, rawValues, column, row, row - fromRow);
+                }
+            }
+        }
+
+        if (this.display != null && chunk + 1 < build.chunkCount) {
+            asyncExec(() -> readChunk(build, chunk + 1));
+        }
+
+        if (rawValues.count == 0) {
+            chunkIndexed(build);
+        } else {
+            CalculationService.getDefault().submit(this, chunk, () -> {
+                if (this.generation.get() != build.generation) {
+                    return;
+                }
+                for (int column = 0; column < rawValues.values.length; column++) {
+                    ColumnData columnData = build.data.getColumn(build.columnIndexes[column]);
+                    for (int i = 0; i < rawValues.deferred[column].length; i++) {
+                        if (rawValues.deferred[column][i]) {
+                            Object value = rawValues.values[column][i];
+                            // same as DefaultDisplayConverter
+                            columnData.set(fromRow + i, (value != null) ? value.toString() : ""); //$NON-NLS-1$
+                        }
+                    }
+                }
+                chunkIndexed(build);
+            }, false);
+        }
+    }
+
+    /**
+     * Reads the cell at the given position and stores its search value in the
+     * given {@link ColumnData}, or its data value in the given
+     * {@link RawValues} if it is converted by the
+     * {@link DefaultDisplayConverter}. Same logic as
+     * {@link CellDisplayValueSearchUtil#getSearchValue(ILayer, IConfigRegistry, int, int)}.
+     */
+    private void readCell(IndexData building, ColumnData columnData, RawValues rawValues, int column, int row, int chunkRow) {
+        LabelStack labels = this.layer.getConfigLabelsByPosition(column, row);
+        if (labels.hasLabel(ISearchStrategy.SKIP_SEARCH_RESULT_LABEL)) {
+            return;
+        }
+        IDisplayConverter displayConverter = this.configRegistry.getConfigAttribute(
+                CellConfigAttributes.DISPLAY_CONVERTER,
+                DisplayMode.NORMAL,
+                labels);
+        if (displayConverter == null) {
+            return;
+        }
+        ILayerCell cell = this.layer.getCellByPosition(column, row);
+        if (cell == null) {
+            return;
+        }
+        if (cell.isSpannedCell()) {
+            building.spanned = true;
+        }
+        if (displayConverter.getClass() == DefaultDisplayConverter.class) {
+            rawValues.defer(column, chunkRow, cell.getDataValue());
+        } else {
+            Object displayValue = displayConverter.canonicalToDisplayValue(cell, this.configRegistry, cell.getDataValue());
+            columnData.set(row, (displayValue instanceof Comparable<?>) ? displayValue.toString() : null);
+        }
+    }
+
+    private void chunkIndexed(IndexBuild build) {
+        if (build.remainingChunks.decrementAndGet() == 0 && this.generation.get() == build.generation) {
+            this.data = build.data;
+        }
+    }
+
+    private void asyncExec(Runnable runnable) {
+        try {
+            if (!this.display.isDisposed()) {
+                this.display.asyncExec(runnable);
+            }
+        } catch (SWTException e) {
+            // the display was disposed in the meantime
+        }
+    }
+
+    /**
+     * Removes the listener from the layer and discards the index.
+     */
+    public void dispose() {
+        this.disposed = true;
+        this.layer.removeLayerListener(this);
+        this.generation.incrementAndGet();
+        this.data = null;
+        CalculationService.getDefault().cancel(this);
+    }
+
+    @Override
+    public void handleLayerEvent(ILayerEvent event) {
+        if (event instanceof IStructuralChangeEvent) {
+            if (event instanceof ColumnResizeEvent
+                    || event instanceof RowResizeEvent
+                    || event instanceof ResizeStructuralRefreshEvent) {
+                return;
+            }
+            IStructuralChangeEvent structuralEvent = (IStructuralChangeEvent) event;
+            if (structuralEvent.isVerticalStructureChanged() || !hasIndexedColumns()) {
+                // the index is keyed by row position, so every change of the
+                // row structure requires a rebuild, while column structure
+                // changes only need a rebuild if new columns are shown
+                rebuild();
+            }
+        } else if (event instanceof CellVisualChangeEvent || event instanceof RowUpdateEvent) {
+            updateCells(((IVisualChangeEvent) event).getChangedPositionRectangles());
+        } else if (event instanceof PropertyUpdateEvent) {
+            updateRows(Collections.<PropertyUpdateEvent<?>> singletonList((PropertyUpdateEvent<?>) event));
+        } else if (event instanceof PropertyUpdateBatchEvent) {
+            updateRows(((PropertyUpdateBatchEvent<?>) event).getUpdateEvents());
+        }
+    }
+
+    /**
+     * Indexes the rows of the objects that are updated by the given events
+     * again. Rebuilds the index if the rows can not be determined.
+     */
+    private void updateRows(List<? extends PropertyUpdateEvent<?>> events) {
+        if (this.rowDataProvider == null || !(this.layer instanceof IUniqueIndexLayer)) {
+            // the changed rows are not known
+            rebuild();
+            return;
+        }
+
+        List<Rectangle> rows = new ArrayList<Rectangle>(events.size());
+        int columnCount = this.layer.getColumnCount();
+        for (PropertyUpdateEvent<?> event : events) {
+            int rowIndex = this.rowDataProvider.indexOfRowObject(event.getSourceBean());
+            if (rowIndex < 0) {
+                // the object is not known, e.g. because it was filtered
+                continue;
+            }
+            int rowPosition = ((IUniqueIndexLayer) this.layer).getRowPositionByIndex(rowIndex);
+            if (rowPosition >= 0) {
+                rows.add(new Rectangle(0, rowPosition, columnCount, 1));
+            }
+        }
+        updateCells(rows);
+    }
+
+    /**
+     * @return <code>true</code> if all columns of the layer are contained in
+     *         the index.
+     */
+    private boolean hasIndexedColumns() {
+        IndexData current = this.data;
+        if (current == null) {
+            // a rebuild is running that might not contain all columns
+            return false;
+        }
+        for (int column = 0; column < this.layer.getColumnCount(); column++) {
+            if (current.getColumn(this.layer.getColumnIndexByPosition(column)) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void updateCells(Collection<Rectangle> rectangles) {
+        IndexData current = this.data;
+        if (current == null) {
+            // the chunks that are already indexed might miss the update
+            rebuild();
+            return;
+        }
+
+        int cellCount = 0;
+        for (Rectangle rectangle : rectangles) {
+            cellCount += rectangle.width * rectangle.height;
+        }
+        if (cellCount > MAX_DIRECT_UPDATES) {
+            rebuild();
+            return;
+        }
+
+        for (Rectangle rectangle : rectangles) {
+            for (int column = rectangle.x; column < rectangle.x + rectangle.width; column++) {
+                ColumnData columnData = current.getColumn(this.layer.getColumnIndexByPosition(column));
+                if (columnData == null) {
+                    continue;
+                }
+                for (int row = rectangle.y; row < rectangle.y + rectangle.height; row++) {
+                    if (row >= 0 && row < current.rowCount) {
+                        columnData.set(row, CellDisplayValueSearchUtil.getSearchValue(this.layer, this.configRegistry, column, row));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a query to search the index with the given settings.
+     *
+     * @return The query, or <code>null</code> if the index is not ready or can
+     *         not be used for the given settings.
+     */
+    IndexQuery createQuery(
+            ILayer searchLayer,
+            Pattern pattern,
+            String stringValue,
+            Comparator<String> comparator,
+            boolean caseSensitive,
+            boolean wholeWord,
+            boolean regex) {
+
+        IndexData current = this.data;
+        if (searchLayer != this.layer
+                || current == null
+                || current.spanned
+                || comparator == null
+                || comparator.getClass() != CellValueAsStringComparator.class) {
+            return null;
+        }
+        return new IndexQuery(current, pattern, stringValue, comparator, caseSensitive, wholeWord, regex);
+    }
+
+    /**
+     * Calculates the signature of the given text, which has the bits of the
+     * contained characters and pairs of characters set.
+     */
+    static long signature(String text) {
+        long signature = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            signature |= 1L << ((c * 0x9E3779B1) >>> 26);
+            if (i > 0) {
+                char previous = Character.toLowerCase(text.charAt(i - 1));
+                signature |= 1L << (((previous * 31 + c) * 0x9E3779B1) >>> 26);
+            }
+        }
+        return signature;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The state of a running build of the index.
+     */
+    private static final class IndexBuild {
+
+        private final IndexData data;
+        private final int[] columnIndexes;
+        private final int generation;
+        private final int chunkCount;
+        private final AtomicInteger remainingChunks;
+
+        IndexBuild(IndexData data, int[] columnIndexes, int generation, int chunkCount) {
+            this.data = data;
+            this.columnIndexes = columnIndexes;
+            this.generation = generation;
+            this.chunkCount = chunkCount;
+            this.remainingChunks = new AtomicInteger(chunkCount);
+        }
+    }
+
+    /**
+     * The data values of a chunk of rows that are converted in a background
+     * thread, keyed by column position and row in the chunk.
+     */
+    private static final class RawValues {
+
+        private final Object[][] values;
+        private final boolean[][] deferred;
+        private int count;
+
+        RawValues(int columnCount, int rowCount) {
+            this.values = new Object[columnCount][rowCount];
+            this.deferred = new boolean[columnCount][rowCount];
+        }
+
+        void defer(int column, int row, Object value) {
+            this.values[column][row] = value;
+            this.deferred[column][row] = true;
+            this.count++;
+        }
+    }
+
+    /**
+     * The indexed values, keyed by column index and row position.
+     */
+    private static final class IndexData {
+
+        private final int rowCount;
+        private final ColumnData[] columns;
+        private volatile boolean spanned = false;
+
+        IndexData(int rowCount, int columnIndexCount) {
+            this.rowCount = rowCount;
+            this.columns = new ColumnData[columnIndexCount];
+        }
+
+        ColumnData getColumn(int columnIndex) {
+            return (columnIndex >= 0 && columnIndex < this.columns.length) ? this.columns[columnIndex] : null;
+        }
+    }
+
+    /**
+     * The indexed values of one column.
+     */
+    private static final class ColumnData {
+
+        private final String[] values;
+        private final long[] signatures;
+
+        ColumnData(int rowCount) {
+            this.values = new String[rowCount];
+            this.signatures = new long[rowCount];
+        }
+
+        void set(int row, String value) {
+            this.values[row] = value;
+            this.signatures[row] = (value != null) ? signature(value) : 0;
+        }
+    }
+
+    /**
+     * A search in the index with fixed search settings.
+     */
+    static final class IndexQuery {
+
+        private final IndexData data;
+        private final Pattern pattern;
+        private final String stringValue;
+        private final Comparator<String> comparator;
+        private final boolean caseSensitive;
+        private final boolean wholeWord;
+        private final boolean regex;
+        private final long signature;
+
+        IndexQuery(IndexData data, Pattern pattern, String stringValue, Comparator<String> comparator,
+                boolean caseSensitive, boolean wholeWord, boolean regex) {
+            this.data = data;
+            this.pattern = pattern;
+            this.stringValue = stringValue;
+            this.comparator = comparator;
+            this.caseSensitive = caseSensitive;
+            this.wholeWord = wholeWord;
+            this.regex = regex;
+            // a regular expression does not need to contain its characters,
+            // and the lower case conversion of other characters depends on
+            // the context, so the signature is only checked for ASCII values
+            this.signature = (regex || !isAscii(stringValue)) ? 0 : signature(stringValue);
+        }
+
+        /**
+         * @return {@link SearchIndex#MATCH} or {@link SearchIndex#NO_MATCH}
+         *         for indexed cells, {@link SearchIndex#NOT_INDEXED} if the
+         *         cell needs to be compared without the index.
+         */
+        int match(int columnIndex, int rowPosition) {
+            ColumnData columnData = this.data.getColumn(columnIndex);
+            if (columnData == null || rowPosition < 0 || rowPosition >= this.data.rowCount) {
+                return NOT_INDEXED;
+            }
+            String value = columnData.values[rowPosition];
+            if (value == null || (columnData.signatures[rowPosition] & this.signature) != this.signature) {
+                return NO_MATCH;
+            }
+            return CellDisplayValueSearchUtil.matches(
+                    value,
+                    this.pattern,
+                    this.stringValue,
+                    this.comparator,
+                    this.caseSensitive,
+                    this.wholeWord,
+                    this.regex) ? MATCH : NO_MATCH;
+        }
+    }
+}
@@ -61,7 +61,8 @@ public PositionCoordinate executeSearch(Object valueToMatch) throws PatternSynta
                 isCaseSensitive(),
                 isWholeWord(),
                 isRegex(),
-                isIncludeCollapsed());
+                isIncludeCollapsed(),
+                getSearchIndex());
 
         if (coordinate != null) {
             selectionLayer.moveSelectionAnchor(coordinate.columnPosition, coordinate.rowPosition);
@@ -0,0 +1,581 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.selection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.PositionCoordinate;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff.DiffTypeEnum;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * {@link ISelectionModel} that tracks the selections in terms of Rectangles
+ * like the {@link SelectionModel}, but answers the queries via a two
+ * dimensional interval index on primitive int arrays instead of iterating
+ * over all selected rectangles.
+ * <p>
+ * The index is created lazily on the first query after a modification. Hit
+ * tests like {@link #isCellPositionSelected(int, int)},
+ * {@link #isRowPositionSelected(int)} or {@link #isColumnPositionSelected(int)}
+ * are performed via binary search in O(log n) and do not create any objects.
+ * This makes the model suitable for large discontiguous selections, e.g. a
+ * lot of rows that were selected via Ctrl-click, where the
+ * {@link SelectionModel} slows down painting as every painted cell checks
+ * all selected rectangles.
+ * </p>
+ * <p>
+ * Reading from the model is lock free. Modifications are synchronized and
+ * publish a new immutable snapshot of the selections.
+ * </p>
+ * <p>
+ * A row or column is treated as fully selected if the selection in that row
+ * or column contains a contiguous range that is at least as long as the
+ * requested width or height.
+ * </p>
+ * <p>
+ * To use it, set it to the {@link SelectionLayer} via
+ * {@link SelectionLayer#setSelectionModel(ISelectionModel)}:
+ * </p>
+ *
+ * <pre>
+ * selectionLayer.setSelectionModel(new IntervalSelectionModel(selectionLayer));
+ * </pre>
+ *
+ * Coordinates are in <i>Selection Layer positions</i>
+ *
+ * @see SelectionLayer
+ * @see SelectionModel
+ * @since 2.0
+ */
+public class IntervalSelectionModel implements ISelectionModel {
+
+    protected final SelectionLayer selectionLayer;
+    private volatile boolean multipleSelectionAllowed;
+
+    /**
+     * The selected rectangles. Only modified while holding the lock on this
+     * model instance.
+     */
+    private final List<Rectangle> selections = new ArrayList<Rectangle>();
+
+    /**
+     * The immutable snapshot of the current selections that is used for
+     * reading. <code>null</code> if the selections have been modified since
+     * the last snapshot was created.
+     */
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    private boolean clearSelectionOnChange = true;
+    private volatile boolean spanningSupport = true;
+
+    public IntervalSelectionModel(SelectionLayer selectionLayer) {
+        this(selectionLayer, true);
+    }
+
+    public IntervalSelectionModel(SelectionLayer selectionLayer, boolean multipleSelectionAllowed) {
+        this.selectionLayer = selectionLayer;
+        this.multipleSelectionAllowed = multipleSelectionAllowed;
+    }
+
+    @Override
+    public boolean isMultipleSelectionAllowed() {
+        return this.multipleSelectionAllowed;
+    }
+
+    @Override
+    public void setMultipleSelectionAllowed(boolean multipleSelectionAllowed) {
+        this.multipleSelectionAllowed = multipleSelectionAllowed;
+    }
+
+    /**
+     *
+     * @return <code>true</code> if spanned cells are taken into account on
+     *         checking if a cell is selected.
+     */
+    public boolean isSpanningSupport() {
+        return this.spanningSupport;
+    }
+
+    /**
+     * Configure whether spanned cells should be taken into account on
+     * checking if a cell is selected. If enabled, a cell that is not selected
+     * itself is resolved via {@link SelectionLayer#getCellByPosition(int, int)}
+     * to check if another cell of the spanned cell is selected. For
+     * compositions without cell spanning this lookup is not necessary and can
+     * be disabled, so {@link #isCellPositionSelected(int, int)} does not
+     * create any objects. Enabled by default.
+     *
+     * @param spanningSupport
+     *            <code>true</code> if spanned cells should be taken into
+     *            account, <code>false</code> if only the given position
+     *            should be checked.
+     */
+    public void setSpanningSupport(boolean spanningSupport) {
+        this.spanningSupport = spanningSupport;
+    }
+
+    @Override
+    public void addSelection(int columnPosition, int rowPosition) {
+        addSelectionIntoList(new Rectangle(columnPosition, rowPosition, 1, 1));
+    }
+
+    @Override
+    public void addSelection(final Rectangle range) {
+        if (range != null) {
+            addSelectionIntoList(range);
+        }
+    }
+
+    private synchronized void addSelectionIntoList(Rectangle selection) {
+        if (this.multipleSelectionAllowed) {
+            ArrayList<Rectangle> itemsToRemove = null;
+            for (Rectangle r : this.selections) {
+                if (selection.intersects(r)) {
+                    if (r.equals(selection)) {
+                        break;
+                    }
+
+                    Rectangle intersection = selection.intersection(r);
+                    if (intersection.equals(r)) {
+                        // r is a subset of intersection
+                        if (itemsToRemove == null) {
+                            itemsToRemove = new ArrayList<Rectangle>();
+                        }
+
+                        itemsToRemove.add(r);
+                    } else if (intersection.equals(selection)) {
+                        // selection is a subset of r
+                        break;
+                    }
+                }
+            }
+
+            if (itemsToRemove != null) {
+                this.selections.removeAll(itemsToRemove);
+            }
+        } else {
+            this.selections.clear();
+            // as no multiple selection is allowed, ensure that only one
+            // column and one row will be selected
+            selection.height = 1;
+            selection.width = 1;
+        }
+
+        this.selections.add(selection);
+        this.snapshot = null;
+    }
+
+    @Override
+    public synchronized void clearSelection() {
+        this.selections.clear();
+        this.snapshot = Snapshot.EMPTY;
+    }
+
+    @Override
+    public void clearSelection(int columnPosition, int rowPosition) {
+        clearSelection(new Rectangle(columnPosition, rowPosition, 1, 1));
+    }
+
+    @Override
+    public synchronized void clearSelection(Rectangle removedSelection) {
+        List<Rectangle> removedItems = new ArrayList<Rectangle>();
+        List<Rectangle> addedItems = new ArrayList<Rectangle>();
+
+        for (Rectangle r : this.selections) {
+            if (r.intersects(removedSelection)) {
+                Rectangle intersection = removedSelection.intersection(r);
+                removedItems.add(r);
+
+                Rectangle topSelection = getTopSelection(intersection, r);
+                if (topSelection != null) {
+                    addedItems.add(topSelection);
+                }
+
+                Rectangle rightSelection = getRightSelection(intersection, r);
+                if (rightSelection != null) {
+                    addedItems.add(rightSelection);
+                }
+
+                Rectangle leftSelection = getLeftSelection(intersection, r);
+                if (leftSelection != null) {
+                    addedItems.add(leftSelection);
+                }
+
+                Rectangle bottomSelection = getBottomSelection(intersection, r);
+                if (bottomSelection != null) {
+                    addedItems.add(bottomSelection);
+                }
+            }
+        }
+
+        if (!removedItems.isEmpty()) {
+            this.selections.removeAll(removedItems);
+            this.selections.addAll(addedItems);
+            this.snapshot = null;
+        }
+    }
+
+    /**
+     * Returns the current snapshot of the selections and creates it if the
+     * selections were modified since the last call.
+     *
+     * @return The current snapshot of the selections.
+     */
+    private Snapshot getSnapshot() {
+        Snapshot current = this.snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = this.snapshot;
+                if (current == null) {
+                    current = new Snapshot(this.selections);
+                    this.snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSnapshot().selections.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned list is an unmodifiable snapshot of the current
+     * selections.
+     * </p>
+     */
+    @Override
+    public List<Rectangle> getSelections() {
+        return getSnapshot().selections;
+    }
+
+    // Cell features
+
+    @Override
+    public boolean isCellPositionSelected(int columnPosition, int rowPosition) {
+        Snapshot current = getSnapshot();
+        if (current.rowIndex.isEmpty()
+                || columnPosition < 0 || columnPosition >= this.selectionLayer.getColumnCount()
+                || rowPosition < 0 || rowPosition >= this.selectionLayer.getRowCount()) {
+            return false;
+        }
+
+        if (current.rowIndex.contains(rowPosition, columnPosition)) {
+            return true;
+        }
+
+        if (this.spanningSupport) {
+            ILayerCell cell = this.selectionLayer.getCellByPosition(columnPosition, rowPosition);
+            if (cell != null && cell.isSpannedCell()) {
+                int column = cell.getOriginColumnPosition();
+                int row = cell.getOriginRowPosition();
+                return current.rowIndex.intersects(
+                        row, row + cell.getRowSpan(),
+                        column, column + cell.getColumnSpan());
+            }
+        }
+
+        return false;
+    }
+
+    // Column features
+
+    @Override
+    public int[] getSelectedColumnPositions() {
+        SelectionIntervalIndex columnIndex = getSnapshot().columnIndex;
+        int columnCount = this.selectionLayer.getColumnCount();
+        return getPositions(columnIndex, columnCount);
+    }
+
+    @Override
+    public boolean isColumnPositionSelected(int columnPosition) {
+        return columnPosition < this.selectionLayer.getColumnCount()
+                && getSnapshot().columnIndex.containsPrimary(columnPosition);
+    }
+
+    @Override
+    public int[] getFullySelectedColumnPositions(int columnHeight) {
+        return getSnapshot().columnIndex.getFullyCovered(this.selectionLayer.getColumnCount(), columnHeight);
+    }
+
+    @Override
+    public boolean isColumnPositionFullySelected(int columnPosition, int columnHeight) {
+        return getSnapshot().columnIndex.isFullyCovered(columnPosition, columnHeight);
+    }
+
+    // Row features
+
+    @Override
+    public int getSelectedRowCount() {
+        SelectionIntervalIndex rowIndex = getSnapshot().rowIndex;
+        int rowCount = this.selectionLayer.getRowCount();
+        int count = 0;
+        for (int i = 0; i < rowIndex.getProjectionCount() && rowIndex.getProjectionStart(i) < rowCount; i++) {
+            count += Math.min(rowIndex.getProjectionEnd(i), rowCount) - rowIndex.getProjectionStart(i);
+        }
+        return count;
+    }
+
+    @Override
+    public Set<Range> getSelectedRowPositions() {
+        SelectionIntervalIndex rowIndex = getSnapshot().rowIndex;
+        int rowCount = this.selectionLayer.getRowCount();
+        Set<Range> selectedRows = new HashSet<Range>();
+        for (int i = 0; i < rowIndex.getProjectionCount() && rowIndex.getProjectionStart(i) < rowCount; i++) {
+            selectedRows.add(new Range(
+                    rowIndex.getProjectionStart(i),
+                    Math.min(rowIndex.getProjectionEnd(i), rowCount)));
+        }
+        return selectedRows;
+    }
+
+    @Override
+    public boolean isRowPositionSelected(int rowPosition) {
+        return rowPosition < this.selectionLayer.getRowCount()
+                && getSnapshot().rowIndex.containsPrimary(rowPosition);
+    }
+
+    @Override
+    public int[] getFullySelectedRowPositions(int rowWidth) {
+        return getSnapshot().rowIndex.getFullyCovered(this.selectionLayer.getRowCount(), rowWidth);
+    }
+
+    @Override
+    public boolean isRowPositionFullySelected(int rowPosition, int rowWidth) {
+        return getSnapshot().rowIndex.isFullyCovered(rowPosition, rowWidth);
+    }
+
+    /**
+     * Collects all positions of the projection of the given index that are
+     * smaller than the given limit.
+     */
+    private static int[] getPositions(SelectionIntervalIndex index, int limit) {
+        int size = 0;
+        for (int i = 0; i < index.getProjectionCount() && index.getProjectionStart(i) < limit; i++) {
+            size += Math.max(Math.min(index.getProjectionEnd(i), limit) - Math.max(index.getProjectionStart(i), 0), 0);
+        }
+
+        int[] result = new int[size];
+        int pos = 0;
+        for (int i = 0; i < index.getProjectionCount() && index.getProjectionStart(i) < limit; i++) {
+            int end = Math.min(index.getProjectionEnd(i), limit);
+            for (int position = Math.max(index.getProjectionStart(i), 0); position < end; position++) {
+                result[pos++] = position;
+            }
+        }
+        return result;
+    }
+
+    private Rectangle getLeftSelection(Rectangle intersection, Rectangle selection) {
+        if (intersection.x > selection.x) {
+            return new Rectangle(
+                    selection.x,
+                    selection.y,
+                    intersection.x - selection.x,
+                    selection.height);
+        }
+        return null;
+    }
+
+    private Rectangle getRightSelection(Rectangle intersection, Rectangle selection) {
+        int newX = intersection.x + intersection.width;
+        if (newX < selection.x + selection.width) {
+            return new Rectangle(
+                    newX,
+                    selection.y,
+                    selection.x + selection.width - newX,
+                    selection.height);
+        }
+        return null;
+    }
+
+    private Rectangle getTopSelection(Rectangle intersection, Rectangle selection) {
+        if (intersection.y > selection.y) {
+            return new Rectangle(
+                    selection.x,
+                    selection.y,
+                    selection.width,
+                    intersection.y - selection.y);
+        }
+        return null;
+    }
+
+    private Rectangle getBottomSelection(Rectangle intersection, Rectangle selection) {
+        int newY = intersection.y + intersection.height;
+        if (newY < selection.y + selection.height) {
+            return new Rectangle(
+                    selection.x,
+                    newY,
+                    selection.width,
+                    selection.y + selection.height - newY);
+        }
+        return null;
+    }
+
+    // Object methods
+
+    @Override
+    public String toString() {
+        return getSnapshot().selections.toString();
+    }
+
+    @Override
+    public void handleLayerEvent(IStructuralChangeEvent event) {
+        if (this.clearSelectionOnChange) {
+            if (event.isHorizontalStructureChanged()) {
+                if (event.getColumnDiffs() == null) {
+                    Collection<Rectangle> rectangles = event.getChangedPositionRectangles();
+                    for (Rectangle rectangle : rectangles) {
+                        Range changedRange = new Range(rectangle.y, rectangle.y + rectangle.height);
+                        if (selectedColumnModified(changedRange)) {
+                            this.selectionLayer.clear();
+                            break;
+                        }
+                    }
+                } else {
+                    for (StructuralDiff diff : event.getColumnDiffs()) {
+                        // DiffTypeEnum.CHANGE is used for resizing and
+                        // shouldn't result in clearing the selection
+                        if (diff.getDiffType() != DiffTypeEnum.CHANGE) {
+                            if (selectedColumnModified(diff.getBeforePositionRange())) {
+                                this.selectionLayer.clear();
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+
+            if (event.isVerticalStructureChanged()) {
+                // if there are no row diffs, it seems to be a complete refresh
+                if (event.getRowDiffs() == null) {
+                    Collection<Rectangle> rectangles = event.getChangedPositionRectangles();
+                    for (Rectangle rectangle : rectangles) {
+                        Range changedRange = new Range(rectangle.y, rectangle.y + rectangle.height);
+                        if (selectedRowModified(changedRange)) {
+                            this.selectionLayer.clear();
+                            break;
+                        }
+                    }
+                } else {
+                    // there are row diffs so we try to determine the diffs to
+                    // process
+                    for (StructuralDiff diff : event.getRowDiffs()) {
+                        // DiffTypeEnum.CHANGE is used for resizing and
+                        // shouldn't result in clearing the selection
+                        if (diff.getDiffType() != DiffTypeEnum.CHANGE) {
+                            if (selectedRowModified(diff.getBeforePositionRange())) {
+                                this.selectionLayer.clear();
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        } else {
+            // keep the selection as is in case of changes
+            PositionCoordinate[] coords = this.selectionLayer.getSelectedCellPositions();
+            for (PositionCoordinate coord : coords) {
+                if (coord.getColumnPosition() >= this.selectionLayer.getColumnCount()
+                        || coord.getRowPosition() >= this.selectionLayer.getRowCount()) {
+                    // if the coordinates of the selected cells are outside the
+                    // valid range remove the selection
+                    this.selectionLayer.clearSelection(
+                            coord.getColumnPosition(),
+                            coord.getRowPosition());
+                }
+            }
+        }
+    }
+
+    private boolean selectedRowModified(Range changedRange) {
+        SelectionIntervalIndex rowIndex = getSnapshot().rowIndex;
+        int rowCount = this.selectionLayer.getRowCount();
+        for (int i = 0; i < rowIndex.getProjectionCount() && rowIndex.getProjectionStart(i) < rowCount; i++) {
+            Range rowRange = new Range(
+                    rowIndex.getProjectionStart(i),
+                    Math.min(rowIndex.getProjectionEnd(i), rowCount));
+            if (rowRange.overlap(changedRange)) {
+                return true;
+            }
+        }
+
+        // if the selection layer is empty, we should clear the selection also
+        if (rowCount == 0 && !isEmpty()) {
+            return true;
+        }
+
+        return false;
+    }
+
+    private boolean selectedColumnModified(Range changedRange) {
+        for (int i = changedRange.start; i <= changedRange.end; i++) {
+            if (isColumnPositionSelected(i)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     *
+     * @param clearSelectionOnChange
+     *            <code>true</code> to simply clear the selection on structural
+     *            changes, <code>false</code> to keep the valid selection
+     *            (selection of cells that still exist)
+     */
+    public void setClearSelectionOnChange(boolean clearSelectionOnChange) {
+        this.clearSelectionOnChange = clearSelectionOnChange;
+    }
+
+    @Override
+    public Class<IStructuralChangeEvent> getLayerEventClass() {
+        return IStructuralChangeEvent.class;
+    }
+
+    /**
+     * Immutable state of the selections with the row and column based
+     * interval indexes.
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(Collections.<Rectangle> emptyList());
+
+        final List<Rectangle> selections;
+        final SelectionIntervalIndex rowIndex;
+        final SelectionIntervalIndex columnIndex;
+
+        Snapshot(List<Rectangle> selections) {
+            List<Rectangle> copy = new ArrayList<Rectangle>(selections.size());
+            for (Rectangle r : selections) {
+                copy.add(new Rectangle(r.x, r.y, r.width, r.height));
+            }
+            this.selections = Collections.unmodifiableList(copy);
+            this.rowIndex = SelectionIntervalIndex.create(copy, true);
+            this.columnIndex = SelectionIntervalIndex.create(copy, false);
+        }
+    }
+}
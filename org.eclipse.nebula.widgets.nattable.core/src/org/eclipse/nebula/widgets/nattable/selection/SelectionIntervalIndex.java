@@ -0,0 +1,471 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.selection;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * Immutable two dimensional interval index over a collection of rectangles,
+ * stored in primitive int arrays.
+ * <p>
+ * The union of the rectangles is split into disjoint <i>bands</i> along the
+ * primary axis. Every band stores the sorted, disjoint and merged intervals on
+ * the secondary axis that are covered within the band. Adjacent bands that
+ * cover the same intervals are merged. A point or range lookup is therefore a
+ * binary search on the bands followed by a binary search on the intervals of
+ * the band, without any object allocation.
+ * </p>
+ * <p>
+ * Which axis is the primary one is decided on creation. For a row based index
+ * the bands are row ranges and the intervals are column ranges, for a column
+ * based index it is the other way round.
+ * </p>
+ *
+ * @since 2.0
+ */
+final class SelectionIntervalIndex {
+
+    static final SelectionIntervalIndex EMPTY =
+            new SelectionIntervalIndex(new int[0], new int[0], new int[] { 0 }, new int[0], new int[0]);
+
+    /**
+     * Inclusive start of the bands on the primary axis, sorted ascending.
+     */
+    private final int[] bandStart;
+    /**
+     * Exclusive end of the bands on the primary axis.
+     */
+    private final int[] bandEnd;
+    /**
+     * Offset of the first interval of a band in {@link #intervalStart} and
+     * {@link #intervalEnd}. Contains one more element than there are bands,
+     * so the intervals of band <code>i</code> are located in
+     * <code>[bandOffset[i], bandOffset[i + 1])</code>.
+     */
+    private final int[] bandOffset;
+    /**
+     * Inclusive start of the intervals on the secondary axis.
+     */
+    private final int[] intervalStart;
+    /**
+     * Exclusive end of the intervals on the secondary axis.
+     */
+    private final int[] intervalEnd;
+
+    /**
+     * Merged projection of all bands on the primary axis.
+     */
+    private final int[] projectionStart;
+    private final int[] projectionEnd;
+
+    private SelectionIntervalIndex(int[] bandStart, int[] bandEnd, int[] bandOffset, int[] intervalStart, int[] intervalEnd) {
+        this.bandStart = bandStart;
+        this.bandEnd = bandEnd;
+        this.bandOffset = bandOffset;
+        this.intervalStart = intervalStart;
+        this.intervalEnd = intervalEnd;
+
+        // merge touching bands to get the projection on the primary axis
+        int[] pStart = new int[bandStart.length];
+        int[] pEnd = new int[bandStart.length];
+        int count = 0;
+        for (int i = 0; i < bandStart.length; i++) {
+            if (count > 0 && pEnd[count - 1] == bandStart[i]) {
+                pEnd[count - 1] = bandEnd[i];
+            } else {
+                pStart[count] = bandStart[i];
+                pEnd[count] = bandEnd[i];
+                count++;
+            }
+        }
+        this.projectionStart = Arrays.copyOf(pStart, count);
+        this.projectionEnd = Arrays.copyOf(pEnd, count);
+    }
+
+    /**
+     * Creates an index for the given rectangles.
+     *
+     * @param rectangles
+     *            The rectangles to index. Rectangles with a width or height
+     *            smaller than 1 are ignored.
+     * @param rowBased
+     *            <code>true</code> if the bands should be row ranges and the
+     *            intervals column ranges, <code>false</code> for the
+     *            transposed index.
+     * @return The index for the given rectangles.
+     */
+    static SelectionIntervalIndex create(List<Rectangle> rectangles, boolean rowBased) {
+        int size = rectangles.size();
+        // primary axis start/end and secondary axis start/end per rectangle
+        int[] pStart = new int[size];
+        int[] pEnd = new int[size];
+        int[] sStart = new int[size];
+        int[] sEnd = new int[size];
+        int count = 0;
+        for (Rectangle r : rectangles) {
+            if (r.width > 0 && r.height > 0) {
+                pStart[count] = rowBased ? r.y : r.x;
+                pEnd[count] = rowBased ? r.y + r.height : r.x + r.width;
+                sStart[count] = rowBased ? r.x : r.y;
+                sEnd[count] = rowBased ? r.x + r.width : r.y + r.height;
+                count++;
+            }
+        }
+
+        if (count == 0) {
+            return EMPTY;
+        }
+
+        // sorted unique band boundaries
+        int[] boundaries = new int[count * 2];
+        for (int i = 0; i < count; i++) {
+            boundaries[i * 2] = pStart[i];
+            boundaries[i * 2 + 1] = pEnd[i];
+        }
+        Arrays.sort(boundaries);
+        int boundaryCount = unique(boundaries);
+
+        // rectangle indexes sorted by start on the primary axis
+        long[] byStart = new long[count];
+        for (int i = 0; i < count; i++) {
+            byStart[i] = ((long) pStart[i] << 32) | i;
+        }
+        Arrays.sort(byStart);
+
+        IntBuffer resultBandStart = new IntBuffer(boundaryCount);
+        IntBuffer resultBandEnd = new IntBuffer(boundaryCount);
+        IntBuffer resultBandOffset = new IntBuffer(boundaryCount + 1);
+        IntBuffer resultIntervalStart = new IntBuffer(count);
+        IntBuffer resultIntervalEnd = new IntBuffer(count);
+        resultBandOffset.add(0);
+
+        // sweep over the boundaries and track the active rectangles
+        int[] active = new int[count];
+        int activeCount = 0;
+        int next = 0;
+        long[] intervals = new long[count];
+        for (int b = 0; b < boundaryCount - 1; b++) {
+            int start = boundaries[b];
+            int end = boundaries[b + 1];
+
+            // remove rectangles that end before the current band
+            int kept = 0;
+            for (int i = 0; i < activeCount; i++) {
+                if (pEnd[active[i]] > start) {
+                    active[kept++] = active[i];
+                }
+            }
+            activeCount = kept;
+
+            // add rectangles that start with the current band
+            while (next < count && (int) (byStart[next] >> 32) <= start) {
+                active[activeCount++] = (int) byStart[next];
+                next++;
+            }
+
+            if (activeCount == 0) {
+                continue;
+            }
+
+            // collect and merge the secondary intervals of the band
+            for (int i = 0; i < activeCount; i++) {
+                intervals[i] = ((long) sStart[active[i]] << 32) | (sEnd[active[i]] & 0xFFFFFFFFL);
+            }
+            Arrays.sort(intervals, 0, activeCount);
+
+            int bandIntervalStart = resultIntervalStart.size();
+            for (int i = 0; i < activeCount; i++) {
+                int iStart = (int) (intervals[i] >> 32);
+                int iEnd = (int) intervals[i];
+                int last = resultIntervalEnd.size() - 1;
+                if (last >= bandIntervalStart && iStart <= resultIntervalEnd.get(last)) {
+                    if (iEnd > resultIntervalEnd.get(last)) {
+                        resultIntervalEnd.set(last, iEnd);
+                    }
+                } else {
+                    resultIntervalStart.add(iStart);
+                    resultIntervalEnd.add(iEnd);
+                }
+            }
+
+            // merge with the previous band if it is adjacent and covers the
+            // same intervals
+            int bandCount = resultBandStart.size();
+            if (bandCount > 0
+                    && resultBandEnd.get(bandCount - 1) == start
+                    && sameIntervals(
+                            resultIntervalStart, resultIntervalEnd,
+                            resultBandOffset.get(bandCount - 1), bandIntervalStart,
+                            bandIntervalStart, resultIntervalStart.size())) {
+                resultBandEnd.set(bandCount - 1, end);
+                resultIntervalStart.truncate(bandIntervalStart);
+                resultIntervalEnd.truncate(bandIntervalStart);
+            } else {
+                resultBandStart.add(start);
+                resultBandEnd.add(end);
+                resultBandOffset.add(resultIntervalStart.size());
+            }
+        }
+
+        return new SelectionIntervalIndex(
+                resultBandStart.toArray(),
+                resultBandEnd.toArray(),
+                resultBandOffset.toArray(),
+                resultIntervalStart.toArray(),
+                resultIntervalEnd.toArray());
+    }
+
+    private static int unique(int[] sorted) {
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (count == 0 || sorted[count - 1] != sorted[i]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return count;
+    }
+
+    private static boolean sameIntervals(IntBuffer starts, IntBuffer ends, int from1, int to1, int from2, int to2) {
+        if (to1 - from1 != to2 - from2) {
+            return false;
+        }
+        for (int i = 0; i < to1 - from1; i++) {
+            if (starts.get(from1 + i) != starts.get(from2 + i)
+                    || ends.get(from1 + i) != ends.get(from2 + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Searches the last element in the given sorted array that is smaller or
+     * equal to the given value.
+     *
+     * @return The index of the found element or -1 if all elements are
+     *         greater than the given value.
+     */
+    private static int floor(int[] sorted, int from, int to, int value) {
+        int low = from;
+        int high = to - 1;
+        int result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return <code>true</code> if no rectangle is indexed.
+     */
+    boolean isEmpty() {
+        return this.bandStart.length == 0;
+    }
+
+    /**
+     * Checks if the given point is covered by an indexed rectangle.
+     *
+     * @param primary
+     *            The coordinate on the primary axis.
+     * @param secondary
+     *            The coordinate on the secondary axis.
+     * @return <code>true</code> if the point is covered.
+     */
+    boolean contains(int primary, int secondary) {
+        int band = floor(this.bandStart, 0, this.bandStart.length, primary);
+        if (band < 0 || primary >= this.bandEnd[band]) {
+            return false;
+        }
+        int interval = floor(this.intervalStart, this.bandOffset[band], this.bandOffset[band + 1], secondary);
+        return interval >= 0 && secondary < this.intervalEnd[interval];
+    }
+
+    /**
+     * Checks if the given range intersects with an indexed rectangle.
+     *
+     * @param primaryStart
+     *            Inclusive start on the primary axis.
+     * @param primaryEnd
+     *            Exclusive end on the primary axis.
+     * @param secondaryStart
+     *            Inclusive start on the secondary axis.
+     * @param secondaryEnd
+     *            Exclusive end on the secondary axis.
+     * @return <code>true</code> if the given range intersects.
+     */
+    boolean intersects(int primaryStart, int primaryEnd, int secondaryStart, int secondaryEnd) {
+        int band = floor(this.bandStart, 0, this.bandStart.length, primaryStart);
+        if (band < 0 || this.bandEnd[band] <= primaryStart) {
+            band++;
+        }
+        for (; band < this.bandStart.length && this.bandStart[band] < primaryEnd; band++) {
+            int interval = floor(this.intervalStart, this.bandOffset[band], this.bandOffset[band + 1], secondaryEnd - 1);
+            if (interval >= 0 && this.intervalEnd[interval] > secondaryStart) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the given position on the primary axis is covered by a
+     * contiguous range on the secondary axis that has at least the given
+     * length.
+     *
+     * @param primary
+     *            The coordinate on the primary axis.
+     * @param length
+     *            The length that needs to be covered contiguously on the
+     *            secondary axis.
+     * @return <code>true</code> if the position is fully covered.
+     */
+    boolean isFullyCovered(int primary, int length) {
+        int band = floor(this.bandStart, 0, this.bandStart.length, primary);
+        if (band < 0 || primary >= this.bandEnd[band]) {
+            return false;
+        }
+        return isFullyCoveredBand(band, length);
+    }
+
+    private boolean isFullyCoveredBand(int band, int length) {
+        int from = this.bandOffset[band];
+        int to = this.bandOffset[band + 1];
+        for (int i = from; i < to; i++) {
+            if (this.intervalEnd[i] - this.intervalStart[i] >= length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the given position on the primary axis is covered by any
+     * indexed rectangle.
+     *
+     * @param primary
+     *            The coordinate on the primary axis.
+     * @return <code>true</code> if the position is covered.
+     */
+    boolean containsPrimary(int primary) {
+        int index = floor(this.projectionStart, 0, this.projectionStart.length, primary);
+        return index >= 0 && primary < this.projectionEnd[index];
+    }
+
+    /**
+     * @return The number of merged ranges in the projection on the primary
+     *         axis.
+     */
+    int getProjectionCount() {
+        return this.projectionStart.length;
+    }
+
+    /**
+     * @param index
+     *            The index of the projection range.
+     * @return The inclusive start of the projection range.
+     */
+    int getProjectionStart(int index) {
+        return this.projectionStart[index];
+    }
+
+    /**
+     * @param index
+     *            The index of the projection range.
+     * @return The exclusive end of the projection range.
+     */
+    int getProjectionEnd(int index) {
+        return this.projectionEnd[index];
+    }
+
+    /**
+     * Returns all positions on the primary axis that are smaller than the
+     * given limit and that are covered by a contiguous range on the secondary
+     * axis that has at least the given length.
+     *
+     * @param limit
+     *            The exclusive upper limit of the positions to return.
+     * @param length
+     *            The length that needs to be covered contiguously on the
+     *            secondary axis.
+     * @return The fully covered positions in ascending order.
+     */
+    int[] getFullyCovered(int limit, int length) {
+        int size = 0;
+        for (int band = 0; band < this.bandStart.length && this.bandStart[band] < limit; band++) {
+            if (this.bandEnd[band] > 0 && isFullyCoveredBand(band, length)) {
+                size += Math.min(this.bandEnd[band], limit) - Math.max(this.bandStart[band], 0);
+            }
+        }
+
+        int[] result = new int[size];
+        int index = 0;
+        for (int band = 0; band < this.bandStart.length && this.bandStart[band] < limit; band++) {
+            if (isFullyCoveredBand(band, length)) {
+                int end = Math.min(this.bandEnd[band], limit);
+                for (int i = Math.max(this.bandStart[band], 0); i < end; i++) {
+                    result[index++] = i;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Minimal growable int array used while building the index.
+     */
+    private static final class IntBuffer {
+
+        private int[] values;
+        private int size;
+
+        IntBuffer(int capacity) {
+            this.values = new int[Math.max(capacity, 4)];
+        }
+
+        void add(int value) {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.values[this.size++] = value;
+        }
+
+        int get(int index) {
+            return this.values[index];
+        }
+
+        void set(int index, int value) {
+            this.values[index] = value;
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        void truncate(int newSize) {
+            this.size = newSize;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(this.values, this.size);
+        }
+    }
+}
@@ -0,0 +1,942 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.nebula.widgets.nattable.config.DefaultComparator;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.NullComparator;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.IPrimitiveDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ResizeStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
+import org.eclipse.nebula.widgets.nattable.resize.event.RowResizeEvent;
+import org.eclipse.nebula.widgets.nattable.util.CalculationService;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.widgets.Display;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link ISortModel} that sorts the rows of a body data provider without
+ * GlazedLists and without modifying the backing collection. The sort keys of
+ * the sorted columns are extracted once per row, numeric columns without a
+ * custom comparator into primitive arrays, and a permutation of the row
+ * indexes is sorted via a stable merge sort. The resulting permutation is
+ * applied to a {@link SortedRowLayer}.
+ * <p>
+ * The comparator of a column is retrieved via
+ * {@link SortConfigAttributes#SORT_COMPARATOR} for the config labels of the
+ * column header cell. A {@link NullComparator} disables sorting for a column.
+ * </p>
+ * <p>
+ * If a sort is requested in the UI thread, the sort keys are extracted and
+ * sorted in the background via the default {@link CalculationService}, and
+ * the resulting row order is applied in the UI thread via
+ * {@link Display#asyncExec(Runnable)}. Until then the previous row order is
+ * shown. If a sort is requested in another thread, it is performed in that
+ * thread. By default large tables are sorted in parallel via the common
+ * {@link ForkJoinPool}. As the values are read and compared outside the UI
+ * thread, the body data provider and the configured comparators need to be
+ * thread-safe. A running sort is cancelled by a new sort request or via
+ * {@link #cancel()}, in which case the previous row order is kept.
+ * </p>
+ * <p>
+ * Deleted rows are removed from the row order by the {@link SortedRowLayer},
+ * which keeps the remaining rows sorted. Inserted rows are moved to their
+ * sorted position via binary search in the current row order, so the result
+ * equals a full sort without extracting the sort keys of all rows. Other
+ * structural changes trigger a full sort while the previous row order is
+ * shown.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class IndexSortModel implements ISortModel, ILayerListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IndexSortModel.class);
+
+    /**
+     * The number of rows up to which a range is sorted in a single task.
+     */
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    /**
+     * The number of rows up to which a range is sorted via insertion sort.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    /**
+     * The key of the sort calculation in the {@link CalculationService}.
+     */
+    private static final String SORT_CALCULATION = "sort"; //$NON-NLS-1$
+
+    protected final SortedRowLayer sortedRowLayer;
+    protected final IDataProvider dataProvider;
+    protected final IConfigRegistry configRegistry;
+    protected final ILayer columnHeaderDataLayer;
+
+    /**
+     * The sorted column indexes in the order they were added to the sort.
+     */
+    private final List<Integer> sortedColumnIndexes = new ArrayList<>();
+    private final Map<Integer, SortDirectionEnum> sortDirections = new HashMap<>();
+
+    /**
+     * Incremented for every sort, so a running sort can detect that it was
+     * cancelled.
+     */
+    private final AtomicInteger sortGeneration = new AtomicInteger();
+
+    /**
+     * The latest sort request that is not picked up by a background sort yet.
+     * Submissions to the {@link CalculationService} are coalesced while a
+     * sort is pending, so the pending sort always processes the latest
+     * request.
+     */
+    private final AtomicReference<SortRequest> pendingRequest = new AtomicReference<>();
+
+    /**
+     * <code>true</code> while a background sort is requested whose result is
+     * not applied yet.
+     */
+    private volatile boolean sorting = false;
+
+    private boolean parallelSorting = true;
+    private boolean applying = false;
+
+    /**
+     *
+     * @param sortedRowLayer
+     *            The {@link SortedRowLayer} to which the sorted row order
+     *            should be applied.
+     * @param dataProvider
+     *            The body data provider that is used to access the values of
+     *            a row by row index.
+     * @param configRegistry
+     *            The {@link IConfigRegistry} needed to retrieve the sort
+     *            comparators.
+     * @param columnHeaderDataLayer
+     *            The column header data layer needed to retrieve the config
+     *            labels of the column header cells.
+     */
+    public IndexSortModel(
+            SortedRowLayer sortedRowLayer,
+            IDataProvider dataProvider,
+            IConfigRegistry configRegistry,
+            ILayer columnHeaderDataLayer) {
+        this.sortedRowLayer = sortedRowLayer;
+        this.dataProvider = dataProvider;
+        this.configRegistry = configRegistry;
+        this.columnHeaderDataLayer = columnHeaderDataLayer;
+
+        this.sortedRowLayer.addLayerListener(this);
+    }
+
+    @Override
+    public List<Integer> getSortedColumnIndexes() {
+        synchronized (this.sortedColumnIndexes) {
+            return new ArrayList<>(this.sortedColumnIndexes);
+        }
+    }
+
+    @Override
+    public boolean isColumnIndexSorted(int columnIndex) {
+        synchronized (this.sortedColumnIndexes) {
+            return this.sortDirections.containsKey(columnIndex);
+        }
+    }
+
+    @Override
+    public SortDirectionEnum getSortDirection(int columnIndex) {
+        synchronized (this.sortedColumnIndexes) {
+            SortDirectionEnum direction = this.sortDirections.get(columnIndex);
+            return (direction != null) ? direction : SortDirectionEnum.NONE;
+        }
+    }
+
+    @Override
+    public int getSortOrder(int columnIndex) {
+        synchronized (this.sortedColumnIndexes) {
+            return this.sortedColumnIndexes.indexOf(columnIndex);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public List<Comparator> getComparatorsForColumnIndex(int columnIndex) {
+        Comparator<?> comparator = getColumnComparator(columnIndex);
+        if (comparator == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(comparator);
+    }
+
+    @Override
+    public Comparator<?> getColumnComparator(int columnIndex) {
+        Comparator<?> comparator = null;
+        // the column header data layer is not transformed, so the index is
+        // the position
+        ILayerCell cell = this.columnHeaderDataLayer.getCellByPosition(columnIndex, 0);
+        if (cell != null) {
+            comparator = this.configRegistry.getConfigAttribute(
+                    SortConfigAttributes.SORT_COMPARATOR,
+                    cell.getDisplayMode(),
+                    cell.getConfigLabels());
+        }
+        if (comparator == null) {
+            comparator = DefaultComparator.getInstance();
+        }
+        return (comparator instanceof NullComparator) ? null : comparator;
+    }
+
+    @Override
+    public void sort(int columnIndex, SortDirectionEnum sortDirection, boolean accumulate) {
+        if (getColumnComparator(columnIndex) == null) {
+            return;
+        }
+
+        synchronized (this.sortedColumnIndexes) {
+            if (!accumulate) {
+                this.sortedColumnIndexes.clear();
+                this.sortDirections.clear();
+            }
+
+            this.sortedColumnIndexes.remove(Integer.valueOf(columnIndex));
+            this.sortDirections.remove(columnIndex);
+            if (sortDirection != SortDirectionEnum.NONE) {
+                this.sortedColumnIndexes.add(columnIndex);
+                this.sortDirections.put(columnIndex, sortDirection);
+            }
+        }
+
+        refresh();
+    }
+
+    @Override
+    public void clear() {
+        synchronized (this.sortedColumnIndexes) {
+            this.sortedColumnIndexes.clear();
+            this.sortDirections.clear();
+        }
+
+        refresh();
+    }
+
+    /**
+     * Sort the rows again for the current sort state, e.g. after values of a
+     * sorted column were updated. If no column is sorted, the rows are shown in
+     * the order of the data provider.
+     * <p>
+     * If called in the UI thread, the rows are sorted in the background and
+     * the new row order is applied later in the UI thread. Otherwise the rows
+     * are sorted in the calling thread.
+     * </p>
+     */
+    public void refresh() {
+        SortRequest request = createRequest(null, null);
+        if (request != null) {
+            submit(request);
+        }
+    }
+
+    /**
+     * Creates a request for the current sort state. If no column is sorted,
+     * the row order of the data provider is applied and <code>null</code> is
+     * returned.
+     *
+     * @param baseOrder
+     *            The current sorted row order including the inserted rows, or
+     *            <code>null</code> for a full sort.
+     * @param insertedIndexes
+     *            The indexes of the inserted rows that need to be moved to
+     *            their sorted position in the base order.
+     */
+    private SortRequest createRequest(int[] baseOrder, int[] insertedIndexes) {
+        int generation = this.sortGeneration.incrementAndGet();
+
+        List<Integer> columns;
+        List<SortDirectionEnum> directions = new ArrayList<>();
+        synchronized (this.sortedColumnIndexes) {
+            columns = new ArrayList<>(this.sortedColumnIndexes);
+            for (Integer column : columns) {
+                directions.add(this.sortDirections.get(column));
+            }
+        }
+
+        if (columns.isEmpty()) {
+            this.pendingRequest.set(null);
+            this.sorting = false;
+            applyRowIndexOrder(generation, null);
+            return null;
+        }
+
+        // the comparators are resolved via the column header layer, which is
+        // only accessed in the calling thread
+        List<Comparator<?>> comparators = new ArrayList<>();
+        for (Integer column : columns) {
+            comparators.add(getColumnComparator(column));
+        }
+        return new SortRequest(generation, columns, directions, comparators, baseOrder, insertedIndexes);
+    }
+
+    /**
+     * Performs the given request in the background if called in the UI
+     * thread, otherwise in the calling thread.
+     */
+    private void submit(SortRequest request) {
+        Display display = Display.getCurrent();
+        if (display == null) {
+            int[] rowIndexOrder = sort(request);
+            if (rowIndexOrder != null) {
+                applyRowIndexOrder(request.generation, rowIndexOrder);
+            }
+        } else {
+            this.sorting = true;
+            this.pendingRequest.set(request);
+            CalculationService.getDefault().submit(this, SORT_CALCULATION, () -> sortInBackground(display), false);
+        }
+    }
+
+    /**
+     * Sorts the latest pending request in a background thread and applies the
+     * result in the UI thread.
+     *
+     * @param display
+     *            The {@link Display} of the UI thread in which the result
+     *            should be applied.
+     */
+    private void sortInBackground(Display display) {
+        SortRequest request = this.pendingRequest.getAndSet(null);
+        if (request == null || request.generation != this.sortGeneration.get()) {
+            return;
+        }
+
+        int[] rowIndexOrder = sort(request);
+        if (request.generation != this.sortGeneration.get()) {
+            return;
+        }
+
+        try {
+            if (!display.isDisposed()) {
+                display.asyncExec(() -> {
+                    if (request.generation == this.sortGeneration.get()) {
+                        this.sorting = false;
+                        if (rowIndexOrder != null) {
+                            applyRowIndexOrder(request.generation, rowIndexOrder);
+                        }
+                    }
+                });
+            }
+        } catch (SWTException e) {
+            // the display was disposed in the meantime
+            LOG.debug("Sort result not applied", e); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Performs the sort for the given request.
+     *
+     * @return The sorted row indexes or <code>null</code> if the sort was
+     *         cancelled or failed.
+     */
+    private int[] sort(SortRequest request) {
+        try {
+            return sortRowIndexes(request);
+        } catch (CancellationException e) {
+            // a newer sort was requested or the sort was cancelled, keep
+            // the current row order
+        } catch (RuntimeException e) {
+            LOG.error("Error on sorting", e); //$NON-NLS-1$
+        }
+        return null;
+    }
+
+    /**
+     * Applies the given row order to the {@link SortedRowLayer} if no newer
+     * sort was requested in the meantime. The row order is skipped if the
+     * number of rows changed during the sort, as the structural change
+     * triggers a new sort anyway.
+     */
+    private void applyRowIndexOrder(int generation, int[] rowIndexOrder) {
+        if (generation != this.sortGeneration.get()
+                || (rowIndexOrder != null && rowIndexOrder.length != this.sortedRowLayer.getRowCount())) {
+            return;
+        }
+        this.applying = true;
+        try {
+            this.sortedRowLayer.setRowIndexOrder(rowIndexOrder);
+        } finally {
+            this.applying = false;
+        }
+    }
+
+    /**
+     * Cancels a running sort. The current row order is kept.
+     */
+    public void cancel() {
+        this.sortGeneration.incrementAndGet();
+        this.pendingRequest.set(null);
+        this.sorting = false;
+        CalculationService.getDefault().cancel(this);
+    }
+
+    /**
+     * @return <code>true</code> if a sort was requested in the UI thread whose
+     *         result is not applied yet.
+     */
+    public boolean isSorting() {
+        return this.sorting;
+    }
+
+    /**
+     * Extracts the sort keys of the requested columns and sorts a permutation
+     * of the row indexes.
+     */
+    private int[] sortRowIndexes(SortRequest request) {
+        int generation = request.generation;
+        int rowCount = this.dataProvider.getRowCount();
+        if (request.baseOrder != null && request.baseOrder.length == rowCount) {
+            return insertRowIndexes(request);
+        }
+
+        SortKey[] keys = new SortKey[request.columns.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = extractKey(
+                    request.columns.get(i),
+                    request.comparators.get(i),
+                    rowCount,
+                    request.directions.get(i) == SortDirectionEnum.DESC);
+            checkCancelled(generation);
+        }
+
+        int[] rowIndexes = new int[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            rowIndexes[row] = row;
+        }
+
+        MergeSortTask task = new MergeSortTask(
+                rowIndexes,
+                new int[rowCount],
+                0,
+                rowCount,
+                keys,
+                this.parallelSorting ? PARALLEL_THRESHOLD : Integer.MAX_VALUE,
+                generation);
+        if (this.parallelSorting && rowCount > PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(task);
+        } else {
+            task.compute();
+        }
+        return rowIndexes;
+    }
+
+    /**
+     * Moves the inserted rows of the request to their sorted position in the
+     * base order. The inserted rows are sorted and merged into the remaining
+     * rows of the base order, which are sorted already, via binary search.
+     * Rows with equal values are ordered by row index, so the result is the
+     * same as of a full stable sort.
+     */
+    private int[] insertRowIndexes(SortRequest request) {
+        SortKey[] keys = new SortKey[request.columns.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new DataValueKey(
+                    request.columns.get(i),
+                    request.comparators.get(i),
+                    request.directions.get(i) == SortDirectionEnum.DESC);
+        }
+
+        int[] baseOrder = request.baseOrder;
+        int[] inserted = request.insertedIndexes.clone();
+        Arrays.sort(inserted);
+        boolean[] isInserted = new boolean[baseOrder.length];
+        for (int index : inserted) {
+            isInserted[index] = true;
+        }
+
+        // the stable sort keeps the ascending row index order for equal
+        // values
+        new MergeSortTask(inserted, new int[inserted.length], 0, inserted.length, keys, Integer.MAX_VALUE, request.generation).compute();
+
+        int[] remaining = new int[baseOrder.length - inserted.length];
+        int count = 0;
+        for (int index : baseOrder) {
+            if (!isInserted[index]) {
+                remaining[count++] = index;
+            }
+        }
+
+        int[] result = new int[baseOrder.length];
+        int target = 0;
+        int from = 0;
+        for (int row : inserted) {
+            // the first remaining row that is sorted after the inserted row
+            int low = from;
+            int high = remaining.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(keys, remaining[middle], row) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            System.arraycopy(remaining, from, result, target, low - from);
+            target += low - from;
+            result[target++] = row;
+            from = low;
+        }
+        System.arraycopy(remaining, from, result, target, remaining.length - from);
+        checkCancelled(request.generation);
+        return result;
+    }
+
+    /**
+     * Compares two rows by the given keys and by row index for equal values.
+     */
+    private static int compare(SortKey[] keys, int row1, int row2) {
+        for (SortKey key : keys) {
+            int result = key.compare(row1, row2);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(row1, row2);
+    }
+
+    /**
+     * Extracts the values of the given column for all rows. Numeric values
+     * that are compared via the {@link DefaultComparator} are stored in
+     * primitive arrays. <code>null</code> values are sorted before all other
+     * values, like the {@link DefaultComparator} does.
+     */
+    @SuppressWarnings("unchecked")
+    private SortKey extractKey(int columnIndex, Comparator<?> columnComparator, int rowCount, boolean descending) {
+        Comparator<Object> comparator = (Comparator<Object>) columnComparator;
+        boolean naturalOrder = comparator == null || comparator.getClass() == DefaultComparator.class;
+
+        if (naturalOrder
+                && this.dataProvider instanceof IPrimitiveDataProvider
+                && ((IPrimitiveDataProvider) this.dataProvider).isNumericColumn(columnIndex)) {
+            IPrimitiveDataProvider primitiveDataProvider = (IPrimitiveDataProvider) this.dataProvider;
+            BitSet nulls = new BitSet();
+            for (int row = 0; row < rowCount; row++) {
+                if (primitiveDataProvider.isNull(columnIndex, row)) {
+                    nulls.set(row);
+                }
+            }
+            if (primitiveDataProvider.isFloatingPointColumn(columnIndex)) {
+                double[] values = new double[rowCount];
+                for (int row = 0; row < rowCount; row++) {
+                    values[row] = primitiveDataProvider.getDouble(columnIndex, row);
+                }
+                return new DoubleKey(values, nulls.isEmpty() ? null : nulls, descending);
+            }
+            long[] values = new long[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                values[row] = primitiveDataProvider.getLong(columnIndex, row);
+            }
+            return new LongKey(values, nulls.isEmpty() ? null : nulls, descending);
+        }
+
+        Object[] values = new Object[rowCount];
+        boolean integral = naturalOrder;
+        boolean floating = naturalOrder;
+        for (int row = 0; row < rowCount; row++) {
+            Object value = this.dataProvider.getDataValue(columnIndex, row);
+            values[row] = value;
+            if (value != null) {
+                integral &= value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+                floating &= value instanceof Double || value instanceof Float;
+            }
+        }
+
+        if (integral || floating) {
+            BitSet nulls = new BitSet();
+            long[] longValues = integral ? new long[rowCount] : null;
+            double[] doubleValues = floating ? new double[rowCount] : null;
+            for (int row = 0; row < rowCount; row++) {
+                Number value = (Number) values[row];
+                if (value == null) {
+                    nulls.set(row);
+                } else if (integral) {
+                    longValues[row] = value.longValue();
+                } else {
+                    doubleValues[row] = value.doubleValue();
+                }
+            }
+            return integral
+                    ? new LongKey(longValues, nulls, descending)
+                    : new DoubleKey(doubleValues, nulls, descending);
+        }
+
+        return new ObjectKey(values, comparator, descending);
+    }
+
+    private void checkCancelled(int generation) {
+        if (generation != this.sortGeneration.get()) {
+            throw new CancellationException();
+        }
+    }
+
+    @Override
+    public void handleLayerEvent(ILayerEvent event) {
+        if (this.applying
+                || !(event instanceof IStructuralChangeEvent)
+                || !((IStructuralChangeEvent) event).isVerticalStructureChanged()
+                || event instanceof RowResizeEvent
+                || event instanceof ResizeStructuralRefreshEvent
+                || getSortedColumnIndexes().isEmpty()) {
+            return;
+        }
+
+        int[] rowIndexOrder = this.sortedRowLayer.getRowIndexOrderArray();
+        if (this.sorting || rowIndexOrder == null) {
+            // the result of a running sort does not match the rows anymore
+            refresh();
+        } else if (event instanceof RowDeleteEvent) {
+            // the SortedRowLayer removed the deleted rows from the sorted
+            // order, so the remaining rows are still sorted
+        } else if (event instanceof RowInsertEvent) {
+            int[] insertedIndexes = getInsertedIndexes((RowInsertEvent) event);
+            if (insertedIndexes != null) {
+                SortRequest request = createRequest(rowIndexOrder, insertedIndexes);
+                if (request != null) {
+                    submit(request);
+                }
+            } else {
+                refresh();
+            }
+        } else {
+            refresh();
+        }
+    }
+
+    /**
+     * @return The row indexes of the rows inserted by the given event, or
+     *         <code>null</code> if a position can not be resolved.
+     */
+    private int[] getInsertedIndexes(RowInsertEvent event) {
+        int rowCount = this.sortedRowLayer.getRowCount();
+        List<Integer> indexes = new ArrayList<>();
+        for (Range range : event.getRowPositionRanges()) {
+            for (int position = range.start; position < range.end; position++) {
+                int index = this.sortedRowLayer.getRowIndexByPosition(position);
+                if (index < 0 || index >= rowCount) {
+                    return null;
+                }
+                indexes.add(index);
+            }
+        }
+        int[] result = new int[indexes.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = indexes.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Configure whether large tables should be sorted in parallel. In that
+     * case the configured sort comparators need to be thread-safe. Default is
+     * <code>true</code>.
+     *
+     * @param parallelSorting
+     *            <code>true</code> if large tables should be sorted in
+     *            parallel, <code>false</code> if the sort should be performed
+     *            in the calling thread.
+     */
+    public void setParallelSorting(boolean parallelSorting) {
+        this.parallelSorting = parallelSorting;
+    }
+
+    /**
+     * @return <code>true</code> if large tables are sorted in parallel.
+     */
+    public boolean isParallelSorting() {
+        return this.parallelSorting;
+    }
+
+    /**
+     * The sort state and the comparators of the sorted columns at the time a
+     * sort was requested.
+     */
+    private static final class SortRequest {
+
+        private final int generation;
+        private final List<Integer> columns;
+        private final List<SortDirectionEnum> directions;
+        private final List<Comparator<?>> comparators;
+        private final int[] baseOrder;
+        private final int[] insertedIndexes;
+
+        SortRequest(int generation, List<Integer> columns, List<SortDirectionEnum> directions, List<Comparator<?>> comparators,
+                int[] baseOrder, int[] insertedIndexes) {
+            this.generation = generation;
+            this.columns = columns;
+            this.directions = directions;
+            this.comparators = comparators;
+            this.baseOrder = baseOrder;
+            this.insertedIndexes = insertedIndexes;
+        }
+    }
+
+    /**
+     * The extracted sort values of a column.
+     */
+    private abstract static class SortKey {
+
+        protected final boolean descending;
+
+        SortKey(boolean descending) {
+            this.descending = descending;
+        }
+
+        int compare(int row1, int row2) {
+            int result = compareAscending(row1, row2);
+            return this.descending ? -result : result;
+        }
+
+        abstract int compareAscending(int row1, int row2);
+    }
+
+    private static final class LongKey extends SortKey {
+
+        private final long[] values;
+        private final BitSet nulls;
+
+        LongKey(long[] values, BitSet nulls, boolean descending) {
+            super(descending);
+            this.values = values;
+            this.nulls = nulls;
+        }
+
+        @Override
+        int compareAscending(int row1, int row2) {
+            if (this.nulls != null) {
+                boolean null1 = this.nulls.get(row1);
+                boolean null2 = this.nulls.get(row2);
+                if (null1 || null2) {
+                    return (null1 == null2) ? 0 : (null1 ? -1 : 1);
+                }
+            }
+            return Long.compare(this.values[row1], this.values[row2]);
+        }
+    }
+
+    private static final class DoubleKey extends SortKey {
+
+        private final double[] values;
+        private final BitSet nulls;
+
+        DoubleKey(double[] values, BitSet nulls, boolean descending) {
+            super(descending);
+            this.values = values;
+            this.nulls = nulls;
+        }
+
+        @Override
+        int compareAscending(int row1, int row2) {
+            if (this.nulls != null) {
+                boolean null1 = this.nulls.get(row1);
+                boolean null2 = this.nulls.get(row2);
+                if (null1 || null2) {
+                    return (null1 == null2) ? 0 : (null1 ? -1 : 1);
+                }
+            }
+            return Double.compare(this.values[row1], this.values[row2]);
+        }
+    }
+
+    private static final class ObjectKey extends SortKey {
+
+        private final Object[] values;
+        private final Comparator<Object> comparator;
+
+        ObjectKey(Object[] values, Comparator<Object> comparator, boolean descending) {
+            super(descending);
+            this.values = values;
+            this.comparator = comparator;
+        }
+
+        @Override
+        int compareAscending(int row1, int row2) {
+            return this.comparator.compare(this.values[row1], this.values[row2]);
+        }
+    }
+
+    /**
+     * Sort key that reads the values from the data provider on comparison,
+     * used to sort a few inserted rows without extracting the values of all
+     * rows. Numeric values that are compared via the
+     * {@link DefaultComparator} are compared like the primitive keys.
+     */
+    private final class DataValueKey extends SortKey {
+
+        private final int columnIndex;
+        private final Comparator<Object> comparator;
+        private final boolean naturalOrder;
+
+        @SuppressWarnings("unchecked")
+        DataValueKey(int columnIndex, Comparator<?> comparator, boolean descending) {
+            super(descending);
+            this.columnIndex = columnIndex;
+            this.naturalOrder = comparator == null || comparator.getClass() == DefaultComparator.class;
+            this.comparator = this.naturalOrder
+                    ? DefaultComparator.getInstance()
+                    : (Comparator<Object>) comparator;
+        }
+
+        @Override
+        int compareAscending(int row1, int row2) {
+            Object value1 = IndexSortModel.this.dataProvider.getDataValue(this.columnIndex, row1);
+            Object value2 = IndexSortModel.this.dataProvider.getDataValue(this.columnIndex, row2);
+            if (this.naturalOrder && value1 instanceof Number && value2 instanceof Number) {
+                if (isIntegral(value1) && isIntegral(value2)) {
+                    return Long.compare(((Number) value1).longValue(), ((Number) value2).longValue());
+                } else if (isFloatingPoint(value1) && isFloatingPoint(value2)) {
+                    return Double.compare(((Number) value1).doubleValue(), ((Number) value2).doubleValue());
+                }
+            }
+            return this.comparator.compare(value1, value2);
+        }
+
+        private boolean isIntegral(Object value) {
+            return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+        }
+
+        private boolean isFloatingPoint(Object value) {
+            return value instanceof Double || value instanceof Float;
+        }
+    }
+
+    /**
+     * Stable merge sort of a range of row indexes that sorts both halves in
+     * parallel if the range is larger than the threshold.
+     */
+    private final class MergeSortTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] rows;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+        private final SortKey[] keys;
+        private final int threshold;
+        private final int generation;
+
+        MergeSortTask(int[] rows, int[] buffer, int from, int to, SortKey[] keys, int threshold, int generation) {
+            this.rows = rows;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.keys = keys;
+            this.threshold = threshold;
+            this.generation = generation;
+        }
+
+        @Override
+        protected void compute() {
+            checkCancelled(this.generation);
+            if (this.to - this.from <= this.threshold) {
+                sort(this.from, this.to);
+            } else {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(
+                        new MergeSortTask(this.rows, this.buffer, this.from, middle, this.keys, this.threshold, this.generation),
+                        new MergeSortTask(this.rows, this.buffer, middle, this.to, this.keys, this.threshold, this.generation));
+                merge(this.from, middle, this.to);
+            }
+        }
+
+        private void sort(int start, int end) {
+            if (end - start <= INSERTION_SORT_THRESHOLD) {
+                for (int i = start + 1; i < end; i++) {
+                    int row = this.rows[i];
+                    int j = i - 1;
+                    while (j >= start && compare(this.rows[j], row) > 0) {
+                        this.rows[j + 1] = this.rows[j];
+                        j--;
+                    }
+                    this.rows[j + 1] = row;
+                }
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            sort(start, middle);
+            sort(middle, end);
+            merge(start, middle, end);
+        }
+
+        private void merge(int start, int middle, int end) {
+            if (compare(this.rows[middle - 1], this.rows[middle]) <= 0) {
+                // already in order
+                return;
+            }
+            if (end - start > PARALLEL_THRESHOLD) {
+                checkCancelled(this.generation);
+            }
+
+            System.arraycopy(this.rows, start, this.buffer, start, end - start);
+            int left = start;
+            int right = middle;
+            int target = start;
+            while (left < middle && right < end) {
+                // take from the left on equality to keep the sort stable
+                if (compare(this.buffer[right], this.buffer[left]) < 0) {
+                    this.rows[target++] = this.buffer[right++];
+                } else {
+                    this.rows[target++] = this.buffer[left++];
+                }
+            }
+            while (left < middle) {
+                this.rows[target++] = this.buffer[left++];
+            }
+            while (right < end) {
+                this.rows[target++] = this.buffer[right++];
+            }
+        }
+
+        private int compare(int row1, int row2) {
+            for (SortKey key : this.keys) {
+                int result = key.compare(row1, row2);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,465 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
+import org.eclipse.nebula.widgets.nattable.coordinate.PositionUtil;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.layer.AbstractLayerTransform;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
+import org.eclipse.nebula.widgets.nattable.layer.LayerUtil;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.ResizeStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff.DiffTypeEnum;
+import org.eclipse.nebula.widgets.nattable.resize.event.RowResizeEvent;
+
+/**
+ * Layer that shows the rows of the underlying layer in the order of a row
+ * index permutation, e.g. calculated by the {@link IndexSortModel}. Similar to
+ * the RowReorderLayer, the backing collection is not modified. Without a
+ * permutation the rows are shown in the order of the underlying layer.
+ * <p>
+ * If rows are inserted into or deleted from the underlying layer, the
+ * permutation is updated: the indexes of the remaining rows are shifted, and
+ * inserted rows are shown after the row that precedes them in the underlying
+ * layer until a new permutation is set. The change is fired as
+ * {@link RowInsertEvent} or {@link RowDeleteEvent} with the local positions.
+ * The row indexes are expected to match the row positions of the underlying
+ * layer, as it is the case for a DataLayer. For other structural changes the
+ * current permutation is kept as long as it matches the underlying rows.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class SortedRowLayer extends AbstractLayerTransform implements IUniqueIndexLayer {
+
+    private final IUniqueIndexLayer underlying;
+
+    /**
+     * The current row order, or <code>null</code> if the rows are shown in the
+     * order of the underlying layer.
+     */
+    private volatile RowOrder rowOrder;
+
+    /**
+     *
+     * @param underlyingLayer
+     *            The underlying layer, typically the body DataLayer.
+     */
+    public SortedRowLayer(IUniqueIndexLayer underlyingLayer) {
+        super(underlyingLayer);
+        this.underlying = underlyingLayer;
+    }
+
+    @Override
+    public void handleLayerEvent(ILayerEvent event) {
+        if (event instanceof IStructuralChangeEvent
+                && ((IStructuralChangeEvent) event).isVerticalStructureChanged()) {
+            RowOrder order = this.rowOrder;
+            if (order != null
+                    && !(event instanceof RowResizeEvent)
+                    && !(event instanceof ResizeStructuralRefreshEvent)) {
+                Collection<StructuralDiff> rowDiffs = ((IStructuralChangeEvent) event).getRowDiffs();
+                DiffTypeEnum diffType = getDiffType(rowDiffs);
+                if (diffType == DiffTypeEnum.DELETE && handleRowDelete(order, rowDiffs)) {
+                    return;
+                } else if (diffType == DiffTypeEnum.ADD && handleRowInsert(order, rowDiffs)) {
+                    return;
+                } else if (diffType != DiffTypeEnum.CHANGE) {
+                    // keep the current order until a new one is set, but
+                    // ensure that it contains every row of the underlying
+                    // layer
+                    this.rowOrder = repair(order);
+                }
+            }
+            invalidateCache();
+        }
+        super.handleLayerEvent(event);
+    }
+
+    /**
+     * @return The type of all given diffs, or <code>null</code> if there are
+     *         no diffs or they are of different types.
+     */
+    private static DiffTypeEnum getDiffType(Collection<StructuralDiff> rowDiffs) {
+        DiffTypeEnum diffType = null;
+        if (rowDiffs != null) {
+            for (StructuralDiff diff : rowDiffs) {
+                if (diffType != null && diffType != diff.getDiffType()) {
+                    return null;
+                }
+                diffType = diff.getDiffType();
+            }
+        }
+        return diffType;
+    }
+
+    /**
+     * Removes the deleted rows from the given order, shifts the indexes of the
+     * remaining rows and fires a {@link RowDeleteEvent} with the positions of
+     * the deleted rows in this layer.
+     *
+     * @return <code>true</code> if the delete was applied, <code>false</code>
+     *         if the diffs do not match the current order.
+     */
+    private boolean handleRowDelete(RowOrder order, Collection<StructuralDiff> rowDiffs) {
+        int oldCount = order.indexes.length;
+        boolean[] deleted = new boolean[oldCount];
+        int deleteCount = 0;
+        for (StructuralDiff diff : rowDiffs) {
+            Range range = diff.getBeforePositionRange();
+            for (int index = range.start; index < range.end; index++) {
+                if (index < 0 || index >= oldCount) {
+                    return false;
+                }
+                if (!deleted[index]) {
+                    deleted[index] = true;
+                    deleteCount++;
+                }
+            }
+        }
+        if (oldCount - deleteCount != this.underlying.getRowCount()) {
+            return false;
+        }
+
+        // the number of deleted indexes below an index
+        int[] shift = new int[oldCount];
+        int deletedBefore = 0;
+        for (int index = 0; index < oldCount; index++) {
+            shift[index] = deletedBefore;
+            if (deleted[index]) {
+                deletedBefore++;
+            }
+        }
+
+        int[] indexes = new int[oldCount - deleteCount];
+        int[] deletedPositions = new int[deleteCount];
+        int position = 0;
+        int deletedPosition = 0;
+        for (int oldPosition = 0; oldPosition < oldCount; oldPosition++) {
+            int index = order.indexes[oldPosition];
+            if (deleted[index]) {
+                deletedPositions[deletedPosition++] = oldPosition;
+            } else {
+                indexes[position++] = index - shift[index];
+            }
+        }
+
+        this.rowOrder = new RowOrder(indexes);
+        fireLayerEvent(new RowDeleteEvent(this, PositionUtil.getRanges(deletedPositions)));
+        return true;
+    }
+
+    /**
+     * Shifts the indexes of the given order for the inserted rows and shows
+     * every inserted row after the row that precedes it in the underlying
+     * layer. Fires a {@link RowInsertEvent} with the positions of the
+     * inserted rows in this layer.
+     *
+     * @return <code>true</code> if the insert was applied, <code>false</code>
+     *         if the diffs do not match the current order.
+     */
+    private boolean handleRowInsert(RowOrder order, Collection<StructuralDiff> rowDiffs) {
+        int newCount = this.underlying.getRowCount();
+        boolean[] inserted = new boolean[newCount];
+        int insertCount = 0;
+        for (StructuralDiff diff : rowDiffs) {
+            Range range = diff.getAfterPositionRange();
+            for (int underlyingPosition = range.start; underlyingPosition < range.end; underlyingPosition++) {
+                int index = this.underlying.getRowIndexByPosition(underlyingPosition);
+                if (index < 0 || index >= newCount) {
+                    return false;
+                }
+                if (!inserted[index]) {
+                    inserted[index] = true;
+                    insertCount++;
+                }
+            }
+        }
+        if (order.indexes.length + insertCount != newCount) {
+            return false;
+        }
+
+        // map the old indexes to the new ones and collect the inserted rows
+        // per preceding row that was not inserted, -1 for the start
+        int[] newIndexes = new int[order.indexes.length];
+        int[] firstInserted = new int[newCount + 1];
+        int[] insertedCount = new int[newCount + 1];
+        int oldIndex = 0;
+        int anchor = -1;
+        for (int index = 0; index < newCount; index++) {
+            if (inserted[index]) {
+                if (insertedCount[anchor + 1]++ == 0) {
+                    firstInserted[anchor + 1] = index;
+                }
+            } else {
+                newIndexes[oldIndex++] = index;
+                anchor = index;
+            }
+        }
+
+        int[] indexes = new int[newCount];
+        int[] insertedPositions = new int[insertCount];
+        int position = 0;
+        int insertedPosition = 0;
+        for (int oldPosition = -1; oldPosition < order.indexes.length; oldPosition++) {
+            int index = -1;
+            if (oldPosition >= 0) {
+                index = newIndexes[order.indexes[oldPosition]];
+                indexes[position++] = index;
+            }
+            // the inserted rows of a preceding row are consecutive indexes
+            for (int i = 0; i < insertedCount[index + 1]; i++) {
+                insertedPositions[insertedPosition++] = position;
+                indexes[position++] = firstInserted[index + 1] + i;
+            }
+        }
+
+        this.rowOrder = new RowOrder(indexes);
+        fireLayerEvent(new RowInsertEvent(this, PositionUtil.getRanges(insertedPositions)));
+        return true;
+    }
+
+    /**
+     * Ensures that the given order contains every row index of the underlying
+     * layer once, by removing the indexes that do not exist anymore and
+     * appending the missing ones.
+     *
+     * @return The given order if it is valid, otherwise a repaired copy.
+     */
+    private RowOrder repair(RowOrder order) {
+        int rowCount = this.underlying.getRowCount();
+        if (order.indexes.length == rowCount && order.positions.length == rowCount) {
+            return order;
+        }
+
+        boolean[] contained = new boolean[rowCount];
+        List<Integer> indexes = new ArrayList<>(rowCount);
+        for (int index : order.indexes) {
+            if (index >= 0 && index < rowCount && !contained[index]) {
+                contained[index] = true;
+                indexes.add(index);
+            }
+        }
+        for (int index = 0; index < rowCount; index++) {
+            if (!contained[index]) {
+                indexes.add(index);
+            }
+        }
+
+        int[] result = new int[rowCount];
+        for (int position = 0; position < rowCount; position++) {
+            result[position] = indexes.get(position);
+        }
+        return new RowOrder(result);
+    }
+
+    /**
+     * Set the order in which the rows should be shown and fire a
+     * {@link RowStructuralRefreshEvent} if the order changed.
+     *
+     * @param rowIndexOrder
+     *            The row indexes in the order they should be shown, which
+     *            needs to contain every row index of the underlying layer
+     *            once, or <code>null</code> to show the rows in the order of
+     *            the underlying layer.
+     */
+    public void setRowIndexOrder(int[] rowIndexOrder) {
+        RowOrder current = this.rowOrder;
+        if (current == null
+                ? rowIndexOrder == null
+                : rowIndexOrder != null && Arrays.equals(current.indexes, rowIndexOrder)) {
+            return;
+        }
+
+        RowOrder order = null;
+        if (rowIndexOrder != null) {
+            order = new RowOrder(rowIndexOrder);
+            order.startYs = calculateStartYs(order);
+        }
+        this.rowOrder = order;
+        fireLayerEvent(new RowStructuralRefreshEvent(this));
+    }
+
+    /**
+     * @return A copy of the row indexes in the order they are shown, or
+     *         <code>null</code> if the rows are shown in the order of the
+     *         underlying layer.
+     */
+    public int[] getRowIndexOrderArray() {
+        RowOrder order = this.rowOrder;
+        return (order != null) ? order.indexes.clone() : null;
+    }
+
+    /**
+     * Clear the caching of the starting Y positions.
+     */
+    protected void invalidateCache() {
+        RowOrder order = this.rowOrder;
+        if (order != null) {
+            order.startYs = null;
+        }
+    }
+
+    /**
+     * Calculates the starting y positions of all rows in the given row order
+     * as prefix sums of the row heights.
+     */
+    private int[] calculateStartYs(RowOrder order) {
+        int[] result = new int[order.indexes.length + 1];
+        for (int rowPosition = 0; rowPosition < order.indexes.length; rowPosition++) {
+            int underlyingRowPosition = this.underlying.getRowPositionByIndex(order.indexes[rowPosition]);
+            result[rowPosition + 1] = result[rowPosition] + this.underlying.getRowHeightByPosition(underlyingRowPosition);
+        }
+        return result;
+    }
+
+    // Columns
+
+    @Override
+    public int getColumnPositionByIndex(int columnIndex) {
+        return this.underlying.getColumnPositionByIndex(columnIndex);
+    }
+
+    // Y
+
+    @Override
+    public int getRowPositionByY(int y) {
+        return LayerUtil.getRowPositionByY(this, y);
+    }
+
+    @Override
+    public int getStartYOfRowPosition(int targetRowPosition) {
+        RowOrder order = this.rowOrder;
+        if (order == null) {
+            return this.underlying.getStartYOfRowPosition(localToUnderlyingRowPosition(targetRowPosition));
+        }
+
+        int[] starts = order.startYs;
+        if (starts == null) {
+            starts = calculateStartYs(order);
+            order.startYs = starts;
+        }
+
+        if (targetRowPosition <= 0) {
+            return 0;
+        }
+        return starts[Math.min(targetRowPosition, order.indexes.length)];
+    }
+
+    // Rows
+
+    @Override
+    public int getRowIndexByPosition(int rowPosition) {
+        RowOrder order = this.rowOrder;
+        if (order == null) {
+            return this.underlying.getRowIndexByPosition(rowPosition);
+        }
+        if (rowPosition >= 0 && rowPosition < order.indexes.length) {
+            return order.indexes[rowPosition];
+        }
+        return -1;
+    }
+
+    @Override
+    public int getRowPositionByIndex(int rowIndex) {
+        RowOrder order = this.rowOrder;
+        if (order == null) {
+            return this.underlying.getRowPositionByIndex(rowIndex);
+        }
+        if (rowIndex >= 0 && rowIndex < order.positions.length) {
+            return order.positions[rowIndex];
+        }
+        return -1;
+    }
+
+    @Override
+    public int localToUnderlyingRowPosition(int localRowPosition) {
+        if (this.rowOrder == null) {
+            return localRowPosition;
+        }
+        return this.underlying.getRowPositionByIndex(getRowIndexByPosition(localRowPosition));
+    }
+
+    @Override
+    public int underlyingToLocalRowPosition(ILayer sourceUnderlyingLayer, int underlyingRowPosition) {
+        if (this.rowOrder == null) {
+            return underlyingRowPosition;
+        }
+        return getRowPositionByIndex(this.underlying.getRowIndexByPosition(underlyingRowPosition));
+    }
+
+    @Override
+    public Collection<Range> underlyingToLocalRowPositions(ILayer sourceUnderlyingLayer, Collection<Range> underlyingRowPositionRanges) {
+        if (this.rowOrder == null) {
+            return underlyingRowPositionRanges;
+        }
+
+        MutableIntList localRowPositions = IntLists.mutable.empty();
+        for (Range underlyingRowPositionRange : underlyingRowPositionRanges) {
+            for (int underlyingRowPosition = underlyingRowPositionRange.start; underlyingRowPosition < underlyingRowPositionRange.end; underlyingRowPosition++) {
+                int localRowPosition = underlyingToLocalRowPosition(sourceUnderlyingLayer, underlyingRowPosition);
+                if (localRowPosition >= 0) {
+                    localRowPositions.add(localRowPosition);
+                }
+            }
+        }
+
+        return PositionUtil.getRanges(localRowPositions.toSortedArray());
+    }
+
+    /**
+     * The row indexes in the shown order together with the inverse mapping
+     * and the starting y positions of the rows.
+     */
+    private static final class RowOrder {
+
+        private final int[] indexes;
+        private final int[] positions;
+
+        /**
+         * The starting y positions of the rows as prefix sums of the row
+         * heights, with the total height as last element. <code>null</code>
+         * after row heights changed until it is calculated again.
+         */
+        private volatile int[] startYs;
+
+        RowOrder(int[] indexes) {
+            this.indexes = indexes.clone();
+
+            int maxIndex = -1;
+            for (int index : indexes) {
+                maxIndex = Math.max(maxIndex, index);
+            }
+            this.positions = new int[maxIndex + 1];
+            Arrays.fill(this.positions, -1);
+            for (int position = 0; position < indexes.length; position++) {
+                if (indexes[position] >= 0) {
+                    this.positions[indexes[position]] = position;
+                }
+            }
+        }
+    }
+}
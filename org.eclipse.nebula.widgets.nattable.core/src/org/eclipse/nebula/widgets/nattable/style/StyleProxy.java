@@ -14,6 +14,7 @@
 
 import java.util.List;
 
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 
 public abstract class StyleProxy implements IStyle {
@@ -40,13 +41,59 @@ public StyleProxy(
 
     @Override
     public <T> T getAttributeValue(ConfigAttribute<T> styleAttribute) {
+        if (this.configRegistry instanceof ConfigRegistry) {
+            return ((ConfigRegistry) this.configRegistry).getStyleAttributeValue(
+                    this.styleConfigAttribute,
+                    styleAttribute,
+                    this.targetDisplayMode,
+                    this.configLabels);
+        }
+        return resolveAttributeValue(
+                this.configRegistry,
+                this.styleConfigAttribute,
+                styleAttribute,
+                this.targetDisplayMode,
+                this.configLabels);
+    }
+
+    /**
+     * Resolves the value of a style attribute by inspecting the
+     * {@link IStyle} objects registered for the given display mode ordering
+     * and config labels. The first registered style that contains a value for
+     * the style attribute wins.
+     *
+     * @param <T>
+     *            The type of the style attribute value.
+     * @param configRegistry
+     *            The {@link IConfigRegistry} to retrieve the registered
+     *            styles from.
+     * @param styleConfigAttribute
+     *            The config attribute under which the {@link IStyle} objects
+     *            are registered.
+     * @param styleAttribute
+     *            The style attribute whose value is requested.
+     * @param targetDisplayMode
+     *            The display mode of the cell.
+     * @param configLabels
+     *            The config labels of the cell.
+     * @return The value of the style attribute or <code>null</code> if no
+     *         registered style contains a value for it.
+     * @since 2.0
+     */
+    public static <T> T resolveAttributeValue(
+            IConfigRegistry configRegistry,
+            ConfigAttribute<IStyle> styleConfigAttribute,
+            ConfigAttribute<T> styleAttribute,
+            String targetDisplayMode,
+            List<String> configLabels) {
+
         T styleAttributeValue = null;
-        IDisplayModeOrdering displayModeOrdering = this.configRegistry.getDisplayModeOrdering();
+        IDisplayModeOrdering displayModeOrdering = configRegistry.getDisplayModeOrdering();
 
-        for (String displayMode : displayModeOrdering.getDisplayModeOrdering(this.targetDisplayMode)) {
-            for (String configLabel : this.configLabels) {
-                IStyle cellStyle = this.configRegistry.getSpecificConfigAttribute(
-                        this.styleConfigAttribute,
+        for (String displayMode : displayModeOrdering.getDisplayModeOrdering(targetDisplayMode)) {
+            for (String configLabel : configLabels) {
+                IStyle cellStyle = configRegistry.getSpecificConfigAttribute(
+                        styleConfigAttribute,
                         displayMode,
                         configLabel);
                 if (cellStyle != null) {
@@ -58,8 +105,8 @@ public <T> T getAttributeValue(ConfigAttribute<T> styleAttribute) {
             }
 
             // default
-            IStyle cellStyle = this.configRegistry.getSpecificConfigAttribute(
-                    this.styleConfigAttribute,
+            IStyle cellStyle = configRegistry.getSpecificConfigAttribute(
+                    styleConfigAttribute,
                     displayMode,
                     null);
             if (cellStyle != null) {
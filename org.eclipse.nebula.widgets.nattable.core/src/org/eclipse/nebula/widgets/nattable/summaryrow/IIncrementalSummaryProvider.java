@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+
+/**
+ * Extension of {@link ISummaryProvider} that is able to keep a summary value
+ * up to date by applying deltas instead of iterating over all rows of a column
+ * on every change. The {@link SummaryRowLayer} translates the layer events it
+ * receives to the corresponding calls. If an event can not be translated,
+ * {@link #reset(int)} is called, which causes a full recalculation on the next
+ * call to {@link #summarize(int)}.
+ * <p>
+ * All row indexes are the indexes of the underlying data as passed to
+ * {@link #summarize(int)}.
+ * </p>
+ *
+ * @since 2.0
+ */
+public interface IIncrementalSummaryProvider extends ISummaryProvider {
+
+    /**
+     * Returns whether this provider keeps its summary values up to date
+     * incrementally. Implementations that support both modes return
+     * <code>false</code> if they are configured to iterate over all rows, so
+     * the {@link SummaryRowLayer} does not translate the layer events for
+     * them. The default implementation returns <code>true</code>.
+     *
+     * @return <code>true</code> if the summary values are maintained
+     *         incrementally and the provider needs to be informed about
+     *         changes, <code>false</code> if not.
+     */
+    default boolean isIncremental() {
+        return true;
+    }
+
+    /**
+     * Inform the provider that the values in the given rows of the given column
+     * have changed.
+     *
+     * @param columnIndex
+     *            The column index of the changed values.
+     * @param rowIndexes
+     *            The range of row indexes whose values have changed.
+     */
+    void rowsChanged(int columnIndex, Range rowIndexes);
+
+    /**
+     * Inform the provider that rows have been inserted.
+     *
+     * @param columnIndex
+     *            The column index of the summary to update.
+     * @param rowIndexes
+     *            The range of row indexes of the inserted rows after the
+     *            insert.
+     */
+    void rowsInserted(int columnIndex, Range rowIndexes);
+
+    /**
+     * Inform the provider that rows have been deleted.
+     *
+     * @param columnIndex
+     *            The column index of the summary to update.
+     * @param rowIndexes
+     *            The range of row indexes of the deleted rows before the
+     *            delete.
+     */
+    void rowsDeleted(int columnIndex, Range rowIndexes);
+
+    /**
+     * Inform the provider that a property of the given row object has changed.
+     * The default implementation simply calls {@link #reset(int)} as the row
+     * index of the row object is not known.
+     *
+     * @param columnIndex
+     *            The column index of the summary to update.
+     * @param rowObject
+     *            The row object that has changed.
+     */
+    default void rowObjectChanged(int columnIndex, Object rowObject) {
+        reset(columnIndex);
+    }
+
+    /**
+     * Discard the incrementally maintained state for the given column, so the
+     * summary value is fully recalculated on the next call to
+     * {@link #summarize(int)}.
+     *
+     * @param columnIndex
+     *            The column index of the summary to reset.
+     */
+    void reset(int columnIndex);
+}
@@ -0,0 +1,377 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.IPrimitiveDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
+import org.eclipse.nebula.widgets.nattable.summaryrow.SummaryAggregateEnum.Accumulator;
+
+/**
+ * {@link IIncrementalSummaryProvider} that calculates a
+ * {@link SummaryAggregateEnum} over all values in a column that are of type
+ * Number.
+ * <p>
+ * On the first call to {@link #summarize(int)} for a column, the values of the
+ * column are read once from the {@link IDataProvider} and captured in a
+ * primitive array. Afterwards changes, inserts and deletes are applied as
+ * deltas to the captured values and the aggregate, so only the changed rows
+ * are read from the {@link IDataProvider}. This needs additional memory of
+ * about 9 bytes per row and summarized column. For
+ * {@link SummaryAggregateEnum#MIN} and {@link SummaryAggregateEnum#MAX} the
+ * values are additionally kept in a heap, together with the removed values
+ * that were not dropped yet, which needs another 8 to 24 bytes per row
+ * depending on the heap capacity. Numeric columns of an
+ * {@link IPrimitiveDataProvider} are read without boxing.
+ * </p>
+ * <p>
+ * If a column contains mixed values, e.g. Strings and Integers,
+ * {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} is returned in strict mode.
+ * Otherwise the non Number values will be ignored.
+ * </p>
+ * <p>
+ * Note that applying deltas to floating point aggregates can lead to results
+ * that differ in the last digits from a full recalculation.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class IncrementalSummaryProvider implements IIncrementalSummaryProvider {
+
+    private final IDataProvider dataProvider;
+    private final SummaryAggregateEnum aggregate;
+    private final boolean strict;
+
+    private final Map<Integer, ColumnValues> columns = new HashMap<>();
+
+    /**
+     * The row indexes of the row objects of an {@link IRowDataProvider},
+     * created on the first {@link #rowObjectChanged(int, Object)} call,
+     * updated for changed rows and discarded on inserts and deletes.
+     * <code>null</code> if not created.
+     */
+    private Map<Object, Integer> rowObjectIndexes;
+
+    /**
+     * Create a new {@link IncrementalSummaryProvider} in strict mode.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            summary.
+     * @param aggregate
+     *            The aggregate function to calculate.
+     */
+    public IncrementalSummaryProvider(IDataProvider dataProvider, SummaryAggregateEnum aggregate) {
+        this(dataProvider, aggregate, true);
+    }
+
+    /**
+     * Create a new {@link IncrementalSummaryProvider}.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            summary.
+     * @param aggregate
+     *            The aggregate function to calculate.
+     * @param strict
+     *            If strict is set to <code>true</code> and one or more of the
+     *            values in the column is not of type Number, then
+     *            {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} will be
+     *            returned. If strict is set to <code>false</code>, the non
+     *            Number values are ignored.
+     */
+    public IncrementalSummaryProvider(IDataProvider dataProvider, SummaryAggregateEnum aggregate, boolean strict) {
+        this.dataProvider = dataProvider;
+        this.aggregate = aggregate;
+        this.strict = strict;
+    }
+
+    @Override
+    public synchronized Object summarize(int columnIndex) {
+        ColumnValues values = this.columns.get(columnIndex);
+        if (values == null || values.size != this.dataProvider.getRowCount()) {
+            // first calculation or the data was changed without notification
+            values = new ColumnValues(columnIndex);
+            this.columns.put(columnIndex, values);
+        }
+
+        if (this.strict && values.nonNumberCount > 0) {
+            return DEFAULT_SUMMARY_VALUE;
+        }
+        return values.getResult();
+    }
+
+    @Override
+    public synchronized void rowsChanged(int columnIndex, Range rowIndexes) {
+        ColumnValues values = this.columns.get(columnIndex);
+        if (values != null) {
+            if (rowIndexes.start < 0 || rowIndexes.end > values.size) {
+                reset(columnIndex);
+            } else {
+                for (int row = rowIndexes.start; row < rowIndexes.end; row++) {
+                    values.remove(row);
+                    values.read(row);
+                }
+            }
+        }
+        if (this.rowObjectIndexes != null && this.dataProvider instanceof IRowDataProvider) {
+            // the row objects might have been replaced
+            IRowDataProvider<?> rowDataProvider = (IRowDataProvider<?>) this.dataProvider;
+            int end = Math.min(rowIndexes.end, rowDataProvider.getRowCount());
+            for (int row = Math.max(0, rowIndexes.start); row < end; row++) {
+                this.rowObjectIndexes.put(rowDataProvider.getRowObject(row), row);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void rowsInserted(int columnIndex, Range rowIndexes) {
+        ColumnValues values = this.columns.get(columnIndex);
+        if (values != null) {
+            if (rowIndexes.start < 0 || rowIndexes.start > values.size) {
+                reset(columnIndex);
+            } else {
+                values.insert(rowIndexes.start, rowIndexes.size());
+            }
+        }
+        this.rowObjectIndexes = null;
+    }
+
+    @Override
+    public synchronized void rowsDeleted(int columnIndex, Range rowIndexes) {
+        ColumnValues values = this.columns.get(columnIndex);
+        if (values != null) {
+            if (rowIndexes.start < 0 || rowIndexes.end > values.size) {
+                reset(columnIndex);
+            } else {
+                values.delete(rowIndexes.start, rowIndexes.size());
+            }
+        }
+        this.rowObjectIndexes = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If the {@link IDataProvider} is an {@link IRowDataProvider}, the row
+     * index of the row object is used to only update the affected row. The
+     * row index is looked up in an identity map of the row objects, which is
+     * created once and recreated after rows were inserted or deleted.
+     * </p>
+     */
+    @Override
+    public synchronized void rowObjectChanged(int columnIndex, Object rowObject) {
+        if (this.columns.containsKey(columnIndex)) {
+            int rowIndex = getRowIndex(rowObject);
+            if (rowIndex >= 0) {
+                rowsChanged(columnIndex, new Range(rowIndex, rowIndex + 1));
+            } else {
+                reset(columnIndex);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void reset(int columnIndex) {
+        this.columns.remove(columnIndex);
+        if (this.columns.isEmpty()) {
+            this.rowObjectIndexes = null;
+        }
+    }
+
+    /**
+     * Returns the row index of the given row object via the identity map of
+     * the row objects. The map is recreated if it does not exist yet or the
+     * row object at the mapped index was replaced without notification.
+     *
+     * @param rowObject
+     *            The row object whose index is requested.
+     * @return The row index of the given row object, or -1 if the
+     *         {@link IDataProvider} is not an {@link IRowDataProvider} or the
+     *         row object is not contained.
+     */
+    @SuppressWarnings("unchecked")
+    private int getRowIndex(Object rowObject) {
+        if (!(this.dataProvider instanceof IRowDataProvider)) {
+            return -1;
+        }
+        IRowDataProvider<Object> rowDataProvider = (IRowDataProvider<Object>) this.dataProvider;
+        Integer rowIndex = (this.rowObjectIndexes != null) ? this.rowObjectIndexes.get(rowObject) : null;
+        if (this.rowObjectIndexes == null
+                || (rowIndex != null
+                        && (rowIndex >= rowDataProvider.getRowCount()
+                                || rowDataProvider.getRowObject(rowIndex) != rowObject))) {
+            int rowCount = rowDataProvider.getRowCount();
+            this.rowObjectIndexes = new IdentityHashMap<>(rowCount);
+            for (int row = rowCount - 1; row >= 0; row--) {
+                // descending, so the first index is kept for duplicates
+                this.rowObjectIndexes.put(rowDataProvider.getRowObject(row), row);
+            }
+            rowIndex = this.rowObjectIndexes.get(rowObject);
+        }
+        return (rowIndex != null) ? rowIndex : -1;
+    }
+
+    /**
+     * @return The aggregate function calculated by this provider.
+     */
+    public SummaryAggregateEnum getAggregate() {
+        return this.aggregate;
+    }
+
+    /**
+     * The captured values of a column together with the current aggregate.
+     */
+    private class ColumnValues {
+
+        private final int columnIndex;
+        private final IPrimitiveDataProvider primitiveDataProvider;
+
+        private double[] values;
+        private boolean[] numbers;
+        private int size;
+
+        private int nonNumberCount;
+        private int nonFiniteCount;
+        private Accumulator accumulator;
+
+        ColumnValues(int columnIndex) {
+            this.columnIndex = columnIndex;
+            IDataProvider provider = IncrementalSummaryProvider.this.dataProvider;
+            this.primitiveDataProvider = (provider instanceof IPrimitiveDataProvider)
+                    ? (IPrimitiveDataProvider) provider
+                    : null;
+            this.size = IncrementalSummaryProvider.this.dataProvider.getRowCount();
+            this.values = new double[this.size];
+            this.numbers = new boolean[this.size];
+            this.accumulator = IncrementalSummaryProvider.this.aggregate.createAccumulator();
+            for (int row = 0; row < this.size; row++) {
+                read(row);
+            }
+        }
+
+        /**
+         * Read the value of the given row from the data provider and add it to
+         * the aggregate.
+         */
+        void read(int row) {
+            // a column might stop being numeric, e.g. if a null value is set
+            if (this.primitiveDataProvider != null
+                    && this.primitiveDataProvider.isNumericColumn(this.columnIndex)) {
+                double value = this.primitiveDataProvider.getDouble(this.columnIndex, row);
+                this.values[row] = value;
+                this.numbers[row] = true;
+                if (Double.isFinite(value)) {
+                    this.accumulator.add(value);
+                } else {
+                    this.nonFiniteCount++;
+                }
+                return;
+            }
+
+            Object dataValue = IncrementalSummaryProvider.this.dataProvider.getDataValue(this.columnIndex, row);
+            if (dataValue instanceof Number) {
+                double value = ((Number) dataValue).doubleValue();
+                this.values[row] = value;
+                this.numbers[row] = true;
+                if (Double.isFinite(value)) {
+                    this.accumulator.add(value);
+                } else {
+                    this.nonFiniteCount++;
+                }
+            } else {
+                this.values[row] = 0;
+                this.numbers[row] = false;
+                this.nonNumberCount++;
+            }
+        }
+
+        /**
+         * Remove the captured value of the given row from the aggregate.
+         */
+        void remove(int row) {
+            if (!this.numbers[row]) {
+                this.nonNumberCount--;
+            } else if (!Double.isFinite(this.values[row])) {
+                this.nonFiniteCount--;
+            } else if (!this.accumulator.remove(this.values[row])) {
+                // rebuild without the removed value
+                this.numbers[row] = false;
+                this.nonNumberCount++;
+                rebuild();
+                this.nonNumberCount--;
+            }
+        }
+
+        void insert(int start, int count) {
+            int newSize = this.size + count;
+            if (newSize > this.values.length) {
+                int capacity = Math.max(newSize, this.values.length + (this.values.length >> 1));
+                this.values = Arrays.copyOf(this.values, capacity);
+                this.numbers = Arrays.copyOf(this.numbers, capacity);
+            }
+            System.arraycopy(this.values, start, this.values, start + count, this.size - start);
+            System.arraycopy(this.numbers, start, this.numbers, start + count, this.size - start);
+            this.size = newSize;
+            for (int row = start; row < start + count; row++) {
+                read(row);
+            }
+        }
+
+        void delete(int start, int count) {
+            for (int row = start; row < start + count; row++) {
+                remove(row);
+                // avoid that a rebuild considers the already removed values
+                this.numbers[row] = false;
+                this.nonNumberCount++;
+            }
+            this.nonNumberCount -= count;
+            System.arraycopy(this.values, start + count, this.values, start, this.size - start - count);
+            System.arraycopy(this.numbers, start + count, this.numbers, start, this.size - start - count);
+            this.size -= count;
+        }
+
+        /**
+         * Create a new accumulator from the captured finite values.
+         */
+        void rebuild() {
+            this.accumulator = IncrementalSummaryProvider.this.aggregate.createAccumulator();
+            for (int row = 0; row < this.size; row++) {
+                if (this.numbers[row] && Double.isFinite(this.values[row])) {
+                    this.accumulator.add(this.values[row]);
+                }
+            }
+        }
+
+        Object getResult() {
+            if (this.nonFiniteCount == 0) {
+                return this.accumulator.getResult();
+            }
+            // NaN and infinite values can not be removed from an aggregate,
+            // so they are only considered on calculating the result
+            Accumulator result = IncrementalSummaryProvider.this.aggregate.createAccumulator();
+            for (int row = 0; row < this.size; row++) {
+                if (this.numbers[row]) {
+                    result.add(this.values[row]);
+                }
+            }
+            return result.getResult();
+        }
+    }
+}
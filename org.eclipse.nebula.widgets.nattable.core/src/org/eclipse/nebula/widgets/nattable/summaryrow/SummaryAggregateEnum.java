@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import java.util.Arrays;
+
+/**
+ * The aggregate functions supported by the {@link IncrementalSummaryProvider}.
+ * Every aggregate creates an {@link Accumulator} that is able to add and
+ * remove single values, so a summary value can be updated without iterating
+ * over all values of a column.
+ *
+ * @since 2.0
+ */
+public enum SummaryAggregateEnum {
+
+    /**
+     * The sum of all values as {@link Double}.
+     */
+    SUM {
+        @Override
+        public Accumulator createAccumulator() {
+            return new SumAccumulator();
+        }
+    },
+    /**
+     * The number of values as {@link Integer}.
+     */
+    COUNT {
+        @Override
+        public Accumulator createAccumulator() {
+            return new CountAccumulator();
+        }
+    },
+    /**
+     * The arithmetic mean of all values as {@link Double}, <code>null</code>
+     * if there are no values.
+     */
+    MEAN {
+        @Override
+        public Accumulator createAccumulator() {
+            return new VarianceAccumulator(false);
+        }
+    },
+    /**
+     * The population variance of all values as {@link Double},
+     * <code>null</code> if there are no values.
+     */
+    VARIANCE {
+        @Override
+        public Accumulator createAccumulator() {
+            return new VarianceAccumulator(true);
+        }
+    },
+    /**
+     * The smallest value as {@link Double}, <code>null</code> if there are no
+     * values.
+     */
+    MIN {
+        @Override
+        public Accumulator createAccumulator() {
+            return new ExtremeAccumulator(false);
+        }
+    },
+    /**
+     * The biggest value as {@link Double}, <code>null</code> if there are no
+     * values.
+     */
+    MAX {
+        @Override
+        public Accumulator createAccumulator() {
+            return new ExtremeAccumulator(true);
+        }
+    };
+
+    /**
+     * @return A new and empty {@link Accumulator} for this aggregate.
+     */
+    public abstract Accumulator createAccumulator();
+
+    /**
+     * Accumulates values for an aggregate function.
+     */
+    public interface Accumulator {
+
+        /**
+         * Add a value to the aggregate.
+         *
+         * @param value
+         *            The value to add.
+         */
+        void add(double value);
+
+        /**
+         * Remove a value that was previously added from the aggregate.
+         *
+         * @param value
+         *            The value to remove.
+         * @return <code>true</code> if the value was removed,
+         *         <code>false</code> if the accumulator is not able to remove
+         *         the value incrementally and needs to be rebuilt from the
+         *         remaining values.
+         */
+        boolean remove(double value);
+
+        /**
+         * @return The current aggregate value.
+         */
+        Object getResult();
+    }
+
+    static class SumAccumulator implements Accumulator {
+
+        private double sum;
+
+        @Override
+        public void add(double value) {
+            this.sum += value;
+        }
+
+        @Override
+        public boolean remove(double value) {
+            this.sum -= value;
+            return true;
+        }
+
+        @Override
+        public Object getResult() {
+            return this.sum;
+        }
+    }
+
+    static class CountAccumulator implements Accumulator {
+
+        private int count;
+
+        @Override
+        public void add(double value) {
+            this.count++;
+        }
+
+        @Override
+        public boolean remove(double value) {
+            this.count--;
+            return true;
+        }
+
+        @Override
+        public Object getResult() {
+            return this.count;
+        }
+    }
+
+    /**
+     * Welford's algorithm, which also supports the removal of values without
+     * the cancellation issues of a sum of squares.
+     */
+    static class VarianceAccumulator implements Accumulator {
+
+        private final boolean variance;
+
+        private int count;
+        private double mean;
+        private double m2;
+
+        VarianceAccumulator(boolean variance) {
+            this.variance = variance;
+        }
+
+        @Override
+        public void add(double value) {
+            this.count++;
+            double delta = value - this.mean;
+            this.mean += delta / this.count;
+            this.m2 += delta * (value - this.mean);
+        }
+
+        @Override
+        public boolean remove(double value) {
+            if (this.count <= 1) {
+                this.count = 0;
+                this.mean = 0;
+                this.m2 = 0;
+                return true;
+            }
+            double delta = value - this.mean;
+            this.count--;
+            this.mean -= delta / this.count;
+            this.m2 -= delta * (value - this.mean);
+            return true;
+        }
+
+        @Override
+        public Object getResult() {
+            if (this.count == 0) {
+                return null;
+            }
+            return this.variance ? Math.max(0, this.m2 / this.count) : this.mean;
+        }
+    }
+
+    /**
+     * Keeps all values in a binary heap, ordered so the extreme value is on
+     * top. Removed values are collected in a second heap with the same
+     * ordering and dropped lazily once they reach the top of the value heap,
+     * so adding and removing a value is O(log n). To bound the memory, a
+     * rebuild is requested once the removed values make up half of all
+     * values, which results in amortized O(log n) as well.
+     */
+    static class ExtremeAccumulator implements Accumulator {
+
+        private static final int MIN_COMPACTION_SIZE = 64;
+
+        private final DoubleHeap values;
+        private final DoubleHeap removed;
+
+        ExtremeAccumulator(boolean max) {
+            this.values = new DoubleHeap(max);
+            this.removed = new DoubleHeap(max);
+        }
+
+        @Override
+        public void add(double value) {
+            this.values.push(value);
+        }
+
+        @Override
+        public boolean remove(double value) {
+            this.removed.push(value);
+            // removed values that do not reach the top are kept until the
+            // accumulator is rebuilt, which is requested once they make up half
+            // of the heap, so the rebuild costs are amortized
+            return this.removed.size() <= MIN_COMPACTION_SIZE
+                    || this.removed.size() * 2 <= this.values.size();
+        }
+
+        @Override
+        public Object getResult() {
+            // drop the removed values from the top of the value heap
+            while (!this.removed.isEmpty()
+                    && !this.values.isEmpty()
+                    && this.removed.peek() == this.values.peek()) {
+                this.removed.pop();
+                this.values.pop();
+            }
+            return (this.values.size() > this.removed.size()) ? this.values.peek() : null;
+        }
+    }
+
+    /**
+     * Binary heap of primitive double values.
+     */
+    static class DoubleHeap {
+
+        private final boolean max;
+
+        private double[] heap = new double[16];
+        private int size;
+
+        DoubleHeap(boolean max) {
+            this.max = max;
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        double peek() {
+            return this.heap[0];
+        }
+
+        void push(double value) {
+            if (this.size == this.heap.length) {
+                this.heap = Arrays.copyOf(this.heap, this.size * 2);
+            }
+            int index = this.size++;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!before(value, this.heap[parent])) {
+                    break;
+                }
+                this.heap[index] = this.heap[parent];
+                index = parent;
+            }
+            this.heap[index] = value;
+        }
+
+        double pop() {
+            double result = this.heap[0];
+            double last = this.heap[--this.size];
+            int index = 0;
+            int half = this.size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                if (child + 1 < this.size && before(this.heap[child + 1], this.heap[child])) {
+                    child++;
+                }
+                if (!before(this.heap[child], last)) {
+                    break;
+                }
+                this.heap[index] = this.heap[child];
+                index = child;
+            }
+            if (this.size > 0) {
+                this.heap[index] = last;
+            }
+            return result;
+        }
+
+        private boolean before(double value1, double value2) {
+            return this.max ? value1 > value2 : value1 < value2;
+        }
+    }
+}
@@ -13,11 +13,22 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.summaryrow;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.nebula.widgets.nattable.command.DisposeResourcesCommand;
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.data.IColumnPropertyResolver;
 import org.eclipse.nebula.widgets.nattable.layer.AbstractLayerTransform;
 import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
 import org.eclipse.nebula.widgets.nattable.layer.IDpiConverter;
@@ -28,11 +39,19 @@
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
 import org.eclipse.nebula.widgets.nattable.layer.cell.LayerCell;
 import org.eclipse.nebula.widgets.nattable.layer.command.ConfigureScalingCommand;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateBatchEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff.DiffTypeEnum;
 import org.eclipse.nebula.widgets.nattable.resize.command.MultiRowResizeCommand;
 import org.eclipse.nebula.widgets.nattable.resize.command.RowResizeCommand;
 import org.eclipse.nebula.widgets.nattable.resize.event.RowResizeEvent;
+import org.eclipse.nebula.widgets.nattable.selection.event.ISelectionEvent;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
 import org.eclipse.nebula.widgets.nattable.summaryrow.command.CalculateSummaryRowValuesCommand;
 import org.eclipse.nebula.widgets.nattable.util.ArrayUtil;
@@ -104,6 +123,33 @@ public class SummaryRowLayer extends AbstractLayerTransform implements IUniqueIn
      */
     private boolean standalone = false;
 
+    /**
+     * The {@link IIncrementalSummaryProvider}s per column position, resolved
+     * on demand so the providers do not need to be looked up in the
+     * {@link IConfigRegistry} for every event. <code>null</code> if not
+     * resolved.
+     */
+    private IIncrementalSummaryProvider[] incrementalProviders;
+
+    /**
+     * Whether at least one {@link IIncrementalSummaryProvider} is registered
+     * that is configured to work incrementally.
+     */
+    private boolean hasIncrementalProviders;
+
+    /**
+     * The modification count of the {@link ConfigRegistry} at the time the
+     * {@link #incrementalProviders} were resolved.
+     */
+    private long incrementalProvidersConfigVersion;
+
+    /**
+     * Maps the property names of {@link PropertyUpdateEvent}s to column
+     * indexes, so only the summary of the updated column is updated.
+     * <code>null</code> if the summaries of all columns should be updated.
+     */
+    private IColumnPropertyResolver columnPropertyResolver;
+
     /**
      * Creates a SummaryRowLayer on top of the given underlying layer. It uses
      * smooth value updates as default.
@@ -241,13 +287,7 @@ private Object calculateNewSummaryValue(final int columnPosition, boolean calcul
                 getSummaryRowPosition(),
                 calculateInBackground,
                 () -> {
-                    LabelStack labelStack = getConfigLabelsByPositionWithoutTransformation(columnPosition, getSummaryRowPosition());
-                    String[] configLabels = labelStack.toArray(ArrayUtil.STRING_TYPE_ARRAY);
-
-                    final ISummaryProvider summaryProvider = SummaryRowLayer.this.configRegistry.getConfigAttribute(
-                            SummaryRowConfigAttributes.SUMMARY_PROVIDER,
-                            DisplayMode.NORMAL,
-                            configLabels);
+                    final ISummaryProvider summaryProvider = getSummaryProvider(columnPosition);
 
                     // If there is no Summary provider - skip processing
                     if (summaryProvider == ISummaryProvider.NONE || summaryProvider == null) {
@@ -258,6 +298,25 @@ private Object calculateNewSummaryValue(final int columnPosition, boolean calcul
                 });
     }
 
+    /**
+     * Get the {@link ISummaryProvider} that is registered for the summary cell
+     * of the given column.
+     *
+     * @param columnPosition
+     *            The column position of the summary cell.
+     * @return The {@link ISummaryProvider} for the given column or
+     *         <code>null</code> if none is registered.
+     */
+    private ISummaryProvider getSummaryProvider(int columnPosition) {
+        LabelStack labelStack = getConfigLabelsByPositionWithoutTransformation(columnPosition, getSummaryRowPosition());
+        String[] configLabels = labelStack.toArray(ArrayUtil.STRING_TYPE_ARRAY);
+
+        return this.configRegistry.getConfigAttribute(
+                SummaryRowConfigAttributes.SUMMARY_PROVIDER,
+                DisplayMode.NORMAL,
+                configLabels);
+    }
+
     /**
      * Checks if the given row position is the position of the summary row.
      *
@@ -326,12 +385,261 @@ public boolean doCommand(ILayerCommand command) {
 
     @Override
     public void handleLayerEvent(ILayerEvent event) {
+        if (event instanceof IStructuralChangeEvent
+                && ((IStructuralChangeEvent) event).isHorizontalStructureChanged()) {
+            // the labels and therefore the summary providers of the columns
+            // might have changed
+            this.incrementalProviders = null;
+        }
         if (event instanceof IVisualChangeEvent) {
+            if (!(event instanceof ISelectionEvent) && hasIncrementalSummaryProviders()) {
+                updateIncrementalSummaryProviders((IVisualChangeEvent) event);
+            }
+            // clearing the cache is cheap for incremental summary providers,
+            // as the recalculation only returns the maintained summary
             clearCache();
         }
         super.handleLayerEvent(event);
     }
 
+    /**
+     * Translates the given event to delta updates for the
+     * {@link IIncrementalSummaryProvider}s registered for the columns. If the
+     * event can not be translated, the incremental summary providers are reset
+     * so the summary values are fully recalculated. The event is expected to
+     * be in the coordinates of the underlying layer, which are the indexes of
+     * the data as this layer sits close to the {@link DataLayer}.
+     *
+     * @param event
+     *            The event received from the underlying layer.
+     */
+    private void updateIncrementalSummaryProviders(IVisualChangeEvent event) {
+        if (event instanceof PropertyUpdateEvent) {
+            PropertyUpdateEvent<?> updateEvent = (PropertyUpdateEvent<?>) event;
+            rowObjectChanged(updateEvent.getSourceBean(), getColumnIndex(updateEvent.getPropertyName()));
+        } else if (event instanceof PropertyUpdateBatchEvent) {
+            // inform only once per row object and column, even if a property
+            // of the row object has changed multiple times
+            Set<Object> allColumns = Collections.newSetFromMap(new IdentityHashMap<>());
+            Map<Object, Set<Integer>> changedColumns = new IdentityHashMap<>();
+            for (PropertyUpdateEvent<?> updateEvent : ((PropertyUpdateBatchEvent<?>) event).getUpdateEvents()) {
+                Object rowObject = updateEvent.getSourceBean();
+                int column = getColumnIndex(updateEvent.getPropertyName());
+                if (allColumns.contains(rowObject)) {
+                    continue;
+                }
+                if (column < 0) {
+                    allColumns.add(rowObject);
+                    rowObjectChanged(rowObject, -1);
+                } else if (changedColumns.computeIfAbsent(rowObject, key -> new HashSet<>()).add(column)) {
+                    rowObjectChanged(rowObject, column);
+                }
+            }
+        } else if (event instanceof CellVisualChangeEvent) {
+            CellVisualChangeEvent cellEvent = (CellVisualChangeEvent) event;
+            IIncrementalSummaryProvider provider = getIncrementalSummaryProvider(cellEvent.getColumnPosition());
+            if (provider != null) {
+                int row = cellEvent.getRowPosition();
+                provider.rowsChanged(cellEvent.getColumnPosition(), new Range(row, row + 1));
+            }
+        } else if (event instanceof IStructuralChangeEvent) {
+            IStructuralChangeEvent structuralEvent = (IStructuralChangeEvent) event;
+            if (structuralEvent.isHorizontalStructureChanged()
+                    && !isChangeOnly(structuralEvent.getColumnDiffs())) {
+                // column indexes might have changed
+                resetIncrementalSummaryProviders();
+            } else if (structuralEvent.isVerticalStructureChanged()
+                    && !isChangeOnly(structuralEvent.getRowDiffs())) {
+                applyRowDiffs(structuralEvent.getRowDiffs());
+            }
+        } else if (event instanceof RowVisualChangeEvent) {
+            Collection<Range> rows = ((RowVisualChangeEvent) event).getRowPositionRanges();
+            int columnCount = this.underlyingLayer.getColumnCount();
+            for (int column = 0; column < columnCount; column++) {
+                IIncrementalSummaryProvider provider = getIncrementalSummaryProvider(column);
+                if (provider != null) {
+                    for (Range range : rows) {
+                        provider.rowsChanged(column, range);
+                    }
+                }
+            }
+        } else {
+            resetIncrementalSummaryProviders();
+        }
+    }
+
+    /**
+     * Inform the {@link IIncrementalSummaryProvider}s that a property of the
+     * given row object has changed.
+     *
+     * @param rowObject
+     *            The row object that has changed.
+     * @param columnIndex
+     *            The column index of the changed property, or -1 if the
+     *            column is not known and all columns should be updated.
+     */
+    private void rowObjectChanged(Object rowObject, int columnIndex) {
+        if (columnIndex >= 0) {
+            IIncrementalSummaryProvider provider = getIncrementalSummaryProvider(columnIndex);
+            if (provider != null) {
+                provider.rowObjectChanged(columnIndex, rowObject);
+            }
+            return;
+        }
+
+        int columnCount = this.underlyingLayer.getColumnCount();
+        for (int column = 0; column < columnCount; column++) {
+            IIncrementalSummaryProvider provider = getIncrementalSummaryProvider(column);
+            if (provider != null) {
+                provider.rowObjectChanged(column, rowObject);
+            }
+        }
+    }
+
+    /**
+     * @param propertyName
+     *            The name of a changed property.
+     * @return The column index of the given property, or -1 if no
+     *         {@link IColumnPropertyResolver} is configured or the property is
+     *         not known.
+     */
+    private int getColumnIndex(String propertyName) {
+        if (this.columnPropertyResolver == null || propertyName == null) {
+            return -1;
+        }
+        int columnIndex = this.columnPropertyResolver.getColumnIndex(propertyName);
+        return (columnIndex < this.underlyingLayer.getColumnCount()) ? columnIndex : -1;
+    }
+
+    /**
+     * Apply the given row diffs as inserts or deletes. Only diffs of a single
+     * type are supported, as otherwise the order of the operations is not
+     * known.
+     *
+     * @param rowDiffs
+     *            The row diffs of a structural change, can be
+     *            <code>null</code>.
+     */
+    private void applyRowDiffs(Collection<StructuralDiff> rowDiffs) {
+        if (rowDiffs == null) {
+            resetIncrementalSummaryProviders();
+            return;
+        }
+
+        DiffTypeEnum diffType = null;
+        for (StructuralDiff diff : rowDiffs) {
+            if (diffType != null && diffType != diff.getDiffType()) {
+                diffType = null;
+                break;
+            }
+            diffType = diff.getDiffType();
+        }
+
+        if (diffType == DiffTypeEnum.ADD || diffType == DiffTypeEnum.DELETE) {
+            List<Range> ranges = new ArrayList<>(rowDiffs.size());
+            for (StructuralDiff diff : rowDiffs) {
+                ranges.add(diffType == DiffTypeEnum.ADD ? diff.getAfterPositionRange() : diff.getBeforePositionRange());
+            }
+            // inserts are applied ascending on the positions after the
+            // insert, deletes descending on the positions before the delete
+            ranges.sort(diffType == DiffTypeEnum.ADD
+                    ? Comparator.comparingInt((Range range) -> range.start)
+                    : Comparator.comparingInt((Range range) -> range.start).reversed());
+
+            int columnCount = this.underlyingLayer.getColumnCount();
+            for (int column = 0; column < columnCount; column++) {
+                IIncrementalSummaryProvider provider = getIncrementalSummaryProvider(column);
+                if (provider != null) {
+                    for (Range range : ranges) {
+                        if (diffType == DiffTypeEnum.ADD) {
+                            provider.rowsInserted(column, range);
+                        } else {
+                            provider.rowsDeleted(column, range);
+                        }
+                    }
+                }
+            }
+        } else {
+            resetIncrementalSummaryProviders();
+        }
+    }
+
+    /**
+     * @param diffs
+     *            The structural diffs to check.
+     * @return <code>true</code> if the given diffs only contain changes that do
+     *         not modify the structure, e.g. resizing.
+     */
+    private boolean isChangeOnly(Collection<StructuralDiff> diffs) {
+        if (diffs == null) {
+            return false;
+        }
+        for (StructuralDiff diff : diffs) {
+            if (diff.getDiffType() != DiffTypeEnum.CHANGE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void resetIncrementalSummaryProviders() {
+        int columnCount = this.underlyingLayer.getColumnCount();
+        for (int column = 0; column < columnCount; column++) {
+            IIncrementalSummaryProvider provider = getIncrementalSummaryProvider(column);
+            if (provider != null) {
+                provider.reset(column);
+            }
+        }
+    }
+
+    /**
+     * Resolves the {@link IIncrementalSummaryProvider}s of all columns if they
+     * are not resolved yet or might be outdated.
+     *
+     * @return The {@link IIncrementalSummaryProvider}s per column position.
+     */
+    private IIncrementalSummaryProvider[] getIncrementalSummaryProviders() {
+        IIncrementalSummaryProvider[] providers = this.incrementalProviders;
+        long configVersion = (this.configRegistry instanceof ConfigRegistry)
+                ? ((ConfigRegistry) this.configRegistry).getModificationCount()
+                : 0;
+        int columnCount = this.underlyingLayer.getColumnCount();
+        if (providers == null
+                || providers.length != columnCount
+                || configVersion != this.incrementalProvidersConfigVersion) {
+            providers = new IIncrementalSummaryProvider[columnCount];
+            boolean found = false;
+            for (int column = 0; column < columnCount; column++) {
+                ISummaryProvider summaryProvider = getSummaryProvider(column);
+                if (summaryProvider instanceof IIncrementalSummaryProvider
+                        && ((IIncrementalSummaryProvider) summaryProvider).isIncremental()) {
+                    providers[column] = (IIncrementalSummaryProvider) summaryProvider;
+                    found = true;
+                }
+            }
+            this.hasIncrementalProviders = found;
+            this.incrementalProvidersConfigVersion = configVersion;
+            this.incrementalProviders = providers;
+        }
+        return providers;
+    }
+
+    /**
+     * @return <code>true</code> if an {@link IIncrementalSummaryProvider} is
+     *         registered for at least one column.
+     */
+    private boolean hasIncrementalSummaryProviders() {
+        getIncrementalSummaryProviders();
+        return this.hasIncrementalProviders;
+    }
+
+    private IIncrementalSummaryProvider getIncrementalSummaryProvider(int columnPosition) {
+        IIncrementalSummaryProvider[] providers = getIncrementalSummaryProviders();
+        return (columnPosition >= 0 && columnPosition < providers.length)
+                ? providers[columnPosition]
+                : null;
+    }
+
     /**
      * Clear the internal cache to trigger new calculations.
      * <p>
@@ -357,6 +665,7 @@ public void clearCache() {
      * @see CalculatedValueCache#killCache()
      */
     public void killCache() {
+        this.incrementalProviders = null;
         this.valueCache.killCache();
     }
 
@@ -501,6 +810,25 @@ public void setStandalone(boolean standalone) {
         this.standalone = standalone;
     }
 
+    /**
+     * Set the {@link IColumnPropertyResolver} that maps the property names of
+     * {@link PropertyUpdateEvent}s to column indexes. If set, only the
+     * {@link IIncrementalSummaryProvider} of the column of the updated
+     * property is informed about the change. Otherwise, or if the property is
+     * not known, the providers of all columns are informed.
+     *
+     * @param columnPropertyResolver
+     *            The {@link IColumnPropertyResolver} of the row objects, e.g.
+     *            the
+     *            {@link org.eclipse.nebula.widgets.nattable.data.IColumnPropertyAccessor
+     *            IColumnPropertyAccessor} of the body data provider. Can be
+     *            <code>null</code>.
+     * @since 2.0
+     */
+    public void setColumnPropertyResolver(IColumnPropertyResolver columnPropertyResolver) {
+        this.columnPropertyResolver = columnPropertyResolver;
+    }
+
     /**
      * @return The {@link ICalculatedValueCache} that contains the summary
      *         values and performs summary calculation in background processes
@@ -12,7 +12,9 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.summaryrow;
 
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.IPrimitiveDataProvider;
 
 /**
  * Implementation of ISummaryProvider that summarizes all values in a column if
@@ -24,11 +26,18 @@
  * not possible this way. You are able to change that behaviour by creating the
  * SummationSummaryProvider with the parameter strict set to <code>false</code>.
  * In that case the non Number values will be ignored.
+ * <p>
+ * If created in incremental mode, the sum is maintained by an
+ * {@link IncrementalSummaryProvider}, which applies changes reported by the
+ * {@link SummaryRowLayer} as deltas instead of iterating over all rows on
+ * every change. Otherwise {@link #isIncremental()} returns <code>false</code>
+ * and the {@link SummaryRowLayer} does not report the changes.
  */
-public class SummationSummaryProvider implements ISummaryProvider {
+public class SummationSummaryProvider implements IIncrementalSummaryProvider {
 
     private final IDataProvider dataProvider;
     private final boolean strict;
+    private final IncrementalSummaryProvider incremental;
 
     /**
      * Create a new {@link SummationSummaryProvider} by using the given
@@ -66,8 +75,38 @@ public SummationSummaryProvider(IDataProvider dataProvider) {
      *            of type Number, ignoring the non Number values.
      */
     public SummationSummaryProvider(IDataProvider dataProvider, boolean strict) {
+        this(dataProvider, strict, false);
+    }
+
+    /**
+     * Create a new {@link SummationSummaryProvider} by using the given
+     * {@link IDataProvider}, strict mode and incremental mode configuration.
+     *
+     * @param dataProvider
+     *            The {@link IDataProvider} that should be used to calculate the
+     *            sum.
+     * @param strict
+     *            If strict is set to <code>true</code> and one or more of the
+     *            values in the column is not of type Number, then
+     *            {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} will be
+     *            returned. If strict is set to <code>false</code>, this method
+     *            will return the sum of all the values in the column that are
+     *            of type Number, ignoring the non Number values.
+     * @param incremental
+     *            <code>true</code> if the sum should be maintained
+     *            incrementally by applying deltas for changed, inserted and
+     *            deleted rows, <code>false</code> if the sum should be
+     *            calculated by iterating over all rows on every calculation.
+     *            The incremental mode needs additional memory per row and
+     *            relies on the events fired for data changes.
+     * @since 2.0
+     */
+    public SummationSummaryProvider(IDataProvider dataProvider, boolean strict, boolean incremental) {
         this.dataProvider = dataProvider;
         this.strict = strict;
+        this.incremental = incremental
+                ? new IncrementalSummaryProvider(dataProvider, SummaryAggregateEnum.SUM, strict)
+                : null;
     }
 
     /**
@@ -80,9 +119,23 @@ public SummationSummaryProvider(IDataProvider dataProvider, boolean strict) {
      */
     @Override
     public Object summarize(int columnIndex) {
+        if (this.incremental != null) {
+            return this.incremental.summarize(columnIndex);
+        }
+
         int rowCount = this.dataProvider.getRowCount();
         double summaryValue = 0;
 
+        if (this.dataProvider instanceof IPrimitiveDataProvider
+                && ((IPrimitiveDataProvider) this.dataProvider).isNumericColumn(columnIndex)) {
+            // all values are numbers, sum them up without boxing
+            IPrimitiveDataProvider primitiveDataProvider = (IPrimitiveDataProvider) this.dataProvider;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                summaryValue += primitiveDataProvider.getDouble(columnIndex, rowIndex);
+            }
+            return summaryValue;
+        }
+
         for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
             Object dataValue = this.dataProvider.getDataValue(columnIndex, rowIndex);
 
@@ -95,4 +148,50 @@ public Object summarize(int columnIndex) {
 
         return summaryValue;
     }
+
+    /**
+     * @return <code>true</code> if the sum is maintained incrementally,
+     *         <code>false</code> if it is calculated by iterating over all
+     *         rows.
+     * @since 2.0
+     */
+    @Override
+    public boolean isIncremental() {
+        return this.incremental != null;
+    }
+
+    @Override
+    public void rowsChanged(int columnIndex, Range rowIndexes) {
+        if (this.incremental != null) {
+            this.incremental.rowsChanged(columnIndex, rowIndexes);
+        }
+    }
+
+    @Override
+    public void rowsInserted(int columnIndex, Range rowIndexes) {
+        if (this.incremental != null) {
+            this.incremental.rowsInserted(columnIndex, rowIndexes);
+        }
+    }
+
+    @Override
+    public void rowsDeleted(int columnIndex, Range rowIndexes) {
+        if (this.incremental != null) {
+            this.incremental.rowsDeleted(columnIndex, rowIndexes);
+        }
+    }
+
+    @Override
+    public void rowObjectChanged(int columnIndex, Object rowObject) {
+        if (this.incremental != null) {
+            this.incremental.rowObjectChanged(columnIndex, rowObject);
+        }
+    }
+
+    @Override
+    public void reset(int columnIndex) {
+        if (this.incremental != null) {
+            this.incremental.reset(columnIndex);
+        }
+    }
 }
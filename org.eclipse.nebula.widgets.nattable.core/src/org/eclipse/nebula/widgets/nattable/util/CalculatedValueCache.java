@@ -16,10 +16,7 @@
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
@@ -34,6 +31,12 @@
  * {@link ICalculatedValueCacheKey} as the key for the value cache. Usually the
  * internal default implementations for column or row position, or the
  * column-row coordinates should fit most of the use cases.
+ * <p>
+ * The background calculations are performed by the shared
+ * {@link CalculationService}, so the number of calculation threads does not
+ * grow with the number of caches. Calculations for the same key are coalesced
+ * while pending, and pending calculations are cancelled on
+ * {@link #clearCache()} and {@link #killCache()}.
  */
 public class CalculatedValueCache implements ICalculatedValueCache {
 
@@ -44,10 +47,21 @@ public class CalculatedValueCache implements ICalculatedValueCache {
     private ILayer layer;
 
     /**
-     * ExecutorService that is used to create background threads to process
-     * calculations.
+     * The service that is used to process calculations in background threads.
      */
-    private ExecutorService executor;
+    private CalculationService calculationService = CalculationService.getDefault();
+
+    /**
+     * Incremented on clearing the cache to detect results of calculations
+     * that were started before and might be outdated.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * Incremented on killing the cache to detect results of calculations that
+     * were started before and should not be shown anymore.
+     */
+    private final AtomicInteger killGeneration = new AtomicInteger();
 
     /**
      * Cache that contains the calculated values. Introduced for performance
@@ -150,15 +164,6 @@ public CalculatedValueCache(ILayer layer, boolean useColumnAsKey, boolean useRow
      */
     public CalculatedValueCache(ILayer layer, boolean useColumnAsKey, boolean useRowAsKey, boolean smoothUpdates) {
         this.layer = layer;
-        this.executor = new ThreadPoolExecutor(
-                Runtime.getRuntime().availableProcessors() + 1,
-                Runtime.getRuntime().availableProcessors() + 1,
-                5000,
-                TimeUnit.MILLISECONDS,
-                new LinkedBlockingQueue<Runnable>());
-
-        ((ThreadPoolExecutor) this.executor).allowCoreThreadTimeOut(true);
-
         this.useColumnAsKey = useColumnAsKey;
         this.useRowAsKey = useRowAsKey;
         this.smoothUpdates = smoothUpdates;
@@ -208,8 +213,27 @@ public Object getCalculatedValue(final int columnPosition, final int rowPosition
                     result = null;
                 }
 
-                this.executor.execute(() -> {
+                final int calculationGeneration = this.generation.get();
+                final int calculationKillGeneration = this.killGeneration.get();
+
+                // cells that do not show a value yet are calculated first
+                this.calculationService.submit(this, key, () -> {
                     Object summaryValue = calculator.executeCalculation();
+                    if (calculationGeneration != CalculatedValueCache.this.generation.get()) {
+                        // the cache was cleared while calculating, so the
+                        // result might be outdated. it is only used for
+                        // smooth updates and a new calculation is triggered
+                        // by requesting a repaint
+                        if (calculationKillGeneration == CalculatedValueCache.this.killGeneration.get()
+                                && summaryValue != null) {
+                            CalculatedValueCache.this.cacheCopy.put(key, summaryValue);
+                        }
+                        if (CalculatedValueCache.this.layer != null) {
+                            CalculatedValueCache.this.layer.fireLayerEvent(new CellVisualChangeEvent(
+                                    CalculatedValueCache.this.layer, columnPosition, rowPosition));
+                        }
+                        return;
+                    }
                     addToCache(key, summaryValue);
 
                     // only fire an update event if the new calculated value
@@ -219,7 +243,7 @@ public Object getCalculatedValue(final int columnPosition, final int rowPosition
                         CalculatedValueCache.this.layer.fireLayerEvent(new CellVisualChangeEvent(
                                 CalculatedValueCache.this.layer, columnPosition, rowPosition));
                     }
-                });
+                }, cacheCopyValue == null);
             }
         } else {
             // Execute the calculation in the same thread to make printing and
@@ -235,11 +259,16 @@ public Object getCalculatedValue(final int columnPosition, final int rowPosition
 
     @Override
     public void clearCache() {
+        this.generation.incrementAndGet();
+        this.calculationService.cancel(this);
         this.cache.clear();
     }
 
     @Override
     public void killCache() {
+        this.generation.incrementAndGet();
+        this.killGeneration.incrementAndGet();
+        this.calculationService.cancel(this);
         this.cache.clear();
         this.cacheCopy.clear();
     }
@@ -265,7 +294,25 @@ protected void addToCache(ICalculatedValueCacheKey key, Object value) {
 
     @Override
     public void dispose() {
-        this.executor.shutdownNow();
+        this.calculationService.cancel(this);
+    }
+
+    /**
+     * Set the {@link CalculationService} that should be used to perform the
+     * background calculations. By default the shared
+     * {@link CalculationService#getDefault()} is used.
+     *
+     * @param calculationService
+     *            The {@link CalculationService} to use, can not be
+     *            <code>null</code>.
+     * @since 2.0
+     */
+    public void setCalculationService(CalculationService calculationService) {
+        if (calculationService == null) {
+            throw new IllegalArgumentException("calculationService can not be null"); //$NON-NLS-1$
+        }
+        this.calculationService.cancel(this);
+        this.calculationService = calculationService;
     }
 
     /**
@@ -0,0 +1,302 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Service to perform calculations in background threads. Instead of creating
+ * an executor per component, e.g. per {@link CalculatedValueCache}, all
+ * components can share the {@link #getDefault() default} instance, which
+ * limits the number of threads used for calculations regardless of the number
+ * of tables that are open.
+ * <p>
+ * Calculations are submitted for an owner and a key. As long as a calculation
+ * for the same owner and key is pending, further submissions are coalesced
+ * into the pending one. Pending calculations of an owner can be cancelled via
+ * {@link #cancel(Object)}, e.g. if a cache is cleared. Cancellation never
+ * interrupts the threads of the service, as they are shared by all owners.
+ * Running calculations need to check for cancellation themselves, e.g. via a
+ * generation counter of the owner. Calculations that are submitted with
+ * priority, e.g. for cells that are visible and do not show a value yet, are
+ * processed before the other pending calculations.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class CalculationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CalculationService.class);
+
+    private static volatile CalculationService defaultInstance;
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+
+    /**
+     * The pending calculations per owner, guarded by itself.
+     */
+    private final Map<OwnerKey, Map<Object, CalculationTask>> pending = new HashMap<>();
+    private int pendingCount;
+    private final Queue<CalculationTask> priorityQueue = new ConcurrentLinkedQueue<>();
+    private final Queue<CalculationTask> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+
+    /**
+     * Create a new {@link CalculationService} that processes calculations in
+     * at most the given number of threads.
+     *
+     * @param parallelism
+     *            The maximum number of threads used to process calculations.
+     */
+    public CalculationService(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism needs to be greater than 0"); //$NON-NLS-1$
+        }
+        this.parallelism = parallelism;
+        this.pool = new ForkJoinPool(
+                parallelism,
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("NatTable-Calculation-" + thread.getPoolIndex()); //$NON-NLS-1$
+                    return thread;
+                },
+                null,
+                true);
+    }
+
+    /**
+     * @return The shared {@link CalculationService} that uses as many threads
+     *         as processors are available.
+     */
+    public static CalculationService getDefault() {
+        CalculationService service = defaultInstance;
+        if (service == null) {
+            synchronized (CalculationService.class) {
+                service = defaultInstance;
+                if (service == null) {
+                    service = new CalculationService(Runtime.getRuntime().availableProcessors());
+                    defaultInstance = service;
+                }
+            }
+        }
+        return service;
+    }
+
+    /**
+     * Submit a calculation. If a calculation for the given owner and key is
+     * already pending, no new calculation is scheduled and the pending one is
+     * returned.
+     *
+     * @param owner
+     *            The owner of the calculation, used for cancellation.
+     * @param key
+     *            The key that identifies the calculation within the owner.
+     * @param calculation
+     *            The calculation to perform.
+     * @param priority
+     *            <code>true</code> if the calculation should be processed
+     *            before calculations without priority.
+     * @return The {@link Future} of the scheduled calculation.
+     */
+    public Future<?> submit(Object owner, Object key, Runnable calculation, boolean priority) {
+        OwnerKey ownerKey = new OwnerKey(owner);
+        CalculationTask task;
+        synchronized (this.pending) {
+            Map<Object, CalculationTask> ownerTasks = this.pending.get(ownerKey);
+            CalculationTask existing = (ownerTasks != null) ? ownerTasks.get(key) : null;
+            if (existing != null && !existing.isDone()) {
+                if (priority && !existing.priority) {
+                    // enqueue again, the task is only executed once
+                    existing.priority = true;
+                    this.priorityQueue.offer(existing);
+                } else {
+                    return existing;
+                }
+                task = existing;
+            } else {
+                if (ownerTasks == null) {
+                    ownerTasks = new HashMap<>();
+                    this.pending.put(ownerKey, ownerTasks);
+                }
+                task = new CalculationTask(ownerKey, key, calculation, priority);
+                if (ownerTasks.put(key, task) == null) {
+                    this.pendingCount++;
+                }
+                (priority ? this.priorityQueue : this.queue).offer(task);
+            }
+        }
+        startWorker();
+        return task;
+    }
+
+    /**
+     * Cancel all pending calculations of the given owner. Calculations that are
+     * already running are not interrupted.
+     *
+     * @param owner
+     *            The owner whose pending calculations should be cancelled.
+     */
+    public void cancel(Object owner) {
+        Map<Object, CalculationTask> ownerTasks;
+        synchronized (this.pending) {
+            ownerTasks = this.pending.remove(new OwnerKey(owner));
+            if (ownerTasks != null) {
+                this.pendingCount -= ownerTasks.size();
+            }
+        }
+        if (ownerTasks != null) {
+            for (CalculationTask task : ownerTasks.values()) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * @return The number of calculations that are scheduled but not started.
+     */
+    public int getPendingCount() {
+        synchronized (this.pending) {
+            return this.pendingCount;
+        }
+    }
+
+    /**
+     * Cancel all pending calculations and shut down the threads of this
+     * service. Should not be called for the {@link #getDefault() default}
+     * instance.
+     */
+    public void shutdown() {
+        List<CalculationTask> tasks = new ArrayList<>();
+        synchronized (this.pending) {
+            this.pending.values().forEach(ownerTasks -> tasks.addAll(ownerTasks.values()));
+            this.pending.clear();
+            this.pendingCount = 0;
+        }
+        tasks.forEach(task -> task.cancel(false));
+        this.priorityQueue.clear();
+        this.queue.clear();
+        this.pool.shutdownNow();
+    }
+
+    private void startWorker() {
+        if (acquireWorker()) {
+            try {
+                this.pool.execute(this::processQueue);
+            } catch (RuntimeException e) {
+                // the pool was shut down
+                this.activeWorkers.decrementAndGet();
+            }
+        }
+    }
+
+    private boolean acquireWorker() {
+        int active;
+        do {
+            active = this.activeWorkers.get();
+            if (active >= this.parallelism) {
+                return false;
+            }
+        } while (!this.activeWorkers.compareAndSet(active, active + 1));
+        return true;
+    }
+
+    private void processQueue() {
+        do {
+            CalculationTask task;
+            while ((task = poll()) != null) {
+                // remove from the pending tasks before execution, so
+                // submissions while running trigger a new calculation on the
+                // then current state
+                removePending(task);
+                task.run();
+            }
+            this.activeWorkers.decrementAndGet();
+            // re-check to not miss tasks that were added while decrementing
+        } while ((!this.priorityQueue.isEmpty() || !this.queue.isEmpty()) && acquireWorker());
+    }
+
+    private void removePending(CalculationTask task) {
+        synchronized (this.pending) {
+            Map<Object, CalculationTask> ownerTasks = this.pending.get(task.ownerKey);
+            if (ownerTasks != null && ownerTasks.get(task.key) == task) {
+                ownerTasks.remove(task.key);
+                this.pendingCount--;
+                if (ownerTasks.isEmpty()) {
+                    this.pending.remove(task.ownerKey);
+                }
+            }
+        }
+    }
+
+    private CalculationTask poll() {
+        CalculationTask task = this.priorityQueue.poll();
+        return (task != null) ? task : this.queue.poll();
+    }
+
+    /**
+     * Identity based key of an owner, as owners might implement equals.
+     */
+    private static final class OwnerKey {
+
+        private final Object owner;
+
+        OwnerKey(Object owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.owner);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof OwnerKey && ((OwnerKey) obj).owner == this.owner;
+        }
+    }
+
+    private static final class CalculationTask extends FutureTask<Void> {
+
+        private final OwnerKey ownerKey;
+        private final Object key;
+        private volatile boolean priority;
+
+        CalculationTask(OwnerKey ownerKey, Object key, Runnable calculation, boolean priority) {
+            super(calculation, null);
+            this.ownerKey = ownerKey;
+            this.key = key;
+            this.priority = priority;
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            LOG.error("Error on background calculation", t); //$NON-NLS-1$
+            super.setException(t);
+        }
+    }
+}
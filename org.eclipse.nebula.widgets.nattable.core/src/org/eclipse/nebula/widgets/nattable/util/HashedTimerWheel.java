@@ -0,0 +1,352 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed timer wheel that drives a large number of timeouts with a single
+ * periodic task. Instead of scheduling a task per timeout on a
+ * {@link ScheduledExecutorService}, the timeouts are put into the bucket of
+ * the tick in which they expire. On every tick only the entries of the current
+ * bucket are checked, and all timeouts that expired in that tick are passed to
+ * the expiration handler of their {@link TimerQueue} together, so the handler
+ * can process them in a single step, e.g. with a single repaint.
+ * <p>
+ * Timeouts are not exact, they expire up to one tick duration after their
+ * delay. The periodic task only runs while timeouts are scheduled.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class HashedTimerWheel {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HashedTimerWheel.class);
+
+    /**
+     * The default duration of a tick in milliseconds.
+     */
+    public static final long DEFAULT_TICK_DURATION = 25L;
+
+    /**
+     * The default number of buckets of the wheel.
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 128;
+
+    private final ScheduledExecutorService executor;
+    private final long tickDuration;
+    private final List<Entry<?>>[] buckets;
+    private final int mask;
+
+    private long startTime;
+    private long currentTick;
+    private int entryCount;
+    private ScheduledFuture<?> tickFuture;
+
+    /**
+     * Create a {@link HashedTimerWheel} with the default tick duration and
+     * wheel size.
+     *
+     * @param executor
+     *            The executor that is used to run the periodic tick task.
+     */
+    public HashedTimerWheel(ScheduledExecutorService executor) {
+        this(executor, DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     *
+     * @param executor
+     *            The executor that is used to run the periodic tick task.
+     * @param tickDuration
+     *            The duration of a tick in milliseconds.
+     * @param wheelSize
+     *            The number of buckets of the wheel, which is rounded up to
+     *            the next power of two.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public HashedTimerWheel(ScheduledExecutorService executor, long tickDuration, int wheelSize) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration needs to be greater than 0"); //$NON-NLS-1$
+        }
+        if (wheelSize <= 0) {
+            throw new IllegalArgumentException("wheelSize needs to be greater than 0"); //$NON-NLS-1$
+        }
+        this.executor = executor;
+        this.tickDuration = tickDuration;
+
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.buckets = new List[size];
+        for (int i = 0; i < size; i++) {
+            this.buckets[i] = new ArrayList<Entry<?>>();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Create a new {@link TimerQueue} whose timeouts are driven by this
+     * wheel.
+     *
+     * @param expirationHandler
+     *            The handler that is called from the tick thread with the keys
+     *            of all timeouts of the queue that expired in a tick.
+     * @return The new {@link TimerQueue}.
+     */
+    public <K> TimerQueue<K> createQueue(Consumer<Collection<K>> expirationHandler) {
+        return new TimerQueue<K>(expirationHandler);
+    }
+
+    /**
+     * @return The duration of a tick in milliseconds.
+     */
+    public long getTickDuration() {
+        return this.tickDuration;
+    }
+
+    /**
+     * Cancel all scheduled timeouts and stop the periodic tick task.
+     */
+    public synchronized void dispose() {
+        for (List<Entry<?>> bucket : this.buckets) {
+            for (Entry<?> entry : bucket) {
+                entry.remove();
+            }
+            bucket.clear();
+        }
+        this.entryCount = 0;
+        stopTicking();
+    }
+
+    private synchronized <K> void schedule(TimerQueue<K> queue, K key, long delay) {
+        Entry<K> previous = queue.entries.remove(key);
+        if (previous != null) {
+            previous.cancel();
+        }
+
+        if (this.tickFuture == null) {
+            this.startTime = System.nanoTime();
+            this.currentTick = 0;
+            this.tickFuture = this.executor.scheduleAtFixedRate(
+                    this::tick, this.tickDuration, this.tickDuration, TimeUnit.MILLISECONDS);
+        }
+
+        // tick n is executed n tick durations after the start of the wheel
+        long expiration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startTime) + delay;
+        long deadline = Math.max(this.currentTick + 1, (expiration + this.tickDuration - 1) / this.tickDuration);
+        Entry<K> entry = new Entry<K>(queue, key, deadline);
+        queue.entries.put(key, entry);
+        this.buckets[(int) (deadline & this.mask)].add(entry);
+        this.entryCount++;
+    }
+
+    private synchronized <K> boolean cancel(TimerQueue<K> queue, K key) {
+        Entry<K> entry = queue.entries.remove(key);
+        if (entry != null) {
+            entry.cancel();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Advance the wheel by one tick and inform the queues about the timeouts
+     * that expired in that tick.
+     */
+    private void tick() {
+        List<TimerQueue<?>> expiredQueues = null;
+        List<Collection<?>> expiredKeys = null;
+        synchronized (this) {
+            this.currentTick++;
+            List<Entry<?>> bucket = this.buckets[(int) (this.currentTick & this.mask)];
+            int kept = 0;
+            for (int i = 0; i < bucket.size(); i++) {
+                Entry<?> entry = bucket.get(i);
+                if (entry.cancelled) {
+                    continue;
+                }
+                if (entry.deadline <= this.currentTick) {
+                    entry.expire();
+                    if (entry.queue.expired.size() == 1) {
+                        if (expiredQueues == null) {
+                            expiredQueues = new ArrayList<TimerQueue<?>>(2);
+                        }
+                        expiredQueues.add(entry.queue);
+                    }
+                } else {
+                    // expires in a later round of the wheel
+                    bucket.set(kept++, entry);
+                }
+            }
+            bucket.subList(kept, bucket.size()).clear();
+
+            if (expiredQueues != null) {
+                expiredKeys = new ArrayList<Collection<?>>(expiredQueues.size());
+                for (TimerQueue<?> queue : expiredQueues) {
+                    expiredKeys.add(queue.drainExpired());
+                }
+            }
+
+            if (this.entryCount == 0) {
+                // only cancelled entries are left
+                for (List<Entry<?>> b : this.buckets) {
+                    b.clear();
+                }
+                stopTicking();
+            }
+        }
+
+        if (expiredQueues != null) {
+            // inform the handlers outside the lock, so they can schedule
+            // new timeouts
+            for (int i = 0; i < expiredQueues.size(); i++) {
+                try {
+                    expiredQueues.get(i).notifyExpired(expiredKeys.get(i));
+                } catch (RuntimeException e) {
+                    // an exception would stop the periodic task
+                    LOG.error("Error on handling expired timeouts", e); //$NON-NLS-1$
+                }
+            }
+        }
+    }
+
+    private void stopTicking() {
+        if (this.tickFuture != null) {
+            this.tickFuture.cancel(false);
+            this.tickFuture = null;
+        }
+    }
+
+    /**
+     * Timeouts of a single consumer of the {@link HashedTimerWheel}, identified
+     * by keys. Scheduling a timeout for a key that is already scheduled
+     * replaces the previous timeout.
+     *
+     * @param <K>
+     *            The type of the keys that identify the timeouts.
+     */
+    public final class TimerQueue<K> {
+
+        private final Consumer<Collection<K>> expirationHandler;
+        private final Map<K, Entry<K>> entries = new HashMap<K, Entry<K>>();
+        private List<K> expired = new ArrayList<K>();
+
+        private TimerQueue(Consumer<Collection<K>> expirationHandler) {
+            this.expirationHandler = expirationHandler;
+        }
+
+        /**
+         * Schedule a timeout for the given key. A timeout that is already
+         * scheduled for the key is replaced.
+         *
+         * @param key
+         *            The key that identifies the timeout.
+         * @param delay
+         *            The delay in milliseconds after which the timeout
+         *            expires.
+         */
+        public void schedule(K key, long delay) {
+            HashedTimerWheel.this.schedule(this, key, delay);
+        }
+
+        /**
+         * Cancel the timeout for the given key.
+         *
+         * @param key
+         *            The key that identifies the timeout.
+         * @return <code>true</code> if a timeout was scheduled for the key.
+         */
+        public boolean cancel(K key) {
+            return HashedTimerWheel.this.cancel(this, key);
+        }
+
+        /**
+         * @param key
+         *            The key that identifies the timeout.
+         * @return <code>true</code> if a timeout is scheduled for the key.
+         */
+        public boolean isScheduled(K key) {
+            synchronized (HashedTimerWheel.this) {
+                return this.entries.containsKey(key);
+            }
+        }
+
+        /**
+         * @return The number of scheduled timeouts.
+         */
+        public int size() {
+            synchronized (HashedTimerWheel.this) {
+                return this.entries.size();
+            }
+        }
+
+        private List<K> drainExpired() {
+            List<K> result = this.expired;
+            this.expired = new ArrayList<K>();
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void notifyExpired(Collection<?> keys) {
+            this.expirationHandler.accept((Collection<K>) keys);
+        }
+    }
+
+    /**
+     * A scheduled timeout.
+     */
+    private final class Entry<K> {
+
+        private final TimerQueue<K> queue;
+        private final K key;
+        private final long deadline;
+        private boolean cancelled;
+
+        Entry(TimerQueue<K> queue, K key, long deadline) {
+            this.queue = queue;
+            this.key = key;
+            this.deadline = deadline;
+        }
+
+        void cancel() {
+            this.cancelled = true;
+            HashedTimerWheel.this.entryCount--;
+        }
+
+        void expire() {
+            this.queue.entries.remove(this.key);
+            this.queue.expired.add(this.key);
+            HashedTimerWheel.this.entryCount--;
+        }
+
+        void remove() {
+            if (!this.cancelled) {
+                this.cancelled = true;
+                this.queue.entries.remove(this.key);
+            }
+        }
+    }
+}
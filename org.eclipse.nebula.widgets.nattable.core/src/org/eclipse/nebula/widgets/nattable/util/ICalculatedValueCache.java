@@ -101,7 +101,7 @@ public abstract Object getCalculatedValue(int columnPosition,
     public abstract void killCache();
 
     /**
-     * Cleaning up internal resources like shutting down the ExecutorService.
+     * Cleaning up internal resources like cancelling pending calculations.
      */
     public abstract void dispose();
 
@@ -0,0 +1,386 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Point;
+
+/**
+ * Cache for text extents that is shared by the text painters, so the text
+ * extent of a text is only measured once per font. As scaled fonts are
+ * separate {@link Font} instances, the cache key also reflects the scaling.
+ * <p>
+ * The extents are cached per font in a LRU cache with a maximum number of
+ * entries. Additionally a table with the advance widths of the printable ASCII
+ * characters is created per font. If the sum of the advance widths matches
+ * the measured text width for the font, widths of single line ASCII texts are
+ * calculated via the table without measuring and without caching them. The
+ * table can also be requested as {@link AsciiWidthTable} via
+ * {@link #getAsciiWidthTable(GC)} to calculate text widths without a
+ * {@link GC}, e.g. in background threads.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class TextMetricsCache {
+
+    /**
+     * The default maximum number of cached text extents per font.
+     */
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    private static final TextMetricsCache DEFAULT = new TextMetricsCache(DEFAULT_MAX_SIZE);
+
+    private static final char FIRST_ASCII = ' ';
+    private static final char LAST_ASCII = '~';
+
+    /**
+     * Texts that are used to check whether the advance widths of characters
+     * add up to the measured text width.
+     */
+    private static final String[] ASCII_PROBES = new String[] {
+            createPrintableAscii(),
+            "Hello World", //$NON-NLS-1$
+            "AVAWAYTo.,", //$NON-NLS-1$
+            "1,234,567.89" //$NON-NLS-1$
+    };
+
+    private final int maxSize;
+    private final Map<Font, FontMetrics> fontMetrics = new WeakHashMap<>();
+
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * @return The {@link TextMetricsCache} that is shared by the NatTable text
+     *         painters.
+     */
+    public static TextMetricsCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Creates a new {@link TextMetricsCache}.
+     *
+     * @param maxSize
+     *            The maximum number of cached text extents per font.
+     */
+    public TextMetricsCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the width of the given text with the current font of the given
+     * {@link GC}, like <code>gc.textExtent(text).x</code>.
+     *
+     * @param gc
+     *            The {@link GC} used to measure the text.
+     * @param text
+     *            The text to measure.
+     * @return The width of the text in pixels.
+     */
+    public int getTextWidth(GC gc, String text) {
+        return getExtent(gc.getFont(), text, new GCMeasurer(gc)).x;
+    }
+
+    /**
+     * Returns the height of the given text with the current font of the given
+     * {@link GC}, like <code>gc.textExtent(text).y</code>.
+     *
+     * @param gc
+     *            The {@link GC} used to measure the text.
+     * @param text
+     *            The text to measure.
+     * @return The height of the text in pixels.
+     */
+    public int getTextHeight(GC gc, String text) {
+        return getExtent(gc.getFont(), text, new GCMeasurer(gc)).y;
+    }
+
+    /**
+     * Returns the extent of the given text with the current font of the given
+     * {@link GC}, like <code>gc.textExtent(text)</code>.
+     *
+     * @param gc
+     *            The {@link GC} used to measure the text.
+     * @param text
+     *            The text to measure.
+     * @return The extent of the text in pixels.
+     */
+    public Point getTextExtent(GC gc, String text) {
+        Point extent = getExtent(gc.getFont(), text, new GCMeasurer(gc));
+        return new Point(extent.x, extent.y);
+    }
+
+    /**
+     * Returns the cached extent of the given text, or measures it with the
+     * given {@link ITextMeasurer}. The returned {@link Point} must not be
+     * modified.
+     */
+    synchronized Point getExtent(Font font, String text, ITextMeasurer measurer) {
+        FontMetrics metrics = this.fontMetrics.get(font);
+        if (metrics == null) {
+            metrics = new FontMetrics(this.maxSize);
+            this.fontMetrics.put(font, metrics);
+        }
+
+        Point extent = metrics.getAsciiExtent(text, measurer);
+        if (extent == null) {
+            extent = metrics.extents.get(text);
+        }
+        if (extent != null) {
+            this.hitCount++;
+            return extent;
+        }
+
+        this.missCount++;
+        extent = measurer.textExtent(text);
+        metrics.extents.put(text, extent);
+        return extent;
+    }
+
+    /**
+     * Returns the widths of the printable ASCII characters for the current font
+     * of the given {@link GC}. The returned table is immutable and does not
+     * reference any SWT resources, so it can be used in any thread.
+     *
+     * @param gc
+     *            The {@link GC} used to measure the characters.
+     * @return The {@link AsciiWidthTable} of the current font, or
+     *         <code>null</code> if the widths of the characters do not add up
+     *         to the measured text widths for the font, e.g. because of
+     *         kerning.
+     */
+    public AsciiWidthTable getAsciiWidthTable(GC gc) {
+        return getAsciiWidthTable(gc.getFont(), new GCMeasurer(gc));
+    }
+
+    /**
+     * Returns the {@link AsciiWidthTable} for the given font and initializes
+     * the character widths with the given {@link ITextMeasurer} if necessary.
+     */
+    synchronized AsciiWidthTable getAsciiWidthTable(Font font, ITextMeasurer measurer) {
+        FontMetrics metrics = this.fontMetrics.get(font);
+        if (metrics == null) {
+            metrics = new FontMetrics(this.maxSize);
+            this.fontMetrics.put(font, metrics);
+        }
+        if (metrics.asciiWidths == null) {
+            metrics.initAsciiWidths(measurer);
+        }
+        if (!metrics.asciiFastPath) {
+            return null;
+        }
+        if (metrics.widthTable == null) {
+            metrics.widthTable = new AsciiWidthTable(metrics.asciiWidths.clone());
+        }
+        return metrics.widthTable;
+    }
+
+    /**
+     * Removes all cached text extents and character width tables.
+     */
+    public synchronized void clear() {
+        this.fontMetrics.clear();
+    }
+
+    /**
+     * @return The number of text extents that were returned without measuring.
+     */
+    public synchronized long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * @return The number of text extents that needed to be measured.
+     */
+    public synchronized long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * @return The number of cached text extents over all fonts.
+     */
+    public synchronized int getSize() {
+        int size = 0;
+        for (FontMetrics metrics : this.fontMetrics.values()) {
+            size += metrics.extents.size();
+        }
+        return size;
+    }
+
+    /**
+     * Resets the hit and miss statistics.
+     */
+    public synchronized void resetStatistics() {
+        this.hitCount = 0;
+        this.missCount = 0;
+    }
+
+    private static String createPrintableAscii() {
+        StringBuilder builder = new StringBuilder();
+        for (char c = FIRST_ASCII; c <= LAST_ASCII; c++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Immutable table with the advance widths of the printable ASCII
+     * characters of a font.
+     *
+     * @see TextMetricsCache#getAsciiWidthTable(GC)
+     */
+    public static final class AsciiWidthTable {
+
+        private final int[] widths;
+
+        private AsciiWidthTable(int[] widths) {
+            this.widths = widths;
+        }
+
+        /**
+         * Calculates the width of a single line text.
+         *
+         * @param text
+         *            The text to measure.
+         * @return The width of the text in pixels, or -1 if the text contains
+         *         characters that are not printable ASCII characters, e.g.
+         *         line breaks.
+         */
+        public int getTextWidth(String text) {
+            int width = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < FIRST_ASCII || c > LAST_ASCII) {
+                    return -1;
+                }
+                width += this.widths[c - FIRST_ASCII];
+            }
+            return width;
+        }
+    }
+
+    /**
+     * Measures texts, abstracts the {@link GC}.
+     */
+    interface ITextMeasurer {
+
+        Point textExtent(String text);
+
+        int getAdvanceWidth(char c);
+    }
+
+    private static final class GCMeasurer implements ITextMeasurer {
+
+        private final GC gc;
+
+        GCMeasurer(GC gc) {
+            this.gc = gc;
+        }
+
+        @Override
+        public Point textExtent(String text) {
+            return this.gc.textExtent(text);
+        }
+
+        @Override
+        public int getAdvanceWidth(char c) {
+            return this.gc.getAdvanceWidth(c);
+        }
+    }
+
+    /**
+     * The cached metrics of a single font.
+     */
+    private static final class FontMetrics {
+
+        private final Map<String, Point> extents;
+
+        /**
+         * The advance widths of the printable ASCII characters, or
+         * <code>null</code> if not initialized yet.
+         */
+        private int[] asciiWidths;
+        private boolean asciiFastPath;
+        private int lineHeight;
+        private AsciiWidthTable widthTable;
+
+        FontMetrics(final int maxSize) {
+            this.extents = new LinkedHashMap<String, Point>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Point> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        /**
+         * @return The extent of the given text calculated via the ASCII width
+         *         table, or <code>null</code> if the text contains other
+         *         characters or the table can not be used for the font.
+         */
+        Point getAsciiExtent(String text, ITextMeasurer measurer) {
+            if (text.isEmpty()) {
+                return null;
+            }
+            if (this.asciiWidths == null) {
+                initAsciiWidths(measurer);
+            }
+            if (!this.asciiFastPath) {
+                return null;
+            }
+
+            int width = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < FIRST_ASCII || c > LAST_ASCII) {
+                    return null;
+                }
+                width += this.asciiWidths[c - FIRST_ASCII];
+            }
+            return new Point(width, this.lineHeight);
+        }
+
+        private void initAsciiWidths(ITextMeasurer measurer) {
+            this.asciiWidths = new int[LAST_ASCII - FIRST_ASCII + 1];
+            for (char c = FIRST_ASCII; c <= LAST_ASCII; c++) {
+                this.asciiWidths[c - FIRST_ASCII] = measurer.getAdvanceWidth(c);
+            }
+
+            // only use the table if the advance widths add up to the measured
+            // width, which is not the case for fonts with kerning or
+            // fractional advance widths
+            this.asciiFastPath = true;
+            for (String probe : ASCII_PROBES) {
+                Point extent = measurer.textExtent(probe);
+                int sum = 0;
+                for (int i = 0; i < probe.length(); i++) {
+                    sum += this.asciiWidths[probe.charAt(i) - FIRST_ASCII];
+                }
+                if (sum != extent.x || (this.lineHeight != 0 && this.lineHeight != extent.y)) {
+                    this.asciiFastPath = false;
+                    break;
+                }
+                this.lineHeight = extent.y;
+            }
+        }
+    }
+}
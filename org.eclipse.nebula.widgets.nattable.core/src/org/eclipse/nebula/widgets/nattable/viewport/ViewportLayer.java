@@ -431,9 +431,10 @@ public void setOriginX(int newOriginX) {
         newOriginX = boundsCheckOriginX(adjustOriginX(newOriginX));
 
         if (newOriginX != this.origin.getX()) {
+            int deltaX = newOriginX - this.origin.getX();
             invalidateHorizontalStructure();
             this.origin = new PixelCoordinate(newOriginX, this.origin.getY());
-            fireScrollEvent();
+            fireScrollEvent(deltaX, 0);
         }
     }
 
@@ -448,9 +449,10 @@ public void setOriginY(int newOriginY) {
         newOriginY = boundsCheckOriginY(adjustOriginY(newOriginY));
 
         if (newOriginY != this.origin.getY()) {
+            int deltaY = newOriginY - this.origin.getY();
             invalidateVerticalStructure();
             this.origin = new PixelCoordinate(this.origin.getX(), newOriginY);
-            fireScrollEvent();
+            fireScrollEvent(0, deltaY);
         }
     }
 
@@ -1016,6 +1018,21 @@ protected void fireScrollEvent() {
         fireLayerEvent(new ScrollEvent(this));
     }
 
+    /**
+     * Fires a {@link ScrollEvent} that carries the scrolled pixel distance,
+     * which enables the NatTable to shift the already painted area instead of
+     * repainting everything.
+     *
+     * @param deltaX
+     *            The number of pixels the horizontal origin was moved.
+     * @param deltaY
+     *            The number of pixels the vertical origin was moved.
+     * @since 2.0
+     */
+    protected void fireScrollEvent(int deltaX, int deltaY) {
+        fireLayerEvent(new ScrollEvent(this, deltaX, deltaY));
+    }
+
     boolean processingClientAreaResizeCommand = false;
 
     @Override
@@ -20,12 +20,41 @@
 
 public class ScrollEvent extends StructuralRefreshEvent {
 
+    private final ViewportLayer viewportLayer;
+    private final int deltaX;
+    private final int deltaY;
+
     public ScrollEvent(ViewportLayer viewportLayer) {
+        this(viewportLayer, 0, 0);
+    }
+
+    /**
+     * Create a {@link ScrollEvent} that carries the scrolled pixel distance.
+     *
+     * @param viewportLayer
+     *            The {@link ViewportLayer} that was scrolled.
+     * @param deltaX
+     *            The number of pixels the horizontal origin was moved, 0 if
+     *            the viewport was not scrolled horizontally or the distance is
+     *            unknown.
+     * @param deltaY
+     *            The number of pixels the vertical origin was moved, 0 if the
+     *            viewport was not scrolled vertically or the distance is
+     *            unknown.
+     * @since 2.0
+     */
+    public ScrollEvent(ViewportLayer viewportLayer, int deltaX, int deltaY) {
         super(viewportLayer);
+        this.viewportLayer = viewportLayer;
+        this.deltaX = deltaX;
+        this.deltaY = deltaY;
     }
 
     protected ScrollEvent(ScrollEvent event) {
         super(event);
+        this.viewportLayer = event.viewportLayer;
+        this.deltaX = event.deltaX;
+        this.deltaY = event.deltaY;
     }
 
     @Override
@@ -33,6 +62,34 @@ public ScrollEvent cloneEvent() {
         return new ScrollEvent(this);
     }
 
+    /**
+     * @return The {@link ViewportLayer} that was scrolled.
+     * @since 2.0
+     */
+    public ViewportLayer getViewportLayer() {
+        return this.viewportLayer;
+    }
+
+    /**
+     * @return The number of pixels the horizontal origin of the viewport was
+     *         moved. Positive if the viewport was scrolled to the right, 0 if
+     *         it was not scrolled horizontally or the distance is unknown.
+     * @since 2.0
+     */
+    public int getDeltaX() {
+        return this.deltaX;
+    }
+
+    /**
+     * @return The number of pixels the vertical origin of the viewport was
+     *         moved. Positive if the viewport was scrolled down, 0 if it was
+     *         not scrolled vertically or the distance is unknown.
+     * @since 2.0
+     */
+    public int getDeltaY() {
+        return this.deltaY;
+    }
+
     @Override
     public Collection<StructuralDiff> getColumnDiffs() {
         // TODO this is bogus - should have a horiz/vert scroll event instead
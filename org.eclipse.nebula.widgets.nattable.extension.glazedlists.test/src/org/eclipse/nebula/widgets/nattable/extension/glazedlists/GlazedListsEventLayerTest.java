@@ -12,10 +12,14 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -26,7 +30,10 @@
 import org.eclipse.nebula.widgets.nattable.dataset.fixture.data.RowDataListFixture;
 import org.eclipse.nebula.widgets.nattable.extension.glazedlists.fixture.DataLayerFixture;
 import org.eclipse.nebula.widgets.nattable.extension.glazedlists.fixture.LayerListenerFixture;
+import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateBatchEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -106,4 +113,61 @@ public void propertyChangeEventshouldBePropagatedImmediately() throws Exception
 
         assertNotNull(this.listenerFixture.getReceivedEvent(PropertyUpdateEvent.class));
     }
+
+    @Test
+    public void propertyChangeEventsShouldBeCoalesced() throws Exception {
+        this.layerUnderTest.setPropertyUpdateCoalescing(true);
+        CountDownLatch countDownLatch = new CountDownLatch(1);
+        this.listenerFixture.setCountDownLatch(countDownLatch);
+
+        List<BlinkingRowDataFixture> list = BlinkingRowDataFixture.getList(this.layerUnderTest);
+        double oldAskPrice = list.get(0).getAsk_price();
+        list.get(0).setAsk_price(100.0F);
+        list.get(0).setAsk_price(101.0F);
+        list.get(0).setBid_price(99.0F);
+        list.get(1).setAsk_price(102.0F);
+
+        boolean completed = countDownLatch.await(500, TimeUnit.MILLISECONDS);
+        assertTrue(completed, "Timeout - no event received");
+        assertFalse(this.listenerFixture.containsInstanceOf(PropertyUpdateEvent.class));
+
+        @SuppressWarnings("unchecked")
+        PropertyUpdateBatchEvent<BlinkingRowDataFixture> batchEvent =
+                (PropertyUpdateBatchEvent<BlinkingRowDataFixture>) this.listenerFixture.getReceivedEvent(PropertyUpdateBatchEvent.class);
+        assertNotNull(batchEvent);
+        assertEquals(3, batchEvent.getUpdateEvents().size());
+        for (PropertyUpdateEvent<BlinkingRowDataFixture> event : batchEvent.getUpdateEvents()) {
+            if (event.getSourceBean() == list.get(0) && "ask_price".equals(event.getPropertyName())) {
+                assertEquals(Double.valueOf(oldAskPrice), event.getOldValue());
+                assertEquals(Double.valueOf(101.0D), event.getNewValue());
+            }
+        }
+    }
+
+    @Test
+    public void shouldFireDetailedStructuralChanges() throws Exception {
+        this.layerUnderTest.setDetailedStructuralChanges(true);
+
+        // the first change after enabling triggers a refresh, as the changes
+        // before were not tracked
+        CountDownLatch countDownLatch = new CountDownLatch(1);
+        this.listenerFixture.setCountDownLatch(countDownLatch);
+        this.listFixture.add(RowDataFixture.getInstance("T1", "A"));
+        assertTrue(countDownLatch.await(500, TimeUnit.MILLISECONDS), "Timeout - no event received");
+        assertNotNull(this.listenerFixture.getReceivedEvent(RowStructuralRefreshEvent.class));
+
+        this.listenerFixture.clearReceivedEvents();
+        countDownLatch = new CountDownLatch(1);
+        this.listenerFixture.setCountDownLatch(countDownLatch);
+        int size = this.listFixture.size();
+        this.listFixture.addAll(Arrays.asList(
+                RowDataFixture.getInstance("T2", "A"),
+                RowDataFixture.getInstance("T3", "A")));
+        assertTrue(countDownLatch.await(500, TimeUnit.MILLISECONDS), "Timeout - no event received");
+
+        assertNull(this.listenerFixture.getReceivedEvent(RowStructuralRefreshEvent.class));
+        RowInsertEvent insertEvent = (RowInsertEvent) this.listenerFixture.getReceivedEvent(RowInsertEvent.class);
+        assertNotNull(insertEvent);
+        assertEquals(Arrays.asList(new Range(size, size + 2)), new ArrayList<>(insertEvent.getRowPositionRanges()));
+    }
 }
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.junit.jupiter.api.Test;
+
+public class RowChangeAccumulatorTest {
+
+    @Test
+    public void shouldMergeAppends() {
+        RowChangeAccumulator changes = new RowChangeAccumulator(10, 5);
+        for (int i = 0; i < 1000; i++) {
+            changes.insert(5 + i);
+        }
+
+        assertTrue(changes.isChanged());
+        assertEquals(Arrays.asList(new Range(5, 1005)), changes.getInsertedRanges());
+        assertEquals(Collections.emptyList(), changes.getDeletedRanges());
+    }
+
+    @Test
+    public void shouldCancelInsertAndDelete() {
+        RowChangeAccumulator changes = new RowChangeAccumulator(10, 5);
+        changes.insert(2);
+        changes.delete(2);
+
+        assertEquals(Collections.emptyList(), changes.getInsertedRanges());
+        assertEquals(Collections.emptyList(), changes.getDeletedRanges());
+    }
+
+    @Test
+    public void shouldTrackDeletesInOriginalIndexes() {
+        RowChangeAccumulator changes = new RowChangeAccumulator(10, 10);
+        // deleting everything results in deletes at index 0
+        changes.delete(0);
+        changes.delete(0);
+        changes.delete(5);
+        changes.insert(0);
+        changes.delete(7);
+
+        // original rows 2-6 and 8 remain
+        assertEquals(Arrays.asList(new Range(0, 2), new Range(7, 8), new Range(9, 10)), changes.getDeletedRanges());
+        assertEquals(Arrays.asList(new Range(0, 1)), changes.getInsertedRanges());
+
+        changes.reset(7);
+        assertFalse(changes.isChanged());
+        assertEquals(Collections.emptyList(), changes.getDeletedRanges());
+    }
+
+    @Test
+    public void shouldInvalidateOnScatteredChanges() {
+        RowChangeAccumulator changes = new RowChangeAccumulator(10, 100);
+        for (int i = 0; i < 20; i++) {
+            changes.delete(i * 3);
+        }
+
+        assertTrue(changes.isInvalid());
+    }
+}
@@ -14,14 +14,22 @@
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.nebula.widgets.nattable.command.DisposeResourcesCommand;
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.layer.AbstractLayerTransform;
 import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateBatchEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.VisualRefreshEvent;
 import org.eclipse.nebula.widgets.nattable.util.Scheduler;
@@ -39,10 +47,19 @@
  * </ol>
  * GlazedLists events are conflated at a 100ms interval i.e a single
  * {@link RowStructuralRefreshEvent} is fired for any number of GlazedLists
- * events received during that interval.
+ * events received during that interval. Via
+ * {@link #setDetailedStructuralChanges(boolean)} the inserts and deletes of an
+ * interval can instead be merged into a {@link RowDeleteEvent} and a
+ * {@link RowInsertEvent} with the net changes, so the layers above can update
+ * their states incrementally instead of rebuilding them.
  * <p>
  * PropertyChangeEvent(s) are propagated immediately as a
- * {@link PropertyUpdateEvent}.
+ * {@link PropertyUpdateEvent}. For high update rates the property change
+ * coalescing can be enabled via {@link #setPropertyUpdateCoalescing(boolean)}.
+ * In that mode the updates are collected in a concurrent buffer that keeps one
+ * update per bean and property, and are delivered once per frame as a single
+ * {@link PropertyUpdateBatchEvent}. The interval between the deliveries adapts
+ * to the time the UI thread needs to process and paint the updates.
  *
  * @param <T>
  *            Type of the bean in the backing list.
@@ -52,6 +69,32 @@
         implements IUniqueIndexLayer, ListEventListener<T>, PropertyChangeListener {
 
     private static final Scheduler scheduler = new Scheduler("GlazedListsEventLayer"); //$NON-NLS-1$
+
+    /**
+     * The minimum interval in milliseconds between two deliveries of coalesced
+     * property updates, which is about the duration of one frame.
+     *
+     * @since 2.0
+     */
+    public static final long MIN_PROPERTY_UPDATE_INTERVAL = 16L;
+
+    /**
+     * The maximum interval in milliseconds between two deliveries of coalesced
+     * property updates.
+     *
+     * @since 2.0
+     */
+    public static final long MAX_PROPERTY_UPDATE_INTERVAL = 250L;
+
+    /**
+     * The maximum number of separate row ranges that are tracked for the
+     * detailed structural changes of an interval. If the changes are more
+     * scattered, a {@link RowStructuralRefreshEvent} is fired instead.
+     *
+     * @since 2.0
+     */
+    public static final int MAX_STRUCTURAL_CHANGE_RANGES = 1024;
+
     private final IUniqueIndexLayer underlying;
     private final ScheduledFuture<?> future;
     private EventList<T> eventList;
@@ -62,10 +105,19 @@
 
     private boolean active = true;
 
+    private volatile boolean coalescePropertyUpdates = false;
+    private final ConcurrentHashMap<PropertyKey, PropertyUpdateEvent<T>> propertyUpdates = new ConcurrentHashMap<>();
+    private final AtomicBoolean propertyUpdatesScheduled = new AtomicBoolean();
+    private volatile long propertyUpdateInterval = MIN_PROPERTY_UPDATE_INTERVAL;
+
+    private volatile boolean detailedStructuralChanges = false;
+    private final RowChangeAccumulator rowChanges;
+
     public GlazedListsEventLayer(IUniqueIndexLayer underlyingLayer, EventList<T> eventList) {
         super(underlyingLayer);
         this.underlying = underlyingLayer;
         this.eventList = eventList;
+        this.rowChanges = new RowChangeAccumulator(MAX_STRUCTURAL_CHANGE_RANGES, eventList.size());
 
         this.eventList.addListEventListener(this);
 
@@ -83,6 +135,22 @@ protected Runnable getEventNotifier() {
             @Override
             public void run() {
                 if (GlazedListsEventLayer.this.eventsToProcess && GlazedListsEventLayer.this.active) {
+                    if (GlazedListsEventLayer.this.detailedStructuralChanges) {
+                        GlazedListsEventLayer.this.eventsToProcess = false;
+                        GlazedListsEventLayer.this.structuralChangeEventsToProcess = false;
+                        if (!GlazedListsEventLayer.this.testMode && Display.getCurrent() == null) {
+                            Display.getDefault().asyncExec(new Runnable() {
+                                @Override
+                                public void run() {
+                                    fireRowChanges();
+                                }
+                            });
+                        } else {
+                            fireRowChanges();
+                        }
+                        return;
+                    }
+
                     ILayerEvent layerEvent;
                     if (GlazedListsEventLayer.this.structuralChangeEventsToProcess) {
                         layerEvent = new RowStructuralRefreshEvent(getUnderlyingLayer());
@@ -102,15 +170,77 @@ public void run() {
 
     @Override
     public void listChanged(ListEvent<T> event) {
+        boolean detailed = this.detailedStructuralChanges;
+        if (detailed && event.isReordering()) {
+            this.rowChanges.invalidate();
+            detailed = false;
+        }
         while (event.next()) {
             int eventType = event.getType();
             if (eventType == ListEvent.DELETE || eventType == ListEvent.INSERT) {
                 this.structuralChangeEventsToProcess = true;
             }
+            if (detailed) {
+                if (eventType == ListEvent.INSERT) {
+                    this.rowChanges.insert(event.getIndex());
+                } else if (eventType == ListEvent.DELETE) {
+                    this.rowChanges.delete(event.getIndex());
+                } else {
+                    this.rowChanges.update();
+                }
+            }
         }
         this.eventsToProcess = true;
     }
 
+    /**
+     * Fires the inserts and deletes that were accumulated since the last call
+     * as a {@link RowDeleteEvent} with the ranges of the deleted rows before
+     * the changes, followed by a {@link RowInsertEvent} with the ranges of the
+     * inserted rows after the changes. Falls back to a
+     * {@link RowStructuralRefreshEvent} if the changes could not be tracked.
+     * The ranges are copied and the accumulator is reset under the read lock
+     * of the {@link EventList}, so no change gets lost or is reported twice.
+     * The events are fired after the lock is released, so listeners that
+     * acquire the write lock or wait for another thread do not deadlock.
+     * Changes that happen in the meantime are fired with the next call.
+     */
+    private void fireRowChanges() {
+        boolean invalid;
+        List<Range> deleted = null;
+        List<Range> inserted = null;
+        boolean updated = false;
+
+        this.eventList.getReadWriteLock().readLock().lock();
+        try {
+            RowChangeAccumulator changes = this.rowChanges;
+            invalid = changes.isInvalid();
+            if (!invalid) {
+                // the accumulator returns new lists of new ranges
+                deleted = changes.getDeletedRanges();
+                inserted = changes.getInsertedRanges();
+                updated = changes.isUpdated();
+            }
+            changes.reset(this.eventList.size());
+        } finally {
+            this.eventList.getReadWriteLock().readLock().unlock();
+        }
+
+        if (invalid) {
+            fireLayerEvent(new RowStructuralRefreshEvent(getUnderlyingLayer()));
+            return;
+        }
+        if (!deleted.isEmpty()) {
+            fireLayerEvent(new RowDeleteEvent(getUnderlyingLayer(), deleted));
+        }
+        if (!inserted.isEmpty()) {
+            fireLayerEvent(new RowInsertEvent(getUnderlyingLayer(), inserted));
+        }
+        if (updated) {
+            fireLayerEvent(new VisualRefreshEvent(getUnderlyingLayer()));
+        }
+    }
+
     // PropertyChangeListener
 
     @Override
@@ -123,7 +253,87 @@ public void propertyChange(PropertyChangeEvent event) {
                 event.getPropertyName(),
                 event.getOldValue(),
                 event.getNewValue());
-        fireEventFromSWTDisplayThread(updateEvent);
+        if (this.coalescePropertyUpdates) {
+            // keep the old value of the first and the new value of the last
+            // update of a property that is not delivered yet
+            this.propertyUpdates.merge(
+                    new PropertyKey(event.getSource(), event.getPropertyName()),
+                    updateEvent,
+                    (previous, latest) -> new PropertyUpdateEvent<T>(
+                            this,
+                            latest.getSourceBean(),
+                            latest.getPropertyName(),
+                            previous.getOldValue(),
+                            latest.getNewValue()));
+            if (this.propertyUpdatesScheduled.compareAndSet(false, true)) {
+                scheduler.schedule(getPropertyUpdateNotifier(), this.propertyUpdateInterval);
+            }
+        } else {
+            fireEventFromSWTDisplayThread(updateEvent);
+        }
+    }
+
+    /**
+     *
+     * @return The {@link Runnable} that is triggered after the current
+     *         property update interval to deliver the coalesced property
+     *         updates on the SWT Display thread.
+     * @since 2.0
+     */
+    protected Runnable getPropertyUpdateNotifier() {
+        return new Runnable() {
+            @Override
+            public void run() {
+                final long queued = System.nanoTime();
+                if (!GlazedListsEventLayer.this.testMode && Display.getCurrent() == null) {
+                    Display.getDefault().asyncExec(new Runnable() {
+                        @Override
+                        public void run() {
+                            firePropertyUpdates(queued);
+                        }
+                    });
+                } else {
+                    firePropertyUpdates(queued);
+                }
+            }
+        };
+    }
+
+    /**
+     * Fires the coalesced property updates as a single
+     * {@link PropertyUpdateBatchEvent} and adapts the interval for the next
+     * delivery. The interval is derived from the time the delivery waited in
+     * the UI event queue, which contains the painting triggered by the
+     * previous deliveries, plus the time needed to process the batch event.
+     *
+     * @param queued
+     *            The time in nanoseconds at which the delivery was queued.
+     */
+    private void firePropertyUpdates(long queued) {
+        // reset before collecting, so updates added while collecting schedule
+        // a new delivery
+        this.propertyUpdatesScheduled.set(false);
+        if (this.terminated || this.propertyUpdates.isEmpty()) {
+            this.propertyUpdates.clear();
+            return;
+        }
+
+        List<PropertyUpdateEvent<T>> updates = new ArrayList<PropertyUpdateEvent<T>>(this.propertyUpdates.size());
+        for (PropertyKey key : this.propertyUpdates.keySet()) {
+            // remove by key to not lose an update that is merged concurrently
+            PropertyUpdateEvent<T> update = this.propertyUpdates.remove(key);
+            if (update != null) {
+                updates.add(update);
+            }
+        }
+
+        fireLayerEvent(new PropertyUpdateBatchEvent<T>(this, updates));
+        long frameCost = (System.nanoTime() - queued) / 1000000L;
+
+        // the UI thread should not spend more than half of the time on
+        // processing property updates, smoothed to avoid jumping intervals
+        long target = Math.max(MIN_PROPERTY_UPDATE_INTERVAL, Math.min(MAX_PROPERTY_UPDATE_INTERVAL, 2 * frameCost));
+        this.propertyUpdateInterval = (3 * this.propertyUpdateInterval + target) / 4;
     }
 
     /**
@@ -154,6 +364,7 @@ public boolean doCommand(ILayerCommand command) {
         if (!this.terminated && command instanceof DisposeResourcesCommand) {
             this.terminated = true;
             scheduler.unschedule(this.future);
+            this.propertyUpdates.clear();
         }
         return super.doCommand(command);
     }
@@ -175,6 +386,8 @@ public void setEventList(EventList<T> newEventList) {
         this.eventList.removeListEventListener(this);
         this.eventList = newEventList;
         this.eventList.addListEventListener(this);
+        // the tracked changes do not relate to the new list
+        this.rowChanges.invalidate();
     }
 
     /**
@@ -242,6 +455,81 @@ public boolean isActive() {
     public void discardEventsToProcess() {
         this.eventsToProcess = false;
         this.structuralChangeEventsToProcess = false;
+        this.rowChanges.reset(this.eventList.size());
+    }
+
+    /**
+     * Enable or disable the coalescing of property updates. If enabled, the
+     * PropertyChangeEvent(s) are not propagated immediately. Instead the
+     * updates are collected and delivered once per frame as a single
+     * {@link PropertyUpdateBatchEvent}, where multiple updates of the same
+     * property of the same bean are coalesced to one
+     * {@link PropertyUpdateEvent} with the old value of the first and the new
+     * value of the last update. This avoids flooding the UI event queue on
+     * high update rates. By default the coalescing is disabled.
+     *
+     * @param coalesce
+     *            <code>true</code> to coalesce property updates,
+     *            <code>false</code> to propagate them immediately.
+     * @since 2.0
+     */
+    public void setPropertyUpdateCoalescing(boolean coalesce) {
+        this.coalescePropertyUpdates = coalesce;
+    }
+
+    /**
+     * @return <code>true</code> if property updates are coalesced and
+     *         delivered once per frame, <code>false</code> if they are
+     *         propagated immediately.
+     * @since 2.0
+     */
+    public boolean isPropertyUpdateCoalescing() {
+        return this.coalescePropertyUpdates;
+    }
+
+    /**
+     * Enable or disable detailed structural change events. If enabled, the
+     * inserts and deletes received within the conflation interval are merged
+     * into a {@link RowDeleteEvent} and a {@link RowInsertEvent} that only
+     * contain the net changes, instead of firing a
+     * {@link RowStructuralRefreshEvent}. This way the layers above can update
+     * their states incrementally, so for example the selection and the scroll
+     * position are kept on appending rows with a high rate. If the list is
+     * reordered or the changes are too scattered, a
+     * {@link RowStructuralRefreshEvent} is fired as fallback. By default
+     * detailed structural change events are disabled.
+     *
+     * @param detailed
+     *            <code>true</code> to fire detailed structural change events,
+     *            <code>false</code> to fire a
+     *            {@link RowStructuralRefreshEvent} on structural changes.
+     * @since 2.0
+     */
+    public void setDetailedStructuralChanges(boolean detailed) {
+        if (detailed && !this.detailedStructuralChanges) {
+            // changes before enabling were not tracked
+            this.rowChanges.invalidate();
+        }
+        this.detailedStructuralChanges = detailed;
+    }
+
+    /**
+     * @return <code>true</code> if detailed structural change events are
+     *         fired, <code>false</code> if a {@link RowStructuralRefreshEvent}
+     *         is fired on structural changes.
+     * @since 2.0
+     */
+    public boolean isDetailedStructuralChanges() {
+        return this.detailedStructuralChanges;
+    }
+
+    /**
+     * @return The current interval in milliseconds between two deliveries of
+     *         coalesced property updates.
+     * @since 2.0
+     */
+    public long getPropertyUpdateInterval() {
+        return this.propertyUpdateInterval;
     }
 
     // Columns
@@ -257,4 +545,40 @@ public int getColumnPositionByIndex(int columnIndex) {
     public int getRowPositionByIndex(int rowIndex) {
         return this.underlying.getRowPositionByIndex(rowIndex);
     }
+
+    /**
+     * Key of a coalesced property update, which is the identity of the bean
+     * together with the name of the changed property.
+     */
+    private static final class PropertyKey {
+
+        private final Object bean;
+        private final String propertyName;
+
+        PropertyKey(Object bean, String propertyName) {
+            this.bean = bean;
+            this.propertyName = propertyName;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = 31 + System.identityHashCode(this.bean);
+            return 31 * result + ((this.propertyName == null) ? 0 : this.propertyName.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PropertyKey)) {
+                return false;
+            }
+            PropertyKey other = (PropertyKey) obj;
+            return this.bean == other.bean
+                    && (this.propertyName == null
+                            ? other.propertyName == null
+                            : this.propertyName.equals(other.propertyName));
+        }
+    }
 }
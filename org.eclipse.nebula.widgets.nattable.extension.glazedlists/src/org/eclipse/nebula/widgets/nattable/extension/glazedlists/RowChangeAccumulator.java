@@ -0,0 +1,323 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+
+import ca.odell.glazedlists.event.ListEvent;
+
+/**
+ * Accumulates the single inserts and deletes of multiple {@link ListEvent}s
+ * to the net change of the list since the last reset. The current list is
+ * tracked as a sequence of segments, which are either a range of rows that
+ * existed on reset or a number of inserted rows. Appending rows or deleting
+ * rows at the same location only modifies a single segment, so the tracking
+ * costs do not grow with the number of rows in the list.
+ */
+final class RowChangeAccumulator {
+
+    private final int maxSegments;
+    private final List<Segment> segments = new ArrayList<Segment>();
+
+    private int originalSize;
+    private int size;
+    private boolean changed;
+    private boolean updated;
+    private boolean invalid;
+
+    /**
+     *
+     * @param maxSegments
+     *            The maximum number of segments to track. If the changes
+     *            result in more segments, the accumulator gets invalid as the
+     *            changes are too scattered to be processed incrementally.
+     * @param size
+     *            The current size of the list.
+     */
+    RowChangeAccumulator(int maxSegments, int size) {
+        this.maxSegments = maxSegments;
+        reset(size);
+    }
+
+    /**
+     * Start tracking the changes of a list with the given size.
+     *
+     * @param size
+     *            The current size of the list.
+     */
+    synchronized void reset(int size) {
+        this.segments.clear();
+        this.originalSize = size;
+        this.size = size;
+        this.changed = false;
+        this.updated = false;
+        this.invalid = false;
+        if (size > 0) {
+            this.segments.add(new Segment(0, size));
+        }
+    }
+
+    /**
+     * Mark the tracked changes as invalid, e.g. because the list was reordered
+     * or the changes are too scattered. The changes are not tracked anymore
+     * until the next reset.
+     */
+    synchronized void invalidate() {
+        this.segments.clear();
+        this.changed = true;
+        this.invalid = true;
+    }
+
+    /**
+     * @return <code>true</code> if the tracked changes are invalid and a full
+     *         refresh is needed.
+     */
+    synchronized boolean isInvalid() {
+        return this.invalid;
+    }
+
+    /**
+     * @return <code>true</code> if rows were inserted or deleted since the
+     *         last reset.
+     */
+    synchronized boolean isChanged() {
+        return this.changed;
+    }
+
+    /**
+     * Mark that existing rows were updated.
+     */
+    synchronized void update() {
+        this.updated = true;
+    }
+
+    /**
+     * @return <code>true</code> if existing rows were updated since the last
+     *         reset.
+     */
+    synchronized boolean isUpdated() {
+        return this.updated;
+    }
+
+    /**
+     * Track the insert of a row.
+     *
+     * @param index
+     *            The index of the inserted row in the list after the insert.
+     */
+    synchronized void insert(int index) {
+        if (this.invalid) {
+            return;
+        }
+        if (index < 0 || index > this.size) {
+            invalidate();
+            return;
+        }
+        this.changed = true;
+
+        if (index == this.size) {
+            Segment last = this.segments.isEmpty() ? null : this.segments.get(this.segments.size() - 1);
+            if (last != null && last.isInserted()) {
+                last.length++;
+            } else {
+                this.segments.add(new Segment(-1, 1));
+            }
+        } else {
+            int segmentIndex = findSegment(index);
+            Segment segment = this.segments.get(segmentIndex);
+            int offset = index - segment.position;
+            if (segment.isInserted()) {
+                segment.length++;
+            } else if (offset == 0) {
+                Segment previous = (segmentIndex > 0) ? this.segments.get(segmentIndex - 1) : null;
+                if (previous != null && previous.isInserted()) {
+                    previous.length++;
+                } else {
+                    this.segments.add(segmentIndex, new Segment(-1, 1));
+                }
+            } else {
+                // split the original rows around the inserted row
+                this.segments.add(segmentIndex + 1, new Segment(-1, 1));
+                this.segments.add(segmentIndex + 2, new Segment(segment.origin + offset, segment.length - offset));
+                segment.length = offset;
+            }
+        }
+        this.size++;
+        checkSegmentCount();
+    }
+
+    /**
+     * Track the delete of a row.
+     *
+     * @param index
+     *            The index of the deleted row in the list before the delete.
+     */
+    synchronized void delete(int index) {
+        if (this.invalid) {
+            return;
+        }
+        if (index < 0 || index >= this.size) {
+            invalidate();
+            return;
+        }
+        this.changed = true;
+
+        int segmentIndex = findSegment(index);
+        Segment segment = this.segments.get(segmentIndex);
+        int offset = index - segment.position;
+        if (segment.length == 1) {
+            this.segments.remove(segmentIndex);
+            mergeSegments(segmentIndex - 1);
+        } else if (segment.isInserted() || offset == segment.length - 1) {
+            // inserted rows are not distinguished, so removing any of them
+            // is the same as removing the last
+            segment.length--;
+        } else if (offset == 0) {
+            segment.origin++;
+            segment.length--;
+        } else {
+            this.segments.add(segmentIndex + 1, new Segment(segment.origin + offset + 1, segment.length - offset - 1));
+            segment.length = offset;
+        }
+        this.size--;
+        checkSegmentCount();
+    }
+
+    /**
+     * @return The ranges of the deleted rows, based on the row indexes on
+     *         reset.
+     */
+    synchronized List<Range> getDeletedRanges() {
+        List<Range> ranges = new ArrayList<Range>();
+        int expected = 0;
+        for (Segment segment : this.segments) {
+            if (!segment.isInserted()) {
+                if (segment.origin > expected) {
+                    ranges.add(new Range(expected, segment.origin));
+                }
+                expected = segment.origin + segment.length;
+            }
+        }
+        if (expected < this.originalSize) {
+            ranges.add(new Range(expected, this.originalSize));
+        }
+        return ranges;
+    }
+
+    /**
+     * @return The ranges of the inserted rows, based on the current row
+     *         indexes.
+     */
+    synchronized List<Range> getInsertedRanges() {
+        List<Range> ranges = new ArrayList<Range>();
+        int position = 0;
+        for (Segment segment : this.segments) {
+            if (segment.isInserted()) {
+                ranges.add(new Range(position, position + segment.length));
+            }
+            position += segment.length;
+        }
+        return ranges;
+    }
+
+    /**
+     * Find the segment that contains the given row index and update the start
+     * position of that segment. Searches from the end for indexes in the
+     * second half, as most changes happen at the end of a list.
+     *
+     * @param index
+     *            The current row index.
+     * @return The index of the segment that contains the row index.
+     */
+    private int findSegment(int index) {
+        if (index >= this.size / 2) {
+            int end = this.size;
+            for (int i = this.segments.size() - 1; i >= 0; i--) {
+                Segment segment = this.segments.get(i);
+                int start = end - segment.length;
+                if (index >= start) {
+                    segment.position = start;
+                    return i;
+                }
+                end = start;
+            }
+        } else {
+            int start = 0;
+            for (int i = 0; i < this.segments.size(); i++) {
+                Segment segment = this.segments.get(i);
+                if (index < start + segment.length) {
+                    segment.position = start;
+                    return i;
+                }
+                start += segment.length;
+            }
+        }
+        throw new IllegalStateException("No segment for row index " + index); //$NON-NLS-1$
+    }
+
+    /**
+     * Merge the segment at the given index with its successor if both contain
+     * inserted rows or consecutive original rows.
+     *
+     * @param segmentIndex
+     *            The index of the first segment to merge.
+     */
+    private void mergeSegments(int segmentIndex) {
+        if (segmentIndex < 0 || segmentIndex + 1 >= this.segments.size()) {
+            return;
+        }
+        Segment first = this.segments.get(segmentIndex);
+        Segment second = this.segments.get(segmentIndex + 1);
+        if ((first.isInserted() && second.isInserted())
+                || (!first.isInserted() && !second.isInserted() && first.origin + first.length == second.origin)) {
+            first.length += second.length;
+            this.segments.remove(segmentIndex + 1);
+        }
+    }
+
+    private void checkSegmentCount() {
+        if (this.segments.size() > this.maxSegments) {
+            invalidate();
+        }
+    }
+
+    /**
+     * Consecutive rows of the current list that either existed on reset or
+     * were inserted afterwards.
+     */
+    private static final class Segment {
+
+        /**
+         * The row index on reset of the first row, or -1 for inserted rows.
+         */
+        int origin;
+        int length;
+        /**
+         * The current row index of the first row, only valid directly after
+         * the segment was found via {@link RowChangeAccumulator#findSegment}.
+         */
+        int position;
+
+        Segment(int origin, int length) {
+            this.origin = origin;
+            this.length = length;
+        }
+
+        boolean isInserted() {
+            return this.origin < 0;
+        }
+    }
+}
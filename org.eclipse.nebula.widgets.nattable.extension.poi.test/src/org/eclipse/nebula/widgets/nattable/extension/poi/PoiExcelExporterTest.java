@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.poi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.export.IOutputStreamProvider;
+import org.eclipse.nebula.widgets.nattable.grid.data.DummyBodyDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ColumnOverrideLabelAccumulator;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.style.CellStyleAttributes;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.nebula.widgets.nattable.style.Style;
+import org.eclipse.nebula.widgets.nattable.util.GUIHelper;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.widgets.Shell;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PoiExcelExporterTest {
+
+    private static final int ROW_COUNT = 1000;
+
+    private ConfigRegistry configRegistry;
+    private DataLayer dataLayer;
+
+    @Before
+    public void setup() {
+        this.configRegistry = new ConfigRegistry();
+        this.configRegistry.registerConfigAttribute(
+                CellConfigAttributes.CELL_STYLE,
+                createStyle(GUIHelper.COLOR_WHITE));
+        // different labels that resolve to the same style attributes
+        this.configRegistry.registerConfigAttribute(
+                CellConfigAttributes.CELL_STYLE,
+                createStyle(GUIHelper.COLOR_RED),
+                DisplayMode.NORMAL,
+                "RED");
+        this.configRegistry.registerConfigAttribute(
+                CellConfigAttributes.CELL_STYLE,
+                createStyle(GUIHelper.COLOR_RED),
+                DisplayMode.NORMAL,
+                "ALSO_RED");
+        this.configRegistry.registerConfigAttribute(
+                CellConfigAttributes.CELL_STYLE,
+                createStyle(GUIHelper.COLOR_BLUE),
+                DisplayMode.NORMAL,
+                "BLUE");
+
+        this.dataLayer = new DataLayer(new DummyBodyDataProvider(4, ROW_COUNT));
+        ColumnOverrideLabelAccumulator accumulator = new ColumnOverrideLabelAccumulator(this.dataLayer);
+        accumulator.registerColumnOverrides(1, "RED");
+        accumulator.registerColumnOverrides(2, "ALSO_RED");
+        accumulator.registerColumnOverrides(3, "BLUE");
+        this.dataLayer.setConfigLabelAccumulator(accumulator);
+    }
+
+    @Test
+    public void shouldShareCellStylesWithSameAttributes() throws IOException {
+        int defaultStyles = new HSSFWorkbook().getNumCellStyles();
+        int defaultFonts = new HSSFWorkbook().getNumberOfFonts();
+
+        Workbook workbook = new HSSFWorkbook(new ByteArrayInputStream(export(new HSSFExcelExporter(new ByteArrayOutputStreamProvider()))));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals(ROW_COUNT - 1, sheet.getLastRowNum());
+
+        short white = sheet.getRow(0).getCell(0).getCellStyle().getIndex();
+        short red = sheet.getRow(0).getCell(1).getCellStyle().getIndex();
+        short blue = sheet.getRow(0).getCell(3).getCellStyle().getIndex();
+        assertNotEquals(white, red);
+        assertNotEquals(red, blue);
+        assertEquals(red, sheet.getRow(0).getCell(2).getCellStyle().getIndex());
+        assertEquals(red, sheet.getRow(ROW_COUNT - 1).getCell(2).getCellStyle().getIndex());
+
+        // one cell style per distinct attributes regardless of the row
+        // count, and one font for all styles
+        assertEquals(defaultStyles + 3, workbook.getNumCellStyles());
+        assertEquals(defaultFonts + 1, workbook.getNumberOfFonts());
+    }
+
+    @Test
+    public void shouldStreamRowsWithSharedCellStyles() throws IOException {
+        SXSSFExcelExporter exporter = new SXSSFExcelExporter(new ByteArrayOutputStreamProvider());
+        exporter.setRowAccessWindowSize(10);
+        exporter.setCompressTempFiles(true);
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(export(exporter)));
+        Sheet sheet = workbook.getSheetAt(0);
+        assertEquals(ROW_COUNT - 1, sheet.getLastRowNum());
+        assertEquals("Col: 1, Row: 1", sheet.getRow(0).getCell(0).getStringCellValue());
+        assertEquals("Col: 4, Row: 1000", sheet.getRow(ROW_COUNT - 1).getCell(3).getStringCellValue());
+
+        short red = sheet.getRow(0).getCell(1).getCellStyle().getIndex();
+        assertEquals(red, sheet.getRow(ROW_COUNT - 1).getCell(2).getCellStyle().getIndex());
+        assertNotEquals(red, sheet.getRow(ROW_COUNT - 1).getCell(3).getCellStyle().getIndex());
+        // the default style and the three distinct styles
+        assertEquals(4, workbook.getNumCellStyles());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptEmptyRowAccessWindow() {
+        new SXSSFExcelExporter().setRowAccessWindowSize(0);
+    }
+
+    private byte[] export(PoiExcelExporter exporter) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exporter.exportBegin(outputStream);
+        exporter.exportLayerBegin(outputStream, "Test");
+        for (int row = 0; row < this.dataLayer.getRowCount(); row++) {
+            exporter.exportRowBegin(outputStream, row);
+            for (int column = 0; column < this.dataLayer.getColumnCount(); column++) {
+                ILayerCell cell = this.dataLayer.getCellByPosition(column, row);
+                exporter.exportCell(outputStream, cell.getDataValue(), cell, this.configRegistry);
+            }
+            exporter.exportRowEnd(outputStream, row);
+        }
+        exporter.exportLayerEnd(outputStream, "Test");
+        exporter.exportEnd(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static Style createStyle(Color background) {
+        Style style = new Style();
+        style.setAttributeValue(CellStyleAttributes.BACKGROUND_COLOR, background);
+        style.setAttributeValue(CellStyleAttributes.FOREGROUND_COLOR, GUIHelper.COLOR_BLACK);
+        style.setAttributeValue(CellStyleAttributes.FONT, GUIHelper.DEFAULT_FONT);
+        return style;
+    }
+
+    private static class ByteArrayOutputStreamProvider implements IOutputStreamProvider {
+
+        @Override
+        public OutputStream getOutputStream(Shell shell) {
+            return new ByteArrayOutputStream();
+        }
+
+        @Override
+        public Object getResult() {
+            return null;
+        }
+    }
+}
@@ -18,10 +18,12 @@
 import java.io.OutputStream;
 import java.text.NumberFormat;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -39,10 +41,12 @@
 import org.apache.poi.util.IOUtils;
 import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.export.ExportCell;
 import org.eclipse.nebula.widgets.nattable.export.ExportConfigAttributes;
 import org.eclipse.nebula.widgets.nattable.export.ILayerExporter;
 import org.eclipse.nebula.widgets.nattable.export.IOutputStreamProvider;
 import org.eclipse.nebula.widgets.nattable.formula.FormulaParser;
+import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
 import org.eclipse.nebula.widgets.nattable.painter.cell.AbstractTextPainter;
 import org.eclipse.nebula.widgets.nattable.painter.cell.CellPainterWrapper;
@@ -67,7 +71,18 @@ public abstract class PoiExcelExporter implements ILayerExporter {
 
     private final IOutputStreamProvider outputStreamProvider;
 
+    /**
+     * The Excel cell styles by their resolved style attributes. Cells whose
+     * labels resolve to the same attributes share one cell style, as the
+     * number of cell styles in a workbook is limited.
+     */
     private Map<ExcelCellStyleAttributes, CellStyle> xlCellStyles;
+    /**
+     * The Excel cell styles by the labels of the cells, so the style
+     * attributes are only resolved once per label combination.
+     */
+    private Map<StyleLookupKey, CellStyle> xlCellStylesByLabels;
+    private Map<FontKey, Font> xlFonts;
 
     protected Workbook xlWorkbook;
     protected int sheetNumber;
@@ -106,6 +121,8 @@ public OutputStream getOutputStream(Shell shell) {
     @Override
     public void exportBegin(OutputStream outputStream) throws IOException {
         this.xlCellStyles = new HashMap<ExcelCellStyleAttributes, CellStyle>();
+        this.xlCellStylesByLabels = new HashMap<StyleLookupKey, CellStyle>();
+        this.xlFonts = new HashMap<FontKey, Font>();
         this.xlWorkbook = createWorkbook();
         // the hidden column positions are determined by inspection so
         // it needs to be cleared at the beginning
@@ -114,9 +131,15 @@ public void exportBegin(OutputStream outputStream) throws IOException {
 
     @Override
     public void exportEnd(OutputStream outputStream) throws IOException {
-        this.xlWorkbook.write(outputStream);
+        try {
+            this.xlWorkbook.write(outputStream);
+        } finally {
+            disposeWorkbook(this.xlWorkbook);
+        }
 
         this.xlCellStyles = null;
+        this.xlCellStylesByLabels = null;
+        this.xlFonts = null;
         this.xlWorkbook = null;
         this.sheetNumber = 0;
         this.xlSheet = null;
@@ -159,6 +182,18 @@ public void exportRowBegin(OutputStream outputStream, int rowPosition) throws IO
     public void exportRowEnd(OutputStream outputStream, int rowPosition) throws IOException {
     }
 
+    /**
+     * Returns the width of the given column position in the layer of the
+     * given cell. Uses the widths of an {@link ExportCell} snapshot, so the
+     * layer is not accessed if the cell is written outside the UI thread.
+     */
+    private static int getColumnWidth(ILayerCell cell, int columnPosition) {
+        if (cell instanceof ExportCell) {
+            return ((ExportCell) cell).getColumnWidthByPosition(columnPosition);
+        }
+        return cell.getLayer().getColumnWidthByPosition(columnPosition);
+    }
+
     @Override
     public void exportCell(
             OutputStream outputStream,
@@ -168,7 +203,7 @@ public void exportCell(
 
         // if the width is 0 we do not export the cell as it is not visible to
         // the user
-        if (cell.getLayer().getColumnWidthByPosition(cell.getColumnPosition()) == 0) {
+        if (getColumnWidth(cell, cell.getColumnPosition()) == 0) {
             this.hiddenColumnPositions.add(cell.getColumnPosition());
             return;
         }
@@ -200,31 +235,13 @@ public void exportCell(
             return;
         }
 
-        CellStyleProxy cellStyle = new CellStyleProxy(
-                configRegistry,
-                DisplayMode.NORMAL,
-                cell.getConfigLabels());
-        Color fg = cellStyle.getAttributeValue(CellStyleAttributes.FOREGROUND_COLOR);
-        Color bg = cellStyle.getAttributeValue(CellStyleAttributes.BACKGROUND_COLOR);
-        org.eclipse.swt.graphics.Font font = cellStyle.getAttributeValue(CellStyleAttributes.FONT);
-        FontData fontData = font.getFontData()[0];
         String dataFormat = null;
         if (exportDisplayValue instanceof Calendar
                 || exportDisplayValue instanceof Date) {
             dataFormat = getDataFormatString(cell, configRegistry);
         }
 
-        int hAlign = HorizontalAlignmentEnum.getSWTStyle(cellStyle);
-        int vAlign = VerticalAlignmentEnum.getSWTStyle(cellStyle);
-
-        ICellPainter cellPainter = configRegistry.getConfigAttribute(
-                CellConfigAttributes.CELL_PAINTER,
-                DisplayMode.NORMAL,
-                cell.getConfigLabels());
-        boolean vertical = this.applyVerticalTextConfiguration ? isVertical(cellPainter) : false;
-        boolean wrap = this.applyTextWrapping ? wrapText(cellPainter) : false;
-
-        CellStyle xlCellStyle = getExcelCellStyle(fg, bg, fontData, dataFormat, hAlign, vAlign, vertical, wrap, this.applyCellBorders);
+        CellStyle xlCellStyle = getExcelCellStyle(cell.getConfigLabels(), configRegistry, dataFormat);
         xlCell.setCellStyle(xlCellStyle);
 
         int columnSpan = cell.getColumnSpan();
@@ -233,7 +250,7 @@ public void exportCell(
             // as we do not export columns with a width of 0 we need to adjust
             // the spanning
             for (int col = cell.getOriginColumnPosition(); col < (cell.getOriginColumnPosition() + cell.getColumnSpan()); col++) {
-                if (cell.getLayer().getColumnWidthByPosition(col) == 0) {
+                if (getColumnWidth(cell, col) == 0) {
                     columnSpan--;
                 }
             }
@@ -327,13 +344,55 @@ private boolean wrapText(ICellPainter cellPainter) {
         return false;
     }
 
+    /**
+     * Returns the Excel {@link CellStyle} for the given configuration labels.
+     * The NatTable style attributes and the painter are only inspected once
+     * per label combination and not for every exported cell. Label
+     * combinations that resolve to the same attributes get the same
+     * {@link CellStyle}.
+     */
+    private CellStyle getExcelCellStyle(LabelStack configLabels, IConfigRegistry configRegistry, String dataFormat) {
+        StyleLookupKey lookupKey = new StyleLookupKey(configRegistry, configLabels, dataFormat);
+        CellStyle xlCellStyle = this.xlCellStylesByLabels.get(lookupKey);
+        if (xlCellStyle == null) {
+            CellStyleProxy cellStyle = new CellStyleProxy(
+                    configRegistry,
+                    DisplayMode.NORMAL,
+                    configLabels);
+            Color fg = cellStyle.getAttributeValue(CellStyleAttributes.FOREGROUND_COLOR);
+            Color bg = cellStyle.getAttributeValue(CellStyleAttributes.BACKGROUND_COLOR);
+            org.eclipse.swt.graphics.Font font = cellStyle.getAttributeValue(CellStyleAttributes.FONT);
+            FontData fontData = font.getFontData()[0];
+            int hAlign = HorizontalAlignmentEnum.getSWTStyle(cellStyle);
+            int vAlign = VerticalAlignmentEnum.getSWTStyle(cellStyle);
+
+            ICellPainter cellPainter = configRegistry.getConfigAttribute(
+                    CellConfigAttributes.CELL_PAINTER,
+                    DisplayMode.NORMAL,
+                    configLabels);
+            boolean vertical = this.applyVerticalTextConfiguration ? isVertical(cellPainter) : false;
+            boolean wrap = this.applyTextWrapping ? wrapText(cellPainter) : false;
+
+            xlCellStyle = getExcelCellStyle(fg, bg, fontData, dataFormat, hAlign, vAlign, vertical, wrap, this.applyCellBorders);
+            // copy the labels as the key is stored
+            this.xlCellStylesByLabels.put(
+                    new StyleLookupKey(configRegistry, new ArrayList<String>(configLabels), dataFormat), xlCellStyle);
+        }
+        return xlCellStyle;
+    }
+
+    /**
+     * Returns the Excel {@link CellStyle} for the given resolved style
+     * attributes, which is only created once per export.
+     */
     private CellStyle getExcelCellStyle(
             Color fg, Color bg, FontData fontData,
             String dataFormat, int hAlign, int vAlign,
             boolean vertical, boolean wrap, boolean border) {
 
-        CellStyle xlCellStyle = this.xlCellStyles.get(
-                new ExcelCellStyleAttributes(fg, bg, fontData, dataFormat, hAlign, vAlign, vertical, wrap, border));
+        ExcelCellStyleAttributes attributes =
+                new ExcelCellStyleAttributes(fg, bg, fontData, dataFormat, hAlign, vAlign, vertical, wrap, border);
+        CellStyle xlCellStyle = this.xlCellStyles.get(attributes);
 
         if (xlCellStyle == null) {
             xlCellStyle = this.xlWorkbook.createCellStyle();
@@ -344,11 +403,7 @@ private CellStyle getExcelCellStyle(
                 xlCellStyle.setFillPattern(CellStyle.SOLID_FOREGROUND);
             }
 
-            Font xlFont = this.xlWorkbook.createFont();
-            setFontColor(xlFont, fg);
-            xlFont.setFontName(fontData.getName());
-            xlFont.setFontHeightInPoints((short) fontData.getHeight());
-            xlCellStyle.setFont(xlFont);
+            xlCellStyle.setFont(getExcelFont(fg, fontData));
 
             if (vertical)
                 xlCellStyle.setRotation((short) 90);
@@ -391,12 +446,29 @@ private CellStyle getExcelCellStyle(
                 xlCellStyle.setDataFormat(createHelper.createDataFormat().getFormat(dataFormat));
             }
 
-            this.xlCellStyles.put(
-                    new ExcelCellStyleAttributes(fg, bg, fontData, dataFormat, hAlign, vAlign, vertical, wrap, border), xlCellStyle);
+            this.xlCellStyles.put(attributes, xlCellStyle);
         }
         return xlCellStyle;
     }
 
+    /**
+     * Returns the Excel {@link Font} for the given color and font data. Fonts
+     * are shared between the cell styles, as the number of fonts in a workbook
+     * is limited.
+     */
+    private Font getExcelFont(Color fg, FontData fontData) {
+        FontKey fontKey = new FontKey(fg, fontData.getName(), fontData.getHeight());
+        Font xlFont = this.xlFonts.get(fontKey);
+        if (xlFont == null) {
+            xlFont = this.xlWorkbook.createFont();
+            setFontColor(xlFont, fg);
+            xlFont.setFontName(fontData.getName());
+            xlFont.setFontHeightInPoints((short) fontData.getHeight());
+            this.xlFonts.put(fontKey, xlFont);
+        }
+        return xlFont;
+    }
+
     /**
      *
      * @param cell
@@ -539,6 +611,20 @@ public void setApplyCellBorders(boolean apply) {
 
     protected abstract Workbook createWorkbook();
 
+    /**
+     * Called after the workbook was written to the output stream, also if
+     * writing failed. Can be overridden to release resources that are held by
+     * the workbook, e.g. temporary files of streaming workbook implementations.
+     * The default implementation does nothing.
+     *
+     * @param workbook
+     *            The workbook that was written.
+     * @since 2.0
+     */
+    protected void disposeWorkbook(Workbook workbook) {
+        // nothing to dispose by default
+    }
+
     protected abstract void setFillForegroundColor(CellStyle xlCellStyle, Color swtColor);
 
     protected abstract void setFontColor(Font xlFont, Color swtColor);
@@ -660,4 +746,77 @@ private short getPoiRowHeight(int pixel) {
         points *= 21;
         return (short) (points + 32);
     }
+
+    /**
+     * Key for the lookup of the Excel cell style by the configuration labels of
+     * a cell.
+     */
+    private static final class StyleLookupKey {
+
+        private final IConfigRegistry configRegistry;
+        private final List<String> configLabels;
+        private final String dataFormat;
+
+        StyleLookupKey(IConfigRegistry configRegistry, List<String> configLabels, String dataFormat) {
+            this.configRegistry = configRegistry;
+            this.configLabels = configLabels;
+            this.dataFormat = dataFormat;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(this.configRegistry);
+            result = 31 * result + this.configLabels.hashCode();
+            result = 31 * result + ((this.dataFormat == null) ? 0 : this.dataFormat.hashCode());
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof StyleLookupKey))
+                return false;
+            StyleLookupKey other = (StyleLookupKey) obj;
+            return this.configRegistry == other.configRegistry
+                    && this.configLabels.equals(other.configLabels)
+                    && (this.dataFormat == null ? other.dataFormat == null : this.dataFormat.equals(other.dataFormat));
+        }
+    }
+
+    /**
+     * Key for the lookup of the Excel fonts.
+     */
+    private static final class FontKey {
+
+        private final Color color;
+        private final String name;
+        private final int height;
+
+        FontKey(Color color, String name, int height) {
+            this.color = color;
+            this.name = name;
+            this.height = height;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (this.color == null) ? 0 : this.color.hashCode();
+            result = 31 * result + ((this.name == null) ? 0 : this.name.hashCode());
+            result = 31 * result + this.height;
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof FontKey))
+                return false;
+            FontKey other = (FontKey) obj;
+            return (this.color == null ? other.color == null : this.color.equals(other.color))
+                    && (this.name == null ? other.name == null : this.name.equals(other.name))
+                    && this.height == other.height;
+        }
+    }
 }
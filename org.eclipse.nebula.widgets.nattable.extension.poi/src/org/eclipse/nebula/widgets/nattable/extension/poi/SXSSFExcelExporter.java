@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.poi;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.eclipse.nebula.widgets.nattable.export.FileOutputStreamProvider;
+import org.eclipse.nebula.widgets.nattable.export.IOutputStreamProvider;
+import org.eclipse.swt.graphics.Color;
+
+/**
+ * Exporter that streams the export into an Excel XLSX workbook via the POI
+ * {@link SXSSFWorkbook}. Only a window of the most recently exported rows is
+ * kept in memory, older rows are flushed to a temporary file. This way the
+ * memory consumption does not depend on the number of exported rows.
+ * <p>
+ * Rows that are flushed can not be accessed anymore. Therefore the row window
+ * needs to be larger than the largest row span of the exported cells.
+ * </p>
+ * <p>
+ * Note: This exporter needs the <i>org.apache.poi.ooxml</i> bundle, which is
+ * an optional dependency of the NatTable POI extension.
+ * </p>
+ *
+ * @since 2.0
+ */
+public class SXSSFExcelExporter extends PoiExcelExporter {
+
+    private int rowAccessWindowSize = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+    private boolean compressTempFiles = false;
+
+    public SXSSFExcelExporter() {
+        super(
+                new FileOutputStreamProvider("table_export.xlsx", new String[] { "Excel Workbook (*.xlsx)" }, new String[] { "*.xlsx" })); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    public SXSSFExcelExporter(IOutputStreamProvider outputStreamProvider) {
+        super(outputStreamProvider);
+    }
+
+    @Override
+    protected Workbook createWorkbook() {
+        return new SXSSFWorkbook(new XSSFWorkbook(), this.rowAccessWindowSize, this.compressTempFiles);
+    }
+
+    /**
+     * Deletes the temporary files of the streaming workbook.
+     */
+    @Override
+    protected void disposeWorkbook(Workbook workbook) {
+        ((SXSSFWorkbook) workbook).dispose();
+    }
+
+    @Override
+    protected void setFillForegroundColor(CellStyle xlCellStyle, Color swtColor) {
+        ((XSSFCellStyle) xlCellStyle).setFillForegroundColor(getXSSFColor(swtColor));
+    }
+
+    @Override
+    protected void setFontColor(Font xlFont, Color swtColor) {
+        ((XSSFFont) xlFont).setColor(getXSSFColor(swtColor));
+    }
+
+    private XSSFColor getXSSFColor(Color swtColor) {
+        return new XSSFColor(new java.awt.Color(swtColor.getRed(), swtColor.getGreen(), swtColor.getBlue()));
+    }
+
+    /**
+     * Configure the number of rows that are kept in memory before they are
+     * flushed to the temporary file. Takes effect for the next export.
+     * Default is {@link SXSSFWorkbook#DEFAULT_WINDOW_SIZE}.
+     *
+     * @param rowAccessWindowSize
+     *            The number of rows that are kept in memory, or -1 to keep all
+     *            rows in memory.
+     */
+    public void setRowAccessWindowSize(int rowAccessWindowSize) {
+        if (rowAccessWindowSize == 0 || rowAccessWindowSize < -1) {
+            throw new IllegalArgumentException("The row access window size needs to be greater than 0 or -1"); //$NON-NLS-1$
+        }
+        this.rowAccessWindowSize = rowAccessWindowSize;
+    }
+
+    /**
+     * @return The number of rows that are kept in memory before they are
+     *         flushed to the temporary file.
+     */
+    public int getRowAccessWindowSize() {
+        return this.rowAccessWindowSize;
+    }
+
+    /**
+     * Configure whether the temporary files should be compressed. Compressing
+     * reduces the needed disk space, which can be large for big exports, at
+     * the cost of performance. Takes effect for the next export. Default is
+     * <code>false</code>.
+     *
+     * @param compressTempFiles
+     *            <code>true</code> if the temporary files should be gzip
+     *            compressed, <code>false</code> if not.
+     */
+    public void setCompressTempFiles(boolean compressTempFiles) {
+        this.compressTempFiles = compressTempFiles;
+    }
+
+    /**
+     * @return <code>true</code> if the temporary files are compressed.
+     */
+    public boolean isCompressTempFiles() {
+        return this.compressTempFiles;
+    }
+}
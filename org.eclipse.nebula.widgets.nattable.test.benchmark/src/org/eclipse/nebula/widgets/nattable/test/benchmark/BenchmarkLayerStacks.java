@@ -0,0 +1,347 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.data.IColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.ListDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.ReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.dataset.car.Car;
+import org.eclipse.nebula.widgets.nattable.dataset.car.CarService;
+import org.eclipse.nebula.widgets.nattable.dataset.car.Classification;
+import org.eclipse.nebula.widgets.nattable.dataset.car.Feedback;
+import org.eclipse.nebula.widgets.nattable.dataset.car.Motor;
+import org.eclipse.nebula.widgets.nattable.dataset.person.Person;
+import org.eclipse.nebula.widgets.nattable.dataset.person.Person.Gender;
+import org.eclipse.nebula.widgets.nattable.group.ColumnGroupModel;
+import org.eclipse.nebula.widgets.nattable.hideshow.ColumnHideShowLayer;
+import org.eclipse.nebula.widgets.nattable.hideshow.RowHideShowLayer;
+import org.eclipse.nebula.widgets.nattable.hierarchical.HierarchicalHelper;
+import org.eclipse.nebula.widgets.nattable.hierarchical.HierarchicalReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.hierarchical.HierarchicalSpanningDataProvider;
+import org.eclipse.nebula.widgets.nattable.hierarchical.HierarchicalTreeLayer;
+import org.eclipse.nebula.widgets.nattable.hierarchical.HierarchicalWrapper;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.SpanningDataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ColumnLabelAccumulator;
+import org.eclipse.nebula.widgets.nattable.layer.stack.ColumnGroupBodyLayerStack;
+import org.eclipse.nebula.widgets.nattable.layer.stack.DefaultBodyLayerStack;
+import org.eclipse.nebula.widgets.nattable.reorder.ColumnReorderLayer;
+import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
+import org.eclipse.nebula.widgets.nattable.tree.ITreeData;
+import org.eclipse.nebula.widgets.nattable.tree.TreeLayer;
+import org.eclipse.nebula.widgets.nattable.tree.TreeRowModel;
+import org.eclipse.nebula.widgets.nattable.tree.painter.IndentedTreeImagePainter;
+import org.eclipse.nebula.widgets.nattable.util.IClientAreaProvider;
+import org.eclipse.nebula.widgets.nattable.viewport.ViewportLayer;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * Factory for the body layer stacks that are measured by the benchmarks. All
+ * stacks are created without a NatTable and without the default
+ * configurations, so they can be used without a display.
+ */
+public final class BenchmarkLayerStacks {
+
+    /**
+     * The client area that is used for the viewport of the created stacks.
+     * Roughly a full HD monitor.
+     */
+    public static final Rectangle CLIENT_AREA = new Rectangle(0, 0, 1920, 1080);
+
+    static final String[] PERSON_PROPERTY_NAMES = {
+            "firstName",
+            "lastName",
+            "gender",
+            "married",
+            "birthday" };
+
+    private BenchmarkLayerStacks() {
+        // private default constructor for helper class
+    }
+
+    /**
+     * The layer stack compositions that can be benchmarked.
+     */
+    public enum StackType {
+        /**
+         * {@link DefaultBodyLayerStack} on top of a {@link DataLayer}.
+         */
+        DEFAULT,
+        /**
+         * {@link ColumnGroupBodyLayerStack} on top of a {@link DataLayer} with
+         * two column groups that cover all columns.
+         */
+        COLUMN_GROUP,
+        /**
+         * {@link TreeLayer} on top of a {@link SelectionLayer} with one tree
+         * node for every ten rows.
+         */
+        TREE,
+        /**
+         * {@link HierarchicalTreeLayer} on top of a {@link SpanningDataLayer}
+         * for the car/motor/feedback object graph.
+         */
+        HIERARCHICAL
+    }
+
+    /**
+     * A created layer stack. Gives access to the top layer that is used in a
+     * NatTable and the layer right below the {@link ViewportLayer} which
+     * exposes all rows and columns.
+     */
+    public static class BenchmarkStack {
+
+        /**
+         * The top most layer of the stack, a {@link ViewportLayer} that is
+         * configured with {@link BenchmarkLayerStacks#CLIENT_AREA}.
+         */
+        public final ViewportLayer viewportLayer;
+        /**
+         * The layer directly below the {@link ViewportLayer}. All rows and
+         * columns are accessible via this layer.
+         */
+        public final ILayer scrollableLayer;
+
+        BenchmarkStack(ViewportLayer viewportLayer, ILayer scrollableLayer) {
+            this.viewportLayer = viewportLayer;
+            this.scrollableLayer = scrollableLayer;
+
+            this.viewportLayer.setClientAreaProvider(new IClientAreaProvider() {
+
+                @Override
+                public Rectangle getClientArea() {
+                    return CLIENT_AREA;
+                }
+            });
+        }
+    }
+
+    /**
+     * Creates the layer stack of the given type.
+     *
+     * @param type
+     *            The type of stack to create.
+     * @param rowCount
+     *            The minimum number of rows the stack should show. The
+     *            hierarchical stack rounds up to complete object graphs.
+     * @return The created stack.
+     */
+    public static BenchmarkStack createStack(StackType type, int rowCount) {
+        switch (type) {
+            case DEFAULT:
+                return createDefaultStack(rowCount);
+            case COLUMN_GROUP:
+                return createColumnGroupStack(rowCount);
+            case TREE:
+                return createTreeStack(rowCount);
+            case HIERARCHICAL:
+                return createHierarchicalStack(rowCount);
+            default:
+                throw new IllegalArgumentException("Unsupported stack type " + type); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Creates a list of persons with cheap deterministic content. Every tenth
+     * person starts a new last name, which is used as tree parent by the
+     * {@link StackType#TREE} stack.
+     *
+     * @param rowCount
+     *            The number of persons to create.
+     * @return The list of persons.
+     */
+    public static List<Person> createPersons(int rowCount) {
+        List<Person> persons = new ArrayList<>(rowCount);
+        Date birthday = new Date(0);
+        for (int i = 0; i < rowCount; i++) {
+            persons.add(new Person(
+                    i,
+                    "First" + (i % 97), //$NON-NLS-1$
+                    "Last" + (i / 10), //$NON-NLS-1$
+                    (i % 2 == 0) ? Gender.MALE : Gender.FEMALE,
+                    i % 3 == 0,
+                    birthday));
+        }
+        return persons;
+    }
+
+    static DataLayer createPersonDataLayer(List<Person> persons) {
+        IColumnPropertyAccessor<Person> accessor = new ReflectiveColumnPropertyAccessor<>(PERSON_PROPERTY_NAMES);
+        IDataProvider dataProvider = new ListDataProvider<>(persons, accessor);
+        DataLayer dataLayer = new DataLayer(dataProvider);
+        dataLayer.setConfigLabelAccumulator(new ColumnLabelAccumulator());
+        return dataLayer;
+    }
+
+    private static BenchmarkStack createDefaultStack(int rowCount) {
+        DefaultBodyLayerStack stack = new DefaultBodyLayerStack(createPersonDataLayer(createPersons(rowCount)), false);
+        return new BenchmarkStack(stack.getViewportLayer(), stack.getSelectionLayer());
+    }
+
+    private static BenchmarkStack createColumnGroupStack(int rowCount) {
+        ColumnGroupModel model = new ColumnGroupModel();
+        model.addColumnsIndexesToGroup("Name", 0, 1); //$NON-NLS-1$
+        model.addColumnsIndexesToGroup("Details", 2, 3, 4); //$NON-NLS-1$
+
+        ColumnGroupBodyLayerStack stack = new ColumnGroupBodyLayerStack(
+                createPersonDataLayer(createPersons(rowCount)),
+                false,
+                model);
+        return new BenchmarkStack(stack.getViewportLayer(), stack.getSelectionLayer());
+    }
+
+    private static BenchmarkStack createTreeStack(int rowCount) {
+        List<Person> persons = createPersons(rowCount);
+        DataLayer dataLayer = createPersonDataLayer(persons);
+
+        RowHideShowLayer rowHideShowLayer = new RowHideShowLayer(dataLayer);
+        SelectionLayer selectionLayer = new SelectionLayer(rowHideShowLayer, false);
+        TreeLayer treeLayer = new TreeLayer(
+                selectionLayer,
+                new TreeRowModel<>(new BlockTreeData(persons)),
+                new IndentedTreeImagePainter(10, null),
+                false);
+        ViewportLayer viewportLayer = new ViewportLayer(treeLayer);
+        return new BenchmarkStack(viewportLayer, treeLayer);
+    }
+
+    private static BenchmarkStack createHierarchicalStack(int rowCount) {
+        String[] propertyNames = CarService.getPropertyNamesCompact();
+        List<HierarchicalWrapper> data = HierarchicalHelper.deNormalize(createCars(rowCount), false, propertyNames);
+
+        HierarchicalReflectiveColumnPropertyAccessor accessor =
+                new HierarchicalReflectiveColumnPropertyAccessor(propertyNames);
+        ListDataProvider<HierarchicalWrapper> dataProvider = new ListDataProvider<>(data, accessor);
+        SpanningDataLayer dataLayer = new SpanningDataLayer(
+                new HierarchicalSpanningDataProvider(dataProvider, propertyNames));
+        dataLayer.setConfigLabelAccumulator(new ColumnLabelAccumulator());
+
+        ColumnReorderLayer columnReorderLayer = new ColumnReorderLayer(dataLayer, false);
+        ColumnHideShowLayer columnHideShowLayer = new ColumnHideShowLayer(columnReorderLayer);
+        RowHideShowLayer rowHideShowLayer = new RowHideShowLayer(columnHideShowLayer);
+        SelectionLayer selectionLayer = new SelectionLayer(rowHideShowLayer, false);
+        HierarchicalTreeLayer treeLayer = new HierarchicalTreeLayer(selectionLayer, data, propertyNames, false);
+        ViewportLayer viewportLayer = new ViewportLayer(treeLayer);
+        return new BenchmarkStack(viewportLayer, treeLayer);
+    }
+
+    /**
+     * Creates the car object graph. Every car has two motors with two
+     * feedbacks each, which results in four rows per car after
+     * de-normalization.
+     */
+    private static List<Car> createCars(int rowCount) {
+        int carCount = (rowCount + 3) / 4;
+        List<Car> cars = new ArrayList<>(carCount);
+        Date creationTime = new Date(0);
+        for (int i = 0; i < carCount; i++) {
+            Car car = new Car("Manufacturer" + (i % 50), "Model" + i); //$NON-NLS-1$ //$NON-NLS-2$
+            Motor motor1 = new Motor("M" + i + "a", "100", "KW", 200); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            motor1.setFeedbacks(Arrays.asList(
+                    new Feedback(creationTime, Classification.POSITIVE, "good"), //$NON-NLS-1$
+                    new Feedback(creationTime, Classification.NEUTRAL, "ok"))); //$NON-NLS-1$
+            Motor motor2 = new Motor("M" + i + "b", "150", "KW", 250); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            motor2.setFeedbacks(Arrays.asList(
+                    new Feedback(creationTime, Classification.NEGATIVE, "bad"), //$NON-NLS-1$
+                    new Feedback(creationTime, Classification.POSITIVE, "fast"))); //$NON-NLS-1$
+            car.setMotors(Arrays.asList(motor1, motor2));
+            cars.add(car);
+        }
+        return cars;
+    }
+
+    /**
+     * {@link ITreeData} that interprets the person list as consecutive blocks
+     * of ten, where the first element of a block is the parent of the
+     * following nine elements. Avoids any lookups so the benchmark measures
+     * the {@link TreeLayer} and not the tree data.
+     */
+    private static class BlockTreeData implements ITreeData<Person> {
+
+        private static final int BLOCK_SIZE = 10;
+
+        private final List<Person> persons;
+
+        BlockTreeData(List<Person> persons) {
+            this.persons = persons;
+        }
+
+        @Override
+        public int getDepthOfData(Person object) {
+            return getDepthOfData(object.getId());
+        }
+
+        @Override
+        public int getDepthOfData(int index) {
+            return (index % BLOCK_SIZE == 0) ? 0 : 1;
+        }
+
+        @Override
+        public Person getDataAtIndex(int index) {
+            return isValidIndex(index) ? this.persons.get(index) : null;
+        }
+
+        @Override
+        public int indexOf(Person child) {
+            // ids are created in list order
+            return child.getId();
+        }
+
+        @Override
+        public boolean hasChildren(Person object) {
+            return hasChildren(object.getId());
+        }
+
+        @Override
+        public boolean hasChildren(int index) {
+            return getDepthOfData(index) == 0 && isValidIndex(index + 1);
+        }
+
+        @Override
+        public List<Person> getChildren(Person object) {
+            return getChildren(object.getId());
+        }
+
+        @Override
+        public List<Person> getChildren(Person object, boolean fullDepth) {
+            return getChildren(object.getId());
+        }
+
+        @Override
+        public List<Person> getChildren(int index) {
+            if (!hasChildren(index)) {
+                return Collections.emptyList();
+            }
+            int end = Math.min(index + BLOCK_SIZE, this.persons.size());
+            return this.persons.subList(index + 1, end);
+        }
+
+        @Override
+        public int getElementCount() {
+            return this.persons.size();
+        }
+
+        @Override
+        public boolean isValidIndex(int index) {
+            return index >= 0 && index < this.persons.size();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.test.benchmark.BenchmarkLayerStacks.BenchmarkStack;
+import org.eclipse.nebula.widgets.nattable.test.benchmark.BenchmarkLayerStacks.StackType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the random access methods of {@link ILayer} that are called for
+ * every cell on painting, selection handling and scrolling. The access is
+ * performed on the layer directly below the viewport, so every call passes
+ * through all transformations of the stack for the whole row range.
+ * <p>
+ * Every invocation accesses a different cell, taken from a precomputed
+ * sequence of random positions, so the results are not dominated by
+ * position caches in the layers.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@State(Scope.Benchmark)
+public class LayerStackBenchmark {
+
+    private static final int POSITION_COUNT = 1 << 16;
+    private static final int POSITION_MASK = POSITION_COUNT - 1;
+
+    @Param({ "DEFAULT", "COLUMN_GROUP", "TREE", "HIERARCHICAL" })
+    public StackType stackType;
+
+    @Param({ "1000000" })
+    public int rowCount;
+
+    private ILayer layer;
+
+    private int[] columnPositions;
+    private int[] rowPositions;
+    private int[] yPixels;
+
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkStack stack = BenchmarkLayerStacks.createStack(this.stackType, this.rowCount);
+        this.layer = stack.scrollableLayer;
+
+        int columns = this.layer.getColumnCount();
+        int rows = this.layer.getRowCount();
+        int height = this.layer.getHeight();
+
+        // fixed seed to get comparable results between runs
+        Random random = new Random(42);
+        this.columnPositions = new int[POSITION_COUNT];
+        this.rowPositions = new int[POSITION_COUNT];
+        this.yPixels = new int[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            this.columnPositions[i] = random.nextInt(columns);
+            this.rowPositions[i] = random.nextInt(rows);
+            this.yPixels[i] = random.nextInt(height);
+        }
+    }
+
+    private int next() {
+        this.index = (this.index + 1) & POSITION_MASK;
+        return this.index;
+    }
+
+    @Benchmark
+    public ILayerCell getCellByPosition() {
+        int i = next();
+        return this.layer.getCellByPosition(this.columnPositions[i], this.rowPositions[i]);
+    }
+
+    @Benchmark
+    public Object getDataValueByPosition() {
+        int i = next();
+        return this.layer.getDataValueByPosition(this.columnPositions[i], this.rowPositions[i]);
+    }
+
+    @Benchmark
+    public LabelStack getConfigLabelsByPosition() {
+        int i = next();
+        return this.layer.getConfigLabelsByPosition(this.columnPositions[i], this.rowPositions[i]);
+    }
+
+    @Benchmark
+    public int getStartXOfColumnPosition() {
+        return this.layer.getStartXOfColumnPosition(this.columnPositions[next()]);
+    }
+
+    @Benchmark
+    public int getStartYOfRowPosition() {
+        return this.layer.getStartYOfRowPosition(this.rowPositions[next()]);
+    }
+
+    @Benchmark
+    public int getRowPositionByY() {
+        return this.layer.getRowPositionByY(this.yPixels[next()]);
+    }
+
+    /**
+     * Resolves the cells, values and labels of all columns in a row the same
+     * way the CellLayerPainter does, without actually painting.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void resolveRow(Blackhole blackhole) {
+        int row = this.rowPositions[next()];
+        int columns = this.layer.getColumnCount();
+        for (int column = 0; column < columns; column++) {
+            ILayerCell cell = this.layer.getCellByPosition(column, row);
+            blackhole.consume(cell.getDataValue());
+            blackhole.consume(cell.getConfigLabels());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.benchmark;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar. Accepts the same arguments as the default
+ * JMH main class, but
+ * <ul>
+ * <li>writes the results in JSON format to
+ * <code>nattable-benchmark-&lt;timestamp&gt;.json</code> if no result file is
+ * specified via <code>-rf</code>/<code>-rff</code></li>
+ * <li>skips the {@link ViewportPaintBenchmark} if no display is available,
+ * so the layer benchmarks can be executed on headless build servers</li>
+ * </ul>
+ * Set the system property <code>nattable.benchmark.paint=true</code> to force
+ * the execution of the paint benchmark, e.g. if the display can not be
+ * detected.
+ */
+public final class NatTableBenchmarkRunner {
+
+    private NatTableBenchmarkRunner() {
+        // private default constructor for main class
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        CommandLineOptions commandLineOptions;
+        try {
+            commandLineOptions = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Error parsing command line:"); //$NON-NLS-1$
+            System.err.println(" " + e.getMessage()); //$NON-NLS-1$
+            System.exit(1);
+            return;
+        }
+
+        if (commandLineOptions.shouldHelp()) {
+            commandLineOptions.showHelp();
+            return;
+        }
+
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLineOptions);
+
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            builder.include(NatTableBenchmarkRunner.class.getPackage().getName() + ".*"); //$NON-NLS-1$
+        }
+
+        if (!commandLineOptions.getResultFormat().hasValue()
+                && !commandLineOptions.getResult().hasValue()) {
+            String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()); //$NON-NLS-1$
+            builder.resultFormat(ResultFormatType.JSON)
+                    .result("nattable-benchmark-" + timestamp + ".json"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
+        if (!Boolean.getBoolean("nattable.benchmark.paint") && !isDisplayAvailable()) { //$NON-NLS-1$
+            System.out.println("No display available, skipping " + ViewportPaintBenchmark.class.getSimpleName()); //$NON-NLS-1$
+            builder.exclude(ViewportPaintBenchmark.class.getName());
+        }
+
+        new Runner(builder.build()).run();
+    }
+
+    /**
+     * Checks if a display connection can be established without loading SWT
+     * in the runner process. On Windows and Mac a display is always
+     * available, on other systems the DISPLAY or WAYLAND_DISPLAY environment
+     * variables need to be set.
+     *
+     * @return <code>true</code> if SWT is expected to be able to connect to a
+     *         display.
+     */
+    private static boolean isDisplayAvailable() {
+        String os = System.getProperty("os.name", "").toLowerCase(); //$NON-NLS-1$ //$NON-NLS-2$
+        if (os.startsWith("windows") || os.startsWith("mac")) { //$NON-NLS-1$ //$NON-NLS-2$
+            return true;
+        }
+        return isSet(System.getenv("DISPLAY")) || isSet(System.getenv("WAYLAND_DISPLAY")); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static boolean isSet(String value) {
+        return value != null && !value.isEmpty();
+    }
+}
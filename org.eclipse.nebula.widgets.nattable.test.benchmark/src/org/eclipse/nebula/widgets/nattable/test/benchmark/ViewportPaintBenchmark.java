@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Original authors and others.
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.DefaultNatTableStyleConfiguration;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.selection.config.DefaultSelectionStyleConfiguration;
+import org.eclipse.nebula.widgets.nattable.test.benchmark.BenchmarkLayerStacks.BenchmarkStack;
+import org.eclipse.nebula.widgets.nattable.test.benchmark.BenchmarkLayerStacks.StackType;
+import org.eclipse.nebula.widgets.nattable.viewport.ViewportLayer;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks painting a full viewport of the body layer stack into an
+ * offscreen {@link Image}, without creating a NatTable or a Shell. Each
+ * invocation scrolls the viewport to another random location before
+ * painting.
+ * <p>
+ * SWT needs a display connection to create the image, so this benchmark
+ * requires a X server on Linux, e.g. Xvfb on a build server.
+ * {@link NatTableBenchmarkRunner} skips it if no display is available.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@State(Scope.Benchmark)
+public class ViewportPaintBenchmark {
+
+    private static final int ORIGIN_COUNT = 1024;
+
+    @Param({ "DEFAULT", "COLUMN_GROUP", "TREE", "HIERARCHICAL" })
+    public StackType stackType;
+
+    @Param({ "1000000" })
+    public int rowCount;
+
+    private Display display;
+    private Image image;
+    private GC gc;
+
+    private ViewportLayer viewportLayer;
+    private IConfigRegistry configRegistry;
+
+    private int[] originY;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.display = Display.getDefault();
+
+        BenchmarkStack stack = BenchmarkLayerStacks.createStack(this.stackType, this.rowCount);
+        this.viewportLayer = stack.viewportLayer;
+
+        this.configRegistry = new ConfigRegistry();
+        new DefaultNatTableStyleConfiguration().configureRegistry(this.configRegistry);
+        new DefaultSelectionStyleConfiguration().configureRegistry(this.configRegistry);
+
+        Rectangle area = BenchmarkLayerStacks.CLIENT_AREA;
+        this.image = new Image(this.display, area.width, area.height);
+        this.gc = new GC(this.image);
+
+        int maxOrigin = Math.max(1, stack.scrollableLayer.getHeight() - area.height);
+        Random random = new Random(42);
+        this.originY = new int[ORIGIN_COUNT];
+        for (int i = 0; i < ORIGIN_COUNT; i++) {
+            this.originY[i] = random.nextInt(maxOrigin);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.gc.dispose();
+        this.image.dispose();
+    }
+
+    @Benchmark
+    public void paintViewport() {
+        this.index = (this.index + 1) % ORIGIN_COUNT;
+        this.viewportLayer.setOriginY(this.originY[this.index]);
+
+        this.viewportLayer.getLayerPainter().paintLayer(
+                this.viewportLayer,
+                this.gc,
+                0,
+                0,
+                BenchmarkLayerStacks.CLIENT_AREA,
+                this.configRegistry);
+    }
+}